@@ -3,7 +3,7 @@ package it.uniroma3.weir;
 import it.uniroma3.weir.integration.Match;
 import it.uniroma3.weir.model.Attribute;
 import it.uniroma3.weir.model.Mapping;
-import it.uniroma3.weir.structures.MapPairRepository;
+import it.uniroma3.weir.structures.OrderedPairRepository;
 
 import java.io.Serializable;
 import java.util.*;
@@ -13,7 +13,7 @@ import java.util.*;
   * VC: Rename into DomainMatchRepository?
   *     sui matches si lavora direttamente su coppie di attributi (di vari siti)
  */
-public class MatchRepository extends MapPairRepository<Match, Attribute>
+public class MatchRepository extends OrderedPairRepository<Match, Attribute>
 							 implements Serializable {
 
 	static final private long serialVersionUID = 2464872423035063431L;
@@ -88,24 +88,16 @@ public class MatchRepository extends MapPairRepository<Match, Attribute>
 		return ( match==null ? 1d : match.distance() );
 	}
 	
-	public MatchRepository top(int k) {
-		final int n = this.size();
-		if (k<n) return this;
-		return new MatchRepository(order().subList(0, Math.min(k,n)));
-	}
-
-	public Match min() {
-		return Collections.min(getAllMatches());
+	@Override
+	protected double key(Match match) {
+		return match.distance();
 	}
 
-	public Match max() {
-		return Collections.max(getAllMatches());
-	}
-
-	public LinkedList<Match> order() {
-		final LinkedList<Match> similarities = getAllMatches();
-		Collections.sort(similarities);
-		return similarities;
+	/**
+	 * @return the <tt>k</tt> matches at the smallest distances
+	 */
+	public MatchRepository top(int k) {
+		return new MatchRepository(first(k));
 	}
 
 	public LinkedList<Match> getAllMatches() {
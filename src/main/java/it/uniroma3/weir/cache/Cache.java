@@ -1,17 +1,55 @@
 package it.uniroma3.weir.cache;
 
 import it.uniroma3.hlog.HypertextualLogger;
+import it.uniroma3.weir.cache.codec.CacheCodec;
+import it.uniroma3.weir.cache.codec.CacheCodecs;
+import it.uniroma3.weir.cache.codec.CacheHeader;
+import it.uniroma3.weir.cache.codec.LZBlockInputStream;
+import it.uniroma3.weir.cache.codec.LZBlockOutputStream;
+import it.uniroma3.weir.cache.codec.StaleCacheEntryException;
 import it.uniroma3.weir.configuration.WeirConfig;
+import it.uniroma3.weir.metrics.Metrics;
+import static it.uniroma3.weir.configuration.Constants.CACHE_COMPRESSION;
+import static it.uniroma3.weir.configuration.Constants.CACHE_DISK_QUOTA;
+import static it.uniroma3.weir.configuration.Constants.CACHE_MAX_AGE;
+import static it.uniroma3.weir.configuration.Constants.CACHE_MANIFEST_BATCH;
 import static it.uniroma3.weir.configuration.Constants.CACHING_ENABLED;
 import static it.uniroma3.hlog.HypertextualUtils.linkTo;
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
 
 import java.io.*;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
 /**
  * A persistent cache based on java object serialization to save
  * the data of partial heavy computations such as extracted data
  * and linkage information over a whole domain composed of several
  * websites, each with thousands of webpages.
  * 
+ * The data are encoded by a {@link CacheCodec} (see 
+ * {@link Constants#CACHE_CODEC}), possibly compressed (see 
+ * {@link Constants#CACHE_COMPRESSION}), and preceded by a
+ * {@link CacheHeader}: cache files written by another codec,
+ * or that cannot be decoded at all, are just cache misses.
+ * A cache file is first written aside, and then renamed:
+ * an interrupted run never leaves a truncated cache file.
+ * 
+ * The cache has two tiers: the encoded data recently used are also
+ * kept in memory (see {@link MemoryTier}), and the cache files are
+ * recorded in a {@link CacheManifest}, to evict the least recently
+ * used ones beyond a disk quota (see {@link Constants#CACHE_DISK_QUOTA})
+ * or not accessed for too long (see {@link Constants#CACHE_MAX_AGE}).
+ * The accesses are recorded in memory only: the manifest is saved
+ * once a batch of cache files is stored, and by {@link #flush()}.
+ * 
+ * The cache files are named after their {@link Fingerprint} only, and
+ * shared by all the experiments (see {@link CacheOrganizer}): the
+ * manifest records which experiments use them, to collect the
+ * cache files no longer used by any experiment.
+ * 
  * The cached data are <i>fingerprinted</i>, i.e., they are uniquely
  * associated with a {@link Fingerprint} that is required to recover
  * and to store the cached data.
@@ -27,11 +65,34 @@ import java.io.*;
 public class Cache<T> {
 
 	static private final HypertextualLogger log = HypertextualLogger.getLogger();
-		
+
+	static final private long MB = 1024L*1024L;
+
 	private CacheOrganizer organizer;
-	
+
+	private MemoryTier memory;
+
 	public Cache() {
 		this.organizer = new CacheOrganizer();
+		this.memory = MemoryTier.getInstance();
+	}
+
+	/**
+	 * Save the accesses to the cache files recorded so far: a failure,
+	 * e.g., of a read-only cache, is just a warning
+	 */
+	static public void flush() {
+		if (!WeirConfig.getBoolean(CACHING_ENABLED)) return;
+		save(CacheManifest.of(CacheOrganizer.getCacheRoot()));
+	}
+
+	static private void save(CacheManifest manifest) {
+		try {
+			manifest.save();
+		} catch (IllegalStateException e) {
+			log.warn("cache manifest not saved: "+e.getMessage());
+			Metrics.counter("cache.manifest.failures").increment();
+		}
 	}
 	
 	@SuppressWarnings("unchecked")
@@ -40,37 +101,156 @@ public class Cache<T> {
 			log.trace("caching disabled");
 			return null;
 		}
+		File toLoad = null;
 		try {
 			log.trace("caching enabled");
-			final File toLoad = this.organizer.getCacheDatafile(fingerprint);
+			toLoad = this.organizer.getCacheDatafile(fingerprint);
 			log.trace("the fingerprint of the cached data is: "+fingerprint);
-			log.trace("loading cached data from " + linkTo(toLoad));
-			if (!toLoad.exists()) {
-				log.trace("cache file not found");
-				return null;
+			final byte[] inMemory = this.memory.get(toLoad.getAbsolutePath());
+			final Object cachedData;
+			if (inMemory!=null) {
+				log.trace("loading cached data from memory");
+				cachedData = load(new ByteArrayInputStream(inMemory), fingerprint);
+				Metrics.counter("cache.memory.hits").increment();
+			} else {
+				log.trace("loading cached data from " + linkTo(toLoad));
+				if (!toLoad.exists()) {
+					log.trace("cache file not found");
+					return null;
+				}
+				cachedData = loadFromDisk(toLoad, fingerprint);
+				Metrics.histogram("cache.bytes.read").update(toLoad.length());
 			}
-			final FileInputStream fis = new FileInputStream(toLoad);
-			final ObjectInputStream in = new ObjectInputStream(fis);
-			final Object cachedData = in.readObject();
-			fis.close();
 			log.trace("cached data loaded");
+			final CacheManifest manifest = getManifest();
+			manifest.touch(toLoad, System.currentTimeMillis());
+			reference(manifest, toLoad); // n.b. saved later, see flush()
 			return (T)cachedData;
-		} catch (Exception e) {
-			throw new IllegalStateException(e);
+		} catch (StaleCacheEntryException e) {
+			log.warn("stale cache file ignored: "+e.getMessage());
+			Metrics.counter("cache.stale").increment();
+			forget(toLoad);
+			return null;
+		} catch (IOException | ClassNotFoundException | ClassCastException e) {
+			log.warn("corrupted cache file ignored: "+e);
+			Metrics.counter("cache.corrupted").increment();
+			forget(toLoad);
+			return null;
+		}
+	}
+
+	/* files fitting the memory tier are read at once, and kept there */
+	private Object loadFromDisk(File file, Fingerprint fingerprint) throws IOException, ClassNotFoundException {
+		if (file.length()<=this.memory.getBudget()) {
+			final byte[] data = Files.readAllBytes(file.toPath());
+			final Object result = load(new ByteArrayInputStream(data), fingerprint);
+			this.memory.put(file.getAbsolutePath(), data);
+			return result;
+		}
+		try (InputStream in = new BufferedInputStream(new FileInputStream(file))) {
+			return load(in, fingerprint);
+		}
+	}
+
+	private Object load(InputStream in, Fingerprint fingerprint) throws IOException, ClassNotFoundException {
+		final CacheHeader header = CacheHeader.read(in);
+		final CacheCodec codec = header.check(fingerprint);
+		try {
+			return codec.decode(header.isCompressed() ? new LZBlockInputStream(in) : in);
+		} catch (RuntimeException e) {
+			/* e.g., compact proxies that cannot be resolved */
+			throw (IOException)new StreamCorruptedException("cannot decode: "+e).initCause(e);
 		}
 	}
 
+	private void forget(File file) {
+		if (file!=null)
+			this.memory.remove(file.getAbsolutePath());
+	}
+
 	public void storeSerializedData(Fingerprint fingerprint, T data) {
+		File tmp = null;
 		try {
 			final File toSave = this.organizer.getCacheDatafile(fingerprint);
 //			log.trace("saving cache data into " + linkTo(toSave));
-
-			final FileOutputStream fos = new FileOutputStream(toSave);
-			final ObjectOutputStream out = new ObjectOutputStream(fos);
-			out.writeObject(data);
-			out.close();
+			tmp = File.createTempFile(toSave.getName(), ".tmp", toSave.getParentFile());
+			encode(fingerprint, data, tmp);
+			rename(tmp, toSave);
+			/* n.b. streamed to disk: read back only if it fits the memory tier */
+			if (toSave.length()<=this.memory.getBudget())
+				this.memory.put(toSave.getAbsolutePath(), Files.readAllBytes(toSave.toPath()));
+			else forget(toSave);
+			Metrics.histogram("cache.bytes.written").update(toSave.length());
+			record(toSave);
 		} catch (Exception e) {
 			throw new IllegalStateException(e);
+		} finally {
+			if (tmp!=null) tmp.delete();
+		}
+	}
+
+	private void encode(Fingerprint fingerprint, T data, File file) throws IOException {
+		final CacheCodec codec = CacheCodecs.configured();
+		final boolean compressed = WeirConfig.getBoolean(CACHE_COMPRESSION);
+		final OutputStream fos = new BufferedOutputStream(new FileOutputStream(file));
+		final OutputStream out = ( compressed ? new LZBlockOutputStream(fos) : fos );
+		try {
+			new CacheHeader(codec, compressed, fingerprint).write(fos);
+			codec.encode(data, out);
+		} finally {
+			out.close();
+		}
+	}
+
+	/* record a new cache file, and keep the others within quota */
+	private void record(File file) {
+		final CacheManifest manifest = getManifest();
+		manifest.add(file, System.currentTimeMillis());
+		reference(manifest, file);
+		stored(manifest);
+	}
+
+	/**
+	 * Once a new cache file is recorded, whoever stored it: evict the
+	 * cache files beyond the disk quota or not accessed for too long,
+	 * dropping them from memory too, and save the manifest once a batch
+	 * of changes is pending (see {@link Constants#CACHE_MANIFEST_BATCH})
+	 */
+	static public void stored(CacheManifest manifest) {
+		final long now = System.currentTimeMillis();
+		final long quota = WeirConfig.getInteger(CACHE_DISK_QUOTA)*MB;
+		final long maxAge = TimeUnit.DAYS.toMillis(WeirConfig.getInteger(CACHE_MAX_AGE));
+		final List<CacheManifest.Entry> evicted = manifest.evict(quota, maxAge, now);
+		for(CacheManifest.Entry entry : evicted) {
+			MemoryTier.getInstance().remove(manifest.getFile(entry).getAbsolutePath());
+			log.trace("cache file evicted: "+entry.getPath());
+		}
+		Metrics.counter("cache.disk.evicted").add(evicted.size());
+		if (manifest.getPendingChanges()>=WeirConfig.getInteger(CACHE_MANIFEST_BATCH))
+			save(manifest);
+	}
+
+	/* the current experiment uses the cache file */
+	private void reference(CacheManifest manifest, File file) {
+		final String dataset = this.organizer.getDatasetName();
+		final String domain = this.organizer.getDomainName();
+		if (dataset!=null && domain!=null)
+			manifest.reference(file, dataset, domain);
+	}
+
+	private CacheManifest getManifest() {
+		return CacheManifest.of(CacheOrganizer.getCacheRoot());
+	}
+
+	/**
+	 * Replace a cache file with the one written aside,
+	 * atomically whenever the file system allows it
+	 */
+	static public void rename(File from, File to) throws IOException {
+		try {
+			Files.move(from.toPath(), to.toPath(), ATOMIC_MOVE, REPLACE_EXISTING);
+		} catch (AtomicMoveNotSupportedException e) {
+			Files.move(from.toPath(), to.toPath(), REPLACE_EXISTING);
 		}
 	}
 
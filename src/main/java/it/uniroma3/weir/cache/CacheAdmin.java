@@ -0,0 +1,110 @@
+package it.uniroma3.weir.cache;
+
+import static it.uniroma3.weir.configuration.Constants.CACHE_DISK_QUOTA;
+import static it.uniroma3.weir.configuration.Constants.CACHE_MAX_AGE;
+import it.uniroma3.weir.cache.codec.CacheHeader;
+import it.uniroma3.weir.cache.codec.StaleCacheEntryException;
+import it.uniroma3.weir.configuration.WeirConfig;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The maintenance of the cache files recorded by a {@link CacheManifest}:
+ * to list them, to verify them, and to prune them, optionally restricted
+ * to the cache files used by the experiments over a dataset, or over a
+ * domain of a dataset (null for any).
+ * <br/>
+ * See the command-line front-end {@link it.uniroma3.weir.main.CACHE}.
+ */
+public class CacheAdmin {
+
+	static final private long MB = 1024L*1024L;
+
+	final private CacheManifest manifest;
+
+	public CacheAdmin(CacheManifest manifest) {
+		this.manifest = manifest;
+	}
+
+	public CacheManifest getManifest() {
+		return this.manifest;
+	}
+
+	public List<CacheManifest.Entry> list(String dataset, String domain) {
+		return this.manifest.getEntries(dataset, domain);
+	}
+
+	/**
+	 * @return the problems found in the cache files, one per line:
+	 *         an empty list if they are all usable
+	 */
+	public List<String> verify(String dataset, String domain) {
+		final List<String> result = new ArrayList<>();
+		for(CacheManifest.Entry entry : list(dataset, domain)) {
+			final String problem = check(entry);
+			if (problem!=null)
+				result.add(entry.getPath()+": "+problem);
+		}
+		return result;
+	}
+
+	/**
+	 * @return why a cache file cannot be used, or null if it can
+	 */
+	public String check(CacheManifest.Entry entry) {
+		final File file = this.manifest.getFile(entry);
+		if (!file.exists())
+			return "missing";
+		if (file.length()!=entry.getBytes())
+			return "size changed from "+entry.getBytes()+" to "+file.length()+" bytes";
+		try (InputStream in = new BufferedInputStream(new FileInputStream(file))) {
+			final CacheHeader header = CacheHeader.read(in);
+			header.getCodec();
+			/* see CacheOrganizer: the name ends with the fingerprint */
+			if (!file.getName().endsWith("_"+header.getFingerprint()))
+				return "fingerprint mismatch";
+		} catch (StaleCacheEntryException e) {
+			return "stale: "+e.getMessage();
+		} catch (IOException e) {
+			return "unreadable: "+e;
+		}
+		return null;
+	}
+
+	/**
+	 * Drop the indexes of the experiments over a dataset or domain, if
+	 * specified, and delete the cache files no other experiment uses;
+	 * otherwise delete the unusable and the unused cache files, and then
+	 * evict the others according to the configured quota and maximum age
+	 * @return the deleted cache files
+	 */
+	public List<CacheManifest.Entry> prune(String dataset, String domain) {
+		final List<CacheManifest.Entry> result = new ArrayList<>();
+		if (dataset!=null || domain!=null) {
+			this.manifest.unreference(dataset, domain);
+		} else {
+			for(CacheManifest.Entry entry : list(null, null)) {
+				if (check(entry)!=null) {
+					this.manifest.remove(entry);
+					result.add(entry);
+				}
+			}
+		}
+		result.addAll(this.manifest.collectGarbage());
+		if (dataset==null && domain==null) {
+			final long quota = WeirConfig.getInteger(CACHE_DISK_QUOTA)*MB;
+			final long maxAge = TimeUnit.DAYS.toMillis(WeirConfig.getInteger(CACHE_MAX_AGE));
+			result.addAll(this.manifest.evict(quota, maxAge, System.currentTimeMillis()));
+		}
+		this.manifest.save();
+		return result;
+	}
+
+}
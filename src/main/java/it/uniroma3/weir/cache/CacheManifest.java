@@ -0,0 +1,492 @@
+package it.uniroma3.weir.cache;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The persistent manifest of the on-disk tier of the {@link Cache}: an
+ * entry for every cache file (a <em>blob</em>, see {@link CacheOrganizer})
+ * under the cache root, with its size, the times of its creation and of
+ * its last access, and the experiments referencing it.
+ * <br/>
+ * The blobs are shared by all the experiments: each experiment keeps
+ * the paths of the blobs it uses in an index file of its own, i.e.,
+ * <tt>&lt;dataset&gt;/&lt;domain&gt;/index.tsv</tt> under the cache
+ * root, and a blob is <em>garbage</em> once no index references it.
+ * <br/>
+ * The manifest is a tab-separated text file, <tt>manifest.tsv</tt>, in
+ * the cache root: the manifest and the index files are rewritten aside
+ * and renamed at every save, if modified since the last one. When they are loaded, they are reconciled
+ * with the blobs actually found: the entries of missing blobs are dropped,
+ * and unknown blobs are adopted, unreferenced.
+ * <br/>
+ * It is used to keep the blobs within a global quota of bytes
+ * (see {@link Constants#CACHE_DISK_QUOTA}) by evicting the least
+ * recently used ones, and to evict the blobs not accessed for too
+ * long (see {@link Constants#CACHE_MAX_AGE}).
+ */
+public class CacheManifest {
+
+	static final public String MANIFEST_FILENAME = "manifest.tsv";
+
+	static final public String INDEX_FILENAME = "index.tsv";
+
+	static final private String HEADER = "# path\tbytes\tcreated\taccessed";
+
+	static final private String INDEX_HEADER = "# path";
+
+	static final private String TMP_SUFFIX = ".tmp";
+
+	/* one manifest per cache root and per process */
+	static final private Map<File, CacheManifest> root2manifest = new HashMap<>();
+
+	/**
+	 * @return the manifest of a cache root, loaded only once per process
+	 */
+	static public synchronized CacheManifest of(File root) {
+		final File key = root.getAbsoluteFile();
+		CacheManifest result = root2manifest.get(key);
+		if (result==null) {
+			result = new CacheManifest(key);
+			result.load();
+			root2manifest.put(key, result);
+		}
+		return result;
+	}
+
+	/**
+	 * @return the name of the index of the experiments over
+	 *         a domain of a dataset, e.g., <tt>swde/book</tt>
+	 */
+	static public String scope(String dataset, String domain) {
+		return dataset + "/" + domain;
+	}
+
+	/* null for any */
+	static private boolean matches(String scope, String dataset, String domain) {
+		final int slash = scope.indexOf('/');
+		return ( dataset==null || dataset.equals(scope.substring(0, slash)) ) &&
+			   ( domain==null  || domain.equals(scope.substring(slash+1)) );
+	}
+
+	/**
+	 * An entry of the manifest, i.e., a blob.
+	 */
+	static public class Entry {
+
+		final private String path; // relative to the cache root, with '/'
+		final private long bytes;
+		final private long created;
+		private long accessed;
+		final private Set<String> references;
+
+		Entry(String path, long bytes, long created, long accessed) {
+			this.path = path;
+			this.bytes = bytes;
+			this.created = created;
+			this.accessed = accessed;
+			this.references = new LinkedHashSet<>();
+		}
+
+		public String getPath() {
+			return this.path;
+		}
+
+		public long getBytes() {
+			return this.bytes;
+		}
+
+		public long getCreated() {
+			return this.created;
+		}
+
+		public long getAccessed() {
+			return this.accessed;
+		}
+
+		/**
+		 * @return the scopes of the indexes referencing this blob
+		 *         (see {@link CacheManifest#scope(String, String)})
+		 */
+		public Set<String> getReferences() {
+			return Collections.unmodifiableSet(this.references);
+		}
+
+		public int getReferenceCount() {
+			return this.references.size();
+		}
+
+		/**
+		 * @param dataset - a dataset name, or null for any
+		 * @param domain - a domain name, or null for any
+		 * @return true iff the blob is referenced by the index of a
+		 *         matching experiment (always, if both are null)
+		 */
+		public boolean isReferencedBy(String dataset, String domain) {
+			if (dataset==null && domain==null) return true;
+			for(String scope : this.references)
+				if (matches(scope, dataset, domain))
+					return true;
+			return false;
+		}
+
+		@Override
+		public String toString() {
+			return this.path+"\t"+this.bytes+"\t"+this.created+"\t"+this.accessed;
+		}
+
+	}
+
+	final private File root;
+
+	final private LinkedHashMap<String, Entry> entries;
+
+	/* the scopes whose index file has to be rewritten */
+	final private Set<String> changed;
+
+	/* whether the manifest file has to be rewritten */
+	private boolean modified;
+
+	/* the blobs added or removed since the last save */
+	private int pending;
+
+	CacheManifest(File root) {
+		this.root = root;
+		this.entries = new LinkedHashMap<>();
+		this.changed = new LinkedHashSet<>();
+		this.modified = false;
+		this.pending = 0;
+	}
+
+	public File getRoot() {
+		return this.root;
+	}
+
+	public File getFile(Entry entry) {
+		return new File(this.root, entry.getPath().replace('/', File.separatorChar));
+	}
+
+	private File getIndexFile(String scope) {
+		return new File(new File(this.root, scope.replace('/', File.separatorChar)), INDEX_FILENAME);
+	}
+
+	/**
+	 * @return all the blobs referenced by the experiments over a
+	 *         dataset and domain (null for any: all the blobs if
+	 *         both are null), in order of creation
+	 */
+	public synchronized List<Entry> getEntries(String dataset, String domain) {
+		final List<Entry> result = new ArrayList<>();
+		for(Entry entry : this.entries.values())
+			if (entry.isReferencedBy(dataset, domain))
+				result.add(entry);
+		return result;
+	}
+
+	public synchronized int size() {
+		return this.entries.size();
+	}
+
+	/**
+	 * @return true iff there is anything to {@link #save()}
+	 */
+	public synchronized boolean isModified() {
+		return this.modified || !this.changed.isEmpty();
+	}
+
+	/**
+	 * @return the number of blobs added or removed since the last save
+	 */
+	public synchronized int getPendingChanges() {
+		return this.pending;
+	}
+
+	/**
+	 * @return the number of bytes of all the blobs
+	 */
+	public synchronized long getTotalBytes() {
+		long result = 0;
+		for(Entry entry : this.entries.values())
+			result += entry.getBytes();
+		return result;
+	}
+
+	/**
+	 * Record a new (or rewritten) blob, keeping its references
+	 */
+	public synchronized Entry add(File file, long now) {
+		final String path = relativePath(file);
+		final Entry entry = new Entry(path, file.length(), now, now);
+		final Entry old = this.entries.remove(path);
+		if (old!=null)
+			entry.references.addAll(old.references);
+		this.entries.put(path, entry);
+		this.modified = true;
+		this.pending++;
+		return entry;
+	}
+
+	/**
+	 * Record an access to a blob, if known
+	 */
+	public synchronized void touch(File file, long now) {
+		final Entry entry = this.entries.get(relativePath(file));
+		if (entry!=null && entry.accessed!=now) {
+			entry.accessed = now;
+			this.modified = true;
+		}
+	}
+
+	/**
+	 * Add a known blob to the index of the experiments over a domain
+	 * @return true iff the blob was not already in the index
+	 */
+	public synchronized boolean reference(File file, String dataset, String domain) {
+		final Entry entry = this.entries.get(relativePath(file));
+		if (entry==null) return false;
+		final String scope = scope(dataset, domain);
+		if (!entry.references.add(scope)) return false;
+		this.changed.add(scope);
+		return true;
+	}
+
+	/**
+	 * Empty the indexes of the experiments over a dataset and domain
+	 * (null for any): their blobs become garbage unless they are
+	 * referenced by other indexes as well
+	 * @return the number of references dropped
+	 */
+	public synchronized int unreference(String dataset, String domain) {
+		int result = 0;
+		for(Entry entry : this.entries.values()) {
+			for(String scope : new ArrayList<>(entry.references)) {
+				if (matches(scope, dataset, domain)) {
+					entry.references.remove(scope);
+					this.changed.add(scope);
+					result++;
+				}
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Delete a blob, drop it from the indexes, and forget its entry
+	 * @return true iff the entry was known
+	 */
+	public synchronized boolean remove(Entry entry) {
+		final File file = getFile(entry);
+		if (file.exists() && !file.delete())
+			throw new IllegalStateException("Cannot delete cache file: "+file);
+		this.changed.addAll(entry.references);
+		this.modified = true;
+		this.pending++;
+		return ( this.entries.remove(entry.getPath())!=null );
+	}
+
+	/**
+	 * Delete the blobs not referenced by any index
+	 * @return the deleted entries
+	 */
+	public synchronized List<Entry> collectGarbage() {
+		final List<Entry> result = new ArrayList<>();
+		for(Entry entry : new ArrayList<>(this.entries.values())) {
+			if (entry.getReferenceCount()==0) {
+				remove(entry);
+				result.add(entry);
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Evict the blobs not accessed for too long, and then the least
+	 * recently accessed ones until all the others fit the quota
+	 * @param quota - max number of bytes (0 for unbounded)
+	 * @param maxAge - max millis since the last access (0 for unbounded)
+	 * @param now - the current time in millis
+	 * @return the evicted entries
+	 */
+	public synchronized List<Entry> evict(long quota, long maxAge, long now) {
+		final List<Entry> byAccess = new ArrayList<>(this.entries.values());
+		Collections.sort(byAccess, new Comparator<Entry>() {
+			@Override
+			public int compare(Entry e1, Entry e2) {
+				return Long.compare(e1.getAccessed(), e2.getAccessed());
+			}
+		});
+		long total = getTotalBytes();
+		final List<Entry> result = new ArrayList<>();
+		for(Entry entry : byAccess) {
+			final boolean tooOld = ( maxAge>0 && now-entry.getAccessed()>maxAge );
+			final boolean overQuota = ( quota>0 && total>quota );
+			if (!tooOld && !overQuota) break; // the others are more recent
+			remove(entry);
+			total -= entry.getBytes();
+			result.add(entry);
+		}
+		return result;
+	}
+
+	/**
+	 * Read the manifest and the indexes, if any,
+	 * and reconcile them with the blobs
+	 */
+	synchronized void load() {
+		this.entries.clear();
+		this.changed.clear();
+		this.modified = false;
+		this.pending = 0;
+		for(String[] fields : readLines(new File(this.root, MANIFEST_FILENAME))) {
+			if (fields.length!=4) continue; // malformed
+			try {
+				final Entry entry = new Entry(fields[0],
+						Long.parseLong(fields[1]), Long.parseLong(fields[2]), Long.parseLong(fields[3]));
+				this.entries.put(entry.getPath(), entry);
+			} catch (NumberFormatException e) {
+				continue; // malformed
+			}
+		}
+		reconcile();
+		for(String scope : findScopes()) {
+			for(String[] fields : readLines(getIndexFile(scope))) {
+				final Entry entry = this.entries.get(fields[0]);
+				if (entry!=null)
+					entry.references.add(scope);
+				else this.changed.add(scope); // a blob gone missing
+			}
+		}
+	}
+
+	private void reconcile() {
+		final List<File> found = new ArrayList<>();
+		collectBlobs(new File(this.root, CacheOrganizer.BLOBS_DIR), found);
+		final Map<String, File> path2file = new HashMap<>();
+		for(File file : found)
+			path2file.put(relativePath(file), file);
+		if (this.entries.keySet().retainAll(path2file.keySet()))
+			this.modified = true;
+		for(Map.Entry<String, File> e : path2file.entrySet()) {
+			if (!this.entries.containsKey(e.getKey())) {
+				final File file = e.getValue();
+				add(file, file.lastModified());
+			}
+		}
+	}
+
+	static private void collectBlobs(File dir, List<File> result) {
+		final File[] files = dir.listFiles();
+		if (files==null) return;
+		for(File file : files) {
+			if (file.isDirectory())
+				collectBlobs(file, result);
+			else if (!file.getName().endsWith(TMP_SUFFIX))
+				result.add(file);
+		}
+	}
+
+	/* the scopes with an index file, i.e., <dataset>/<domain>/index.tsv */
+	private List<String> findScopes() {
+		final List<String> result = new ArrayList<>();
+		final File[] datasets = this.root.listFiles();
+		if (datasets==null) return result;
+		for(File dataset : datasets) {
+			if (!dataset.isDirectory() || dataset.getName().equals(CacheOrganizer.BLOBS_DIR)) continue;
+			final File[] domains = dataset.listFiles();
+			if (domains==null) continue;
+			for(File domain : domains)
+				if (new File(domain, INDEX_FILENAME).isFile())
+					result.add(scope(dataset.getName(), domain.getName()));
+		}
+		return result;
+	}
+
+	static private List<String[]> readLines(File file) {
+		final List<String[]> result = new ArrayList<>();
+		if (!file.exists()) return result;
+		try (BufferedReader reader = Files.newBufferedReader(file.toPath(), UTF_8)) {
+			String line;
+			while ((line=reader.readLine())!=null) {
+				if (line.startsWith("#") || line.trim().isEmpty()) continue;
+				result.add(line.split("\t"));
+			}
+		} catch (IOException e) {
+			throw new IllegalStateException("Cannot read the cache manifest: "+file, e);
+		}
+		return result;
+	}
+
+	/**
+	 * Write the manifest and the changed indexes aside, then rename them,
+	 * unless nothing changed since the last save
+	 */
+	public synchronized void save() {
+		if (!isModified()) return;
+		final List<String> lines = new ArrayList<>();
+		for(Entry entry : this.entries.values())
+			lines.add(entry.toString());
+		write(new File(this.root, MANIFEST_FILENAME), HEADER, lines);
+
+		for(String scope : this.changed) {
+			final List<String> paths = new ArrayList<>();
+			for(Entry entry : this.entries.values())
+				if (entry.references.contains(scope))
+					paths.add(entry.getPath());
+			final File index = getIndexFile(scope);
+			if (!paths.isEmpty())
+				write(index, INDEX_HEADER, paths);
+			else if (index.exists() && !index.delete())
+				throw new IllegalStateException("Cannot delete cache index: "+index);
+		}
+		this.changed.clear();
+		this.modified = false;
+		this.pending = 0;
+	}
+
+	static private void write(File file, String header, List<String> lines) {
+		final File dir = file.getParentFile();
+		if (!dir.exists() && !dir.mkdirs())
+			throw new IllegalStateException("Cannot create cache directory: " + dir);
+		final File tmp = new File(dir, file.getName()+TMP_SUFFIX);
+		try {
+			try (BufferedWriter writer = Files.newBufferedWriter(tmp.toPath(), UTF_8)) {
+				writer.write(header);
+				writer.newLine();
+				for(String line : lines) {
+					writer.write(line);
+					writer.newLine();
+				}
+			}
+			try {
+				Files.move(tmp.toPath(), file.toPath(), ATOMIC_MOVE, REPLACE_EXISTING);
+			} catch (AtomicMoveNotSupportedException e) {
+				Files.move(tmp.toPath(), file.toPath(), REPLACE_EXISTING);
+			}
+		} catch (IOException e) {
+			throw new IllegalStateException("Cannot write the cache manifest: "+file, e);
+		}
+	}
+
+	private String relativePath(File file) {
+		final String path = this.root.toPath().relativize(file.getAbsoluteFile().toPath()).toString();
+		return path.replace(File.separatorChar, '/');
+	}
+
+}
@@ -5,32 +5,47 @@ import static java.io.File.separator;
 import java.io.File;
 
 import it.uniroma3.weir.configuration.WeirConfig;
+import it.uniroma3.weir.model.Experiment;
 
 /**
- * 
+ *
  * Here is all the logic to organize cache file names
+ * <br/>
+ * The cache files are <em>content-addressed</em>: they are named
+ * after the {@link Fingerprint} of their data only, and stored once
+ * in a folder shared by all the experiments. Each experiment keeps
+ * an index of the cache files it uses (see {@link CacheManifest}).
  *
  */
 public class CacheOrganizer {
 
-	/* e.g., ./weir-cache/swde/nbaplayer/linkage_swde-nbaplayer_01-02-03-04-05 */
-	private static final String WEIR_CACHE =   "weir-cache" + separator +
-			WeirConfig.getCurrentExperiment().getDataset().getName() + separator + 
-			WeirConfig.getCurrentExperiment().getDomain().getName();
-	
-	
+	/* e.g., ./weir-cache/blobs/01/linkage_0102030405 */
+	static final public String WEIR_CACHE_ROOT = "weir-cache";
+
+	static final public String BLOBS_DIR = "blobs";
+
+	/**
+	 * @return the root of the cache folders of all the experiments
+	 */
+	static public File getCacheRoot() {
+		return new File(WEIR_CACHE_ROOT);
+	}
+
 	public File getCacheDir() {
-		final File dir = new File(WEIR_CACHE);
-		if (!dir.exists() && !dir.mkdirs()) {
+		final File dir = new File(WEIR_CACHE_ROOT + separator + BLOBS_DIR);
+		/* n.b. concurrent tasks may race to create the same folder */
+		if (!dir.mkdirs() && !dir.isDirectory()) {
 		    throw new IllegalStateException("Cannot create cache directory: " + dir);
 		}
 		return dir;
 	}
-	
-	public File getCacheDatafile(Fingerprint fingerprint) {		
-		final File file = new File(getCacheDir(), getCacheDatafilename(fingerprint));
-		File parent = file.getParentFile();
-		if (!parent.exists() && !parent.mkdirs()) {
+
+	public File getCacheDatafile(Fingerprint fingerprint) {
+		final String hex = fingerprint.toString();
+		/* fan out the blobs over subfolders by their first byte */
+		final File parent = new File(getCacheDir(), hex.substring(0, Math.min(2, hex.length())));
+		final File file = new File(parent, getCacheDatafilename(fingerprint));
+		if (!parent.mkdirs() && !parent.isDirectory()) {
 			throw new IllegalStateException(
 					"Cannot create the parent directory "+parent+" of "+
 					"cache file: " + file
@@ -45,11 +60,26 @@ public class CacheOrganizer {
 	 * @return
 	 */
 	private String getCacheDatafilename(Fingerprint fingerprint) {
-		//TODO introduce singleton over "current" Experiment
 		final String friendlyPrefix = fingerprint.getCachePrefix();
-		final String dataset = WeirConfig.getCurrentExperiment().getDataset().getName();
-		final String domain = WeirConfig.getCurrentExperiment().getDomain().getName();
-		return friendlyPrefix+ "_" + dataset + "-" +domain + "_" + fingerprint;
+		return friendlyPrefix + "_" + fingerprint;
 	}
-	
+
+	/**
+	 * @return the name of the dataset of the current experiment,
+	 *         or null if there is none
+	 */
+	public String getDatasetName() {
+		final Experiment current = WeirConfig.getCurrentExperiment();
+		return ( current!=null ? current.getDataset().getName() : null );
+	}
+
+	/**
+	 * @return the name of the domain of the current experiment,
+	 *         or null if there is none
+	 */
+	public String getDomainName() {
+		final Experiment current = WeirConfig.getCurrentExperiment();
+		return ( current!=null ? current.getDomain().getName() : null );
+	}
+
 }
@@ -1,8 +1,12 @@
 package it.uniroma3.weir.cache;
 
 import it.uniroma3.hlog.HypertextualLogger;
+import it.uniroma3.preferences.Constant;
 import it.uniroma3.weir.configuration.Constants;
 import it.uniroma3.weir.configuration.WeirConfig;
+import it.uniroma3.weir.metrics.Metrics;
+
+import java.util.Set;
 
 //import java.io.Serializable; // N.B. List is not Serializable, even if ArrayList is
 
@@ -38,6 +42,12 @@ import it.uniroma3.weir.configuration.WeirConfig;
  * 
  * Persistence is achieved by means of java serialization.
  * 
+ * A computation may declare its {@link Dependencies}, i.e., the upstream 
+ * computations and the configuration properties it depends on (see 
+ * {@linkplain CachedComputation#getDependencies()}): then its fingerprint
+ * combines the fingerprint of the input with that of the declaration,
+ * and the properties actually read on a cache miss are checked against it.
+ * 
  * With Java 8 lambdas this stuff could be improved.
  *
  * @param <IN> type of input
@@ -65,27 +75,59 @@ public abstract class CachedComputation<IN, OUT> extends Fingerprinter {
 	 * will be invoked to compute the result.
 	 * It cannot be overridden.
 	 */
+	@SuppressWarnings("try")
 	final public OUT cachedComputation(IN input) {
 		if (!isCacheEnabled()) return uncachedComputation(input);
 		log.newPage();
 		final String msg = "computations of "+this.getClass()+" are cached";
 		log.trace(msg);
-		final Fingerprint f = fingerprint(input);
-		OUT output = this.cache.loadSerializedData(f);
+		final Fingerprint f = fingerprintOf(input);
+		OUT output;
+		try (Metrics.Stage stage = Metrics.stage("cache.load")) {
+			output = this.cache.loadSerializedData(f);
+		}
 		if (output==null) {
 			/* cache miss */
 			log.endPage(msg+": cache miss");		
+			Metrics.counter("cache.misses").increment();
 			cacheMissed(input, output);
-			output = uncachedComputation(input);
-			cache.storeSerializedData(f, output);
+			output = trackedComputation(input);
+			try (Metrics.Stage stage = Metrics.stage("cache.store")) {
+				cache.storeSerializedData(f, output);
+			}
 		} else {
 			/* cache hit */
 			log.endPage(msg+": cache hit");
+			Metrics.counter("cache.hits").increment();
 			cacheHit(input,output);
 		}
 		return output;
 	}
 
+	private Fingerprint fingerprintOf(IN input) {
+		final Fingerprint f = fingerprint(input);
+		final Dependencies dependencies = getDependencies();
+		if (dependencies==null) return f;
+		return new Fingerprinter().fingerprint(f)
+								  .fingerprint(dependencies.getFingerprint())
+								  .getFingerprint(f.getCachePrefix());
+	}
+
+	private OUT trackedComputation(IN input) {
+		final Dependencies dependencies = getDependencies();
+		if (dependencies==null) return uncachedComputation(input);
+		try (WeirConfig.AccessLog access = WeirConfig.track()) {
+			final OUT output = uncachedComputation(input);
+			final Set<Constant> undeclared = dependencies.undeclared(access.getAccessed());
+			if (!undeclared.isEmpty()) {
+				log.warn(this.getClass().getSimpleName()+" read the undeclared properties "
+						+ undeclared +": its cached results might be stale");
+				Metrics.counter("cache.undeclared").increment();
+			}
+			return output;
+		}
+	}
+
 	private boolean isCacheEnabled() {
 		return 	isGlobalCachingEnabled() &&	isThisComputationCachingEnabled();
 	}
@@ -109,6 +151,18 @@ public abstract class CachedComputation<IN, OUT> extends Fingerprinter {
 	protected void cacheMissed(IN input, OUT newResult) { 
 	}
 	
+	/**
+	 * This method can be overridden to declare the upstream computations
+	 * and the configuration properties the results depend on: then
+	 * {@linkplain CachedComputation#fingerprint(Object)} only needs to
+	 * fingerprint the input data
+	 * @return the {@link Dependencies} of this computation, or null if 
+	 *         its fingerprint already takes into account everything
+	 */
+	protected Dependencies getDependencies() {
+		return null;
+	}
+
 	/**
 	 * This method must be overridden to specify the
 	 * how to compute the {@linkplain Fingerprint}
@@ -0,0 +1,156 @@
+package it.uniroma3.weir.cache;
+
+import static it.uniroma3.weir.configuration.Constants.CACHE_CODEC;
+import static it.uniroma3.weir.configuration.Constants.CACHE_COMPRESSION;
+import static it.uniroma3.weir.configuration.Constants.CACHING_ENABLED;
+import it.uniroma3.preferences.Constant;
+import it.uniroma3.weir.configuration.WeirConfig;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * A node of the dependency graph of the {@link CachedComputation}s:
+ * it declares the <em>upstream</em> computations whose results a
+ * computation depends on, and the configuration properties
+ * ({@link Constant}s) it reads.
+ * <br/>
+ * The {@link Fingerprint} of a node is derived, Merkle-style, from the
+ * values of the properties it reads and from the fingerprints of its
+ * upstream nodes: changing a property only changes the fingerprints of
+ * the nodes reading it and of those downstream, so that only their
+ * cached results are invalidated.
+ * <br/>
+ * The properties read by a computation can be checked against its
+ * declaration by means of {@link WeirConfig#track()}: properties that
+ * do not affect the results (e.g., the number of threads) can be
+ * declared as ignored.
+ */
+public class Dependencies {
+
+	/* read by the cache itself: never affect the cached results */
+	static final private Set<Constant> CACHE_SETTINGS =
+			new LinkedHashSet<Constant>(Arrays.asList(CACHING_ENABLED, CACHE_CODEC, CACHE_COMPRESSION));
+
+	static final private Comparator<Constant> BY_KEY = new Comparator<Constant>() {
+		@Override
+		public int compare(Constant c1, Constant c2) {
+			return c1.key().compareTo(c2.key());
+		}
+	};
+
+	final private String name;
+
+	final private List<Dependencies> upstream;
+
+	final private Set<Constant> reads;
+
+	final private Set<Constant> ignored;
+
+	/**
+	 * @param name - a name of the computation, e.g., <tt>"data"</tt>
+	 * @param upstream - the computations this one depends on
+	 */
+	public Dependencies(String name, Dependencies... upstream) {
+		this.name = name;
+		this.upstream = Collections.unmodifiableList(Arrays.asList(upstream));
+		this.reads = new LinkedHashSet<>();
+		this.ignored = new LinkedHashSet<>();
+	}
+
+	/**
+	 * Declare properties affecting the results of the computation
+	 * @return this node
+	 */
+	public Dependencies reads(Constant... constants) {
+		this.reads.addAll(Arrays.asList(constants));
+		return this;
+	}
+
+	/**
+	 * Declare properties read by the computation that do not
+	 * affect its results, e.g., the size of a pool of threads
+	 * @return this node
+	 */
+	public Dependencies ignores(Constant... constants) {
+		this.ignored.addAll(Arrays.asList(constants));
+		return this;
+	}
+
+	public String getName() {
+		return this.name;
+	}
+
+	public List<Dependencies> getUpstream() {
+		return this.upstream;
+	}
+
+	public Set<Constant> getReads() {
+		return Collections.unmodifiableSet(this.reads);
+	}
+
+	/**
+	 * @return the properties read by this computation
+	 *         and by all the upstream computations
+	 */
+	public Set<Constant> getAllReads() {
+		final Set<Constant> result = new LinkedHashSet<>(this.reads);
+		for(Dependencies node : this.upstream)
+			result.addAll(node.getAllReads());
+		return result;
+	}
+
+	private Set<Constant> getAllIgnored() {
+		final Set<Constant> result = new LinkedHashSet<>(this.ignored);
+		for(Dependencies node : this.upstream)
+			result.addAll(node.getAllIgnored());
+		return result;
+	}
+
+	/**
+	 * @param accessed - the properties actually read by the computation
+	 * @return the properties read but not declared by this computation
+	 *         nor by the upstream ones
+	 */
+	public Set<Constant> undeclared(Collection<? extends Constant> accessed) {
+		final Set<Constant> result = new LinkedHashSet<>(accessed);
+		result.removeAll(getAllReads());
+		result.removeAll(getAllIgnored());
+		result.removeAll(CACHE_SETTINGS);
+		return result;
+	}
+
+	/**
+	 * @return a fingerprint of the values of the properties read
+	 *         and of the fingerprints of the upstream computations
+	 */
+	public Fingerprint getFingerprint() {
+		final Fingerprinter printer = new Fingerprinter();
+		printer.fingerprint(this.name);
+		final List<Constant> sorted = new ArrayList<>(this.reads);
+		Collections.sort(sorted, BY_KEY);
+		for(Constant constant : sorted) {
+			/* n.b. not a tracked read, and all the values of a list */
+			final String[] values = WeirConfig.getConfiguration().getStringArray(constant.key());
+			printer.fingerprint(constant.key()+"="+Arrays.toString(values)+"\n");
+		}
+		for(Dependencies node : this.upstream)
+			printer.fingerprint(node.getFingerprint());
+		return printer.getFingerprint(this.name);
+	}
+
+	@Override
+	public String toString() {
+		final List<String> names = new ArrayList<>();
+		for(Dependencies node : this.upstream)
+			names.add(node.getName());
+		return this.name + "<-" + names + this.reads;
+	}
+
+}
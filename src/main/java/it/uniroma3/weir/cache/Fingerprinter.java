@@ -49,6 +49,12 @@ public class Fingerprinter {
 		return this;
 	}
 
+	/* raw data, e.g., the source of a page */
+	public Fingerprinter fingerprint(byte[] bytes) {
+		getDigest().update(bytes);
+		return this;
+	}
+
 //	public void fingerprint(String... input) {
 //		for(String string : input)
 //			getDigest().update(string.getBytes());
@@ -0,0 +1,106 @@
+package it.uniroma3.weir.cache;
+
+import static it.uniroma3.weir.configuration.Constants.CACHE_MEMORY_BUDGET;
+import it.uniroma3.weir.configuration.WeirConfig;
+import it.uniroma3.weir.metrics.Metrics;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The in-memory tier of the {@link Cache}, shared by all the
+ * {@link CachedComputation}s of a process: a LRU map of the cache
+ * entries, weighted by their size, up to a budget of bytes
+ * (see {@link Constants#CACHE_MEMORY_BUDGET}).
+ * <br/>
+ * The entries are kept as encoded by the {@link Cache}, i.e., as
+ * they are on disk, rather than as objects: the results of the
+ * computations are often changed in place by their clients (e.g.,
+ * a linkage once its conflicts are solved), and every hit must
+ * return a copy of the original result, as a disk hit does.
+ * Still, a hit saves reading the cache file.
+ */
+public class MemoryTier {
+
+	static final private long MB = 1024L*1024L;
+
+	static private MemoryTier shared;
+
+	/**
+	 * @return the memory tier of this process, with the configured budget
+	 */
+	static public synchronized MemoryTier getInstance() {
+		if (shared==null)
+			shared = new MemoryTier(WeirConfig.getInteger(CACHE_MEMORY_BUDGET)*MB);
+		return shared;
+	}
+
+	final private long budget;
+
+	final private LinkedHashMap<String, byte[]> entries;
+
+	private long weight;
+
+	public MemoryTier(long budget) {
+		this.budget = budget;
+		this.entries = new LinkedHashMap<>(16, 0.75f, true); // access-ordered
+		this.weight = 0;
+	}
+
+	/**
+	 * @return the max number of bytes kept in memory
+	 */
+	public long getBudget() {
+		return this.budget;
+	}
+
+	/**
+	 * @return the number of bytes currently kept in memory
+	 */
+	public synchronized long getWeight() {
+		return this.weight;
+	}
+
+	public synchronized int size() {
+		return this.entries.size();
+	}
+
+	/**
+	 * @return the encoded entry, or null if not in memory
+	 */
+	public synchronized byte[] get(String key) {
+		return this.entries.get(key);
+	}
+
+	/**
+	 * Keep an encoded entry in memory, evicting the least recently
+	 * used entries to stay within budget: entries larger than the
+	 * whole budget are not kept at all.
+	 */
+	public synchronized void put(String key, byte[] data) {
+		remove(key);
+		if (data.length>this.budget) return;
+		this.entries.put(key, data);
+		this.weight += data.length;
+		final Iterator<Map.Entry<String, byte[]>> it = this.entries.entrySet().iterator();
+		while (this.weight>this.budget && it.hasNext()) {
+			final Map.Entry<String, byte[]> eldest = it.next();
+			this.weight -= eldest.getValue().length;
+			it.remove();
+			Metrics.counter("cache.memory.evicted").increment();
+		}
+	}
+
+	public synchronized void remove(String key) {
+		final byte[] removed = this.entries.remove(key);
+		if (removed!=null)
+			this.weight -= removed.length;
+	}
+
+	public synchronized void clear() {
+		this.entries.clear();
+		this.weight = 0;
+	}
+
+}
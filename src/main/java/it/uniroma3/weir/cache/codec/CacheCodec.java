@@ -0,0 +1,30 @@
+package it.uniroma3.weir.cache.codec;
+
+import it.uniroma3.weir.cache.Cache;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * The (de)serialization format of the data persistently
+ * saved by a {@link Cache}.
+ * <br/>
+ * A codec is identified by a byte and versioned: both are
+ * saved within the header of every cache file (see {@link CacheHeader})
+ * so that the data written by a different codec, or by an
+ * older version of the same codec, are detected as stale
+ * before even trying to decode them.
+ * Bump the version whenever the encoding changes.
+ */
+public interface CacheCodec {
+
+	public byte getId();
+
+	public int getVersion();
+
+	public void encode(Object data, OutputStream out) throws IOException;
+
+	public Object decode(InputStream in) throws IOException, ClassNotFoundException;
+
+}
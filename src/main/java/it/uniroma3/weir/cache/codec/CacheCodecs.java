@@ -0,0 +1,46 @@
+package it.uniroma3.weir.cache.codec;
+
+import static it.uniroma3.weir.configuration.Constants.CACHE_CODEC;
+import it.uniroma3.weir.configuration.WeirConfig;
+
+/**
+ * The available {@link CacheCodec}s, as selected by
+ * {@link Constants#CACHE_CODEC}.
+ */
+public enum CacheCodecs {
+
+	/* plain java serialization: the fallback for any {@link Serializable} */
+	JAVA(new JavaSerializationCodec()),
+
+	/* java serialization but for the bulk of the cached data */
+	COMPACT(new CompactCodec()),
+
+	/* only for the snapshots of the pages, see DOMSnapshotStore */
+	DOM(new DOMSnapshotCodec());
+
+	final private CacheCodec codec;
+
+	private CacheCodecs(CacheCodec codec) {
+		this.codec = codec;
+	}
+
+	public CacheCodec getCodec() {
+		return this.codec;
+	}
+
+	/**
+	 * @param id a codec identifier as read from a cache file header
+	 * @return the codec with the given id, or null if unknown
+	 */
+	static public CacheCodec byId(byte id) {
+		for(CacheCodecs codecs : values())
+			if (codecs.getCodec().getId()==id)
+				return codecs.getCodec();
+		return null;
+	}
+
+	static public CacheCodec configured() {
+		return valueOf(WeirConfig.getString(CACHE_CODEC).trim().toUpperCase()).getCodec();
+	}
+
+}
@@ -0,0 +1,121 @@
+package it.uniroma3.weir.cache.codec;
+
+import it.uniroma3.weir.cache.Fingerprint;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+/**
+ * The header of every cache file: a magic number, the id and the
+ * version of the {@link CacheCodec} used to write the data, whether
+ * they have been compressed (by {@link LZBlockOutputStream}), and the
+ * {@link Fingerprint} they are associated with.
+ * <br/>
+ * Cache files written before this header was introduced are plain
+ * java serialization streams, and they are detected as stale, too.
+ */
+public class CacheHeader {
+
+	static final private int MAGIC = 0x57454952; // "WEIR"
+
+	static final private byte FORMAT_VERSION = 1;
+
+	final private byte codecId;
+
+	final private int codecVersion;
+
+	final private boolean compressed;
+
+	final private byte[] fingerprint;
+
+	public CacheHeader(CacheCodec codec, boolean compressed, Fingerprint fingerprint) {
+		this(codec.getId(), codec.getVersion(), compressed, fingerprint.getBytes());
+	}
+
+	private CacheHeader(byte codecId, int codecVersion, boolean compressed, byte[] fingerprint) {
+		this.codecId = codecId;
+		this.codecVersion = codecVersion;
+		this.compressed = compressed;
+		this.fingerprint = fingerprint;
+	}
+
+	public boolean isCompressed() {
+		return this.compressed;
+	}
+
+	/**
+	 * @return the fingerprint of the data, as printed in the
+	 *         names of the cache files (see {@link Fingerprint})
+	 */
+	public String getFingerprint() {
+		final StringBuilder result = new StringBuilder();
+		for(byte b : this.fingerprint)
+			result.append(String.format("%02X", b));
+		return result.toString();
+	}
+
+	public void write(OutputStream os) throws IOException {
+		final DataOutputStream out = new DataOutputStream(os);
+		out.writeInt(MAGIC);
+		out.writeByte(FORMAT_VERSION);
+		out.writeByte(this.codecId);
+		out.writeInt(this.codecVersion);
+		out.writeBoolean(this.compressed);
+		out.writeShort(this.fingerprint.length);
+		out.write(this.fingerprint);
+		out.flush();
+	}
+
+	static public CacheHeader read(InputStream is) throws IOException {
+		final DataInputStream in = new DataInputStream(is);
+		try {
+			if (in.readInt()!=MAGIC)
+				throw new StaleCacheEntryException("unknown format (written by an older release?)");
+			final byte format = in.readByte();
+			if (format!=FORMAT_VERSION)
+				throw new StaleCacheEntryException("unknown header version: "+format);
+			final byte codecId = in.readByte();
+			final int codecVersion = in.readInt();
+			final boolean compressed = in.readBoolean();
+			final byte[] fingerprint = new byte[in.readUnsignedShort()];
+			in.readFully(fingerprint);
+			return new CacheHeader(codecId, codecVersion, compressed, fingerprint);
+		} catch (EOFException e) {
+			throw new StaleCacheEntryException("truncated header");
+		}
+	}
+
+	/**
+	 * @param expected the fingerprint of the data looked up
+	 * @return the codec to decode the data following this header
+	 * @throws StaleCacheEntryException if the data cannot be decoded
+	 *         by any available codec, or they have a different fingerprint
+	 */
+	public CacheCodec check(Fingerprint expected) throws StaleCacheEntryException {
+		final CacheCodec codec = getCodec();
+		if (!Arrays.equals(expected.getBytes(), this.fingerprint))
+			throw new StaleCacheEntryException("fingerprint mismatch");
+		return codec;
+	}
+
+	/**
+	 * @return the codec to decode the data following this header
+	 * @throws StaleCacheEntryException if the data cannot be decoded
+	 *         by any available codec
+	 */
+	public CacheCodec getCodec() throws StaleCacheEntryException {
+		final CacheCodec codec = CacheCodecs.byId(this.codecId);
+		if (codec==null)
+			throw new StaleCacheEntryException("unknown codec: "+this.codecId);
+		if (codec.getVersion()!=this.codecVersion)
+			throw new StaleCacheEntryException("written by version "+this.codecVersion+
+					" of codec "+codec.getClass().getSimpleName()+", current is "+codec.getVersion());
+		return codec;
+	}
+
+}
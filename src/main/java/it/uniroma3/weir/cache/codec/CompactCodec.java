@@ -0,0 +1,426 @@
+package it.uniroma3.weir.cache.codec;
+
+import it.uniroma3.weir.extraction.rule.ExtractionRule;
+import it.uniroma3.weir.extraction.rule.ExtractionRuleClass;
+import it.uniroma3.weir.extraction.rule.PositionalRule;
+import it.uniroma3.weir.extraction.rule.RelativeRule;
+import it.uniroma3.weir.extraction.rule.SubPCDATARule;
+import it.uniroma3.weir.linking.linkage.PageLinkage;
+import it.uniroma3.weir.linking.linkage.PageLinkageRepository;
+import it.uniroma3.weir.model.Attribute;
+import it.uniroma3.weir.model.Webpage;
+import it.uniroma3.weir.model.Website;
+import it.uniroma3.weir.vector.ExtractedVector;
+import it.uniroma3.weir.vector.Label;
+import it.uniroma3.weir.vector.Vector;
+import it.uniroma3.weir.vector.value.ExtractedValue;
+import it.uniroma3.weir.vector.value.GoldenValue;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * A java serialization stream where the bulk of the cached data,
+ * i.e., {@link ExtractedVector}s with their {@link ExtractedValue}s,
+ * {@link ExtractionRule}s, and {@link PageLinkageRepository}s, is
+ * replaced by hand-written <em>proxies</em>: every other object,
+ * and the objects shared all over the data (e.g., {@link Webpage}s
+ * and {@link Website}s) are still left to plain java serialization,
+ * which preserves their identity.
+ * <br/>
+ * Strings within the proxies are written once per stream, and then
+ * referred to by a (variable-length) index.
+ * <br/>
+ * A proxy is resolved back to its object only once it has been
+ * completely read: hence vectors and rules that can be reached
+ * back from their own data (i.e., through the {@link Attribute}s
+ * of the sites of their pages) are left to plain serialization.
+ */
+public class CompactCodec implements CacheCodec {
+
+	static final private byte ID = 2;
+
+	static final private int VERSION = 1;
+
+	@Override
+	public byte getId() {
+		return ID;
+	}
+
+	@Override
+	public int getVersion() {
+		return VERSION;
+	}
+
+	@Override
+	public void encode(Object data, OutputStream out) throws IOException {
+		final CompactOutputStream cos = new CompactOutputStream(out);
+		cos.writeObject(data);
+		cos.flush();
+	}
+
+	@Override
+	public Object decode(InputStream in) throws IOException, ClassNotFoundException {
+		return new CompactInputStream(in).readObject();
+	}
+
+	static final private class CompactOutputStream extends ObjectOutputStream {
+
+		final private Map<String, Integer> strings;
+
+		/* vectors and rules reachable from the attributes of a site */
+		final private Set<Object> pinned;
+
+		final private Set<Website> visited;
+
+		CompactOutputStream(OutputStream out) throws IOException {
+			super(out);
+			this.strings = new HashMap<>();
+			this.pinned  = Collections.newSetFromMap(new IdentityHashMap<Object, Boolean>());
+			this.visited = Collections.newSetFromMap(new IdentityHashMap<Website, Boolean>());
+			enableReplaceObject(true);
+		}
+
+		@Override
+		protected Object replaceObject(Object obj) throws IOException {
+			if (obj==null) return null;
+			final Class<?> cls = obj.getClass();
+			if (cls==ExtractedVector.class) {
+				final ExtractedVector vector = (ExtractedVector)obj;
+				if (!isPinned(vector, vector.getExtractionRule()))
+					return new VectorProxy(vector);
+			}
+			else if (RuleProxy.isEncodable(cls)) {
+				final ExtractionRule rule = (ExtractionRule)obj;
+				if (!isPinned(null, rule))
+					return new RuleProxy(rule);
+			}
+			else if (cls==PageLinkageRepository.class) {
+				final PageLinkageRepository linkages = (PageLinkageRepository)obj;
+				if (linkages.getPairBuilder() instanceof PageLinkageRepository.Builder)
+					return new LinkageProxy(linkages);
+			}
+			return obj;
+		}
+
+		private boolean isPinned(ExtractedVector vector, ExtractionRule rule) {
+			if (vector!=null)
+				for(ExtractedValue value : vector.getElements())
+					if (value!=null && value.getPage()!=null)
+						pin(value.getPage().getWebsite());
+			if (rule!=null)
+				pin(rule.getWebsite());
+			return this.pinned.contains(vector) || this.pinned.contains(rule);
+		}
+
+		private void pin(Website site) {
+			if (site==null || this.visited.contains(site)) return;
+			final List<Website> sites = ( site.getDomain()!=null ?
+						site.getDomain().getSites() : Collections.singletonList(site) );
+			for(Website s : sites) {
+				if (!this.visited.add(s)) continue;
+				for(Attribute attribute : s.getAttributes()) {
+					final Vector vector = attribute.getVector();
+					if (vector==null || vector.getOriginatingVector()==null) continue;
+					this.pinned.add(vector.getOriginatingVector());
+					ExtractionRule rule = vector.getOriginatingVector().getExtractionRule();
+					while (rule!=null && this.pinned.add(rule)) {
+						rule = ( rule instanceof SubPCDATARule ?
+								((SubPCDATARule)rule).getPCDATARule() : null );
+					}
+				}
+			}
+		}
+
+		void writeVarInt(int n) throws IOException {
+			while ((n & ~0x7f)!=0) {
+				writeByte((n & 0x7f) | 0x80);
+				n >>>= 7;
+			}
+			writeByte(n);
+		}
+
+		void writeString(String s) throws IOException {
+			if (s==null) {
+				writeVarInt(0);
+				return;
+			}
+			final Integer index = this.strings.get(s);
+			if (index!=null) {
+				writeVarInt(index);
+				return;
+			}
+			final int next = this.strings.size()+1;
+			this.strings.put(s, next);
+			writeVarInt(next);
+			final byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+			writeVarInt(bytes.length);
+			write(bytes);
+		}
+
+	}
+
+	static final private class CompactInputStream extends ObjectInputStream {
+
+		final private List<String> strings;
+
+		CompactInputStream(InputStream in) throws IOException {
+			super(in);
+			this.strings = new ArrayList<>();
+		}
+
+		int readVarInt() throws IOException {
+			int result = 0;
+			for(int shift=0; shift<32; shift+=7) {
+				final int b = readUnsignedByte();
+				result |= (b & 0x7f) << shift;
+				if ((b & 0x80)==0) return result;
+			}
+			throw new StreamCorruptedException("malformed variable-length integer");
+		}
+
+		String readString() throws IOException {
+			final int index = readVarInt();
+			if (index==0) return null;
+			if (index<=this.strings.size()) return this.strings.get(index-1);
+			if (index!=this.strings.size()+1)
+				throw new StreamCorruptedException("unknown string reference: "+index);
+			final byte[] bytes = new byte[readVarInt()];
+			readFully(bytes);
+			final String s = new String(bytes, StandardCharsets.UTF_8);
+			this.strings.add(s);
+			return s;
+		}
+
+	}
+
+	static private CompactOutputStream output(ObjectOutput out) throws IOException {
+		if (!(out instanceof CompactOutputStream))
+			throw new NotSerializableException("compact proxies are written only by "+CompactCodec.class);
+		return (CompactOutputStream)out;
+	}
+
+	static private CompactInputStream input(ObjectInput in) throws IOException {
+		if (!(in instanceof CompactInputStream))
+			throw new InvalidObjectException("compact proxies are read only by "+CompactCodec.class);
+		return (CompactInputStream)in;
+	}
+
+	/* N.B. proxies have to be public, with a public no-arg constructor */
+
+	static public class VectorProxy implements Externalizable {
+
+		static final private long serialVersionUID = -4191634460377155816L;
+
+		static final private byte NULL_VALUE = 0;
+		static final private byte EXTRACTED  = 1;
+		static final private byte GOLDEN     = 2;
+		static final private byte OTHER      = 3;
+
+		private ExtractedVector vector;
+
+		public VectorProxy() {
+		}
+
+		VectorProxy(ExtractedVector vector) {
+			this.vector = vector;
+		}
+
+		@Override
+		public void writeExternal(ObjectOutput oo) throws IOException {
+			final CompactOutputStream out = output(oo);
+			out.writeString(this.vector.getId());
+			out.writeObject(this.vector.getExtractionRule());
+			final SortedSet<Label> labels = this.vector.getLabels();
+			out.writeVarInt(labels.size());
+			for(Label label : labels)
+				out.writeObject(label);
+			final ExtractedValue[] values = this.vector.getElements();
+			out.writeVarInt(values.length);
+			for(ExtractedValue value : values) {
+				if (value==null) {
+					out.writeByte(NULL_VALUE);
+				} else if (value.getClass()==ExtractedValue.class) {
+					out.writeByte(EXTRACTED);
+					out.writeObject(value.getPage());
+					out.writeString(value.getValue());
+					out.writeString(value.getOccurrenceMark());
+				} else if (value.getClass()==GoldenValue.class) {
+					out.writeByte(GOLDEN);
+					out.writeObject(value.getPage());
+					out.writeString(value.getValue());
+				} else {
+					out.writeByte(OTHER);
+					out.writeObject(value);
+				}
+			}
+		}
+
+		@Override
+		public void readExternal(ObjectInput oi) throws IOException, ClassNotFoundException {
+			final CompactInputStream in = input(oi);
+			final String id = in.readString();
+			final ExtractionRule rule = (ExtractionRule)in.readObject();
+			final List<Label> labels = new ArrayList<>();
+			for(int i=in.readVarInt(); i>0; i--)
+				labels.add((Label)in.readObject());
+			final ExtractedValue[] values = new ExtractedValue[in.readVarInt()];
+			for(int i=0; i<values.length; i++) {
+				final byte kind = in.readByte();
+				switch (kind) {
+					case NULL_VALUE:
+						break;
+					case EXTRACTED:
+						final Webpage page = (Webpage)in.readObject();
+						final String text = in.readString();
+						values[i] = new ExtractedValue(page, text, in.readString());
+						break;
+					case GOLDEN:
+						final Webpage goldenPage = (Webpage)in.readObject();
+						values[i] = new GoldenValue(goldenPage, in.readString());
+						break;
+					case OTHER:
+						values[i] = (ExtractedValue)in.readObject();
+						break;
+					default:
+						throw new StreamCorruptedException("unknown kind of value: "+kind);
+				}
+			}
+			this.vector = new ExtractedVector(id, values, rule);
+			this.vector.addLabels(labels);
+		}
+
+		private Object readResolve() throws ObjectStreamException {
+			return this.vector;
+		}
+
+	}
+
+	static public class RuleProxy implements Externalizable {
+
+		static final private long serialVersionUID = 7516209874447040787L;
+
+		static final private byte GENERIC    = 0;
+		static final private byte POSITIONAL = 1;
+		static final private byte RELATIVE   = 2;
+		static final private byte SUBPCDATA  = 3;
+
+		static boolean isEncodable(Class<?> cls) {
+			return  cls==ExtractionRule.class || cls==PositionalRule.class ||
+					cls==RelativeRule.class   || cls==SubPCDATARule.class;
+		}
+
+		private ExtractionRule rule;
+
+		public RuleProxy() {
+		}
+
+		RuleProxy(ExtractionRule rule) {
+			this.rule = rule;
+		}
+
+		@Override
+		public void writeExternal(ObjectOutput oo) throws IOException {
+			final CompactOutputStream out = output(oo);
+			final Class<?> cls = this.rule.getClass();
+			if (cls==SubPCDATARule.class) {
+				out.writeByte(SUBPCDATA);
+				out.writeString(this.rule.getId());
+				out.writeString(this.rule.getXPath());
+				out.writeObject(((SubPCDATARule)this.rule).getPCDATARule());
+				return;
+			}
+			if (cls==PositionalRule.class)
+				out.writeByte(POSITIONAL);
+			else if (cls==RelativeRule.class)
+				out.writeByte(RELATIVE);
+			else {
+				out.writeByte(GENERIC);
+				out.writeObject(this.rule.getExtractionRuleClass());
+			}
+			out.writeString(this.rule.getId());
+			out.writeString(this.rule.getXPath());
+			out.writeObject(this.rule.getWebsite());
+		}
+
+		@Override
+		public void readExternal(ObjectInput oi) throws IOException, ClassNotFoundException {
+			final CompactInputStream in = input(oi);
+			final byte kind = in.readByte();
+			switch (kind) {
+				case SUBPCDATA:
+					final String id = in.readString();
+					final String xpath = in.readString();
+					this.rule = new SubPCDATARule(id, (ExtractionRule)in.readObject(), xpath);
+					return;
+				case POSITIONAL:
+					this.rule = new PositionalRule(in.readString(), in.readString());
+					break;
+				case RELATIVE:
+					this.rule = new RelativeRule(in.readString(), in.readString());
+					break;
+				case GENERIC:
+					final ExtractionRuleClass ruleClass = (ExtractionRuleClass)in.readObject();
+					this.rule = new ExtractionRule(in.readString(), ruleClass, in.readString());
+					break;
+				default:
+					throw new StreamCorruptedException("unknown kind of rule: "+kind);
+			}
+			this.rule.setWebsite((Website)in.readObject());
+		}
+
+		private Object readResolve() throws ObjectStreamException {
+			return this.rule;
+		}
+
+	}
+
+	static public class LinkageProxy implements Externalizable {
+
+		static final private long serialVersionUID = 2850218946349620093L;
+
+		private PageLinkageRepository linkages;
+
+		public LinkageProxy() {
+		}
+
+		LinkageProxy(PageLinkageRepository linkages) {
+			this.linkages = linkages;
+		}
+
+		@Override
+		public void writeExternal(ObjectOutput oo) throws IOException {
+			final CompactOutputStream out = output(oo);
+			out.writeObject(this.linkages.getPairBuilder());
+			final Collection<PageLinkage> all = this.linkages.getAll();
+			out.writeVarInt(all.size());
+			for(PageLinkage linkage : all) {
+				out.writeObject(linkage.getMin());
+				out.writeObject(linkage.getMax());
+				out.writeDouble(linkage.getSimilarity());
+				out.writeInt(linkage.getUsage());
+			}
+		}
+
+		@Override
+		public void readExternal(ObjectInput oi) throws IOException, ClassNotFoundException {
+			final CompactInputStream in = input(oi);
+			final PageLinkageRepository.Builder builder = (PageLinkageRepository.Builder)in.readObject();
+			this.linkages = new PageLinkageRepository(builder);
+			for(int i=in.readVarInt(); i>0; i--) {
+				final Webpage min = (Webpage)in.readObject();
+				final Webpage max = (Webpage)in.readObject();
+				final PageLinkage linkage = new PageLinkage(min, max, in.readDouble());
+				linkage.setUsage(in.readInt());
+				this.linkages.add(linkage);
+			}
+		}
+
+		private Object readResolve() throws ObjectStreamException {
+			return this.linkages;
+		}
+
+	}
+
+}
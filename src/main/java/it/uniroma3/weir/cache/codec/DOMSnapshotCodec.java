@@ -0,0 +1,55 @@
+package it.uniroma3.weir.cache.codec;
+
+import it.uniroma3.weir.model.snapshot.DOMSnapshot;
+import it.uniroma3.weir.model.snapshot.DOMSnapshotStore;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * The binary format of the {@link DOMSnapshot}s of the pages: it is not
+ * meant to encode the results of the computations, but to mark the
+ * snapshots saved by {@link DOMSnapshotStore}, which maps them into
+ * memory rather than decoding them from a stream.
+ */
+public class DOMSnapshotCodec implements CacheCodec {
+
+	static final private byte ID = 3;
+
+	static final private int VERSION = 1;
+
+	@Override
+	public byte getId() {
+		return ID;
+	}
+
+	@Override
+	public int getVersion() {
+		return VERSION;
+	}
+
+	@Override
+	public void encode(Object data, OutputStream out) throws IOException {
+		if (!(data instanceof DOMSnapshot))
+			throw new IllegalArgumentException("Not a DOM snapshot: "+data.getClass());
+		((DOMSnapshot)data).writeTo(out);
+	}
+
+	@Override
+	public Object decode(InputStream in) throws IOException {
+		final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		final byte[] buffer = new byte[8192];
+		int read;
+		while ((read=in.read(buffer))!=-1)
+			bytes.write(buffer, 0, read);
+		try {
+			return new DOMSnapshot(ByteBuffer.wrap(bytes.toByteArray()));
+		} catch (IllegalArgumentException e) {
+			throw new IOException(e.getMessage());
+		}
+	}
+
+}
@@ -0,0 +1,40 @@
+package it.uniroma3.weir.cache.codec;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+
+/**
+ * Plain java object serialization of the cached data.
+ */
+public class JavaSerializationCodec implements CacheCodec {
+
+	static final private byte ID = 1;
+
+	static final private int VERSION = 1;
+
+	@Override
+	public byte getId() {
+		return ID;
+	}
+
+	@Override
+	public int getVersion() {
+		return VERSION;
+	}
+
+	@Override
+	public void encode(Object data, OutputStream out) throws IOException {
+		final ObjectOutputStream oos = new ObjectOutputStream(out);
+		oos.writeObject(data);
+		oos.flush();
+	}
+
+	@Override
+	public Object decode(InputStream in) throws IOException, ClassNotFoundException {
+		return new ObjectInputStream(in).readObject();
+	}
+
+}
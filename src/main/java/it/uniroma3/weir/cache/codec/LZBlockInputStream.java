@@ -0,0 +1,125 @@
+package it.uniroma3.weir.cache.codec;
+
+import static it.uniroma3.weir.cache.codec.LZBlockOutputStream.*;
+
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StreamCorruptedException;
+
+/**
+ * Decompress a stream written by {@link LZBlockOutputStream}.
+ */
+public class LZBlockInputStream extends InputStream {
+
+	final private DataInputStream data;
+
+	final private byte[] block;
+
+	final private byte[] compressed;
+
+	private int length;
+
+	private int position;
+
+	private boolean eof;
+
+	public LZBlockInputStream(InputStream in) {
+		this.data = new DataInputStream(in);
+		this.block = new byte[BLOCK_SIZE];
+		this.compressed = new byte[BLOCK_SIZE];
+		this.length = 0;
+		this.position = 0;
+		this.eof = false;
+	}
+
+	@Override
+	public int read() throws IOException {
+		if (!fill()) return -1;
+		return this.block[this.position++] & 0xff;
+	}
+
+	@Override
+	public int read(byte[] b, int off, int len) throws IOException {
+		if (len==0) return 0;
+		if (!fill()) return -1;
+		final int n = Math.min(len, this.length-this.position);
+		System.arraycopy(this.block, this.position, b, off, n);
+		this.position += n;
+		return n;
+	}
+
+	@Override
+	public int available() throws IOException {
+		return this.length-this.position;
+	}
+
+	@Override
+	public void close() throws IOException {
+		this.data.close();
+	}
+
+	private boolean fill() throws IOException {
+		while (this.position==this.length) {
+			if (this.eof) return false;
+			readBlock();
+		}
+		return true;
+	}
+
+	private void readBlock() throws IOException {
+		final byte flag;
+		try {
+			flag = this.data.readByte();
+		} catch (EOFException e) {
+			throw new StreamCorruptedException("truncated compressed stream");
+		}
+		final int rawLength = this.data.readInt();
+		final int storedLength = this.data.readInt();
+		if (rawLength<0 || rawLength>BLOCK_SIZE || storedLength<0 || storedLength>BLOCK_SIZE)
+			throw new StreamCorruptedException("illegal block length: "+rawLength+"/"+storedLength);
+		this.position = 0;
+		this.length = rawLength;
+		if (rawLength==0) {
+			this.eof = true;
+		} else if (flag==STORED) {
+			if (storedLength!=rawLength)
+				throw new StreamCorruptedException("illegal stored block length: "+storedLength);
+			this.data.readFully(this.block, 0, rawLength);
+		} else if (flag==COMPRESSED) {
+			this.data.readFully(this.compressed, 0, storedLength);
+			decompress(this.compressed, storedLength, this.block, rawLength);
+		} else throw new StreamCorruptedException("unknown block flag: "+flag);
+	}
+
+	static private void decompress(byte[] src, int n, byte[] dst, int rawLength) throws IOException {
+		int i = 0;
+		int size = 0;
+		while (i<n) {
+			final int control = src[i++] & 0xff;
+			if (control<0x80) {
+				final int run = control+1;
+				if (i+run>n || size+run>rawLength)
+					throw new StreamCorruptedException("corrupted literals");
+				System.arraycopy(src, i, dst, size, run);
+				i += run;
+				size += run;
+			} else {
+				final int len = (control & 0x7f) + MIN_MATCH;
+				if (i+2>n)
+					throw new StreamCorruptedException("corrupted match");
+				final int offset = (src[i] & 0xff) << 8 | (src[i+1] & 0xff);
+				i += 2;
+				if (offset==0 || offset>size || size+len>rawLength)
+					throw new StreamCorruptedException("corrupted match");
+				/* byte by byte: source and destination may overlap */
+				for(int k=0; k<len; k++, size++)
+					dst[size] = dst[size-offset];
+			}
+		}
+		if (size!=rawLength)
+			throw new StreamCorruptedException("corrupted block: "+size+" bytes out of "+rawLength);
+	}
+
+}
@@ -0,0 +1,158 @@
+package it.uniroma3.weir.cache.codec;
+
+import java.io.DataOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+/**
+ * A byte-oriented LZ77 compression of a stream split into blocks
+ * of {@link #BLOCK_SIZE} bytes, each compressed independently by
+ * greedily matching the 4-bytes sequences already seen within the
+ * same block (found by hashing).
+ * <br/>
+ * Every block is preceded by a flag (stored or compressed), its
+ * original length, and its stored length: a block is stored as
+ * it is whenever the compression would not make it shorter.
+ * An empty block marks the end of the stream.
+ * <br/>
+ * A compressed block is a sequence of tokens: a control byte
+ * <tt>0lllllll</tt> is followed by <tt>l+1</tt> literal bytes,
+ * while a control byte <tt>1lllllll</tt> is followed by a 2-bytes
+ * offset, and copies <tt>l+4</tt> bytes from that offset backward.
+ *
+ * @see LZBlockInputStream
+ */
+public class LZBlockOutputStream extends FilterOutputStream {
+
+	static final int BLOCK_SIZE = 1 << 16;
+
+	static final byte STORED     = 0;
+	static final byte COMPRESSED = 1;
+
+	static final int MIN_MATCH   = 4;
+	static final int MAX_MATCH   = MIN_MATCH + 0x7f;
+	static final int MAX_LITERAL = 0x80;
+	static final int MAX_OFFSET  = 0xffff;
+
+	static final private int HASH_BITS = 14;
+
+	final private DataOutputStream data;
+
+	final private byte[] block;
+
+	private int length;
+
+	final private byte[] compressed;
+
+	final private int[] table;
+
+	public LZBlockOutputStream(OutputStream out) {
+		super(out);
+		this.data = new DataOutputStream(out);
+		this.block = new byte[BLOCK_SIZE];
+		this.length = 0;
+		/* worst case: one control byte every MAX_LITERAL bytes */
+		this.compressed = new byte[BLOCK_SIZE + BLOCK_SIZE/MAX_LITERAL + 1];
+		this.table = new int[1 << HASH_BITS];
+	}
+
+	@Override
+	public void write(int b) throws IOException {
+		if (this.length==BLOCK_SIZE) writeBlock();
+		this.block[this.length++] = (byte)b;
+	}
+
+	@Override
+	public void write(byte[] b, int off, int len) throws IOException {
+		while (len>0) {
+			if (this.length==BLOCK_SIZE) writeBlock();
+			final int n = Math.min(len, BLOCK_SIZE-this.length);
+			System.arraycopy(b, off, this.block, this.length, n);
+			this.length += n;
+			off += n;
+			len -= n;
+		}
+	}
+
+	/* N.B. partial blocks are written only on close, for a better ratio */
+	@Override
+	public void flush() throws IOException {
+		this.data.flush();
+	}
+
+	@Override
+	public void close() throws IOException {
+		if (this.length>0) writeBlock();
+		this.data.writeByte(STORED);
+		this.data.writeInt(0);
+		this.data.writeInt(0);
+		this.data.flush();
+		super.close();
+	}
+
+	private void writeBlock() throws IOException {
+		final int size = compress(this.block, this.length, this.compressed);
+		if (size<this.length) {
+			this.data.writeByte(COMPRESSED);
+			this.data.writeInt(this.length);
+			this.data.writeInt(size);
+			this.data.write(this.compressed, 0, size);
+		} else {
+			this.data.writeByte(STORED);
+			this.data.writeInt(this.length);
+			this.data.writeInt(this.length);
+			this.data.write(this.block, 0, this.length);
+		}
+		this.length = 0;
+	}
+
+	private int compress(byte[] src, int n, byte[] dst) {
+		Arrays.fill(this.table, -1);
+		int size = 0;
+		int anchor = 0;
+		int i = 0;
+		while (i+MIN_MATCH<=n) {
+			final int h = hash(src, i);
+			final int ref = this.table[h];
+			this.table[h] = i;
+			if (ref>=0 && i-ref<=MAX_OFFSET && matches(src, ref, i)) {
+				int len = MIN_MATCH;
+				while (i+len<n && len<MAX_MATCH && src[ref+len]==src[i+len])
+					len++;
+				size = literals(src, anchor, i, dst, size);
+				dst[size++] = (byte)(0x80 | (len-MIN_MATCH));
+				dst[size++] = (byte)((i-ref) >>> 8);
+				dst[size++] = (byte)(i-ref);
+				i += len;
+				anchor = i;
+			} else i++;
+		}
+		size = literals(src, anchor, n, dst, size);
+		return size;
+	}
+
+	static private int literals(byte[] src, int from, int to, byte[] dst, int size) {
+		while (from<to) {
+			final int run = Math.min(MAX_LITERAL, to-from);
+			dst[size++] = (byte)(run-1);
+			System.arraycopy(src, from, dst, size, run);
+			size += run;
+			from += run;
+		}
+		return size;
+	}
+
+	static private boolean matches(byte[] src, int ref, int i) {
+		return  src[ref]==src[i]     && src[ref+1]==src[i+1] &&
+				src[ref+2]==src[i+2] && src[ref+3]==src[i+3];
+	}
+
+	static private int hash(byte[] src, int i) {
+		final int v = (src[i] & 0xff) | (src[i+1] & 0xff) << 8 |
+					  (src[i+2] & 0xff) << 16 | (src[i+3] & 0xff) << 24;
+		return (v * -1640531535) >>> (32-HASH_BITS);
+	}
+
+}
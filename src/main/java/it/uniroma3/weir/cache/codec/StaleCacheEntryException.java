@@ -0,0 +1,19 @@
+package it.uniroma3.weir.cache.codec;
+
+import java.io.IOException;
+
+/**
+ * A cache file that cannot be decoded by the current
+ * {@link CacheCodec}s, e.g., because written by another
+ * codec, by an older version of a codec, or for another
+ * {@link Fingerprint}.
+ */
+public class StaleCacheEntryException extends IOException {
+
+	static final private long serialVersionUID = -6244417245906581330L;
+
+	public StaleCacheEntryException(String message) {
+		super(message);
+	}
+
+}
@@ -2,6 +2,7 @@ package it.uniroma3.weir.configuration;
 
 import it.uniroma3.hlog.HypertextualLogger;
 import it.uniroma3.weir.cache.CachedComputation;
+import it.uniroma3.weir.cache.Dependencies;
 import it.uniroma3.weir.cache.Fingerprint;
 import it.uniroma3.weir.linking.DomainLinker;
 import it.uniroma3.weir.linking.linkage.DomainLinkage;
@@ -19,6 +20,9 @@ public class BootstrappingLinkageFactory extends CachedComputation<Domain, Domai
 
 	static final private  HypertextualLogger log = HypertextualLogger.getLogger();
 
+	static final public Dependencies DEPENDENCIES =
+			new Dependencies("link", DomainLinker.DEPENDENCIES).reads(LINKING_STRATEGY);
+
 	public DomainLinkage link(Domain domain) {
 		return cachedComputation(domain);
 	}
@@ -38,19 +42,14 @@ public class BootstrappingLinkageFactory extends CachedComputation<Domain, Domai
 		}
 	}
 	
+	@Override
+	protected Dependencies getDependencies() {
+		return DEPENDENCIES;
+	}
+
 	@Override
 	public Fingerprint fingerprint(Domain input) {
 		fingerprint(input.getFingerprint());
-		fingerprint(getString(LINKING_STRATEGY));
-		fingerprint(getString(LINKING_TOP_K));
-		fingerprint(getString(LINKING_PARAMETERS));
-		fingerprint(getString(MIN_OVERLAPPING_SAMPLES));
-		fingerprint(getString(MAX_OVERLAPPING_SAMPLES));
-		fingerprint(getString(TYPED_ENTITIES));
-		fingerprint(getString(ENTITY_FACTORY));
-		fingerprint(getString(ENTITY_SIM_THRESHOLD));
-		fingerprint(getString(ENTITY_TERM_SIM_THRESHOLD));
-		fingerprint(getString(ENTITY_TERM_IDF_THRESHOLD));
 		return getFingerprint("link");
 	}
 		
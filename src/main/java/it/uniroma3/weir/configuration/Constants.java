@@ -11,9 +11,17 @@ public enum Constants implements Constant {
 	EXPERIMENTS_PATH("./src/main/resources/experiments"),
 	DATASET_PATH("./dataset"),
 	CACHING_ENABLED("true"),
+	CACHE_CODEC("COMPACT"),       // see CacheCodecs
+	CACHE_COMPRESSION("true"),
+	CACHE_MEMORY_BUDGET("256"),   // MB, see MemoryTier
+	CACHE_DISK_QUOTA("4096"),     // MB, over all the experiments (0 = unbounded)
+	CACHE_MAX_AGE("0"),           // days since the last access (0 = unbounded)
+	CACHE_MANIFEST_BATCH("32"),   // cache files stored between saves of the manifest
 	DATATYPES("STRING,NUMBER,MONEY,SPACE,MASS,DATE,PHONE,URL"),
 	
 	MAX_PAGES_PER_SOURCE("0"),
+	PAGE_LOADING_THREADS("0"),          // see PageLoader
+	PAGE_PARSING_MEMORY_BUDGET("256"),  // MB of the pages being parsed at once
 	
 	SOFTID_FILTER(".+"),
 	
@@ -31,6 +39,13 @@ public enum Constants implements Constant {
 //                "max_iterations=4;\\"),
                 
 	EXTRACTION_RULES_CLASSES("positional,relative"),
+	EXTRACTION_SINGLE_PASS("true"), // see XPathTrie
+	EXTRACTION_STREAMING("false"),  // see StreamingExtractor
+	EXTRACTION_THREADS("0"),        // see ExtractionScheduler
+	EXTRACTION_RULE_BLOCK("256"),
+	EXTRACTION_TIMEOUT("1800"),
+	EXTRACTION_PARALLEL_SITES("1"), // see Extraction
+	EXTRACTION_MAX_LOADED_PAGES("20000"),
 	MAX_PIVOT_DISTANCE("4"),
 	MIN_PIVOT_OCCURRENCES("3"),
 	MIN_PIVOT_LENGTH("2"),
@@ -59,6 +74,10 @@ public enum Constants implements Constant {
 	
 	ONES2ONE("-1"), // 
 	
+	DSCD_RESIDUAL_NORM("LINF_PER_ELEMENT"),   // see ResidualNorm
+	DSCD_TOLERANCE("1e-6"),
+	DSCD_MAX_ITERATIONS("1000"),
+	
 //	### LINKING PROPERTIES (RECORD LINKAGE)
 	LINKING_STRATEGY("it.uniroma3.weir.linking.DomainLinker"),
 //	LINKING_STRATEGY("it.uniroma3.weir.linking.LegacySoftIdsLinker"),
@@ -68,6 +87,10 @@ public enum Constants implements Constant {
 	// Altri plausibili valori dei parametri in MainDSCDOnJaccardLinkage
 	LINKING_PARAMETERS("2.0, 0.2, 0.05"),
 	
+	LINKING_BLOCKING("NONE"),
+	// sorted-neighbourhood window, LSH bands, LSH rows per band
+	LINKING_BLOCKING_PARAMETERS("8, 16, 4"),
+	
 	ENTITY_FACTORY("SOFTID_ENTITY"),
 	TYPED_ENTITIES("true"),
 	
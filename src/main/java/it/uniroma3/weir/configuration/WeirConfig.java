@@ -3,9 +3,15 @@ package it.uniroma3.weir.configuration;
 import it.uniroma3.weir.model.Experiment;
 
 import java.net.URL;
+import java.util.ArrayDeque;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.LinkedHashSet;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.commons.configuration.CompositeConfiguration;
 import org.apache.commons.configuration.Configuration;
@@ -18,10 +24,46 @@ import it.uniroma3.preferences.Constant;
  * properties,  i.e., they should not be related to an experiment.
  * <br/>
  * It checks that's loaded only once for each execution.
+ * <br/>
+ * The reads of the {@link Constant}s can be tracked (see {@link #track()}),
+ * e.g., to check that a computation only reads the properties it declares.
  *
  */
 public class WeirConfig {
 
+	/**
+	 * The {@link Constant}s read by the current thread since the log was
+	 * opened, and until it is closed: logs can be nested, and a read is
+	 * recorded by all the open logs of the thread.
+	 */
+	static public class AccessLog implements AutoCloseable {
+
+		final private Set<Constant> accessed = new LinkedHashSet<>();
+
+		private AccessLog() { }
+
+		public Set<Constant> getAccessed() {
+			return Collections.unmodifiableSet(this.accessed);
+		}
+
+		@Override
+		public void close() {
+			if (openLogs.get().remove(this))
+				tracking.decrementAndGet();
+		}
+
+	}
+
+	static final private ThreadLocal<Deque<AccessLog>> openLogs = new ThreadLocal<Deque<AccessLog>>() {
+		@Override
+		protected Deque<AccessLog> initialValue() {
+			return new ArrayDeque<>();
+		}
+	};
+
+	/* number of open logs over all threads: reads are not tracked if none */
+	static final private AtomicInteger tracking = new AtomicInteger();
+
 	static private WeirConfig instance;
 	
 	private Configuration configuration;
@@ -62,22 +104,27 @@ public class WeirConfig {
 	}
 	
 	static public String getString(Constant name) {
+		accessed(name);
 		return getConfiguration().getString(name.key());		
 	}
 
 	static public int getInteger(Constant name) {
+		accessed(name);
 		return getConfiguration().getInt(name.key());		
 	}
 		
 	static public boolean getBoolean(Constant name) {
+		accessed(name);
 		return getConfiguration().getBoolean(name.key());		
 	}
 	
 	static public double getDouble(Constant name) {
+		accessed(name);
 		return getConfiguration().getDouble(name.key());		
 	}
 	
 	static public List<String> getList(Constant name) {
+		accessed(name);
 		return Arrays.asList(getConfiguration().getStringArray(name.key()));
 	}
 	
@@ -89,6 +136,26 @@ public class WeirConfig {
 		return result;
 	}
 	
+	/**
+	 * Start tracking the {@link Constant}s read by the current thread:
+	 * the returned log must be closed, e.g., by try-with-resources.
+	 * <br/>
+	 * N.B. reads by other threads, e.g., by a pool of workers, are
+	 * not tracked.
+	 */
+	static public AccessLog track() {
+		final AccessLog log = new AccessLog();
+		openLogs.get().push(log);
+		tracking.incrementAndGet();
+		return log;
+	}
+
+	static private void accessed(Constant name) {
+		if (tracking.get()==0) return;
+		for(AccessLog log : openLogs.get())
+			log.accessed.add(name);
+	}
+
 	// JFT: just for testing
 	static public void reset() {
 		instance = null;
@@ -2,21 +2,36 @@ package it.uniroma3.weir.dscd;
 
 import it.uniroma3.hlog.HypertextualLogger;
 import it.uniroma3.weir.MatchRepository;
+import it.uniroma3.weir.dscd.matrix.InvertedIndex;
 import it.uniroma3.weir.integration.Match;
 import it.uniroma3.weir.linking.entity.ValueEntity;
 import it.uniroma3.weir.linking.linkage.PageLinkage;
 import it.uniroma3.weir.linking.linkage.PageLinkageRepository;
+import it.uniroma3.weir.model.Attribute;
+import it.uniroma3.weir.model.Webpage;
 import it.uniroma3.weir.model.Website;
+import it.uniroma3.weir.vector.signature.SignatureCache;
+import it.uniroma3.weir.vector.signature.TokenDictionary;
+import it.uniroma3.weir.vector.type.DimensionalType;
 import it.uniroma3.weir.vector.type.Type;
+import it.uniroma3.weir.vector.value.Dimensional;
 import it.uniroma3.weir.vector.value.Value;
 
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import org.jblas.DoubleMatrix;
 import static it.uniroma3.weir.dscd.DomainFusion.WebsiteFusionBuilder;
 
 public class DSCDAlgorithm extends WebsiteFusionBuilder
-                           implements DSCDScorer<PageLinkage,Match> {
+                           implements DSCDSparseScorer<PageLinkage,Match> {
 
 	static final private long serialVersionUID = -3443388370717247565L;
 
@@ -35,6 +50,15 @@ public class DSCDAlgorithm extends WebsiteFusionBuilder
 	private List<PageLinkage> candidateLinkages;
 
 	private List<Match> candidateMatches;	
+
+	/* the candidate linkages indexed below */
+	private List<PageLinkage> indexedLinkages;
+
+	/* min page -> max page -> position of their candidate linkage */
+	private Map<Webpage, Map<Webpage, Integer>> linkagesByPages;
+
+	/* the max pages of the candidate linkages */
+	private List<Webpage> maxPages;
 	
 	@Override
 	public WebsiteFusion createPair(Website s_i, Website s_j) {
@@ -89,6 +113,87 @@ public class DSCDAlgorithm extends WebsiteFusionBuilder
 		return result;
 	}
 
+	private void index(List<PageLinkage> linkages) {
+		final Set<Webpage> maxPages = new LinkedHashSet<>();
+		this.linkagesByPages = new LinkedHashMap<>();
+		for (int i=0; i<linkages.size(); i++) {
+			final PageLinkage link = linkages.get(i);
+			Map<Webpage, Integer> max2position = this.linkagesByPages.get(link.getMin());
+			if (max2position==null) {
+				max2position = new HashMap<>();
+				this.linkagesByPages.put(link.getMin(), max2position);
+			}
+			max2position.put(link.getMax(), i);
+			maxPages.add(link.getMax());
+		}
+		this.maxPages = new ArrayList<>(maxPages);
+		this.indexedLinkages = linkages;
+	}
+
+	/* only the linkages between pages whose values share a key
+	 * (see keys()) are scored: the others score 0, as any pair
+	 * of values with a null */
+	@Override
+	public int[] candidates(List<PageLinkage> links, Match match) {
+		if (links!=this.indexedLinkages) index(links);
+		final Type type = commonType(match);
+		/* n.b. the tokens of all the values from the same dictionary */
+		final TokenDictionary dictionary = SignatureCache.getInstance().getDictionary();
+
+		/* key -> positions of the max pages with a value with that key */
+		final InvertedIndex<Object> maxPagesByKey = new InvertedIndex<>();
+		for (int j=0; j<this.maxPages.size(); j++) {
+			final Value value = valueOf(this.maxPages.get(j), match.getMax());
+			if (value==null) continue;
+			for (Object key : keys(type, value, dictionary))
+				maxPagesByKey.add(key, j);
+		}
+
+		final BitSet result = new BitSet(links.size());
+		for (Map.Entry<Webpage, Map<Webpage, Integer>> entry : this.linkagesByPages.entrySet()) {
+			final Value value = valueOf(entry.getKey(), match.getMin());
+			if (value==null) continue;
+			for (Object key : keys(type, value, dictionary)) {
+				for (int j : maxPagesByKey.get(key)) {
+					final Integer i = entry.getValue().get(this.maxPages.get(j));
+					if (i!=null) result.set(i);
+				}
+			}
+		}
+		return result.stream().toArray();
+	}
+
+	static private Value valueOf(Webpage page, Attribute a) {
+		final Value value = ((ValueEntity) page.getEntity()).getValue(a);
+		return ( value==null || value.isNull() ? null : value );
+	}
+
+	static private Type commonType(Match match) {
+		final Type t1 = match.getMin().getVector().getType();
+		final Type t2 = match.getMax().getVector().getType();
+		return Type.getCommonAncestor(t1, t2);
+	}
+
+	/* the keys of a (non-null) value: two values whose keys are disjoint
+	 * are at distance 1, i.e., they score 0 (see ValueDistances)       */
+	static private Set<Object> keys(Type type, Value value, TokenDictionary dictionary) {
+		final Object object = value.getValue();
+		if (type==Type.PHONE)
+			return Collections.singleton(object);
+		if (type==Type.STRING || type==Type.URL || type==Type.ISBN) {
+			final Set<Object> result = new LinkedHashSet<>();
+			for (int token : SignatureCache.signatureOf(object.toString()).in(dictionary).getTokens())
+				result.add(token);
+			if (type==Type.ISBN) result.add(object);
+			return result;
+		}
+		/* dimensional values with different markers... */
+		if (type instanceof DimensionalType)
+			return Collections.<Object>singleton(((Dimensional) object).getMarker());
+		/* ...otherwise any two numbers, or dates, might be close */
+		return Collections.<Object>singleton(type);
+	}
+
 	@Override
 	public double score(PageLinkage link, Match match) {
 		final ValueEntity e1 = (ValueEntity) link.getMin().getEntity();
@@ -98,9 +203,8 @@ public class DSCDAlgorithm extends WebsiteFusionBuilder
 
 		if (value1.isNull() || value2.isNull()) return 0d;
 
-		final Type t1 = match.getMin().getVector().getType();// VC: nb. tipo del vettore
-		final Type t2 = match.getMax().getVector().getType();//         e non del valore!
-		return 1 - Type.getCommonAncestor(t1, t2).distance(value1.getValue(), value2.getValue());
+		final Type type = commonType(match); // VC: nb. tipo del vettore e non del valore!
+		return 1 - type.distance(value1.getValue(), value2.getValue());
 	}
 
 }
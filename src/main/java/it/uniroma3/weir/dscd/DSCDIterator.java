@@ -1,11 +1,30 @@
 package it.uniroma3.weir.dscd;
 
+import static it.uniroma3.weir.configuration.Constants.DSCD_MAX_ITERATIONS;
+import static it.uniroma3.weir.configuration.Constants.DSCD_RESIDUAL_NORM;
+import static it.uniroma3.weir.configuration.Constants.DSCD_TOLERANCE;
 import it.uniroma3.hlog.HypertextualLogger;
+import it.uniroma3.weir.configuration.WeirConfig;
+import it.uniroma3.weir.dscd.matrix.ResidualNorm;
+import it.uniroma3.weir.dscd.matrix.SparseMatrix;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 
 import org.jblas.DoubleMatrix;
 
+/**
+ * Iterate <tt>D = S&middot;C</tt>, <tt>C = S<sup>T</sup>&middot;D</tt>
+ * (both normalized) over the sparse evidence matrix <tt>S</tt>
+ * until the residual between two consecutive <tt>C</tt>s is within
+ * {@link Constants#DSCD_TOLERANCE}, or at most
+ * {@link Constants#DSCD_MAX_ITERATIONS} times.
+ * <br/>
+ * By default, {@link ResidualNorm#LINF_PER_ELEMENT} within <tt>1e-6</tt>:
+ * the stop criterion of {@link DoubleMatrix#equals(Object)} used originally.
+ */
 public class DSCDIterator<R,C> {
 
 	static final private HypertextualLogger log = HypertextualLogger.getLogger();
@@ -24,11 +43,36 @@ public class DSCDIterator<R,C> {
 
 	final private List<C> cols;	
 	
-	final private DoubleMatrix evidenceMatrix;
+	final private SparseMatrix evidenceMatrix;
+
+	final private ResidualNorm norm;
+
+	final private double tolerance;
+
+	final private int maxIterations;
+
+	final private List<Double> residuals;
+
+	private boolean converged;
 	
 	public DSCDIterator(List<R> rows, List<C> cols, DSCDScorer<R,C> s) {
+		this(rows, cols, s,
+			 ResidualNorm.valueOf(WeirConfig.getString(DSCD_RESIDUAL_NORM)),
+			 WeirConfig.getDouble(DSCD_TOLERANCE),
+			 WeirConfig.getInteger(DSCD_MAX_ITERATIONS));
+	}
+
+	public DSCDIterator(List<R> rows, List<C> cols, DSCDScorer<R,C> s,
+						ResidualNorm norm, double tolerance, int maxIterations) {
+		if (tolerance<0 || maxIterations<=0)
+			throw new IllegalArgumentException("Invalid convergence criterion: tolerance "
+												+tolerance+", max iterations "+maxIterations);
 		this.rows = rows;
 		this.cols = cols;
+		this.norm = norm;
+		this.tolerance = tolerance;
+		this.maxIterations = maxIterations;
+		this.residuals = new ArrayList<>();
 		DSCDMatrixInitializer<R,C> emi = new DSCDMatrixInitializer<>(this.rows, this.cols, s);
 		this.evidenceMatrix = emi.initMatrix();
 	}
@@ -37,46 +81,63 @@ public class DSCDIterator<R,C> {
 		final int n = this.cols.size();
 		log.newPage("DSCD Iterations");
 
-		DoubleMatrix C = initC0(n);
-		DoubleMatrix D = null;
+		final SparseMatrix S  = this.evidenceMatrix;
+		final SparseMatrix St = this.evidenceMatrix.transpose(); // cached
 
-		int i = 0;
-		DoubleMatrix previous = new DoubleMatrix();
-		while (!previous.equals(C)) {
-			previous = new DoubleMatrix(C.data);
+		double[] C = initC0(n);
+		double[] next = new double[n];
+		final double[] D = new double[this.rows.size()];
 
-			D = evidenceMatrix.mmul(C);
-			D = normalize(D);
+		this.residuals.clear();
+		this.converged = false;
+		int i = 0;
+		while (i<this.maxIterations) {
+			S.multiply(C, D);
+			normalize(D);
 
-			C = evidenceMatrix.transpose().mmul(D);
-			C = normalize(C);
+			St.multiply(D, next);
+			normalize(next);
 
+			final double residual = this.norm.residual(C, next);
+			final double[] swap = C;
+			C = next;
+			next = swap;
 			i++;
+
+			this.residuals.add(residual);
+			log.trace("iteration " + i + ": " + this.norm + " residual " + residual);
+			if (residual<=this.tolerance) {
+				this.converged = true;
+				break;
+			}
 		}
 		log.endPage();
 		
 		log.trace("...total iterations: " + i);
-		this.resultingC = C;
-		this.resultingD = D;
+		if (!this.converged)
+			log.warn("DSCD did not converge within " + this.maxIterations + " iterations: "
+					+ this.norm + " residual " + this.residuals.get(this.residuals.size()-1));
+		this.resultingC = new DoubleMatrix(C);
+		this.resultingD = new DoubleMatrix(D);
 	}
 
-	private DoubleMatrix initC0(int size) {
+	private double[] initC0(int size) {
 		final double[] data = new double[size];
-		for (int i=0; i<size; i++) {
-			data[i] = 0.5d;
-		}
-		final DoubleMatrix C = new DoubleMatrix(data);
-		return C;
+		Arrays.fill(data, 0.5d);
+		return data;
 	}
 
-	private DoubleMatrix normalize(DoubleMatrix m) {
-		double normalizer = m.normmax();
+	private void normalize(double[] m) {
+		double normalizer = 0d;
+		for (double d : m)
+			normalizer = Math.max(normalizer, Math.abs(d));
 
 		if (normalizer==0d) {
 			throw new IllegalArgumentException("cannot normalize all-zero matrix");
 		}
 
-		return m.div(normalizer);
+		for (int i=0; i<m.length; i++)
+			m[i] /= normalizer;
 	}
 
 	public DoubleMatrix getD() {
@@ -86,5 +147,24 @@ public class DSCDIterator<R,C> {
 	public DoubleMatrix getC() {
 		return this.resultingC;
 	}
+
+	public SparseMatrix getEvidenceMatrix() {
+		return this.evidenceMatrix;
+	}
+
+	/**
+	 * @return the residual of every iteration of the last {@link #iterate()}
+	 */
+	public List<Double> getResiduals() {
+		return Collections.unmodifiableList(this.residuals);
+	}
+
+	public int getIterations() {
+		return this.residuals.size();
+	}
+
+	public boolean hasConverged() {
+		return this.converged;
+	}
 	
 }
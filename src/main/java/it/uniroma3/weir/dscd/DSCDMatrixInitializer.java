@@ -1,11 +1,10 @@
 package it.uniroma3.weir.dscd;
 
 import it.uniroma3.hlog.HypertextualLogger;
+import it.uniroma3.weir.dscd.matrix.SparseMatrix;
 
 import java.util.List;
 
-import org.jblas.DoubleMatrix;
-
 /**
  * @see <a href="http://dl.acm.org/citation.cfm?id=1247541">
  * <i>Query relaxation using malleable schemas</i></a>
@@ -14,7 +13,10 @@ import org.jblas.DoubleMatrix;
  * ACM SIGMOD 2007<br/>
  * 
  * <em>Section 2.1: The Data Model</em>
- *
+ * <br/>
+ * Most of the cells of the evidence matrix are zero: only the non-zero
+ * ones are stored. A {@link DSCDSparseScorer} is asked just for the
+ * cells that might be non-zero.
  */
 public class DSCDMatrixInitializer<R,C> {
 
@@ -31,22 +33,39 @@ public class DSCDMatrixInitializer<R,C> {
 		this.dSCDScorer = s;
 	}
 
-	public DoubleMatrix initMatrix() {
+	public SparseMatrix initMatrix() {
 		log.trace("init evidence matrix");
-		final double[][] data = new double[this.rows.size()][this.cols.size()];
+		final SparseMatrix.Builder builder = new SparseMatrix.Builder(this.rows.size(), this.cols.size());
+		final int[] all = allRows();
+		long scored = 0;
+		for (int j = 0; j < this.cols.size(); j++) {
+			C col = this.cols.get(j);
 
-		for (int i = 0; i < this.rows.size(); i++) {
-			R row = this.rows.get(i);
-
-			for (int j = 0; j < this.cols.size(); j++) {
-				C col = this.cols.get(j);
-				data[i][j] = this.dSCDScorer.score(row, col);
+			for (int i : candidates(col, all)) {
+				R row = this.rows.get(i);
+				builder.set(i, j, this.dSCDScorer.score(row, col));
+				scored++;
 			}
 		}
 
-		DoubleMatrix S = new DoubleMatrix(data);
-		log.trace("S dimension: " + S.rows + " x " + S.columns);
+		final SparseMatrix S = builder.build();
+		log.trace("S dimension: " + S.getRows() + " x " + S.getColumns()
+				+ ", " + scored + " cells scored, " + S.getNonZeros() + " non-zeros"
+				+ " (density " + String.format("%.4f", S.getDensity()) + ")");
 		return S;
 	}
+
+	private int[] candidates(C col, int[] all) {
+		if (this.dSCDScorer instanceof DSCDSparseScorer)
+			return ((DSCDSparseScorer<R,C>)this.dSCDScorer).candidates(this.rows, col);
+		return all;
+	}
+
+	private int[] allRows() {
+		if (this.dSCDScorer instanceof DSCDSparseScorer) return null;
+		final int[] all = new int[this.rows.size()];
+		for (int i = 0; i < all.length; i++) all[i] = i;
+		return all;
+	}
 	
 }
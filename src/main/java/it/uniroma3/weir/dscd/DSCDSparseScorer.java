@@ -0,0 +1,18 @@
+package it.uniroma3.weir.dscd;
+
+import java.util.List;
+
+/**
+ * A {@link DSCDScorer} that can tell in advance which rows might
+ * score non-zero against a column: the other cells of the evidence
+ * matrix are not even scored.
+ */
+public interface DSCDSparseScorer<R,C> extends DSCDScorer<R,C> {
+	/**
+	 * @param rows - all the rows
+	 * @param col  - a column
+	 * @return the positions, in increasing order, of the only rows
+	 *         that might score non-zero against the column
+	 */
+	abstract public int[] candidates(List<R> rows, C col);
+}
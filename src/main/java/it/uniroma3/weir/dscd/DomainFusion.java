@@ -37,7 +37,7 @@ public class DomainFusion extends DomainRepository<WebsiteFusion> {
 	}
 
 	public DomainFusion(Domain domain, WebsiteFusionBuilder builder) {
-		super(domain, WebsiteFusion.class, builder);
+		super(domain, builder);
 	}
 	
 	public WebsiteFusion getFusion(Website s1, Website s2) {
@@ -0,0 +1,83 @@
+package it.uniroma3.weir.dscd.matrix;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Map every key, e.g., a value, to the (increasing) positions
+ * of the rows of a {@link SparseMatrix} where it occurs, so that
+ * only those rows need to be scored against a column.
+ */
+public class InvertedIndex<K> {
+
+	static final private int[] EMPTY = new int[0];
+
+	static final private class Postings {
+
+		private int[] positions = new int[4];
+
+		private int size = 0;
+
+		void add(int position) {
+			if (this.size>0 && this.positions[this.size-1]>=position) {
+				if (this.positions[this.size-1]==position) return;
+				throw new IllegalArgumentException("Positions must be added in increasing order: "
+						+ position + " after " + this.positions[this.size-1]);
+			}
+			if (this.size==this.positions.length)
+				this.positions = Arrays.copyOf(this.positions, this.size + (this.size>>1) + 1);
+			this.positions[this.size++] = position;
+		}
+
+		int[] toArray() {
+			if (this.positions.length!=this.size)
+				this.positions = Arrays.copyOf(this.positions, this.size);
+			return this.positions;
+		}
+
+	}
+
+	final private Map<K, Postings> key2postings;
+
+	public InvertedIndex() {
+		this.key2postings = new LinkedHashMap<>();
+	}
+
+	/**
+	 * @param key - a key
+	 * @param position - a position not smaller than those already added for the key
+	 */
+	public void add(K key, int position) {
+		Postings postings = this.key2postings.get(key);
+		if (postings==null) {
+			postings = new Postings();
+			this.key2postings.put(key, postings);
+		}
+		postings.add(position);
+	}
+
+	/**
+	 * @return the positions where the key occurs, in increasing order
+	 */
+	public int[] get(K key) {
+		final Postings postings = this.key2postings.get(key);
+		return ( postings!=null ? postings.toArray() : EMPTY );
+	}
+
+	public Set<K> keys() {
+		return Collections.unmodifiableSet(this.key2postings.keySet());
+	}
+
+	public int size() {
+		return this.key2postings.size();
+	}
+
+	@Override
+	public String toString() {
+		return getClass().getSimpleName()+" ("+this.key2postings.size()+" keys)";
+	}
+
+}
@@ -0,0 +1,51 @@
+package it.uniroma3.weir.dscd.matrix;
+
+import static java.lang.Math.abs;
+import static java.lang.Math.max;
+
+/**
+ * The norms measuring the residual between two
+ * consecutive vectors of an iterative computation.
+ */
+public enum ResidualNorm {
+
+	/**
+	 * Sum of the absolute differences
+	 */
+	L1 {
+		@Override
+		public double residual(double[] previous, double[] current) {
+			double sum = 0d;
+			for(int i=0; i<current.length; i++)
+				sum += abs(current[i]-previous[i]);
+			return sum;
+		}
+	},
+
+	/**
+	 * Max absolute difference
+	 */
+	LINF {
+		@Override
+		public double residual(double[] previous, double[] current) {
+			double result = 0d;
+			for(int i=0; i<current.length; i++)
+				result = max(result, abs(current[i]-previous[i]));
+			return result;
+		}
+	},
+
+	/**
+	 * Max absolute difference over the number of elements,
+	 * as in {@link org.jblas.DoubleMatrix#equals(Object)}
+	 */
+	LINF_PER_ELEMENT {
+		@Override
+		public double residual(double[] previous, double[] current) {
+			return LINF.residual(previous, current) / current.length;
+		}
+	};
+
+	abstract public double residual(double[] previous, double[] current);
+
+}
@@ -0,0 +1,233 @@
+package it.uniroma3.weir.dscd.matrix;
+
+import java.util.Arrays;
+
+/**
+ * An immutable sparse matrix of doubles in <em>compressed sparse row</em>
+ * (CSR) format: only the non-zero cells are stored, so that its memory
+ * footprint scales with the number of non-zero cells, rather than with
+ * rows &times; columns.
+ * <br/>
+ * The transpose is computed once, on demand, and then cached: being the
+ * CSR format of the transpose just the <em>compressed sparse column</em>
+ * (CSC) format of this matrix, both the products <tt>M&middot;x</tt> and
+ * <tt>M<sup>T</sup>&middot;x</tt> scan the stored cells sequentially.
+ * <br/>
+ * It can be shared among threads.
+ *
+ * @see Builder
+ */
+public class SparseMatrix {
+
+	final private int rows;
+
+	final private int columns;
+
+	/* cells of row i are at positions [rowStart[i], rowStart[i+1]) */
+	final private int[] rowStart;
+
+	/* column of every non-zero cell, increasing within a row */
+	final private int[] columnIndex;
+
+	final private double[] values;
+
+	private SparseMatrix transpose;
+
+	private SparseMatrix(int rows, int columns, int[] rowStart, int[] columnIndex, double[] values) {
+		this.rows = rows;
+		this.columns = columns;
+		this.rowStart = rowStart;
+		this.columnIndex = columnIndex;
+		this.values = values;
+	}
+
+	public int getRows() {
+		return this.rows;
+	}
+
+	public int getColumns() {
+		return this.columns;
+	}
+
+	/**
+	 * @return the number of the (non-zero) cells stored
+	 */
+	public int getNonZeros() {
+		return this.values.length;
+	}
+
+	/**
+	 * @return the fraction of the cells that are not zero
+	 */
+	public double getDensity() {
+		final double cells = (double)this.rows * this.columns;
+		return ( cells>0 ? this.values.length / cells : 0d );
+	}
+
+	public double get(int row, int column) {
+		checkIndex(row, this.rows);
+		checkIndex(column, this.columns);
+		final int k = Arrays.binarySearch(this.columnIndex, this.rowStart[row], this.rowStart[row+1], column);
+		return ( k>=0 ? this.values[k] : 0d );
+	}
+
+	static private void checkIndex(int index, int size) {
+		if (index<0 || index>=size)
+			throw new IndexOutOfBoundsException("Index "+index+" out of [0, "+size+")");
+	}
+
+	/**
+	 * Compute <tt>y = M&middot;x</tt>.
+	 * @param x - a vector as long as the columns of this matrix
+	 * @param y - a vector as long as the rows of this matrix, overwritten
+	 * @return y
+	 */
+	public double[] multiply(double[] x, double[] y) {
+		if (x.length!=this.columns || y.length!=this.rows)
+			throw new IllegalArgumentException("Cannot multiply a "+this.rows+"x"+this.columns+" matrix by a "
+					+ x.length+" vector into a "+y.length+" vector");
+		for(int i=0; i<this.rows; i++) {
+			double sum = 0d;
+			for(int k=this.rowStart[i]; k<this.rowStart[i+1]; k++)
+				sum += this.values[k] * x[this.columnIndex[k]];
+			y[i] = sum;
+		}
+		return y;
+	}
+
+	/**
+	 * @return the (cached) transpose of this matrix
+	 */
+	synchronized public SparseMatrix transpose() {
+		if (this.transpose==null) {
+			this.transpose = transpose(this);
+			this.transpose.setTranspose(this);
+		}
+		return this.transpose;
+	}
+
+	synchronized private void setTranspose(SparseMatrix transpose) {
+		this.transpose = transpose;
+	}
+
+	/* a counting sort of the cells by column */
+	static private SparseMatrix transpose(SparseMatrix m) {
+		final int[] start = new int[m.columns+1];
+		for(int c : m.columnIndex)
+			start[c+1]++;
+		for(int j=0; j<m.columns; j++)
+			start[j+1] += start[j];
+		final int[] next = Arrays.copyOf(start, m.columns);
+		final int[] rowIndex = new int[m.values.length];
+		final double[] values = new double[m.values.length];
+		for(int i=0; i<m.rows; i++) {
+			for(int k=m.rowStart[i]; k<m.rowStart[i+1]; k++) {
+				final int at = next[m.columnIndex[k]]++;
+				rowIndex[at] = i;
+				values[at] = m.values[k];
+			}
+		}
+		return new SparseMatrix(m.columns, m.rows, start, rowIndex, values);
+	}
+
+	@Override
+	public String toString() {
+		return getClass().getSimpleName()+" "+this.rows+"x"+this.columns
+				+ " ("+this.values.length+" non-zeros)";
+	}
+
+	/**
+	 * Collect the non-zero cells of a {@link SparseMatrix} in any order,
+	 * e.g., column by column; zeros are simply skipped.
+	 * Every cell can be set at most once.
+	 */
+	static public class Builder {
+
+		final private int rows;
+
+		final private int columns;
+
+		private int size;
+
+		private int[] cellRows;
+
+		private int[] cellColumns;
+
+		private double[] cellValues;
+
+		public Builder(int rows, int columns) {
+			if (rows<0 || columns<0)
+				throw new IllegalArgumentException("Negative size: "+rows+"x"+columns);
+			this.rows = rows;
+			this.columns = columns;
+			this.size = 0;
+			this.cellRows = new int[16];
+			this.cellColumns = new int[16];
+			this.cellValues = new double[16];
+		}
+
+		/**
+		 * @throws IllegalStateException on {@link #build()}
+		 *         if a (non-zero) cell is set more than once
+		 */
+		public Builder set(int row, int column, double value) {
+			checkIndex(row, this.rows);
+			checkIndex(column, this.columns);
+			if (value==0d) return this;
+			if (this.size==this.cellValues.length) {
+				final int capacity = this.size + (this.size>>1);
+				this.cellRows = Arrays.copyOf(this.cellRows, capacity);
+				this.cellColumns = Arrays.copyOf(this.cellColumns, capacity);
+				this.cellValues = Arrays.copyOf(this.cellValues, capacity);
+			}
+			this.cellRows[this.size] = row;
+			this.cellColumns[this.size] = column;
+			this.cellValues[this.size] = value;
+			this.size++;
+			return this;
+		}
+
+		public SparseMatrix build() {
+			/* a counting sort of the cells by row... */
+			final int[] start = new int[this.rows+1];
+			for(int k=0; k<this.size; k++)
+				start[this.cellRows[k]+1]++;
+			for(int i=0; i<this.rows; i++)
+				start[i+1] += start[i];
+			final int[] next = Arrays.copyOf(start, this.rows);
+			final int[] columnIndex = new int[this.size];
+			final double[] values = new double[this.size];
+			for(int k=0; k<this.size; k++) {
+				final int at = next[this.cellRows[k]]++;
+				columnIndex[at] = this.cellColumns[k];
+				values[at] = this.cellValues[k];
+			}
+			/* ...and then by column within every row */
+			for(int i=0; i<this.rows; i++) {
+				sortRow(columnIndex, values, start[i], start[i+1]);
+				for(int k=start[i]+1; k<start[i+1]; k++)
+					if (columnIndex[k]==columnIndex[k-1])
+						throw new IllegalStateException("Cell ("+i+", "+columnIndex[k]+") set more than once");
+			}
+			return new SparseMatrix(this.rows, this.columns, start, columnIndex, values);
+		}
+
+		/* rows are usually short, and often already sorted */
+		static private void sortRow(int[] columnIndex, double[] values, int from, int to) {
+			for(int k=from+1; k<to; k++) {
+				final int c = columnIndex[k];
+				final double v = values[k];
+				int j = k-1;
+				while (j>=from && columnIndex[j]>c) {
+					columnIndex[j+1] = columnIndex[j];
+					values[j+1] = values[j];
+					j--;
+				}
+				columnIndex[j+1] = c;
+				values[j+1] = v;
+			}
+		}
+
+	}
+
+}
@@ -1,13 +1,18 @@
 package it.uniroma3.weir.evaluation.linking;
 
+import it.uniroma3.weir.linking.blocking.BlockingStrategy;
 import it.uniroma3.weir.linking.entity.Entity;
 import it.uniroma3.weir.model.Webpage;
 import it.uniroma3.weir.model.Website;
+import it.uniroma3.weir.structures.Pair;
 import it.uniroma3.weir.vector.type.Type;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 //
 //import jxl.write.Label;
 //import jxl.write.Number;
@@ -57,6 +62,13 @@ public class CandidateLinkingStatistics {
 	private int falseNegativeForScoreMultiplier;
 	private int falseNegativeForFirstStepPercentage;
 	
+	/* stats for the blocking step, see {@link BlockingStrategy} */
+	
+	private long comparisons;          // size of the Cartesian products
+	private long candidateComparisons; // pairs actually scored
+	private long goldenPairs;          // pairs with the same soft-id
+	private long goldenCandidates;     // ... and also selected as candidates
+	
 	public CandidateLinkingStatistics() {
 		this.similaritiesForExistingLinkages = new ArrayList<Double>();
 		this.similaritiesForNonExistingLinkages = new ArrayList<Double>();
@@ -143,6 +155,48 @@ public class CandidateLinkingStatistics {
 	}
 
 
+	/**
+	 * Update the blocking statistics by using the soft-ids as golden info.
+	 * @param all1 the pages from a site
+	 * @param all2 the pages from another site
+	 * @param candidates the pairs of pages selected by a {@link BlockingStrategy}
+	 */
+	public void updateBlockingStatistics(List<Webpage> all1, List<Webpage> all2,
+										 Collection<Pair<Webpage>> candidates) {
+		this.comparisons += (long)all1.size() * all2.size();
+		this.candidateComparisons += candidates.size();
+
+		final Map<String, Integer> id2count = new HashMap<>();
+		for (Webpage p : all2) {
+			final Integer count = id2count.get(p.getId());
+			id2count.put(p.getId(), ( count==null ? 1 : count + 1 ));
+		}
+		for (Webpage p : all1) {
+			final Integer count = id2count.get(p.getId());
+			if (count!=null) this.goldenPairs += count;
+		}
+		for (Pair<Webpage> candidate : candidates) {
+			if (candidate.getMin().getId().equals(candidate.getMax().getId()))
+				this.goldenCandidates++;
+		}
+	}
+	
+	/**
+	 * @return the fraction of golden pairs of pages 
+	 * 		   that survived the blocking step
+	 */
+	public double getPairCompleteness() {
+		return ( this.goldenPairs==0 ? 1d : (double)this.goldenCandidates / this.goldenPairs );
+	}
+	
+	/**
+	 * @return the fraction of comparisons 
+	 * 		   saved by the blocking step
+	 */
+	public double getReductionRatio() {
+		return ( this.comparisons==0 ? 0d : 1d - (double)this.candidateComparisons / this.comparisons );
+	}
+
 	public void finalizeStatistics() {
 		this.averageSimilarityForExistingLinkages /= this.existingLinkagesCounter;
 		this.averageSimilarityForNonExistingLinkages /= this.nonExistingLinkagesCounter;
@@ -186,6 +240,13 @@ public class CandidateLinkingStatistics {
 		sb.append("false negatives due to ScoreMultiplier:    \t" + this.falseNegativeForScoreMultiplier + "\n");
 		sb.append("false negatives due to FirstStepPercentage:\t" + this.falseNegativeForFirstStepPercentage + "\n");
 
+		if (this.comparisons>0) {
+			sb.append("\n");
+			sb.append("blocking candidates:\t" + this.candidateComparisons + " out of " + this.comparisons + "\n");
+			sb.append("pair completeness:  \t" + getPairCompleteness() + "\n");
+			sb.append("reduction ratio:    \t" + getReductionRatio() + "\n");
+		}
+
 		System.out.println(sb.toString());
 	}
 
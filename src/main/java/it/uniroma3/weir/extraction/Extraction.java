@@ -3,10 +3,15 @@ package it.uniroma3.weir.extraction;
 
 import static it.uniroma3.hlog.HypertextualUtils.*;
 import static it.uniroma3.weir.Formats.percentage;
+import static it.uniroma3.weir.configuration.Constants.EXTRACTION_MAX_LOADED_PAGES;
+import static it.uniroma3.weir.configuration.Constants.EXTRACTION_PARALLEL_SITES;
 import it.uniroma3.hlog.HypertextualLogger;
 import it.uniroma3.hlog.Logpage;
+import it.uniroma3.weir.cache.Dependencies;
+import it.uniroma3.weir.configuration.WeirConfig;
 import it.uniroma3.weir.extraction.filter.FilterChain;
 import it.uniroma3.weir.integration.lc.LocalConsistencyEnforcer;
+import it.uniroma3.weir.metrics.Metrics;
 import it.uniroma3.weir.model.*;
 import it.uniroma3.weir.model.log.VectorListRenderer;
 import it.uniroma3.weir.vector.ExtractedVector;
@@ -15,61 +20,202 @@ import it.uniroma3.weir.vector.Vector;
 import it.uniroma3.weir.vector.VectorCaster;
 import it.uniroma3.weir.vector.value.Value;
 
+import java.util.ArrayList;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Manages the <em>extraction</em> of <em>normalized</em> and <em>labeled</em>
  * {@linkplain ExtractedVector} of {@link Value}s from a list of 
  * {@linkplain Website}s each composed of a set of {@linkplain Webpage}s.
- * 
+ * <br/>
+ * Up to {@link Constants#EXTRACTION_PARALLEL_SITES} websites are processed
+ * at the same time, each by its own {@link Extractor}, as long as they do not
+ * load more than {@link Constants#EXTRACTION_MAX_LOADED_PAGES} pages overall.
+ * The attributes are created in the order of the websites, by the calling
+ * thread, and the ids of the rules and of the vectors of a website are numbered
+ * after its position (see {@link WeirId#openScope(String)}): a parallel extraction
+ * produces the same attributes of a sequential one.
+ * The websites processed in parallel are not logged (see {@link MutedThreads}).
  */
 public class Extraction {
 
 	static final private HypertextualLogger log = HypertextualLogger.getLogger();
 
-	final private Extractor extractor;
-	
+	/* not cached itself, but the results of downstream computations are */
+	static final public Dependencies DEPENDENCIES =
+			new Dependencies("extraction", Extractor.DEPENDENCIES, LocalConsistencyEnforcer.DEPENDENCIES)
+				.ignores(EXTRACTION_PARALLEL_SITES, EXTRACTION_MAX_LOADED_PAGES);
+
+	static final private int NCPU = Runtime.getRuntime().availableProcessors();
+
 	final private Experiment experiment;
 
+	final private int parallelSites;
+
+	final private int maxLoadedPages;
+
 	private int attributesCounter;
-	
+
 	public Extraction(Experiment exp) {
-		this.extractor = new Extractor();
+		this(exp, WeirConfig.getInteger(EXTRACTION_PARALLEL_SITES),
+				  WeirConfig.getInteger(EXTRACTION_MAX_LOADED_PAGES));
+	}
+
+	/**
+	 * @param exp            - the experiment
+	 * @param parallelSites  - the max number of websites processed at the
+	 *                         same time, 0 for one per processor
+	 * @param maxLoadedPages - the max number of pages loaded at the same
+	 *                         time by the websites in process
+	 */
+	public Extraction(Experiment exp, int parallelSites, int maxLoadedPages) {
+		if (parallelSites<0 || maxLoadedPages<=0)
+			throw new IllegalArgumentException("Parallel websites must be non-negative and "
+						+ "max loaded pages positive: "+parallelSites+", "+maxLoadedPages);
 		this.experiment = exp;
+		this.parallelSites = ( parallelSites>0 ? parallelSites : NCPU );
+		this.maxLoadedPages = maxLoadedPages;
 		this.attributesCounter = 0;
 	}
 
 	public void extract() {
-		final Domain domain = this.experiment.getDomain();
+		this.extract(this.experiment.getDomain());
+	}
+
+	public void extract(Domain domain) {
 		final List<Website> websites = domain.getSites();
 		log.trace("extraction from "+domain);
-		int sitesCounter = 1;
-		this.attributesCounter = 0;
-		for (final Website site : websites) {
-			log.newPage("processing website (" + sitesCounter + "/" + websites.size()+ ")\t"+site);
-			this.process(site);
-			log.endPage();
+		final int parallelism = Math.min(this.parallelSites, websites.size());
+		final ExecutorService pool = ( parallelism>1 ? newPool(parallelism) : null );
+		try {
+			final List<Future<List<Vector>>> processing = ( pool!=null ? submitAll(pool, websites) : null );
+			int sitesCounter = 1;
+			this.attributesCounter = 0;
+			for (final Website site : websites) {
+				log.newPage("processing website (" + sitesCounter + "/" + websites.size()+ ")\t"+site);
+				final List<Vector> consistent;
+				if (processing==null) {
+					consistent = this.process(sitesCounter, site);
+				} else {
+					log.trace("processed along with other "+(parallelism-1)+" websites: details are not logged");
+					consistent = await(processing.get(sitesCounter-1));
+				}
+				for (final Vector v : consistent) {
+					site.addAttribute(new Attribute(v));
+				}
+				site.compactDictionary();
+				log.endPage();
 
-			attributesCounter += site.getAttributes().size();
+				attributesCounter += site.getAttributes().size();
 
-			log.newPage("found " + site.getAttributes().size() + " attributes");
-			log.trace("attributes extracted from: "+site);
-			log.trace(site.getAttributes());
-			log.endPage();
-			log.trace();
+				log.newPage("found " + site.getAttributes().size() + " attributes");
+				log.trace("attributes extracted from: "+site);
+				log.trace(site.getAttributes());
+				log.endPage();
+				log.trace();
 
-			sitesCounter++;
+				sitesCounter++;
+			}
+		} finally {
+			if (pool!=null) pool.shutdownNow();
 		}
 		log.trace("total number of attributes found over "+websites.size()
 				 +" websites: " + this.attributesCounter);
 	}
-	
+
 	public int getTotalExtractedAttribute() {
 		return this.attributesCounter;
 	}
 
-	private void process(Website website) {
+	private List<Future<List<Vector>>> submitAll(ExecutorService pool, List<Website> websites) {
+		MutedThreads.install();
+		final Semaphore loadable = new Semaphore(this.maxLoadedPages, true);
+		final List<Future<List<Vector>>> result = new ArrayList<>(websites.size());
+		for (int s=0; s<websites.size(); s++)
+			result.add(pool.submit(new ProcessSiteTask(s+1, websites.get(s), loadable)));
+		return result;
+	}
+
+	static private List<Vector> await(Future<List<Vector>> processing) {
+		try {
+			return processing.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException(e);
+		} catch (ExecutionException e) {
+			throw new IllegalStateException(e.getCause());
+		}
+	}
+
+	private class ProcessSiteTask implements Callable<List<Vector>> {
+
+		final private int index;
+
+		final private Website site;
+
+		final private Semaphore loadable;
+
+		ProcessSiteTask(int index, Website site, Semaphore loadable) {
+			this.index = index;
+			this.site = site;
+			this.loadable = loadable;
+		}
+
+		@Override
+		public List<Vector> call() throws InterruptedException {
+			/* a website larger than the cap is processed alone */
+			final int pages = Math.max(1, Math.min(this.site.getWebpages().size(), maxLoadedPages));
+			this.loadable.acquire(pages);
+			MutedThreads.mute();
+			try {
+				return process(this.index, this.site);
+			} finally {
+				MutedThreads.unmute();
+				this.loadable.release(pages);
+			}
+		}
+
+	}
+
+	/* daemons: the pool is shut down as soon as the extraction is over */
+	static final private class SiteThreads implements ThreadFactory {
+
+		static final private AtomicInteger counter = new AtomicInteger();
+
+		@Override
+		public Thread newThread(Runnable task) {
+			final Thread thread = new Thread(task, "site-processor-"+counter.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		}
+
+	}
+
+	static private ExecutorService newPool(int threads) {
+		return Executors.newFixedThreadPool(threads, new SiteThreads());
+	}
+
+	/* N.B. the extractor is not shared: a cached computation is not thread-safe */
+	@SuppressWarnings("try")
+	private List<Vector> process(int index, Website website) {
+		WeirId.openScope(Integer.toString(index));
+		try (Metrics.Stage stage = Metrics.stage("extraction.site")) {
+			return this.process(website, new Extractor());
+		} finally {
+			WeirId.closeScope();
+		}
+	}
+
+	private List<Vector> process(Website website, Extractor extractor) {
 		log.trace("website: " + website);
 		final List<Webpage> webpages = website.getWebpages();
 		log.page("total   pages: " + webpages.size(),webpages);
@@ -77,7 +223,7 @@ public class Extraction {
 		log.page("overlap pages: " + overlap.size(),overlap);
 
 		//N.B.: extraction includes rules inference
-		final List<ExtractedVector> extracted = this.extraction(website);
+		final List<ExtractedVector> extracted = this.extraction(website, extractor);
 		
 		final List<ExtractedVector> filtered  = this.filtering(extracted);
 
@@ -86,31 +232,37 @@ public class Extraction {
 		final List<Vector> normalized = this.normalization(labeled);
 
 		// enforce local consistency constraint
-		final List<Vector> consistent = this.enforceLocalConsistency(normalized);
-
-		for (final Vector v : consistent) {
-			website.addAttribute(new Attribute(v));
-		}
+		return this.enforceLocalConsistency(normalized);
 	}
 
-	private List<ExtractedVector> extraction(Website website) {
+	@SuppressWarnings("try")
+	private List<ExtractedVector> extraction(Website website, Extractor extractor) {
 		log.newPage();
-		final List<ExtractedVector> extracted  = this.extractor.extractData(website);
+		final List<ExtractedVector> extracted;
+		try (Metrics.Stage stage = Metrics.stage("extraction.inference")) {
+			extracted = extractor.extractData(website);
+		}
+		Metrics.counter("extraction.rules.inferred").add(extracted.size());
 		log.endPage("extraction produced "+extracted.size()+" vectors");
 		return extracted;
 	}
 
+	@SuppressWarnings("try")
 	private List<ExtractedVector> filtering(List<ExtractedVector> vectors) {
 		log.newPage();
 		final int before = vectors.size();
-		new FilterChain().filter(vectors);
+		try (Metrics.Stage stage = Metrics.stage("extraction.filtering")) {
+			new FilterChain().filter(vectors);
+		}
 		final int after = vectors.size();
+		Metrics.counter("extraction.rules.filtered").add(before-after);
 		final double perc = (double)after/before;
 		log.endPage("filtering extraction rules/vectors "
 				  + "(remaining "+after+", i.e., "+format(percentage,perc)+")");
 		return vectors;
 	}
 
+	@SuppressWarnings("try")
 	private List<Vector> normalization(List<ExtractedVector> vectors) {
 		log.newPage("normalizing extracted data");
 		log.trace("available datatypes from the most specific to the most general:");
@@ -118,12 +270,14 @@ public class Extraction {
 
 		final List<Vector> result = new LinkedList<>();
 		log.newTable();
-		for (final ExtractedVector extracted : vectors) {
-			log.newPage();
-			final Vector normalized = extracted.normalize();
-			result.add(normalized);			
-			log(log.endPage(), extracted, normalized);
-			log.trace("<hr/>");
+		try (Metrics.Stage stage = Metrics.stage("extraction.normalization")) {
+			for (final ExtractedVector extracted : vectors) {
+				log.newPage();
+				final Vector normalized = extracted.normalize();
+				result.add(normalized);			
+				log(log.endPage(), extracted, normalized);
+				log.trace("<hr/>");
+			}
 		}
 		log.endTable();
 		log.endPage();
@@ -132,26 +286,35 @@ public class Extraction {
 
 	static final private VectorListRenderer rendererWithTypeAndId = 
 			new VectorListRenderer().enableIdColumn().enableTypeColumn();
-	
+
 	private void log(final Logpage page, final ExtractedVector e, final Vector n) {
 		log.trace(linkTo(page).withAnchor("normalization details"), rendererWithTypeAndId.toHTMLstring(e, n));
 	}
 
+	@SuppressWarnings("try")
 	private List<ExtractedVector> labeling(List<ExtractedVector> vectors) {
 		log.newPage();
 		final Labeler labeler = new Labeler();
-		labeler.label(vectors);
+		try (Metrics.Stage stage = Metrics.stage("extraction.labeling")) {
+			labeler.label(vectors);
+		}
 		final int n = 3;
 		final List<Label> bestLabels = labeler.getBestLabels(n);
 		log.endPage( "labeling (best "+n+" labels: "+bestLabels+")");
 		return vectors;
 	}
 
+	@SuppressWarnings("try")
 	private List<Vector> enforceLocalConsistency(List<Vector> labeled) {
 		log.newPage();
 		final LocalConsistencyEnforcer lcEnforcer = new LocalConsistencyEnforcer();
-		final List<Vector> filtered = lcEnforcer.enforceLocalConsistency(labeled);
+		final List<Vector> filtered;
+		try (Metrics.Stage stage = Metrics.stage("extraction.local-consistency")) {
+			filtered = lcEnforcer.enforceLocalConsistency(labeled);
+		}
 		final int removed = labeled.size() - filtered.size();
+		Metrics.counter("extraction.vectors.inconsistent").add(removed);
+		Metrics.counter("extraction.attributes").add(filtered.size());
 		log.endPage("enforcing local consistency removed " + removed +	" vectors "  
 				+ "(" + format(percentage, (double)removed / labeled.size())+")");
 		log.trace(popup("remaining " + filtered.size() + " vectors",filtered));
@@ -0,0 +1,212 @@
+package it.uniroma3.weir.extraction;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import it.uniroma3.hlog.HypertextualLogger;
+import it.uniroma3.weir.extraction.rule.ExtractionRule;
+import it.uniroma3.weir.extraction.xpath.CompiledRules;
+import it.uniroma3.weir.extraction.xpath.XPathTrie;
+import it.uniroma3.weir.model.Webpage;
+import it.uniroma3.weir.vector.ExtractedVector;
+import it.uniroma3.weir.vector.value.ExtractedValue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The extraction of a set of {@link ExtractionRule}s over a list
+ * of {@link Webpage}s, submitted to an {@link ExtractionScheduler}.
+ * <br/>
+ * The job is split into fine-grained tasks, each applying a block of
+ * rules (see {@link XPathTrie} and {@link CompiledRules}) to a single page: the tasks are forked
+ * recursively, so that idle threads can steal them from busy ones.
+ * <br/>
+ * A job can be cancelled without affecting the other jobs of
+ * the same scheduler: the tasks not started yet are skipped.
+ */
+public class ExtractionJob {
+
+	static final private HypertextualLogger log = HypertextualLogger.getLogger();
+
+	/* how often the progress of a job is reported while waiting */
+	static final private long PROGRESS_INTERVAL = SECONDS.toNanos(10);
+
+	final private List<Webpage> pages;
+
+	final private List<? extends CompiledRules> blocks;
+
+	/* index of the first rule of every block */
+	final private int[] offsets;
+
+	/* values[r][p]: the value extracted by the r-th rule from the p-th page */
+	final private ExtractedValue[][] values;
+
+	final private int total;
+
+	final private AtomicInteger completed;
+
+	private volatile boolean cancelled;
+
+	final private TaskRange root;
+
+	ExtractionJob(List<Webpage> pages, List<? extends CompiledRules> blocks) {
+		this.pages = pages;
+		this.blocks = blocks;
+		this.offsets = new int[blocks.size()];
+		int rules = 0;
+		for(int b=0; b<blocks.size(); b++) {
+			this.offsets[b] = rules;
+			rules += blocks.get(b).getRules().size();
+		}
+		this.values = new ExtractedValue[rules][pages.size()];
+		this.total = blocks.size() * pages.size();
+		this.completed = new AtomicInteger();
+		this.cancelled = false;
+		this.root = new TaskRange(0, this.total);
+	}
+
+	RecursiveAction getRootTask() {
+		return this.root;
+	}
+
+	/**
+	 * @return the number of (page, block of rules) tasks
+	 */
+	public int getNumberOfTasks() {
+		return this.total;
+	}
+
+	public int getCompletedTasks() {
+		return this.completed.get();
+	}
+
+	public boolean isDone() {
+		return this.root.isDone();
+	}
+
+	public boolean isCancelled() {
+		return this.cancelled;
+	}
+
+	/**
+	 * Skip all the tasks of this job not started yet.
+	 */
+	public void cancel() {
+		this.cancelled = true;
+		this.root.cancel(false);
+	}
+
+	/**
+	 * Wait for this job to be completed, reporting its progress.
+	 * @param timeout - the max time to wait
+	 * @param unit - the unit of the timeout
+	 * @return the vectors extracted by all the rules, in the order
+	 *         of the rules this job has been submitted with
+	 * @throws IllegalStateException if the job failed, has been cancelled,
+	 *         or has not been completed in time (and it is then cancelled)
+	 */
+	public List<ExtractedVector> await(long timeout, TimeUnit unit) {
+		final long deadline = System.nanoTime() + unit.toNanos(timeout);
+		int reported = 0;
+		try {
+			while (true) {
+				final long left = deadline - System.nanoTime();
+				if (left<=0) {
+					cancel();
+					throw new IllegalStateException("extraction not completed within "
+							+ timeout + " " + unit.toString().toLowerCase() + " "
+							+ "(" + getCompletedTasks() + "/" + this.total + " tasks)");
+				}
+				try {
+					this.root.get(Math.min(left, PROGRESS_INTERVAL), NANOSECONDS);
+					break;
+				} catch (TimeoutException stillRunning) {
+					final int done = getCompletedTasks();
+					if (done>reported) {
+						// n.b. initial \n should flush log msgs..
+						log.trace("\nextracted (" + done + "/" + this.total + ") tasks");
+						reported = done;
+					}
+				}
+			}
+		} catch (CancellationException e) {
+			throw new IllegalStateException("extraction cancelled", e);
+		} catch (InterruptedException e) {
+			cancel();
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException(e);
+		} catch (ExecutionException e) {
+			cancel();
+			throw new IllegalStateException(e.getCause());
+		}
+		if (this.cancelled)
+			throw new IllegalStateException("extraction cancelled");
+		return collect();
+	}
+
+	private List<ExtractedVector> collect() {
+		final List<ExtractedVector> result = new ArrayList<>(this.values.length);
+		for(int b=0; b<this.blocks.size(); b++) {
+			final List<ExtractionRule> rules = this.blocks.get(b).getRules();
+			for(int r=0; r<rules.size(); r++)
+				result.add(new ExtractedVector(this.values[this.offsets[b]+r], rules.get(r)));
+		}
+		return result;
+	}
+
+	/* tasks are numbered block by block, so that close tasks work on different pages */
+	private void run(int task) {
+		if (this.cancelled) return;
+		final int b = task / this.pages.size();
+		final int p = task % this.pages.size();
+		final ExtractedValue[] extracted = this.blocks.get(b).extract(this.pages.get(p));
+		final int offset = this.offsets[b];
+		for(int r=0; r<extracted.length; r++)
+			this.values[offset+r][p] = extracted[r];
+		this.completed.incrementAndGet();
+	}
+
+	/**
+	 * A range of consecutive tasks, recursively split in halves
+	 * until a single task is left.
+	 */
+	private class TaskRange extends RecursiveAction {
+
+		static final private long serialVersionUID = 3513470153745036442L;
+
+		final private int first;
+		final private int last;
+
+		TaskRange(int first, int last) {
+			this.first = first;
+			this.last = last;
+		}
+
+		@Override
+		protected void compute() {
+			if (cancelled) return;
+			if (this.last-this.first<=1) {
+				if (this.first<this.last)
+					run(this.first);
+				return;
+			}
+			final int middle = (this.first+this.last) >>> 1;
+			invokeAll(new TaskRange(this.first, middle), new TaskRange(middle, this.last));
+		}
+
+	}
+
+	@Override
+	public String toString() {
+		return getClass().getSimpleName() + " (" + this.pages.size() + " pages, "
+				+ this.values.length + " rules, " + getCompletedTasks() + "/" + this.total + " tasks"
+				+ ( this.cancelled ? ", cancelled" : "" ) + ")";
+	}
+
+}
@@ -0,0 +1,212 @@
+package it.uniroma3.weir.extraction;
+
+import static it.uniroma3.weir.configuration.Constants.EXTRACTION_RULE_BLOCK;
+import static it.uniroma3.weir.configuration.Constants.EXTRACTION_SINGLE_PASS;
+import static it.uniroma3.weir.configuration.Constants.EXTRACTION_THREADS;
+import static it.uniroma3.weir.configuration.Constants.EXTRACTION_TIMEOUT;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import it.uniroma3.hlog.HypertextualLogger;
+import it.uniroma3.weir.configuration.WeirConfig;
+import it.uniroma3.weir.extraction.rule.ExtractionRule;
+import it.uniroma3.weir.extraction.xpath.PathAutomaton;
+import it.uniroma3.weir.extraction.xpath.XPathTrie;
+import it.uniroma3.weir.model.Experiment;
+import it.uniroma3.weir.model.Webpage;
+import it.uniroma3.weir.vector.ExtractedVector;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinPool.ForkJoinWorkerThreadFactory;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Apply {@link ExtractionRule}s to {@link Webpage}s by means of a
+ * work-stealing pool that lives as long as the current {@link Experiment},
+ * and that is shared by all the extractions of its websites
+ * (see {@link Extractor} and {@link PCDATASplitter}).
+ * <br/>
+ * Every submission is an {@link ExtractionJob}, split into tasks each
+ * applying at most {@link Constants#EXTRACTION_RULE_BLOCK} rules to
+ * a single page: jobs can be cancelled one by one, and they are
+ * given up after {@link Constants#EXTRACTION_TIMEOUT} seconds.
+ */
+public class ExtractionScheduler {
+
+	static final private HypertextualLogger log = HypertextualLogger.getLogger();
+
+	static final private int NCPU = Runtime.getRuntime().availableProcessors();
+
+	static private ExtractionScheduler instance;
+
+	/**
+	 * @return the scheduler of the current {@link Experiment}: the one
+	 *         of a previous experiment, if any, is shut down
+	 */
+	static synchronized public ExtractionScheduler getInstance() {
+		final Experiment current = WeirConfig.getCurrentExperiment();
+		if (instance==null || instance.experiment!=current) {
+			if (instance!=null) instance.shutdown();
+			final int threads = WeirConfig.getInteger(EXTRACTION_THREADS);
+			instance = new ExtractionScheduler(current,
+											   threads>0 ? threads : NCPU,
+											   WeirConfig.getInteger(EXTRACTION_RULE_BLOCK),
+											   WeirConfig.getInteger(EXTRACTION_TIMEOUT),
+											   WeirConfig.getBoolean(EXTRACTION_SINGLE_PASS));
+		}
+		return instance;
+	}
+
+	final private Experiment experiment;
+
+	final private ForkJoinPool pool;
+
+	final private int threads;
+
+	final private int ruleBlock;
+
+	/* secs */
+	final private int timeout;
+
+	final private boolean singlePass;
+
+	/**
+	 * @param threads    - the number of extraction threads
+	 * @param ruleBlock  - the max number of rules applied by a task
+	 * @param timeout    - the max time (secs) to wait for a job
+	 * @param singlePass - false to apply every rule as usual (see {@link XPathTrie})
+	 */
+	public ExtractionScheduler(int threads, int ruleBlock, int timeout, boolean singlePass) {
+		this(null, threads, ruleBlock, timeout, singlePass);
+	}
+
+	private ExtractionScheduler(Experiment experiment, int threads, int ruleBlock, int timeout, boolean singlePass) {
+		if (threads<=0 || ruleBlock<=0 || timeout<=0)
+			throw new IllegalArgumentException("Threads, rule block and timeout must be positive: "
+												+threads+", "+ruleBlock+", "+timeout);
+		this.experiment = experiment;
+		this.threads = threads;
+		this.ruleBlock = ruleBlock;
+		this.timeout = timeout;
+		this.singlePass = singlePass;
+		this.pool = new ForkJoinPool(threads, new ExtractionThreads(), null, false);
+	}
+
+	public int getNumberOfThreads() {
+		return this.threads;
+	}
+
+	public int getRuleBlock() {
+		return this.ruleBlock;
+	}
+
+	/**
+	 * @return the max time (secs) to wait for a job
+	 */
+	public int getTimeout() {
+		return this.timeout;
+	}
+
+	/**
+	 * Start the extraction of the given rules over the given pages.
+	 * @param pages - loaded and normalized pages
+	 * @param rules - the rules to apply
+	 * @return the running job
+	 */
+	public ExtractionJob submit(List<Webpage> pages, Collection<ExtractionRule> rules) {
+		final List<ExtractionRule> ordered = new ArrayList<>(rules);
+		final List<XPathTrie> blocks = new ArrayList<>();
+		for(int first=0; first<ordered.size(); first+=this.ruleBlock) {
+			final int last = Math.min(first+this.ruleBlock, ordered.size());
+			blocks.add(new XPathTrie(ordered.subList(first, last), this.singlePass));
+		}
+		final ExtractionJob job = new ExtractionJob(new ArrayList<>(pages), blocks);
+		log.trace("applying " + ordered.size() + " extraction rules over " + pages.size() + " pages "
+				+ "by " + job.getNumberOfTasks() + " tasks ("+blocks.size()+" blocks of rules)");
+		this.pool.execute(job.getRootTask());
+		return job;
+	}
+
+	/**
+	 * Start the extraction of the given positional rules over the given
+	 * pages by scanning their snapshots (see {@link PathAutomaton}): a
+	 * single scan of a page applies all the rules, which are then not
+	 * split into blocks.
+	 * @param pages - pages, either loaded or not
+	 * @param rules - the rules to apply (see {@link PathAutomaton#isStreamable(ExtractionRule)})
+	 * @return the running job
+	 */
+	public ExtractionJob submitStreaming(List<Webpage> pages, Collection<ExtractionRule> rules) {
+		final PathAutomaton automaton = new PathAutomaton(new ArrayList<>(rules));
+		final ExtractionJob job = new ExtractionJob(new ArrayList<>(pages), Collections.singletonList(automaton));
+		log.trace("streaming " + rules.size() + " extraction rules over " + pages.size() + " pages "
+				+ "by " + job.getNumberOfTasks() + " tasks");
+		this.pool.execute(job.getRootTask());
+		return job;
+	}
+
+	/**
+	 * Extract the given rules over the given pages, and wait
+	 * at most {@link #getTimeout()} seconds for the result.
+	 * @param pages - loaded and normalized pages
+	 * @param rules - the rules to apply
+	 * @return the vectors extracted by all the rules, in their order
+	 */
+	public List<ExtractedVector> extract(List<Webpage> pages, Collection<ExtractionRule> rules) {
+		return await(submit(pages, rules));
+	}
+
+	/**
+	 * Extract the given positional rules over the given pages by
+	 * scanning their snapshots (see {@link #submitStreaming(List, Collection)}),
+	 * and wait at most {@link #getTimeout()} seconds for the result.
+	 * @param pages - pages, either loaded or not
+	 * @param rules - the rules to apply
+	 * @return the vectors extracted by all the rules, in their order
+	 */
+	public List<ExtractedVector> stream(List<Webpage> pages, Collection<ExtractionRule> rules) {
+		return await(submitStreaming(pages, rules));
+	}
+
+	private List<ExtractedVector> await(ExtractionJob job) {
+		try {
+			return job.await(this.timeout, SECONDS);
+		} catch (IllegalStateException e) {
+			log.error("parallel extraction failed: "+job);
+			log.trace(e);
+			throw e;
+		}
+	}
+
+	/**
+	 * Stop all the threads: the running jobs are abandoned.
+	 */
+	public void shutdown() {
+		this.pool.shutdownNow();
+	}
+
+	/* daemons: the pool of the last experiment is never shut down */
+	static final private class ExtractionThreads implements ForkJoinWorkerThreadFactory {
+
+		static final private AtomicInteger counter = new AtomicInteger();
+
+		@Override
+		public ForkJoinWorkerThread newThread(ForkJoinPool pool) {
+			final ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+			thread.setName("extractor-"+counter.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		}
+
+	}
+
+	@Override
+	public String toString() {
+		return getClass().getSimpleName()+" ("+this.threads+" threads, "
+				+ this.ruleBlock+" rules per task, "+this.timeout+" secs timeout)";
+	}
+
+}
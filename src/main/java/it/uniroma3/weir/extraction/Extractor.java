@@ -3,6 +3,7 @@ package it.uniroma3.weir.extraction;
 import static it.uniroma3.weir.configuration.Constants.*;
 import it.uniroma3.hlog.HypertextualLogger;
 import it.uniroma3.weir.cache.CachedComputation;
+import it.uniroma3.weir.cache.Dependencies;
 import it.uniroma3.weir.cache.Fingerprint;
 import it.uniroma3.weir.configuration.WeirConfig;
 import it.uniroma3.weir.extraction.rule.ExtractionRule;
@@ -24,6 +25,15 @@ public class Extractor extends CachedComputation<Website, List<ExtractedVector>>
 
 	static final private HypertextualLogger log = HypertextualLogger.getLogger();
 	
+	static final public Dependencies DEPENDENCIES =
+			new Dependencies("data", InferenceSystem.DEPENDENCIES)
+				.reads(EXTRACTION_RULES_FILTERS, MAX_PERCENTAGE_EQUALS, MAX_PERCENTAGE_NULLS,
+					   MAX_VALUE_LENGTH, DATATYPES, REMOVE_REFINED_RULES,
+					   PCDATA_UNDERSAMPLING_THRESHOLD, PCDATA_TOKENIZATION_PATTERN,
+					   PCDATA_MAX_INVARIANT_LENGTH, PCDATA_INVARIANT_BLACKLIST)
+				.ignores(EXTRACTION_SINGLE_PASS, EXTRACTION_STREAMING, EXTRACTION_THREADS, EXTRACTION_RULE_BLOCK,
+						 EXTRACTION_TIMEOUT, PAGE_LOADING_THREADS, PAGE_PARSING_MEMORY_BUDGET);
+
 	public Extractor() {
 	}
 		
@@ -34,20 +44,31 @@ public class Extractor extends CachedComputation<Website, List<ExtractedVector>>
 	@Override
 	public List<ExtractedVector> uncachedComputation(Website website) {
 		
+		final boolean streaming = WeirConfig.getBoolean(EXTRACTION_STREAMING);
+
 		/* load */
-		log.trace("\nLoading "+website+" source code pages...");
-		website.loadPages();  // load HTML / DOM representation to apply rules
+		if (!streaming) {
+			log.trace("\nLoading "+website+" source code pages...");
+			website.loadPages();  // load HTML / DOM representation to apply rules
+		}
 				
 		/* infer */
 		final InferenceSystem generator = new InferenceSystem();
 		final Set<ExtractionRule> rules = generator.inferRules(website);
 
 		/* extract */
-		final ParallelExtractor pdp = new ParallelExtractor(website);
-		final List<ExtractedVector> extracted = pdp.parallelExtraction(rules);
+		final ExtractionScheduler scheduler = ExtractionScheduler.getInstance();
+		final List<ExtractedVector> extracted;
+		if (streaming) {
+			final StreamingExtractor sde = new StreamingExtractor(website, scheduler);
+			extracted = sde.streamingExtraction(rules);
+		} else {
+			final ParallelExtractor pdp = new ParallelExtractor(website, scheduler);
+			extracted = pdp.parallelExtraction(rules);
+		}
 		
 		/* sub-PCDATA refinement */
-		final PCDATASplitter splitter = new PCDATASplitter(website, extracted);
+		final PCDATASplitter splitter = new PCDATASplitter(website, extracted, scheduler);
 		final List<ExtractedVector> refined  = splitter.split();
 
 		/* release */
@@ -57,20 +78,14 @@ public class Extractor extends CachedComputation<Website, List<ExtractedVector>>
 //was:	return extracted;
 	}
 	
+	@Override
+	protected Dependencies getDependencies() {
+		return DEPENDENCIES;
+	}
+
 	@Override
 	public Fingerprint fingerprint(Website site) {
-		fingerprint(site.getFingerprint());
-		
-		//TODO group properties into extraction properties, integration properties and so on...?
-		fingerprint(WeirConfig.getString(MAX_EXTRACTION_SAMPLES));
-		fingerprint(WeirConfig.getString(EXTRACTION_RULES_CLASSES));
-		/*fingerprint(WeirConfig.getString(ECGM_CONFIG));*/ /* !?! */
-		fingerprint(WeirConfig.getString(MAX_PIVOT_DISTANCE));
-		fingerprint(WeirConfig.getString(MAX_PERCENTAGE_EQUALS));
-		fingerprint(WeirConfig.getString(MAX_PERCENTAGE_NULLS));
-		fingerprint(WeirConfig.getString(MAX_VALUE_LENGTH));
-		fingerprint(WeirConfig.getString(EXTRACTION_RULES_FILTERS));
-		fingerprint(WeirConfig.getString(DATATYPES));
+		fingerprint(site.getFingerprintInDomain()); // n.b. vectors refer to the domain
 		return getFingerprint("data");
 	}
 
@@ -1,10 +1,11 @@
 package it.uniroma3.weir.extraction;
 
 import static it.uniroma3.hlog.HypertextualUtils.popup;
-import static it.uniroma3.weir.configuration.Constants.EXTRACTION_RULES_CLASSES;
+import static it.uniroma3.weir.configuration.Constants.*;
 import it.uniroma3.hlog.HypertextualLogger;
 import it.uniroma3.token.dom.DOMToken;
 import it.uniroma3.weir.cache.CachedComputation;
+import it.uniroma3.weir.cache.Dependencies;
 import it.uniroma3.weir.cache.Fingerprint;
 import it.uniroma3.weir.configuration.WeirConfig;
 import it.uniroma3.weir.extraction.rule.ExtractionRule;
@@ -12,6 +13,7 @@ import it.uniroma3.weir.extraction.rule.ExtractionRuleClass;
 import it.uniroma3.weir.extraction.wrapper.template.TemplateFinder;
 import it.uniroma3.weir.model.Webpage;
 import it.uniroma3.weir.model.Website;
+import it.uniroma3.weir.model.WebsiteLoader;
 
 import java.util.LinkedHashSet;
 import java.util.List;
@@ -25,6 +27,12 @@ public class InferenceSystem extends CachedComputation<Website, Set<ExtractionRu
 
 	static final private HypertextualLogger log = HypertextualLogger.getLogger();
 
+	static final public Dependencies DEPENDENCIES =
+			new Dependencies("rule", WebsiteLoader.DEPENDENCIES)
+				.reads(EXTRACTION_RULES_CLASSES, MIN_EXTRACTION_SAMPLES, MAX_EXTRACTION_SAMPLES,
+					   MAX_PIVOT_DISTANCE, MIN_PIVOT_OCCURRENCES, MIN_PIVOT_LENGTH, MAX_PIVOT_LENGTH,
+					   MAX_VALUE_LENGTH);
+
 	final private List<ExtractionRuleClass> ruleClasses;
 	
 	final private ExtractionSampler sampler;
@@ -79,12 +87,16 @@ public class InferenceSystem extends CachedComputation<Website, Set<ExtractionRu
 		return result;
 	}
 
+	@Override
+	protected Dependencies getDependencies() {
+		return DEPENDENCIES;
+	}
+
 	@Override
 	public Fingerprint fingerprint(Website site) {
-		fingerprint(site.getFingerprint());
+		fingerprint(site.getFingerprintInDomain()); // n.b. rules refer to the domain
 		for(ExtractionRuleClass erc : this.ruleClasses)
 			fingerprint(erc.getFingerprint());
-		fingerprint(this.sampler);
 		return this.getFingerprint("rule");
 	}
 	
@@ -0,0 +1,69 @@
+package it.uniroma3.weir.extraction;
+
+import it.uniroma3.hlog.logrecord.HierarchicalLogRecord;
+import it.uniroma3.hlog.logrecord.TabularLogRecord;
+import it.uniroma3.hlog.logrecord.ThrowingLogRecord;
+
+import java.util.logging.Filter;
+import java.util.logging.Handler;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+import java.util.logging.Logger;
+
+/**
+ * Keep the threads processing the websites of a parallel
+ * {@link Extraction} out of the hypertextual log.
+ * <br/>
+ * The pages of the log are nested by means of a single stack shared
+ * by all threads: the pages opened and closed by several sites at
+ * the same time would be interleaved. A muted thread can only log
+ * warnings and errors, and it never opens or closes a page or a table:
+ * its messages end up in the page currently open by the main thread.
+ * <br/>
+ * The filter is installed on the handlers of the root logger, since
+ * a record has to be discarded before the handler updates the stack.
+ */
+final class MutedThreads implements Filter {
+
+	static final private ThreadLocal<Boolean> muted = new ThreadLocal<Boolean>() {
+		@Override
+		protected Boolean initialValue() {
+			return Boolean.FALSE;
+		}
+	};
+
+	static synchronized void install() {
+		for(Handler handler : Logger.getLogger("").getHandlers())
+			if (!(handler.getFilter() instanceof MutedThreads))
+				handler.setFilter(new MutedThreads(handler.getFilter()));
+	}
+
+	static void mute() {
+		muted.set(Boolean.TRUE);
+	}
+
+	static void unmute() {
+		muted.remove();
+	}
+
+	/* the filter previously installed, if any */
+	final private Filter filter;
+
+	private MutedThreads(Filter filter) {
+		this.filter = filter;
+	}
+
+	@Override
+	public boolean isLoggable(LogRecord record) {
+		if (muted.get() && !isAudible(record)) return false;
+		return ( this.filter==null || this.filter.isLoggable(record) );
+	}
+
+	static private boolean isAudible(LogRecord record) {
+		if (record instanceof HierarchicalLogRecord) return false;
+		if (record instanceof TabularLogRecord)      return false;
+		if (record instanceof ThrowingLogRecord)     return false; // closes the unbalanced pages
+		return record.getLevel().intValue()>=Level.WARNING.intValue();
+	}
+
+}
@@ -0,0 +1,86 @@
+package it.uniroma3.weir.extraction;
+
+import it.uniroma3.hlog.HypertextualLogger;
+import it.uniroma3.weir.extraction.rule.ExtractionRule;
+import it.uniroma3.weir.extraction.rule.PositionalRule;
+import it.uniroma3.weir.extraction.xpath.PathAutomaton;
+import it.uniroma3.weir.model.Webpage;
+import it.uniroma3.weir.model.Website;
+import it.uniroma3.weir.model.snapshot.DOMSnapshotStore;
+import it.uniroma3.weir.vector.ExtractedVector;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Extract {@link ExtractedVector}s from the {@link Webpage}s of a
+ * {@link Website} without loading their DOM trees, as far as possible:
+ * the {@link PositionalRule}s are applied by scanning the snapshots of
+ * the pages (see {@link PathAutomaton}), and only the other rules, if
+ * any, are applied over the loaded pages (see {@link ParallelExtractor}).
+ * <br/>
+ * If the snapshots are saved (see {@link DOMSnapshotStore}), the
+ * pages already met are not even parsed again.
+ */
+public class StreamingExtractor {
+
+	static final private HypertextualLogger log = HypertextualLogger.getLogger();
+
+	final private ExtractionScheduler scheduler;
+
+	final private Website website;
+
+	public StreamingExtractor(Website website, ExtractionScheduler scheduler) {
+		this.scheduler = scheduler;
+		this.website = website;
+	}
+
+	/**
+	 * @param rules the rules to apply
+	 * @return the vectors extracted by the rules, in their order
+	 */
+	public List<ExtractedVector> streamingExtraction(Set<ExtractionRule> rules) {
+		/* n.b. distinct rules have distinct XPath expressions */
+		final Map<ExtractionRule, Integer> rule2index = new HashMap<>();
+		final List<ExtractionRule> streamed = new ArrayList<>();
+		final Set<ExtractionRule> others = new LinkedHashSet<>();
+		for(ExtractionRule rule : rules) {
+			rule2index.put(rule, rule2index.size());
+			if (PathAutomaton.isStreamable(rule))
+				streamed.add(rule);
+			else others.add(rule);
+		}
+		log.trace(streamed.size()+" rules streamed over the snapshots of the pages, "
+				 +others.size()+" rules applied over their DOM");
+
+		final ExtractedVector[] result = new ExtractedVector[rules.size()];
+		if (!streamed.isEmpty()) {
+			// n.b. initial \n should flush log msgs..
+			log.trace("\nStarting streaming extraction ...");
+			try {
+				place(this.scheduler.stream(this.website.getWorkingPages(), streamed), rule2index, result);
+			} finally {
+				DOMSnapshotStore.flush();
+			}
+			log.trace("\n...streaming extraction finished.");
+		}
+		if (!others.isEmpty()) {
+			this.website.loadPages();
+			final ParallelExtractor pdp = new ParallelExtractor(this.website, this.scheduler);
+			place(pdp.parallelExtraction(others), rule2index, result);
+		}
+		return new ArrayList<>(Arrays.asList(result));
+	}
+
+	static private void place(List<ExtractedVector> vectors, Map<ExtractionRule, Integer> rule2index,
+							  ExtractedVector[] result) {
+		for(ExtractedVector vector : vectors)
+			result[rule2index.get(vector.getExtractionRule())] = vector;
+	}
+
+}
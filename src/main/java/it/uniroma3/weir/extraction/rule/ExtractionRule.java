@@ -46,7 +46,12 @@ public class ExtractionRule extends WeirId implements Serializable {
 	private Website website;
 	
 	public ExtractionRule(ExtractionRuleClass clazz, String xpath) {
-		super(nextIdByClass(ExtractionRule.class));
+		this(nextIdByClass(ExtractionRule.class), clazz, xpath);
+	}
+
+	/* restore a rule with a given id, e.g., from the cache */
+	public ExtractionRule(String id, ExtractionRuleClass clazz, String xpath) {
+		super(id);
 		this.ruleClass = clazz;
 		this.xpathString = xpath;
 		this.xpath = compileXPath(xpath);
@@ -149,7 +154,7 @@ public class ExtractionRule extends WeirId implements Serializable {
 	 * {@link XPathExpression}
 	 */
 	private Object readResolve() throws ObjectStreamException {
-		compileXPath(getXPath());
+		this.xpath = compileXPath(getXPath());
 		return this;
 	}
 	
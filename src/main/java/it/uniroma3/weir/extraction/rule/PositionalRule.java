@@ -23,5 +23,9 @@ public class PositionalRule extends ExtractionRule {
 		super(ExtractionRuleClass.POSITIONAL,xpath);
 	}
 
+	public PositionalRule(String id, String xpath) {
+		super(id, ExtractionRuleClass.POSITIONAL, xpath);
+	}
+
 
 }
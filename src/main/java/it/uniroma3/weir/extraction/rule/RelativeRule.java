@@ -9,6 +9,10 @@ public class RelativeRule extends ExtractionRule {
 		super(ExtractionRuleClass.RELATIVE, xpath);
 	}
 
+	public RelativeRule(String id, String xpath) {
+		super(id, ExtractionRuleClass.RELATIVE, xpath);
+	}
+
 	// qui sotto le uniche ipotetiche motivazioni per tenere vive
 	// le due classi PositionalRule e RelativeRule? 
 	// ora l'applicazione a livello di stringhe di SubPCDATARule è motivata...
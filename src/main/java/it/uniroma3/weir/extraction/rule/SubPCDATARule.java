@@ -25,6 +25,18 @@ public class SubPCDATARule extends ExtractionRule {
 		this.pcdataRule = rule;
 	}
 
+	public SubPCDATARule(String id, ExtractionRule rule, String xpath) {
+		super(id, null, xpath);
+		this.pcdataRule = rule;
+	}
+
+	/**
+	 * @return the rule leading to the whole PCDATA
+	 */
+	public ExtractionRule getPCDATARule() {
+		return this.pcdataRule;
+	}
+
 	@Override
 	public Website getWebsite() {
 		return getOriginatingRule().getWebsite(); 
@@ -36,8 +36,6 @@ public class RelativeGenerator implements RuleGenerator {
 
 	private int maxOccsWithoutNewRules = 0;
 
-	private List<DOMToken> tokens;
-	
 	public RelativeGenerator() {
 		this(WeirConfig.getInteger(MAX_PIVOT_DISTANCE), 
 			 WeirConfig.getInteger(MIN_PIVOT_OCCURRENCES));
@@ -52,20 +50,22 @@ public class RelativeGenerator implements RuleGenerator {
 
 	public Set<String> inferRules(List<Webpage> samples) {
 		this.finder.findTemplateTokens(samples);
-		this.tokens = this.finder.getTemplateTokens();
+		final List<DOMToken> tokens = this.finder.getTemplateTokens();
 		final Set<String> rules = new LinkedHashSet<>();
 		log.trace("Evaluating each of suitable "+tokens.size()+" template tokens as pivot");
 		log.newTable();
 		log.trace("i","pivot","XPaths generated");
 		for (int i=0; i<tokens.size(); i++) {
-			rules.addAll(generatePivotedRules(i));
+			rules.addAll(generatePivotedRules(tokens, i));
 		}
 		log.endTable();
 		return rules;
 	}
 
-	private Set<String> generatePivotedRules(final int index) {
-		final DOMToken pivot = this.tokens.get(index);
+	/* N.B. no state of the inference is kept: the generator is shared among
+	 * the sites processed in parallel (see ExtractionRuleClass#RELATIVE) */
+	private Set<String> generatePivotedRules(final List<DOMToken> tokens, final int index) {
+		final DOMToken pivot = tokens.get(index);
 		if (!isSuitablePivotToken(pivot)) {
 			return Collections.emptySet();
 		}
@@ -108,7 +108,7 @@ public class RelativeGenerator implements RuleGenerator {
 		}
 		log.trace();
 		log.trace("XPaths generated from this pivot: ", rules.isEmpty() ? " none. " : rules);
-		log(index, pivot, rules.size());
+		log(index, tokens.size(), pivot, rules.size());
 		return rules;
 	}
 	
@@ -118,10 +118,10 @@ public class RelativeGenerator implements RuleGenerator {
 		tokenlistrenderer.skipHeaderRow();
 	}};
 	
-	private void log(final int index, final DOMToken pivot, int size) {
+	private void log(final int index, final int total, final DOMToken pivot, int size) {
 		final Link link = linkTo(log.endPage()).withAnchor(Integer.toString(size));
 		final String pivotRendering = temptokenrenderer.toHTMLstring(pivot);
-		log.trace(index+"/"+this.tokens.size(), pivotRendering, link);
+		log.trace(index+"/"+total, pivotRendering, link);
 	}
 
 }
@@ -1,6 +1,7 @@
 package it.uniroma3.weir.extraction.wrapper.pcdata;
 
 import it.uniroma3.hlog.HypertextualLogger;
+import it.uniroma3.weir.extraction.ExtractionScheduler;
 import it.uniroma3.weir.extraction.ParallelExtractor;
 import it.uniroma3.weir.extraction.rule.ExtractionRule;
 import it.uniroma3.weir.model.Website;
@@ -31,12 +32,19 @@ public class PCDATASplitter {
 
 	final private Website website;
 	
+	final private ExtractionScheduler scheduler;
+	
 	final private List<ExtractedVector> vectorsOfPCDATA;
 
 	private Set<ExtractionRule> refined;
 
 	public PCDATASplitter(Website website, List<ExtractedVector> extracted) {
+		this(website, extracted, ExtractionScheduler.getInstance());
+	}
+
+	public PCDATASplitter(Website website, List<ExtractedVector> extracted, ExtractionScheduler scheduler) {
 		this.website = website;
+		this.scheduler = scheduler;
 		this.vectorsOfPCDATA = extracted;
 		this.refined = new HashSet<>();
 	}
@@ -57,7 +65,8 @@ public class PCDATASplitter {
 
 		/* extract vectors of the refined rules, if any */
 		if (!this.refined.isEmpty()) {
-			final ParallelExtractor pdp = new ParallelExtractor(website);
+			website.loadPages(); // unless already loaded: see StreamingExtractor
+			final ParallelExtractor pdp = new ParallelExtractor(website, this.scheduler);
 			final List<ExtractedVector> extracted = pdp.parallelExtraction(this.refined);
 			this.vectorsOfPCDATA.addAll(extracted);
 			log.page("extracted " + extracted.size() + " new vectors",
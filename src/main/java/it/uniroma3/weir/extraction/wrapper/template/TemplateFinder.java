@@ -21,17 +21,32 @@ import java.util.List;
  */
 public class TemplateFinder implements Fingerprinted {
 	
-	static private ECGMFacade facade;
-		
-	static private List<Webpage> lastAnalyzed = null;
-	
+	/* the last analysis is shared by all the finders of a thread, e.g., by
+	 * the InferenceSystem and the RelativeGenerator working on the same
+	 * samples, but several sites can be analyzed in parallel (see Extraction) */
+	static final private ThreadLocal<Analysis> lastAnalysis = new ThreadLocal<>();
+
+	static final private class Analysis {
+
+		final private List<Webpage> samples;
+
+		final private ECGMFacade facade;
+
+		Analysis(List<Webpage> samples, ECGMFacade facade) {
+			this.samples = samples;
+			this.facade = facade;
+		}
+
+	}
+
 	public TemplateFinder() {
 	}
 	
 	public void findTemplateTokens(List<Webpage> samples) {
-		if (samples.equals(lastAnalyzed)) return ;
-		lastAnalyzed = samples;
-		facade = new ECGMFacade();
+		final Analysis last = lastAnalysis.get();
+		if (last!=null && samples.equals(last.samples)) return ;
+		final ECGMFacade facade = new ECGMFacade();
+		lastAnalysis.set(new Analysis(samples, facade));
 
 		/* find template nodes */
 		facade.analyze(samples);
@@ -40,26 +55,34 @@ public class TemplateFinder implements Fingerprinted {
 		marker.markTokens(samples);
 	}
 
+	private ECGMFacade facade() {
+		final Analysis last = lastAnalysis.get();
+		if (last==null)
+			throw new IllegalStateException("No template analysis has been performed by "
+											+Thread.currentThread().getName());
+		return last.facade;
+	}
+
 	public List<DOMToken> getIntensionalTemplateTokens() {
-		return facade.getTokensOfBinaryLFEQs();
+		return facade().getTokensOfBinaryLFEQs();
 	}
 	
 	public List<DOMToken> getExtensionalTemplateTokens() {
-		return facade.getOccurrencesOfBinaryLFEQs();
+		return facade().getOccurrencesOfBinaryLFEQs();
 	}
 	
 	
 	public List<DOMToken> getTemplateTokens() {
-		return facade.getTokensOfBinaryLFEQs(); // get all the intensional template tokens
+		return facade().getTokensOfBinaryLFEQs(); // get all the intensional template tokens
 	}
 	
 	public List<DOMNode> getOccurrences(DOMToken templateToken) {
-		return facade.getOccurrences(templateToken);
+		return facade().getOccurrences(templateToken);
 	}
 
 	@Override
 	public Fingerprint getFingerprint() {
-		return facade.getFingerprint();
+		return facade().getFingerprint();
 	}
 
 }
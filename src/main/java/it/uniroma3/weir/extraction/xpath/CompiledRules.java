@@ -0,0 +1,24 @@
+package it.uniroma3.weir.extraction.xpath;
+
+import it.uniroma3.weir.extraction.rule.ExtractionRule;
+import it.uniroma3.weir.model.Webpage;
+import it.uniroma3.weir.vector.value.ExtractedValue;
+
+import java.util.List;
+
+/**
+ * A block of {@link ExtractionRule}s compiled to be applied
+ * to a page at once (see {@link XPathTrie} and {@link PathAutomaton}).
+ */
+public interface CompiledRules {
+
+	public List<ExtractionRule> getRules();
+
+	/**
+	 * @param page a page
+	 * @return the values extracted by all the rules, in the same
+	 *         order of the rules this block has been built with
+	 */
+	public ExtractedValue[] extract(Webpage page);
+
+}
@@ -0,0 +1,99 @@
+package it.uniroma3.weir.extraction.xpath;
+
+import it.uniroma3.weir.extraction.wrapper.PositionalXPathBuilder;
+import it.uniroma3.weir.extraction.wrapper.RelativeXPathBuilder;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * An XPath expression of the restricted dialect emitted by
+ * {@link PositionalXPathBuilder} and {@link RelativeXPathBuilder}:
+ * a {@link PathAnchor} followed by a sequence of {@link PathStep}s.
+ */
+final class CompiledXPath {
+
+	static final private String NAME = "([A-Za-z_][A-Za-z0-9_.-]*)";
+
+	static final private Pattern ROOT = Pattern.compile("/"+NAME+"\\[1\\]");
+
+	static final private Pattern BY_ID = Pattern.compile("//"+NAME+"\\[@id='([^']*)'\\]");
+
+	static final private Pattern BY_TEXT = Pattern.compile("//"+NAME+"\\[contains\\(text\\(\\),'([^']*)'\\)\\]");
+
+	static final private Pattern STEP = Pattern.compile(
+			"(/\\.\\.)" +
+			"|(/\\.)" +
+			"|(/following-sibling::node\\(\\)\\[1\\])" +
+			"|(/preceding-sibling::node\\(\\)\\[1\\])" +
+			"|(/self::text\\(\\))" +
+			"|/text\\(\\)(?:\\[([1-9][0-9]{0,8})\\])?" +
+			"|/child::\\*\\[([1-9][0-9]{0,8})\\]" +
+			"|/"+NAME+"\\[([1-9][0-9]{0,8})\\]");
+
+	final PathAnchor anchor;
+
+	final List<PathStep> steps;
+
+	private CompiledXPath(PathAnchor anchor, List<PathStep> steps) {
+		this.anchor = anchor;
+		this.steps = Collections.unmodifiableList(steps);
+	}
+
+	/**
+	 * @param xpath an XPath expression
+	 * @return the compiled expression, or null if the 
+	 *         expression is not within the supported dialect
+	 */
+	static CompiledXPath parse(String xpath) {
+		final Matcher anchorMatcher;
+		final PathAnchor anchor;
+		Matcher m;
+		if ((m=ROOT.matcher(xpath)).lookingAt())
+			anchor = new PathAnchor(PathAnchor.Kind.ROOT, m.group(1), null);
+		else if ((m=BY_ID.matcher(xpath)).lookingAt())
+			anchor = new PathAnchor(PathAnchor.Kind.ID, m.group(1), m.group(2));
+		else if ((m=BY_TEXT.matcher(xpath)).lookingAt())
+			anchor = new PathAnchor(PathAnchor.Kind.TEXT, m.group(1), m.group(2));
+		else return null;
+		anchorMatcher = m;
+
+		final List<PathStep> steps = new ArrayList<>();
+		final Matcher step = STEP.matcher(xpath);
+		int position = anchorMatcher.end();
+		while (position<xpath.length()) {
+			step.region(position, xpath.length());
+			if (!step.lookingAt()) return null;
+			steps.add(step(step));
+			position = step.end();
+		}
+		return new CompiledXPath(anchor, steps);
+	}
+
+	static private PathStep step(Matcher m) {
+		if (m.group(1)!=null) return new PathStep(PathStep.Kind.PARENT);
+		if (m.group(2)!=null) return new PathStep(PathStep.Kind.SELF);
+		if (m.group(3)!=null) return new PathStep(PathStep.Kind.NEXT_SIBLING);
+		if (m.group(4)!=null) return new PathStep(PathStep.Kind.PREVIOUS_SIBLING);
+		if (m.group(5)!=null) return new PathStep(PathStep.Kind.SELF_TEXT);
+		if (m.group(7)!=null)
+			return new PathStep(PathStep.Kind.CHILD_ELEMENT, null, Integer.parseInt(m.group(7)));
+		if (m.group(8)!=null)
+			return new PathStep(PathStep.Kind.CHILD_ELEMENT, m.group(8), Integer.parseInt(m.group(9)));
+		/* /text() or /text()[n] */
+		final int n = ( m.group(6)!=null ? Integer.parseInt(m.group(6)) : 0 );
+		return new PathStep(PathStep.Kind.CHILD_TEXT, null, n);
+	}
+
+	@Override
+	public String toString() {
+		final StringBuilder result = new StringBuilder(this.anchor.toString());
+		for(PathStep step : this.steps)
+			result.append(step);
+		return result.toString();
+	}
+
+}
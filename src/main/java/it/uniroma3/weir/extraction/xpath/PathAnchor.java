@@ -0,0 +1,94 @@
+package it.uniroma3.weir.extraction.xpath;
+
+import static org.w3c.dom.Node.CDATA_SECTION_NODE;
+import static org.w3c.dom.Node.TEXT_NODE;
+
+import java.util.Objects;
+
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+
+/**
+ * The first step of a {@link CompiledXPath}, locating the nodes
+ * from which the following {@link PathStep}s start:
+ * <ul>
+ * <li><tt>/HTML[1]</tt>, the root element of a document
+ * <li><tt>//TAG[@id='value']</tt>, the elements with a given id
+ * <li><tt>//TAG[contains(text(),'label')]</tt>, the elements whose
+ *     first text child contains a given label
+ * </ul>
+ */
+final class PathAnchor {
+
+	enum Kind { ROOT, ID, TEXT }
+
+	final Kind kind;
+
+	final String name;
+
+	final String value;
+
+	PathAnchor(Kind kind, String name, String value) {
+		this.kind  = kind;
+		this.name  = name;
+		this.value = value;
+	}
+
+	boolean matches(Element element, String firstText) {
+		switch (this.kind) {
+			case ID:
+				return element.hasAttribute("id") && this.value.equals(element.getAttribute("id"));
+			case TEXT:
+				return firstText.contains(this.value);
+			default:
+				return false;
+		}
+	}
+
+	/**
+	 * @return the string-value of the first text child,
+	 *         i.e., the XPath 1.0 conversion of <tt>text()</tt>
+	 */
+	static String firstText(Element element) {
+		for(Node child=element.getFirstChild(); child!=null; child=child.getNextSibling()) {
+			final short type = child.getNodeType();
+			if (type==TEXT_NODE || type==CDATA_SECTION_NODE)
+				return child.getNodeValue();
+		}
+		return "";
+	}
+
+	/**
+	 * @return the name of an element as matched by an XPath name test
+	 *         without prefix; null for elements within a namespace
+	 */
+	static String name(Node element) {
+		if (element.getNamespaceURI()!=null) return null;
+		final String local = element.getLocalName();
+		return ( local!=null ? local : element.getNodeName() );
+	}
+
+	@Override
+	public int hashCode() {
+		return Objects.hash(this.kind, this.name, this.value);
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if (o==null || o.getClass()!=getClass()) return false;
+		final PathAnchor that = (PathAnchor)o;
+		return  this.kind==that.kind &&
+				Objects.equals(this.name, that.name) &&
+				Objects.equals(this.value, that.value);
+	}
+
+	@Override
+	public String toString() {
+		switch (this.kind) {
+			case ROOT: return "/"+this.name+"[1]";
+			case ID:   return "//"+this.name+"[@id='"+this.value+"']";
+			default:   return "//"+this.name+"[contains(text(),'"+this.value+"')]";
+		}
+	}
+
+}
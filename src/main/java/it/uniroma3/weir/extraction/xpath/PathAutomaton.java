@@ -0,0 +1,419 @@
+package it.uniroma3.weir.extraction.xpath;
+
+import static it.uniroma3.weir.extraction.wrapper.template.TemplatePredicates.ID_ATTRIBUTE;
+import static org.w3c.dom.Node.ELEMENT_NODE;
+import static org.w3c.dom.Node.TEXT_NODE;
+import it.uniroma3.hlog.HypertextualLogger;
+import it.uniroma3.weir.extraction.rule.ExtractionRule;
+import it.uniroma3.weir.extraction.rule.PositionalRule;
+import it.uniroma3.weir.extraction.wrapper.PositionalXPathBuilder;
+import it.uniroma3.weir.extraction.wrapper.template.DocumentNormalizer;
+import it.uniroma3.weir.metrics.Metrics;
+import it.uniroma3.weir.model.Webpage;
+import it.uniroma3.weir.model.snapshot.DOMSnapshot;
+import it.uniroma3.weir.vector.value.ExtractedValue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.w3c.dom.Document;
+
+/**
+ * Evaluate a set of {@link PositionalRule}s over the {@link DOMSnapshot}s
+ * of the pages, i.e., without building their DOM trees.
+ * <br/>
+ * A positional XPath expression (see {@link PositionalXPathBuilder}) is
+ * an anchor, either the root element or an element with a given id,
+ * followed by a path of elements down to a text, e.g.,
+ * <tt>//DIV[@id='main']/TABLE[1]/TR[2]/TD[2]/text()[1]</tt>. The
+ * expressions of all the rules are compiled into an automaton whose
+ * states are their prefixes: a page is evaluated by a single scan of
+ * its nodes in document order, keeping the states reached by every
+ * open element, and the contiguous texts are merged as they are in
+ * a normalized document.
+ * <br/>
+ * The value of a rule is the first text it reaches, and its occurrence
+ * mark is computed as {@link PositionalXPathBuilder} would do: the
+ * extraction is exactly the one of JAXP. Only the rules accepted by
+ * {@link #isStreamable(ExtractionRule)} can be compiled; the pages
+ * that cannot be snapshot are evaluated over their DOM trees
+ * (see {@link XPathTrie}).
+ * <br/>
+ * An automaton is immutable once built, and it can be shared among threads.
+ */
+public class PathAutomaton implements CompiledRules {
+
+	static final private HypertextualLogger log = HypertextualLogger.getLogger();
+
+	static final private int NONE = -1;
+
+	static final private class State {
+
+		/* element name -> position among the siblings with that name -> next state */
+		final private Map<String, Map<Integer, State>> named = new HashMap<>();
+
+		/* position among the sibling elements -> next state, for child::*[n] */
+		final private Map<Integer, State> any = new HashMap<>();
+
+		/* position among the sibling texts (0: any text) -> accepted rules */
+		final private Map<Integer, List<Integer>> texts = new HashMap<>();
+
+		State next(PathStep step) {
+			Map<Integer, State> byPosition = this.any;
+			if (step.name!=null) {
+				byPosition = this.named.get(step.name);
+				if (byPosition==null) {
+					byPosition = new HashMap<>();
+					this.named.put(step.name, byPosition);
+				}
+			}
+			State next = byPosition.get(step.position);
+			if (next==null) {
+				next = new State();
+				byPosition.put(step.position, next);
+			}
+			return next;
+		}
+
+		void accept(int position, int rule) {
+			List<Integer> rules = this.texts.get(position);
+			if (rules==null) {
+				rules = new ArrayList<>(1);
+				this.texts.put(position, rules);
+			}
+			rules.add(rule);
+		}
+
+	}
+
+	final private List<ExtractionRule> rules;
+
+	/* name of the root element -> initial state */
+	final private Map<String, State> roots;
+
+	/* element name -> id -> initial state */
+	final private Map<String, Map<String, State>> ids;
+
+	/* for the pages that cannot be snapshot */
+	final private XPathTrie trie;
+
+	/**
+	 * @param rules the rules to evaluate together
+	 * @throws IllegalArgumentException if a rule is not streamable
+	 */
+	public PathAutomaton(List<ExtractionRule> rules) {
+		this.rules = new ArrayList<>(rules);
+		this.roots = new HashMap<>();
+		this.ids = new HashMap<>();
+		for(int r=0; r<this.rules.size(); r++) {
+			final CompiledXPath xpath = compile(this.rules.get(r));
+			if (xpath==null)
+				throw new IllegalArgumentException("Not a positional path to a text: "+this.rules.get(r));
+			final int last = xpath.steps.size()-1;
+			State state = initial(xpath.anchor);
+			for(PathStep step : xpath.steps.subList(0, last))
+				state = state.next(step);
+			state.accept(xpath.steps.get(last).position, r);
+		}
+		this.trie = new XPathTrie(this.rules);
+	}
+
+	/**
+	 * @return true iff the rule is a {@link PositionalRule} whose
+	 *         expression is an anchor, either the root element or an
+	 *         element with a given id, followed by child elements down
+	 *         to a child text
+	 */
+	static public boolean isStreamable(ExtractionRule rule) {
+		return ( compile(rule)!=null );
+	}
+
+	static private CompiledXPath compile(ExtractionRule rule) {
+		if (rule.getClass()!=PositionalRule.class) return null;
+		final CompiledXPath xpath = CompiledXPath.parse(rule.getXPath());
+		if (xpath==null || xpath.anchor.kind==PathAnchor.Kind.TEXT || xpath.steps.isEmpty())
+			return null;
+		final int last = xpath.steps.size()-1;
+		for(PathStep step : xpath.steps.subList(0, last))
+			if (step.kind!=PathStep.Kind.CHILD_ELEMENT) return null;
+		return ( xpath.steps.get(last).kind==PathStep.Kind.CHILD_TEXT ? xpath : null );
+	}
+
+	private State initial(PathAnchor anchor) {
+		final Map<String, State> states;
+		final String key;
+		if (anchor.kind==PathAnchor.Kind.ROOT) {
+			states = this.roots;
+			key = anchor.name;
+		} else {
+			Map<String, State> byId = this.ids.get(anchor.name);
+			if (byId==null) {
+				byId = new HashMap<>();
+				this.ids.put(anchor.name, byId);
+			}
+			states = byId;
+			key = anchor.value;
+		}
+		State result = states.get(key);
+		if (result==null) {
+			result = new State();
+			states.put(key, result);
+		}
+		return result;
+	}
+
+	@Override
+	public List<ExtractionRule> getRules() {
+		return this.rules;
+	}
+
+	/**
+	 * @param page a page, loaded or not
+	 * @return the values extracted by all the rules, in the same
+	 *         order of the rules this automaton has been built with
+	 */
+	@Override
+	public ExtractedValue[] extract(Webpage page) {
+		final DOMSnapshot snapshot;
+		try {
+			snapshot = page.getSnapshot();
+		} catch (RuntimeException e) {
+			log.trace("no snapshot of page "+page.getName()+": "+e.getMessage());
+			return extractFromDocument(page);
+		}
+		Metrics.counter("pages.streamed").increment();
+		return extract(page, snapshot);
+	}
+
+	/**
+	 * @param page a page
+	 * @param snapshot the snapshot of its preprocessed DOM tree
+	 * @return the values extracted by all the rules, in the same
+	 *         order of the rules this automaton has been built with
+	 */
+	public ExtractedValue[] extract(Webpage page, DOMSnapshot snapshot) {
+		final ExtractedValue[] result = new ExtractedValue[this.rules.size()];
+		new Scan(page, snapshot, result).run();
+		for(int r=0; r<result.length; r++)
+			if (result[r]==null)
+				result[r] = new ExtractedValue(page, null, (String)null);
+		return result;
+	}
+
+	/* as for the pages that cannot be loaded (see PageLoader): no values */
+	private ExtractedValue[] extractFromDocument(Webpage page) {
+		final boolean loaded = ( page.getDocument()!=null );
+		try {
+			if (!loaded) page.loadDocument();
+		} catch (RuntimeException e) {
+			log.warn("page "+page.getName()+" could not be loaded and it is taken as empty: "+e);
+			Metrics.counter("pages.streaming.failed").increment();
+			final ExtractedValue[] result = new ExtractedValue[this.rules.size()];
+			for(int r=0; r<result.length; r++)
+				result[r] = new ExtractedValue(page, null, (String)null);
+			return result;
+		}
+		try {
+			//N.B.: XPath evaluation requires normalized DOM documents
+			final Document document = page.getDocument();
+			synchronized (document) {
+				new DocumentNormalizer().normalize(document);
+			}
+			return this.trie.extract(page);
+		} finally {
+			if (!loaded) page.releaseDocument();
+		}
+	}
+
+	/* an element open during a scan */
+	static final private class Frame {
+
+		final private int node;
+
+		final private int end;
+
+		/* the states reached by the element */
+		final private List<State> states;
+
+		/* the child elements met so far, overall and by name */
+		private int elements;
+
+		private Map<String, Integer> named;
+
+		/* the child texts met so far, and the one going on, if any */
+		private int texts;
+
+		private int first = NONE;
+
+		private StringBuilder text;
+
+		Frame(int node, int end, List<State> states) {
+			this.node = node;
+			this.end = end;
+			this.states = states;
+		}
+
+		/* the position of the next child element with a given name */
+		int position(String name) {
+			if (this.named==null) this.named = new HashMap<>();
+			final Integer previous = this.named.get(name);
+			final int result = ( previous!=null ? previous+1 : 1 );
+			this.named.put(name, result);
+			return result;
+		}
+
+	}
+
+	/* a single scan of the nodes of a snapshot, in document order */
+	private class Scan {
+
+		final private Webpage page;
+
+		final private DOMSnapshot snapshot;
+
+		final private ExtractedValue[] result;
+
+		private int missing;
+
+		final private List<Frame> open;
+
+		Scan(Webpage page, DOMSnapshot snapshot, ExtractedValue[] result) {
+			this.page = page;
+			this.snapshot = snapshot;
+			this.result = result;
+			this.missing = result.length;
+			this.open = new ArrayList<>();
+		}
+
+		void run() {
+			final List<State> none = Collections.emptyList();
+			this.open.add(new Frame(0, this.snapshot.size(), none));
+			for(int node=1; node<this.snapshot.size() && this.missing>0; node++) {
+				Frame parent = top();
+				while (node>=parent.end) {
+					close(this.open.remove(this.open.size()-1));
+					parent = top();
+				}
+				switch (this.snapshot.getType(node)) {
+				case TEXT_NODE:
+					if (!parent.states.isEmpty())
+						append(parent, node);
+					break;
+				case ELEMENT_NODE:
+					endText(parent);
+					final List<State> states = enter(parent, node);
+					final int end = this.snapshot.getEnd(node);
+					if (states.isEmpty() && ids.isEmpty())
+						node = end-1; // no anchors within: skip the subtree
+					else this.open.add(new Frame(node, end, states));
+					break;
+				default:
+					// e.g., a processing instruction: it separates the texts
+					endText(parent);
+				}
+			}
+			while (!this.open.isEmpty())
+				close(this.open.remove(this.open.size()-1));
+		}
+
+		private Frame top() {
+			return this.open.get(this.open.size()-1);
+		}
+
+		private void close(Frame frame) {
+			endText(frame);
+		}
+
+		/* the states reached by an element */
+		private List<State> enter(Frame parent, int node) {
+			final String name = this.snapshot.getName(node);
+			List<State> result = Collections.emptyList();
+			if (!parent.states.isEmpty()) {
+				final int position = ++parent.elements;
+				final int named = parent.position(name);
+				for(State state : parent.states) {
+					result = add(result, state.any.get(position));
+					final Map<Integer, State> byPosition = state.named.get(name);
+					if (byPosition!=null)
+						result = add(result, byPosition.get(named));
+				}
+			}
+			if (parent.node==0)
+				result = add(result, roots.get(name));
+			final Map<String, State> byId = ids.get(name);
+			if (byId!=null) {
+				final String id = this.snapshot.getAttribute(node, ID_ATTRIBUTE);
+				if (id!=null)
+					result = add(result, byId.get(id));
+			}
+			return result;
+		}
+
+		private List<State> add(List<State> states, State state) {
+			if (state==null) return states;
+			final List<State> result = ( states.isEmpty() ? new ArrayList<State>(2) : states );
+			result.add(state);
+			return result;
+		}
+
+		private void append(Frame frame, int node) {
+			if (frame.first==NONE) {
+				frame.first = node;
+				frame.text = new StringBuilder();
+			}
+			final String value = this.snapshot.getValue(node);
+			if (value!=null) frame.text.append(value);
+		}
+
+		/* as for a normalized document, empty texts are dropped */
+		private void endText(Frame frame) {
+			if (frame.first==NONE) return;
+			final String text = frame.text.toString();
+			frame.first = NONE;
+			frame.text = null;
+			if (text.isEmpty()) return;
+			final int position = ++frame.texts;
+			String mark = null;
+			for(State state : frame.states) {
+				for(int key : new int[] { position, 0 }) {
+					final List<Integer> accepted = state.texts.get(key);
+					if (accepted==null) continue;
+					for(int r : accepted) {
+						if (this.result[r]!=null) continue;
+						if (mark==null)
+							mark = xpath(frame.node) + "/text()[" + position + "]";
+						this.result[r] = new ExtractedValue(this.page, text, mark);
+						this.missing--;
+					}
+				}
+			}
+		}
+
+		/* the same XPath of PositionalXPathBuilder, as an occurrence mark */
+		private String xpath(int node) {
+			final String name = this.snapshot.getName(node);
+			if (node<=0 || "HTML".equalsIgnoreCase(name))
+				return "/HTML[1]";
+			final String id = this.snapshot.getAttribute(node, ID_ATTRIBUTE);
+			if (id!=null)
+				return "//" + name + "[@id='" + id + "']";
+			final int parent = this.snapshot.getParent(node);
+			int position = 1;
+			for(int sibling=this.snapshot.getFirstChild(parent); sibling!=node;
+					sibling=this.snapshot.getNextSibling(sibling))
+				if (this.snapshot.getType(sibling)==ELEMENT_NODE && name.equals(this.snapshot.getName(sibling)))
+					position++;
+			return xpath(parent) + "/" + name + "[" + position + "]";
+		}
+
+	}
+
+	@Override
+	public String toString() {
+		return getClass().getSimpleName() + " (" + this.rules.size() + " rules)";
+	}
+
+}
@@ -0,0 +1,138 @@
+package it.uniroma3.weir.extraction.xpath;
+
+import static org.w3c.dom.Node.CDATA_SECTION_NODE;
+import static org.w3c.dom.Node.DOCUMENT_TYPE_NODE;
+import static org.w3c.dom.Node.ELEMENT_NODE;
+import static org.w3c.dom.Node.TEXT_NODE;
+
+import java.util.List;
+import java.util.Objects;
+
+import org.w3c.dom.Node;
+
+/**
+ * A location step of a {@link CompiledXPath}, as emitted by
+ * {@link PositionalXPathBuilder} and {@link RelativeXPathBuilder}
+ * (see {@link Step#xPathStep()}).
+ * <br/>
+ * N.B. as for JAXP, the evaluation requires the documents to
+ * have been already normalized, i.e., no contiguous text siblings.
+ */
+final class PathStep {
+
+	enum Kind {
+		SELF,             // /.
+		PARENT,           // /..
+		NEXT_SIBLING,     // /following-sibling::node()[1]
+		PREVIOUS_SIBLING, // /preceding-sibling::node()[1]
+		SELF_TEXT,        // /self::text()
+		CHILD_ELEMENT,    // /TAG[n] or /child::*[n]
+		CHILD_TEXT        // /text()[n] or /text()
+	}
+
+	final Kind kind;
+
+	final String name;  // null: any element
+
+	final int position; // 0: all the children
+
+	PathStep(Kind kind) {
+		this(kind, null, 0);
+	}
+
+	PathStep(Kind kind, String name, int position) {
+		this.kind = kind;
+		this.name = name;
+		this.position = position;
+	}
+
+	/**
+	 * Move this step from a context node
+	 * @param context the node to move from
+	 * @param result where the reached nodes are appended
+	 */
+	void apply(Node context, List<Node> result) {
+		switch (this.kind) {
+			case SELF:
+				result.add(context);
+				break;
+			case PARENT:
+				addIfNotNull(context.getParentNode(), result);
+				break;
+			case NEXT_SIBLING:
+				Node next = context.getNextSibling();
+				while (next!=null && next.getNodeType()==DOCUMENT_TYPE_NODE)
+					next = next.getNextSibling();
+				addIfNotNull(next, result);
+				break;
+			case PREVIOUS_SIBLING:
+				Node previous = context.getPreviousSibling();
+				while (previous!=null && previous.getNodeType()==DOCUMENT_TYPE_NODE)
+					previous = previous.getPreviousSibling();
+				addIfNotNull(previous, result);
+				break;
+			case SELF_TEXT:
+				if (isText(context)) result.add(context);
+				break;
+			case CHILD_ELEMENT:
+				int elements = 0;
+				for(Node child=context.getFirstChild(); child!=null; child=child.getNextSibling()) {
+					if (child.getNodeType()!=ELEMENT_NODE) continue;
+					if (this.name!=null && !this.name.equals(PathAnchor.name(child))) continue;
+					if (++elements==this.position) {
+						result.add(child);
+						break;
+					}
+				}
+				break;
+			case CHILD_TEXT:
+				int texts = 0;
+				for(Node child=context.getFirstChild(); child!=null; child=child.getNextSibling()) {
+					if (!isText(child)) continue;
+					if (this.position==0) result.add(child);
+					else if (++texts==this.position) {
+						result.add(child);
+						break;
+					}
+				}
+				break;
+		}
+	}
+
+	static private void addIfNotNull(Node node, List<Node> result) {
+		if (node!=null) result.add(node);
+	}
+
+	static boolean isText(Node node) {
+		final short type = node.getNodeType();
+		return type==TEXT_NODE || type==CDATA_SECTION_NODE;
+	}
+
+	@Override
+	public int hashCode() {
+		return Objects.hash(this.kind, this.name, this.position);
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if (o==null || o.getClass()!=getClass()) return false;
+		final PathStep that = (PathStep)o;
+		return  this.kind==that.kind &&
+				this.position==that.position &&
+				Objects.equals(this.name, that.name);
+	}
+
+	@Override
+	public String toString() {
+		switch (this.kind) {
+			case SELF:             return "/.";
+			case PARENT:           return "/..";
+			case NEXT_SIBLING:     return "/following-sibling::node()[1]";
+			case PREVIOUS_SIBLING: return "/preceding-sibling::node()[1]";
+			case SELF_TEXT:        return "/self::text()";
+			case CHILD_ELEMENT:    return "/"+(this.name!=null ? this.name : "child::*")+"["+this.position+"]";
+			default:               return "/text()"+(this.position>0 ? "["+this.position+"]" : "");
+		}
+	}
+
+}
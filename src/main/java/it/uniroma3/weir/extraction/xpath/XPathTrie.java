@@ -0,0 +1,253 @@
+package it.uniroma3.weir.extraction.xpath;
+
+import static org.w3c.dom.Node.DOCUMENT_POSITION_FOLLOWING;
+import static org.w3c.dom.Node.ELEMENT_NODE;
+import it.uniroma3.weir.extraction.rule.ExtractionRule;
+import it.uniroma3.weir.extraction.rule.PositionalRule;
+import it.uniroma3.weir.extraction.rule.RelativeRule;
+import it.uniroma3.weir.model.Webpage;
+import it.uniroma3.weir.vector.value.ExtractedValue;
+
+import java.util.*;
+
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+
+/**
+ * Evaluate a whole set of {@link ExtractionRule}s over a page
+ * in a single pass, instead of walking its DOM once per rule.
+ * <br/>
+ * The XPath expressions of the rules are compiled (see {@link CompiledXPath})
+ * into a trie sharing their common prefixes: the anchors of all the rules
+ * are located by a single traversal of the document, and every shared
+ * sequence of steps is then evaluated just once.
+ * <br/>
+ * The rules whose expressions are outside the supported dialect (e.g.,
+ * {@link SubPCDATARule}s) are applied as usual, i.e., by means of JAXP.
+ * <br/>
+ * A trie is immutable once built, and it can be shared among threads.
+ */
+public class XPathTrie implements CompiledRules {
+
+	static final private class TrieNode {
+
+		final private Map<PathStep, TrieNode> children = new LinkedHashMap<>();
+
+		final private List<Integer> rules = new ArrayList<>(1);
+
+		TrieNode child(PathStep step) {
+			TrieNode child = this.children.get(step);
+			if (child==null) {
+				child = new TrieNode();
+				this.children.put(step, child);
+			}
+			return child;
+		}
+
+	}
+
+	final private List<ExtractionRule> rules;
+
+	/* compiled anchors in order of first occurrence */
+	final private List<PathAnchor> anchors;
+
+	final private List<TrieNode> roots;
+
+	/* element name -> indices of the anchors on that element name */
+	final private Map<String, List<Integer>> name2anchors;
+
+	/* rules applied one by one as usual */
+	final private List<Integer> fallback;
+
+	/**
+	 * @param rules the rules to evaluate together
+	 */
+	public XPathTrie(List<ExtractionRule> rules) {
+		this(rules, true);
+	}
+
+	/**
+	 * @param rules the rules to evaluate together
+	 * @param compile false to apply every rule as usual
+	 */
+	public XPathTrie(List<ExtractionRule> rules, boolean compile) {
+		this.rules = new ArrayList<>(rules);
+		this.anchors = new ArrayList<>();
+		this.roots = new ArrayList<>();
+		this.name2anchors = new HashMap<>();
+		this.fallback = new ArrayList<>();
+		final Map<PathAnchor, Integer> anchor2index = new HashMap<>();
+		for(int r=0; r<this.rules.size(); r++) {
+			final ExtractionRule rule = this.rules.get(r);
+			final CompiledXPath xpath = ( compile && isCompilable(rule) ?
+					CompiledXPath.parse(rule.getXPath()) : null );
+			if (xpath==null) {
+				this.fallback.add(r);
+				continue;
+			}
+			Integer index = anchor2index.get(xpath.anchor);
+			if (index==null) {
+				index = this.anchors.size();
+				anchor2index.put(xpath.anchor, index);
+				this.anchors.add(xpath.anchor);
+				this.roots.add(new TrieNode());
+				List<Integer> byName = this.name2anchors.get(xpath.anchor.name);
+				if (byName==null) {
+					byName = new ArrayList<>();
+					this.name2anchors.put(xpath.anchor.name, byName);
+				}
+				byName.add(index);
+			}
+			TrieNode node = this.roots.get(index);
+			for(PathStep step : xpath.steps)
+				node = node.child(step);
+			node.rules.add(r);
+		}
+	}
+
+	/* only the rules whose extraction is just the evaluation of their XPath */
+	static private boolean isCompilable(ExtractionRule rule) {
+		final Class<?> cls = rule.getClass();
+		return cls==ExtractionRule.class || cls==PositionalRule.class || cls==RelativeRule.class;
+	}
+
+	@Override
+	public List<ExtractionRule> getRules() {
+		return this.rules;
+	}
+
+	/**
+	 * @return the number of rules that will be applied as usual
+	 */
+	public int getFallbackSize() {
+		return this.fallback.size();
+	}
+
+	/**
+	 * @param page a loaded page
+	 * @return the values extracted by all the rules, in the same
+	 *         order of the rules this trie has been built with
+	 */
+	@Override
+	public ExtractedValue[] extract(Webpage page) {
+		final Document document = page.getDocument();
+		if (document==null)
+			throw new IllegalStateException("Webpage "+page+" has not been loaded yet");
+		final ExtractedValue[] result = new ExtractedValue[this.rules.size()];
+		// N.B. xerces DOM impl. requires clients to serialize accesses
+		synchronized (document) {
+			final List<List<Node>> contexts = locateAnchors(document);
+			for(int a=0; a<this.anchors.size(); a++)
+				evaluate(page, this.roots.get(a), contexts.get(a), result);
+			for(int r : this.fallback)
+				result[r] = this.rules.get(r).applyTo(page);
+		}
+		return result;
+	}
+
+	/**
+	 * A single traversal of the document collects, in document order,
+	 * the nodes matching every anchor.
+	 */
+	private List<List<Node>> locateAnchors(Document document) {
+		final List<List<Node>> result = new ArrayList<>(this.anchors.size());
+		for(int a=0; a<this.anchors.size(); a++)
+			result.add(new ArrayList<Node>(1));
+		if (this.anchors.isEmpty()) return result;
+
+		final Element root = document.getDocumentElement();
+		if (root==null) return result;
+		final List<Integer> atRoot = this.name2anchors.get(PathAnchor.name(root));
+		if (atRoot!=null)
+			for(int a : atRoot)
+				if (this.anchors.get(a).kind==PathAnchor.Kind.ROOT)
+					result.get(a).add(root);
+
+		/* preorder, without recursion */
+		Node node = root;
+		while (node!=null) {
+			if (node.getNodeType()==ELEMENT_NODE)
+				visit((Element)node, result);
+			node = next(node, root);
+		}
+		return result;
+	}
+
+	private void visit(Element element, List<List<Node>> result) {
+		final List<Integer> candidates = this.name2anchors.get(PathAnchor.name(element));
+		if (candidates==null) return;
+		String firstText = null;
+		for(int a : candidates) {
+			final PathAnchor anchor = this.anchors.get(a);
+			if (anchor.kind==PathAnchor.Kind.ROOT) continue;
+			if (anchor.kind==PathAnchor.Kind.TEXT && firstText==null)
+				firstText = PathAnchor.firstText(element);
+			if (anchor.matches(element, firstText))
+				result.get(a).add(element);
+		}
+	}
+
+	static private Node next(Node node, Node root) {
+		if (node.getFirstChild()!=null) return node.getFirstChild();
+		while (node!=root) {
+			if (node.getNextSibling()!=null) return node.getNextSibling();
+			node = node.getParentNode();
+		}
+		return null;
+	}
+
+	private void evaluate(Webpage page, TrieNode node, List<Node> contexts, ExtractedValue[] result) {
+		for(int r : node.rules)
+			result[r] = new ExtractedValue(page, new NodeArrayList(contexts));
+		for(Map.Entry<PathStep, TrieNode> entry : node.children.entrySet()) {
+			final PathStep step = entry.getKey();
+			final List<Node> next = new ArrayList<>(contexts.size());
+			for(Node context : contexts)
+				step.apply(context, next);
+			evaluate(page, entry.getValue(), inDocumentOrder(next), result);
+		}
+	}
+
+	/* a node-set: no duplicates, in document order */
+	static private List<Node> inDocumentOrder(List<Node> nodes) {
+		if (nodes.size()<2) return nodes;
+		final Set<Node> unique = Collections.newSetFromMap(new IdentityHashMap<Node, Boolean>());
+		final List<Node> result = new ArrayList<>(nodes.size());
+		for(Node node : nodes)
+			if (unique.add(node))
+				result.add(node);
+		Collections.sort(result, DOCUMENT_ORDER);
+		return result;
+	}
+
+	static final private Comparator<Node> DOCUMENT_ORDER = new Comparator<Node>() {
+		@Override
+		public int compare(Node n1, Node n2) {
+			if (n1==n2) return 0;
+			return ( (n1.compareDocumentPosition(n2) & DOCUMENT_POSITION_FOLLOWING)!=0 ? -1 : 1 );
+		}
+	};
+
+	static final private class NodeArrayList implements NodeList {
+
+		final private List<Node> nodes;
+
+		NodeArrayList(List<Node> nodes) {
+			this.nodes = nodes;
+		}
+
+		@Override
+		public Node item(int index) {
+			return ( index>=0 && index<this.nodes.size() ? this.nodes.get(index) : null );
+		}
+
+		@Override
+		public int getLength() {
+			return this.nodes.size();
+		}
+
+	}
+
+}
@@ -4,6 +4,7 @@ import static it.uniroma3.weir.vector.type.Type.NUMBER;
 import static org.apache.commons.lang3.StringEscapeUtils.escapeHtml4;
 import static org.junit.Assert.assertTrue;
 import it.uniroma3.weir.extraction.rule.ExtractionRule;
+import it.uniroma3.weir.extraction.rule.PositionalRule;
 import it.uniroma3.weir.model.Webpage;
 import it.uniroma3.weir.model.Website;
 import it.uniroma3.weir.vector.ExtractedVector;
@@ -60,6 +61,24 @@ public class VectorFixture {
 		return new NumericVector(ev, NUMBER, stringValues);
 	}
 
+	/* vectors over the pages of a given site, e.g., to be linked */
+	static public NumericVector createNumericVector(Website site, Object... values) {
+		final String[] stringValues = number2string(values);
+		final ExtractedVector ev = createExtractedVector(site, stringValues);
+		return new NumericVector(ev, NUMBER, stringValues);
+	}
+
+	static public Vector createVector(Website site, Type type, String... values) {
+		return type.createTypedVector(createExtractedVector(site, values), values);
+	}
+
+	static private ExtractedVector createExtractedVector(Website site, String... values) {
+		final ExtractionRule rule = new PositionalRule("/HTML/BODY/text()");
+		rule.setWebsite(site);
+		final Webpage[] pages = site.getWebpages().toArray(new Webpage[0]);
+		return createExtractedVector(rule, Arrays.copyOf(pages, values.length), values);
+	}
+
 	static final private String[] number2string(Object[] values) {
 		String[] result = new String[values.length];
 		for(int i=0; i<values.length; i++) {
@@ -1,6 +1,7 @@
 package it.uniroma3.weir.fixture;
 
 import it.uniroma3.weir.linking.linkage.PageLinkage;
+import it.uniroma3.weir.linking.linkage.PageLinkageIterator;
 import it.uniroma3.weir.linking.linkage.WebsiteLinkage;
 import it.uniroma3.weir.model.Attribute;
 import it.uniroma3.weir.model.Webpage;
@@ -81,11 +82,24 @@ public class WebsiteLinkageFixture {
 		return new Vector[] { v1, v2 };
 	}
 	
+	/**
+	 * Iterate the values of two vectors by linking
+	 * their pages at the same position
+	 */
+	public static PageLinkageIterator createPairwiseIterator(Vector v1, Vector v2) {
+		final List<PageLinkage> linkage = new ArrayList<PageLinkage>();
+		for (int i=0; i<Math.min(v1.size(), v2.size()); i++) {
+			linkage.add(new PageLinkage(v1.getPageIndex().get(i), v2.getPageIndex().get(i), 1.0));
+		}
+		final WebsiteLinkage wl = new WebsiteLinkage(v1.getWebsite(), v2.getWebsite(), linkage);
+		return new PageLinkageIterator(v1, v2, wl);
+	}
+
 	// here only to support legacy code
 	static public Vector makeVector(final Type type, final Value[] values) {
 		@SuppressWarnings("serial")
 		final Vector result = new Vector(type) {{
-			this.elements = values;			
+			this.setElements(values, null);
 		}};
 		return result;
 	}
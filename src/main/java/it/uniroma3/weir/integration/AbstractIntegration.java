@@ -3,6 +3,7 @@ package it.uniroma3.weir.integration;
 
 import static it.uniroma3.hlog.HypertextualUtils.*;
 import it.uniroma3.hlog.HypertextualLogger;
+import it.uniroma3.hlog.Level;
 import it.uniroma3.weir.MatchRepository;
 import it.uniroma3.weir.integration.lc.ContainmentCorrelation;
 import it.uniroma3.weir.integration.lc.Correlation;
@@ -14,7 +15,6 @@ import it.uniroma3.weir.model.MappingSet;
 import it.uniroma3.weir.model.Website;
 
 import java.util.List;
-import java.util.Set;
 
 /**
  * An integration algorithm specialized to the setting in which the local
@@ -40,6 +40,11 @@ import java.util.Set;
  * discovered by means of {@link Correlation#areCorrelated()}.
  * </p>
  * 
+ * <p>
+ * The {@link Mapping}s are grouped by means of a {@link MappingForest},
+ * and they are added to the resulting {@link MappingSet} only at the end.
+ * </p>
+ * 
  * @see <a href="http://www.vldb.org/pvldb/vol6/p805-bronzi.pdf">
  * <i>Extraction and integration of partially overlapping web sources</i></a>.
  * <br/>
@@ -55,12 +60,15 @@ public class AbstractIntegration {
 	
 	final private MappingSet mappingSet;
 
+	final private MappingForest forest;
+
 	final private LocalConsistency localConsistency;     // Local Consistency
 
 	final private Correlation correlation; // Correlation
 	
 	public AbstractIntegration() {
 		this.mappingSet  = new MappingSet();
+		this.forest = new MappingForest();
 		this.localConsistency = new StrictLocalConsistency();
 		this.correlation = new ContainmentCorrelation();
 	}
@@ -80,66 +88,68 @@ public class AbstractIntegration {
 			Attribute a = match.getMin();
 			Attribute b = match.getMax();
 			
-			Mapping m_a = findOrCreateNewSingletonMapping(a);
-			Mapping m_b = findOrCreateNewSingletonMapping(b);
+			this.forest.add(a);
+			this.forest.add(b);
 
-			handlePair(match, m_a, m_b);
+			handlePair(match, a, b);
 		}
 		log.endTable();
 		log.endPage();
+		this.forest.addMappingsTo(this.mappingSet);
 		return this.mappingSet;
 	}
 
-	private Mapping findOrCreateNewSingletonMapping(Attribute a) {
-		Mapping m_a = this.mappingSet.getMappingByAttribute(a);
-		if (m_a==null) {
-			m_a = new Mapping(a);
-			this.mappingSet.addMapping(m_a);
-		}
-		return m_a;
-	}
-
-	private void handlePair(Match pair, Mapping m_a, Mapping m_b) {
+	private void handlePair(Match pair, Attribute a, Attribute b) {
 		
 //		log.trace(pair + " involving mappings " + m_a + " and " + m_b);
 		
-		if (m_a.equals(m_b)) {
-			log(pair, m_a, m_b, "same","");
+		if (this.forest.sameMapping(a, b)) {
+			log(pair, a, b, "same","");
 			return;
 		}
 		
-		if (m_a.isComplete() || m_b.isComplete()) {
-			if (!m_a.isComplete()) {
-				log(pair, m_a, m_b, m_b+" complete", m_a+" completed");
-				m_a.markAsComplete();
+		final boolean aComplete = this.forest.isComplete(a);
+		final boolean bComplete = this.forest.isComplete(b);
+		if (aComplete || bComplete) {
+			if (!aComplete) {
+				log(pair, a, b, mapping(b)+" complete", mapping(a)+" completed");
+				this.forest.markAsComplete(a);
 			}
 			
-			if (!m_b.isComplete()) {
-				log(pair, m_a, m_b, m_a+" complete", m_b+" completed");
-				m_b.markAsComplete();
+			if (!bComplete) {
+				log(pair, a, b, mapping(a)+" complete", mapping(b)+" completed");
+				this.forest.markAsComplete(b);
 			}
-		} else if (aMergeWouldViolateLC(pair, m_a, m_b)) {
+		} else if (aMergeWouldViolateLC(a, b)) {
 			if (!areCorrelated(pair)) {
 //				log.trace("marking both mappings as complete");
-				m_a.markAsComplete();
-				m_b.markAsComplete();
-				log(pair, m_a, m_b, "l.c.!","marked completed");
+				this.forest.markAsComplete(a);
+				this.forest.markAsComplete(b);
+				log(pair, a, b, "l.c.!","marked completed");
 			} else {
 //				log.trace("however, it is not a strict violation: "+	
 //						  "the violating attributes "+pair+" are unequal but correlated");
-				log(pair, m_a, m_b, "l.c.!","<i>loose</i> violation");
+				log(pair, a, b, "l.c.!","<i>loose</i> violation");
 			}
 		} else {
-			this.mappingSet.removeMapping(m_a);
-			this.mappingSet.removeMapping(m_b);
-			
-			Mapping mNew = new Mapping(m_a, m_b);
-			this.mappingSet.addMapping(mNew);
-			log(pair, m_a, m_b, "merge", mNew);
+			final Mapping m_a = mapping(a);
+			final Mapping m_b = mapping(b);
+			this.forest.merge(a, b);
+			log(pair, m_a, m_b, "merge", mapping(a));
 		}
 	}
 
+	/* the current mapping of an attribute, only to log it */
+	private Mapping mapping(Attribute a) {
+		return ( log.isLoggable(Level.TRACE) ? this.forest.getMapping(a) : null );
+	}
+
+	private void log(Match pair, Attribute a, Attribute b, String msg, Object result) {
+		log(pair, mapping(a), mapping(b), msg, result);
+	}
+
 	static final private void log(Match pair, Mapping m_a, Mapping m_b, String msg, Object result) {
+		if (!log.isLoggable(Level.TRACE)) return;
 		log.trace(
 				lazyPopup(pair),
 				objectPopup(id(m_a), m_a), 
@@ -156,33 +166,21 @@ public class AbstractIntegration {
 //		return lazyPopup("("+match.getMin()+","+match.getMax()+")", match);
 //	}
 
-	private boolean aMergeWouldViolateLC(Match pair, Mapping m_a, Mapping m_b) {
-		if (m_a.equals(m_b)) return false;
-
-		final Set<Website> violating = getCommonSites(m_a,m_b);
-		
-		if (!violating.isEmpty()) {
-			//log.trace(m_a+" and "+m_b+" both have attributes from: "+violating);
-			for(Website site : violating) {
-				final Set<Attribute> m_a_fromSite = m_a.fromSource(site);
-				final Set<Attribute> m_b_fromSite = m_b.fromSource(site);
-				//log.trace("attributes coming from "+site+": "+m_a_fromSite+" and "+m_b_fromSite);
-				if (aMergeWouldViolateLC(m_a_fromSite, m_b_fromSite)) 
-					return true;
-			}
+	private boolean aMergeWouldViolateLC(Attribute a, Attribute b) {
+		/* only the sources shared by both mappings can be violated */
+		for(Website site : this.forest.getCommonSites(a, b)) {
+			final List<Attribute> m_a_fromSite = this.forest.fromSource(a, site);
+			final List<Attribute> m_b_fromSite = this.forest.fromSource(b, site);
+			//log.trace("attributes coming from "+site+": "+m_a_fromSite+" and "+m_b_fromSite);
+			if (aMergeWouldViolateLC(m_a_fromSite, m_b_fromSite)) 
+				return true;
 		}
 //		log.trace("merging "+m_a+" and "+m_b+" does not lead "
 //				+ "to local consistency assumption violation");
 		return false;
 	}
 	
-	private Set<Website> getCommonSites(Mapping m_a, Mapping m_b) {
-		final Set<Website> intersection = m_a.getSourceSites();
-		intersection.retainAll(m_b.getSourceSites());
-		return intersection;
-	}
-	
-	private boolean aMergeWouldViolateLC(Set<Attribute> fromA, Set<Attribute> fromB) {
+	private boolean aMergeWouldViolateLC(List<Attribute> fromA, List<Attribute> fromB) {
 		for(Attribute a : fromA)
 			for(Attribute b : fromB)
 				if (this.localConsistency.violatedBy(a, b)) {
@@ -38,7 +38,7 @@ public class DomainMatching extends DomainRepository<WebsiteMatching> {
 	}
 
 	public DomainMatching(Domain domain, WebsiteMatchBuilder builder) {
-		super(domain, WebsiteMatching.class, builder);
+		super(domain, builder);
 	}
 	
 //	public DomainMatching(List<Website> sites) {
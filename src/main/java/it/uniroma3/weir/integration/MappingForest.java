@@ -0,0 +1,203 @@
+package it.uniroma3.weir.integration;
+
+import static it.uniroma3.weir.model.WeirId.nextIdByClass;
+import it.uniroma3.weir.model.Attribute;
+import it.uniroma3.weir.model.Mapping;
+import it.uniroma3.weir.model.MappingSet;
+import it.uniroma3.weir.model.Website;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The {@link Mapping}s built by an integration, as a disjoint-set forest
+ * over their {@link Attribute}s: every tree is a mapping, and its root
+ * carries the id of the mapping, whether it is complete, and a bitmap
+ * of the source {@link Website}s of its attributes.
+ * <br/>
+ * Finding the mapping of an attribute and merging two mappings take
+ * almost constant (amortized) time, while checking if two mappings
+ * share a source is a bitmap intersection.
+ * <br/>
+ * A mapping gets a new id whenever it is created (see
+ * {@link #add(Attribute)}) or merged (see {@link #merge(Attribute, Attribute)}),
+ * just as a new {@link Mapping} would: the {@link Mapping}s finally
+ * built (see {@link #addMappingsTo(MappingSet)}) have the same ids.
+ */
+public class MappingForest {
+
+	static final private class Node {
+
+		private Node parent;
+
+		/* the following ones are meaningful only for the roots */
+		private int size;
+
+		private String id;
+
+		private boolean complete;
+
+		private BitSet sites;
+
+		private Map<Website, List<Attribute>> site2attributes;
+
+		Node(Attribute a, int site) {
+			this.parent = this;
+			this.size = 1;
+			this.id = nextIdByClass(Mapping.class);
+			this.complete = false;
+			this.sites = new BitSet();
+			this.sites.set(site);
+			this.site2attributes = new HashMap<>(2);
+			this.site2attributes.put(a.getWebsite(), new ArrayList<>(Collections.singletonList(a)));
+		}
+
+	}
+
+	final private Map<Attribute, Node> attribute2node;
+
+	final private Map<Website, Integer> site2index;
+
+	final private List<Website> sites;
+
+	public MappingForest() {
+		this.attribute2node = new LinkedHashMap<>();
+		this.site2index = new HashMap<>();
+		this.sites = new ArrayList<>();
+	}
+
+	/**
+	 * Add a singleton mapping with an attribute, unless
+	 * the attribute already belongs to a mapping
+	 * @return true iff the singleton mapping has been added
+	 */
+	public boolean add(Attribute a) {
+		if (this.attribute2node.containsKey(a)) return false;
+		this.attribute2node.put(a, new Node(a, indexOf(a.getWebsite())));
+		return true;
+	}
+
+	private int indexOf(Website site) {
+		Integer index = this.site2index.get(site);
+		if (index==null) {
+			index = this.sites.size();
+			this.site2index.put(site, index);
+			this.sites.add(site);
+		}
+		return index;
+	}
+
+	private Node find(Attribute a) {
+		final Node node = this.attribute2node.get(a);
+		if (node==null)
+			throw new IllegalArgumentException("Attribute not in any mapping: "+a);
+		return find(node);
+	}
+
+	static private Node find(Node node) {
+		Node root = node;
+		while (root.parent!=root)
+			root = root.parent;
+		/* path compression */
+		while (node.parent!=root) {
+			final Node next = node.parent;
+			node.parent = root;
+			node = next;
+		}
+		return root;
+	}
+
+	public boolean sameMapping(Attribute a, Attribute b) {
+		return find(a)==find(b);
+	}
+
+	public boolean isComplete(Attribute a) {
+		return find(a).complete;
+	}
+
+	public void markAsComplete(Attribute a) {
+		find(a).complete = true;
+	}
+
+	/**
+	 * @return the sources of the attributes in both the mapping of
+	 *         <tt>a</tt> and the mapping of <tt>b</tt>
+	 */
+	public List<Website> getCommonSites(Attribute a, Attribute b) {
+		final BitSet common = (BitSet)find(a).sites.clone();
+		common.and(find(b).sites);
+		final List<Website> result = new ArrayList<>(common.cardinality());
+		for(int i=common.nextSetBit(0); i>=0; i=common.nextSetBit(i+1))
+			result.add(this.sites.get(i));
+		return result;
+	}
+
+	/**
+	 * @return the attributes from a source in the mapping of <tt>a</tt>
+	 */
+	public List<Attribute> fromSource(Attribute a, Website site) {
+		final List<Attribute> result = find(a).site2attributes.get(site);
+		return ( result!=null ? Collections.unmodifiableList(result) : Collections.<Attribute>emptyList() );
+	}
+
+	/**
+	 * Merge the mappings of two attributes into a new (not complete) one
+	 */
+	public void merge(Attribute a, Attribute b) {
+		Node root = find(a);
+		Node child = find(b);
+		if (root==child)
+			throw new IllegalArgumentException("Same mapping for "+a+" and "+b);
+		if (root.size<child.size) {
+			final Node swap = root;
+			root = child;
+			child = swap;
+		}
+		child.parent = root;
+		root.size += child.size;
+		root.id = nextIdByClass(Mapping.class);
+		root.complete = false;
+		root.sites.or(child.sites);
+		for(Map.Entry<Website, List<Attribute>> entry : child.site2attributes.entrySet()) {
+			final List<Attribute> attributes = root.site2attributes.get(entry.getKey());
+			if (attributes==null)
+				root.site2attributes.put(entry.getKey(), entry.getValue());
+			else attributes.addAll(entry.getValue());
+		}
+		child.id = null;
+		child.sites = null;
+		child.site2attributes = null;
+	}
+
+	/**
+	 * @return a new {@link Mapping} equal to the current mapping of
+	 *         an attribute, with the same id
+	 */
+	public Mapping getMapping(Attribute a) {
+		return toMapping(find(a));
+	}
+
+	static private Mapping toMapping(Node root) {
+		final List<Attribute> attributes = new ArrayList<>(root.size);
+		for(List<Attribute> fromSite : root.site2attributes.values())
+			attributes.addAll(fromSite);
+		final Mapping result = new Mapping(root.id, attributes);
+		if (root.complete) result.markAsComplete();
+		return result;
+	}
+
+	/**
+	 * Add all the current mappings to a {@link MappingSet}
+	 */
+	public void addMappingsTo(MappingSet mappingSet) {
+		for(Node node : this.attribute2node.values())
+			if (node.parent==node)
+				mappingSet.addMapping(toMapping(node));
+	}
+
+}
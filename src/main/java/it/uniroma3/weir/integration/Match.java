@@ -23,7 +23,7 @@ public class Match extends AttributePair
 
 	public Match(Attribute a1, Attribute a2, double d) {
 		super(a1, a2);
-		// TODO Used only by MinimumExtractionEvaluator: remove and merge the two constructors?
+		// n.b. used with precomputed distances, e.g., by PyramidBuilder
 		this.distance = d;
 	}
 
@@ -42,10 +42,20 @@ public class Match extends AttributePair
 	}
 	
 	private double initDistance() {
-		final WebsiteLinkage linkage = getLinkage();
+		return distance(this);
+	}
+
+	/**
+	 * The distance of a {@link Match} between the two attributes
+	 * in a pair, without building the match.
+	 * @param pair the pair of attributes
+	 * @return the distance, +inf if their sites do not overlap enough
+	 */
+	static public double distance(AttributePair pair) {
+		final WebsiteLinkage linkage = pair.getLinkage();
 		
 		/* not enough overlap ? */
-		return ( linkage.size()<minLinkageSize ? POSITIVE_INFINITY : super.distance() );
+		return ( linkage.size()<minLinkageSize ? POSITIVE_INFINITY : pair.distance(linkage) );
 	}
 	
 	@Override
@@ -0,0 +1,139 @@
+package it.uniroma3.weir.integration;
+
+import it.uniroma3.weir.model.Attribute;
+import it.uniroma3.weir.model.Webpage;
+import it.uniroma3.weir.vector.ExtractedVector;
+import it.uniroma3.weir.vector.Vector;
+import it.uniroma3.weir.vector.value.ExtractedValue;
+import it.uniroma3.weir.vector.value.Value;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An inverted index over the pages of a {@link it.uniroma3.weir.model.Website}:
+ * from a PCDATA occurrence, i.e., a page and an occurrence mark (see
+ * {@link ExtractedValue#getOccurrenceMark()}), to the posting list of the
+ * indexed {@link Attribute}s extracting a value from it.
+ * <br/>
+ * Two attributes <em>overlap</em> (see {@link Attribute#overlap(Attribute)})
+ * iff they share a posting list with the same (normalized) value: the
+ * attributes overlapping with a given one are found by scanning only the
+ * posting lists of its own occurrences, rather than by pairwise comparing
+ * it with every indexed attribute.
+ */
+public class OccurrenceIndex {
+
+	/* an attribute extracting a value from a PCDATA occurrence */
+	static final private class Occurrence {
+
+		final private Attribute attribute;
+		final private Webpage page;
+		final private String mark;
+		final private Value value;
+
+		Occurrence(Attribute attribute, Webpage page, String mark, Value value) {
+			this.attribute = attribute;
+			this.page = page;
+			this.mark = mark;
+			this.value = value;
+		}
+
+	}
+
+	final private Collection<Webpage> pages;
+
+	final private Map<Webpage, Map<String, List<Occurrence>>> postings;
+
+	/* occurrences of every attribute looked up so far */
+	final private Map<Attribute, List<Occurrence>> attribute2occurrences;
+
+	/**
+	 * @param pages - the pages whose occurrences are indexed, e.g.,
+	 *                those linked by the self-linkage of a site
+	 */
+	public OccurrenceIndex(Collection<Webpage> pages) {
+		this.pages = pages;
+		this.postings = new HashMap<>();
+		this.attribute2occurrences = new HashMap<>();
+	}
+
+	/**
+	 * Add an attribute to the posting lists of its occurrences
+	 * (an attribute should be added at most once)
+	 */
+	public void add(Attribute a) {
+		for(Occurrence occurrence : occurrencesOf(a))
+			getPostingList(occurrence.page, occurrence.mark).add(occurrence);
+	}
+
+	/**
+	 * @param a - an {@link Attribute}
+	 * @return the smallest indexed attribute, other than the given one,
+	 *         overlapping with it; null if none
+	 */
+	public Attribute findOverlapping(Attribute a) {
+		Attribute result = null;
+		for(Occurrence occurrence : occurrencesOf(a)) {
+			final Map<String, List<Occurrence>> mark2postings = this.postings.get(occurrence.page);
+			if (mark2postings==null) continue;
+			final List<Occurrence> postingList = mark2postings.get(occurrence.mark);
+			if (postingList==null) continue;
+			for(Occurrence posting : postingList) {
+				final Attribute candidate = posting.attribute;
+				if (candidate.equals(a)) continue;
+				if (result!=null && candidate.compareTo(result)>=0) continue;
+				/* same PCDATA and same values extracted from it ? */
+				if (posting.value.equals(occurrence.value))
+					result = candidate;
+			}
+		}
+		return result;
+	}
+
+	private List<Occurrence> getPostingList(Webpage page, String mark) {
+		Map<String, List<Occurrence>> mark2postings = this.postings.get(page);
+		if (mark2postings==null) {
+			mark2postings = new HashMap<>();
+			this.postings.put(page, mark2postings);
+		}
+		List<Occurrence> result = mark2postings.get(mark);
+		if (result==null) {
+			result = new ArrayList<>(2);
+			mark2postings.put(mark, result);
+		}
+		return result;
+	}
+
+	private List<Occurrence> occurrencesOf(Attribute a) {
+		List<Occurrence> result = this.attribute2occurrences.get(a);
+		if (result==null) {
+			result = findOccurrences(a);
+			this.attribute2occurrences.put(a, result);
+		}
+		return result;
+	}
+
+	private List<Occurrence> findOccurrences(Attribute a) {
+		final Vector normalized = a.getVector();
+		final ExtractedVector extracted = normalized.getOriginatingVector();
+		if (extracted==null) return Collections.emptyList();
+
+		final List<Occurrence> result = new ArrayList<>();
+		for(Webpage page : this.pages) {
+			final ExtractedValue extValue = (ExtractedValue) extracted.get(page);
+			if (extValue==null || extValue.isNull()) continue;
+			final String mark = extValue.getOccurrenceMark();
+			if (mark==null) continue;
+			final Value value = normalized.get(page);
+			if (value==null) continue;
+			result.add(new Occurrence(a, page, mark, value));
+		}
+		return result;
+	}
+
+}
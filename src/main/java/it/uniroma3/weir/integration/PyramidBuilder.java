@@ -5,77 +5,119 @@ import static it.uniroma3.hlog.HypertextualUtils.lazyPopup;
 import static it.uniroma3.weir.Formats.percentage;
 import static it.uniroma3.weir.Formats.thousandth;
 import static it.uniroma3.weir.configuration.Constants.MAX_DISTANCE_THRESHOLD;
+import static it.uniroma3.weir.configuration.Constants.MIN_OVERLAPPING_SAMPLES;
+import static it.uniroma3.weir.configuration.Constants.ONES2ONE;
+import static it.uniroma3.weir.configuration.Constants.WORK_ON_OVERLAP;
 import it.uniroma3.hlog.HypertextualLogger;
 import it.uniroma3.weir.MatchRepository;
-import it.uniroma3.weir.MatchRepository.MatchBuilder;
 import it.uniroma3.weir.cache.CachedComputation;
+import it.uniroma3.weir.cache.Dependencies;
 import it.uniroma3.weir.cache.Fingerprint;
+import it.uniroma3.weir.configuration.BootstrappingLinkageFactory;
 import it.uniroma3.weir.configuration.WeirConfig;
+import it.uniroma3.weir.extraction.Extraction;
+import it.uniroma3.weir.metrics.Metrics;
 import it.uniroma3.weir.model.Attribute;
 import it.uniroma3.weir.model.Domain;
 import it.uniroma3.weir.model.Experiment;
 import it.uniroma3.weir.structures.Pair;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
 /**
  * Create a <em>pyramid</em> of all the {@link Match}es
  * below the {@link MAX_DISTANCE_THRESHOLD}.
+ * <br/>
+ * The triangular space of all the unordered pairs of attributes is
+ * split into {@link Tile}s of consecutive rows, whose distances are
+ * computed in parallel into a primitive buffer; tiles are then merged
+ * in order, so that only the matches below the threshold are ever
+ * built, and the result does not depend on the number of threads.
+ * At most {@link #TILES_IN_FLIGHT} buffers per thread are alive
+ * at the same time.
  */
 public class PyramidBuilder extends CachedComputation<Experiment, MatchRepository> {
 
 	static final private HypertextualLogger log = HypertextualLogger.getLogger();
 
-	static final private class FilteringMatchBuilder extends MatchBuilder {
+	static final public Dependencies DEPENDENCIES =
+			new Dependencies("pyra", Extraction.DEPENDENCIES, BootstrappingLinkageFactory.DEPENDENCIES)
+				.reads(MAX_DISTANCE_THRESHOLD, MIN_OVERLAPPING_SAMPLES, ONES2ONE, WORK_ON_OVERLAP);
+
+	static final private int NCPU = Runtime.getRuntime().availableProcessors();
+
+	/* max number of pairs of attributes buffered by a tile */
+	static final private int TILE_PAIRS = 1 << 14;
+
+	/* max number of tiles computed before being merged, per thread */
+	static final private int TILES_IN_FLIGHT = 4;
+
+	/**
+	 * The distances of all the pairs <tt>(i,j)</tt>, with <tt>i</tt>
+	 * in <tt>[first,last)</tt> and <tt>j&gt;i</tt>, stored row by row.
+	 */
+	static final private class Tile extends RecursiveAction {
+
+		static final private long serialVersionUID = 3147440522963018917L;
 
-		static final private long serialVersionUID = -8090059131697258219L;
+		final private List<Attribute> attributes;
 
-		private int accepted;
-		private int discarded;
-		
-		private double distanceThreshold;
-		
-		FilteringMatchBuilder(double th) {
-			this.accepted  = 0;
-			this.discarded = 0;
-			this.distanceThreshold = th;
+		final private int first;
+		final private int last;
+		final private int size;
+
+		private double[] distances; // allocated only once in flight
+
+		Tile(List<Attribute> attributes, int first, int last, int size) {
+			this.attributes = attributes;
+			this.first = first;
+			this.last  = last;
+			this.size  = size;
 		}
-		
+
 		@Override
-		public Match createPair(Attribute a_i, Attribute a_j) {
-			final Match match = new Match(a_i, a_j);
-			// that's too heavy for 10^6 matches
-			final String pair = lazyPopup(Pair.toString(match), match);
-			if (match.distance()<=distanceThreshold) {
-				log.trace(pair, format(thousandth,match.distance()), "<em>accepted</em>");
-				this.accepted++;
-				return match;
-			} else {
-				log.trace(pair, format(thousandth,match.distance()), "<em>discarded</em>");
-				this.discarded++;
-				return null; // returning null means: get-rid-of-it!
+		protected void compute() {
+			final int n = this.attributes.size();
+			this.distances = new double[this.size];
+			int k = 0;
+			for(int i=this.first; i<this.last; i++) {
+				final Attribute a_i = this.attributes.get(i);
+				for(int j=i+1; j<n; j++) {
+					final Attribute a_j = this.attributes.get(j);
+					this.distances[k++] = Match.distance(new AttributePair(a_i, a_j));
+				}
 			}
 		}
 
-		public double getDistanceThreshold() {
-			return distanceThreshold;
-		}
-
-		public int getAccepted() {
-			return this.accepted;
-		}
-		
-		public int getDiscarded() {
-			return this.discarded;
+		void release() {
+			this.distances = null;
 		}
 
 	}
 
 	private MatchRepository matches;
 
-	
-	private FilteringMatchBuilder filter;
-	
+	final private double distanceThreshold;
+
+	final private int threads;
+
+	final private int tilePairs;
+
+	private int accepted;
+	private int discarded;
+
 	public PyramidBuilder() {
-		this.filter = new FilteringMatchBuilder(WeirConfig.getDouble(MAX_DISTANCE_THRESHOLD));
+		this(NCPU, TILE_PAIRS);
+	}
+
+	/* n.b. the pyramid depends neither on the threads nor on the tiles */
+	PyramidBuilder(int threads, int tilePairs) {
+		this.distanceThreshold = WeirConfig.getDouble(MAX_DISTANCE_THRESHOLD);
+		this.threads = threads;
+		this.tilePairs = tilePairs;
 	}
 
 	@Override
@@ -83,34 +125,116 @@ public class PyramidBuilder extends CachedComputation<Experiment, MatchRepositor
 		final Domain domain = experiment.getDomain();
 
 		log.newPage();
-		
-		final String threshold = percentage.format(this.filter.getDistanceThreshold());
+
+		final String threshold = percentage.format(this.distanceThreshold);
 		log.trace("filtering matches below the distance threshold: "+threshold);
 
-		log.newTable();
-		this.matches = new MatchRepository(this.filter);
-		// this repository constructor will call
-		// the method {@link FilteringMatchBuilder#createPair()} above
-		this.matches.addAllUnorderedPairs(domain.getAllAttributes());
-		final int total = this.filter.getAccepted() + this.filter.getDiscarded();
-		log.endTable();
+		build(new ArrayList<>(domain.getAllAttributes()));
+		final int total = this.accepted + this.discarded;
+		Metrics.counter("integration.pairs.scored").add(total);
+		Metrics.counter("integration.matches.kept").add(this.accepted);
 		log.endPage("found "+this.matches.size()+" matches below the "
 				+ "distance threshold="+threshold +" i.e., "
-				+ "("+percentage.format((double)this.filter.getAccepted()/total)+" out of "+total+")");
+				+ "("+percentage.format((double)this.accepted/total)+" out of "+total+")");
 
 		experiment.getAbstractRelation().setMatches(matches);
 
 		return this.matches;
 	}
 
+	MatchRepository build(List<Attribute> attributes) {
+		final List<Tile> tiles = tiles(attributes);
+		log.trace(attributes.size()+" attributes: pairs split into "+tiles.size()+" tiles "
+				+ "over "+this.threads+" threads");
+
+		log.newTable();
+		this.matches = new MatchRepository();
+		this.accepted  = 0;
+		this.discarded = 0;
+		final int inFlight = TILES_IN_FLIGHT * this.threads;
+		final ForkJoinPool pool = new ForkJoinPool(this.threads);
+		try {
+			for(int from=0; from<tiles.size(); from+=inFlight) {
+				final List<Tile> batch = tiles.subList(from, Math.min(from+inFlight, tiles.size()));
+				for(Tile tile : batch)
+					pool.execute(tile);
+				for(Tile tile : batch) {
+					tile.join();
+					merge(tile, attributes);
+				}
+			}
+		} finally {
+			pool.shutdown();
+		}
+		log.endTable();
+		return this.matches;
+	}
+
+	private List<Tile> tiles(List<Attribute> attributes) {
+		final int n = attributes.size();
+		final List<Tile> tiles = new ArrayList<>();
+		int i = 0;
+		while (i<n-1) {
+			final int first = i;
+			int size = 0;
+			/* at least one row per tile */
+			while (i<n-1 && (size==0 || size+(n-1-i)<=this.tilePairs)) {
+				size += n-1-i;
+				i++;
+			}
+			tiles.add(new Tile(attributes, first, i, size));
+		}
+		return tiles;
+	}
+
+	private void merge(Tile tile, List<Attribute> attributes) {
+		final int n = attributes.size();
+		int k = 0;
+		for(int i=tile.first; i<tile.last; i++) {
+			final Attribute a_i = attributes.get(i);
+			for(int j=i+1; j<n; j++) {
+				final Attribute a_j = attributes.get(j);
+				final double distance = tile.distances[k++];
+				if (distance<=this.distanceThreshold) {
+					final Match match = new Match(a_i, a_j, distance);
+					this.matches.add(match);
+					log.trace(lazyPopup(Pair.toString(match), match),
+							  format(thousandth,distance), "<em>accepted</em>");
+					this.accepted++;
+				} else {
+					// that's too heavy to popup for 10^6 matches
+					log.trace(Pair.toString(new AttributePair(a_i, a_j)),
+							  format(thousandth,distance), "<em>discarded</em>");
+					this.discarded++;
+				}
+			}
+		}
+		tile.release();
+	}
+
 	public MatchRepository buildPyramid(Experiment experiment) {
 		return cachedComputation(experiment);
 	}
 
+	public double getDistanceThreshold() {
+		return this.distanceThreshold;
+	}
+
+	public int getAccepted() {
+		return this.accepted;
+	}
+
+	public int getDiscarded() {
+		return this.discarded;
+	}
+
+	@Override
+	protected Dependencies getDependencies() {
+		return DEPENDENCIES;
+	}
+
 	@Override
 	public Fingerprint fingerprint(Experiment experiment) {
-		/* we should just take into account everything ... */
-		fingerprint(WeirConfig.getDouble(MAX_DISTANCE_THRESHOLD));
 		fingerprint(experiment.getFingerprint());
 		return getFingerprint("pyra");
 	}
@@ -7,11 +7,20 @@ import static it.uniroma3.weir.Formats.ten_thousandth;
 import it.uniroma3.hlog.HypertextualLogger;
 import it.uniroma3.weir.MatchRepository;
 import it.uniroma3.weir.extraction.rule.ExtractionRule;
+import it.uniroma3.weir.linking.linkage.PageLinkage;
+import it.uniroma3.weir.linking.linkage.WebsiteLinkage;
+import it.uniroma3.weir.metrics.Metrics;
 import it.uniroma3.weir.model.Attribute;
+import it.uniroma3.weir.model.Experiment;
+import it.uniroma3.weir.model.Webpage;
+import it.uniroma3.weir.model.Website;
 import it.uniroma3.weir.model.log.MatchListRenderer;
 
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.TreeSet;
 /**
@@ -24,7 +33,9 @@ import java.util.TreeSet;
  *     </ol>
  *  </ol>
  *  </ul>
- * 
+ * The rules marked as correct are indexed, site by site, by the PCDATA
+ * occurrences they extract (see {@link OccurrenceIndex}), so that
+ * the overlapping ones are looked up without testing them all.
  */
 public class WeakRuleRemoval {
 
@@ -33,6 +44,8 @@ public class WeakRuleRemoval {
 	private MatchRepository matches;
 	
 	private Set<Attribute> markedAsCorrect; // rules currently marked as correct
+
+	private Map<Website, OccurrenceIndex> site2index; // the correct rules, by site
 		
 	// attribute marked as correct and involved in the last overlap detected
 	private Match overlap;  
@@ -40,6 +53,7 @@ public class WeakRuleRemoval {
 	public WeakRuleRemoval(MatchRepository matches) {
 		this.matches = matches;
 		this.markedAsCorrect = new TreeSet<>();
+		this.site2index = new HashMap<>();
 		this.overlap = null;
 	}
 	
@@ -48,9 +62,28 @@ public class WeakRuleRemoval {
 	}
 	
 	private void markAsCorrect(Attribute a) {
-		this.markedAsCorrect.add(a);
+		if (this.markedAsCorrect.add(a))
+			getOccurrenceIndex(a.getWebsite()).add(a);
 		a.markAsCorrect();
 	}
+
+	private OccurrenceIndex getOccurrenceIndex(Website site) {
+		OccurrenceIndex index = this.site2index.get(site);
+		if (index==null) {
+			index = new OccurrenceIndex(selfLinkedPages(site));
+			this.site2index.put(site, index);
+		}
+		return index;
+	}
+
+	/* the pages compared by Attribute#overlap() */
+	static private Set<Webpage> selfLinkedPages(Website site) {
+		final WebsiteLinkage selfLinkage = Experiment.getInstance().getLinkages().get(site, site);
+		final Set<Webpage> result = new LinkedHashSet<>();
+		for(PageLinkage linkage : selfLinkage.getPageLinkages().getAllLinkages())
+			result.add(linkage.from(site));
+		return result;
+	}
 	
 	private Set<Attribute> getMarkedAsCorrect() {
 		return this.markedAsCorrect;
@@ -80,6 +113,7 @@ public class WeakRuleRemoval {
 		log.endPage();
 		
 		final List<Match> correct = saveWeakRulesFreeMatches(ordered);
+		Metrics.counter("integration.matches.weak").add(ordered.size()-correct.size());
 				
 		final double removed = 1 - (double)correct.size() / ordered.size();
 		log.newPage("remaining matches: " + correct.size() + 
@@ -122,11 +156,10 @@ public class WeakRuleRemoval {
 	private boolean existsOverlappingCorrectRule(Attribute a) {
 		/* since it's already been marked as correct, 
 		 * its distance is smaller than the match's    */
-		for (Attribute correct : getMarkedAsCorrect()) {
-			if (correct.overlap(a)) {
-				this.overlap = new Match(a,correct); // FIXME per non dover fare un AttributePairRenderer sopra
-				return true;
-			}			
+		final Attribute correct = getOccurrenceIndex(a.getWebsite()).findOverlapping(a);
+		if (correct!=null) {
+			this.overlap = new Match(a,correct); // FIXME per non dover fare un AttributePairRenderer sopra
+			return true;
 		}
 		this.overlap = null;
 		return false;
@@ -8,6 +8,7 @@ import it.uniroma3.weir.configuration.WeirConfig;
 import it.uniroma3.weir.evaluation.DomainAnalyzer;
 import it.uniroma3.weir.extraction.Extraction;
 import it.uniroma3.weir.integration.lc.LooseLocalConsistencySolver;
+import it.uniroma3.weir.metrics.Metrics;
 import it.uniroma3.weir.model.Domain;
 import it.uniroma3.weir.model.Experiment;
 import it.uniroma3.weir.model.MappingSet;
@@ -37,6 +38,7 @@ public class Weir {
 
 	static final private HypertextualLogger log = HypertextualLogger.getLogger();
 
+	@SuppressWarnings("try")
 	public AbstractRelation analyze(Experiment experiment) {
 		final Domain domain = experiment.getDomain();
 		final boolean workOn = WeirConfig.getBoolean(WORK_ON_OVERLAP);
@@ -49,7 +51,9 @@ public class Weir {
 		 *      pages for a proper final evaluation.
 		 */
 		final Extraction extraction = new Extraction(experiment);	
-		extraction.extract();
+		try (Metrics.Stage stage = Metrics.stage("weir.extraction")) {
+			extraction.extract();
+		}
 		log.endPage();
 		
 		log.trace("total number of attributes found: " + extraction.getTotalExtractedAttribute());
@@ -73,21 +77,32 @@ public class Weir {
 		log.newPage("integration over "+domain);
 		final PyramidBuilder egypto = new PyramidBuilder();
 
-		final MatchRepository matches = egypto.buildPyramid(experiment);
+		final MatchRepository matches;
+		try (Metrics.Stage stage = Metrics.stage("weir.pyramid")) {
+			matches = egypto.buildPyramid(experiment);
+		}
 		
 		/* remove weak rules */
 		final WeakRuleRemoval wrremover = new WeakRuleRemoval(matches);
-		wrremover.removeWeakRules();
+		try (Metrics.Stage stage = Metrics.stage("weir.weak-rule-removal")) {
+			wrremover.removeWeakRules();
+		}
 		
 		/* integrate results */
 		final AbstractIntegration integrator = new AbstractIntegration();
-		final MappingSet integrated = integrator.integrate(matches);
+		final MappingSet integrated;
+		try (Metrics.Stage stage = Metrics.stage("weir.integration")) {
+			integrated = integrator.integrate(matches);
+		}
 		log.endPage();		
 		
 		/* solve loose local consistency assumption violation */
 		log.newPage("solving l.c.a. violations");
 		final LooseLocalConsistencySolver solver = new LooseLocalConsistencySolver(matches);
-		final MappingSet output = solver.solveConflicts(integrated);
+		final MappingSet output;
+		try (Metrics.Stage stage = Metrics.stage("weir.local-consistency")) {
+			output = solver.solveConflicts(integrated);
+		}
 		log.endPage();
 		
 		log.newPage("resulting abstract relation");
@@ -2,13 +2,15 @@ package it.uniroma3.weir.integration.lc;
 
 import static it.uniroma3.weir.model.log.WeirStyles.header;
 import static it.uniroma3.hlog.HypertextualUtils.linkTo;
+import static it.uniroma3.weir.configuration.Constants.DATATYPES;
 import static it.uniroma3.weir.configuration.Constants.LOCAL_CONSISTENCY_THRESHOLD;
+import static it.uniroma3.weir.configuration.Constants.ONES2ONE;
 import it.uniroma3.hlog.HypertextualLogger;
 import it.uniroma3.hlog.HypertextualUtils.Link;
 import it.uniroma3.hlog.Logpage;
 import it.uniroma3.weir.cache.CachedComputation;
+import it.uniroma3.weir.cache.Dependencies;
 import it.uniroma3.weir.cache.Fingerprint;
-import it.uniroma3.weir.configuration.WeirConfig;
 import it.uniroma3.weir.extraction.rule.ExtractionRule;
 import it.uniroma3.weir.model.Website;
 import it.uniroma3.weir.model.log.VectorListRenderer;
@@ -29,6 +31,10 @@ public class LocalConsistencyEnforcer extends CachedComputation<List<Vector>, Li
 
 	static final private HypertextualLogger log = HypertextualLogger.getLogger();
 
+	/* n.b. the input vectors are fingerprinted by their values */
+	static final public Dependencies DEPENDENCIES =
+			new Dependencies("lce").reads(LOCAL_CONSISTENCY_THRESHOLD, DATATYPES, ONES2ONE);
+
 	public List<Vector> enforceLocalConsistency(List<Vector> normalized) {
 		return cachedComputation(normalized);
 	}
@@ -93,11 +99,21 @@ public class LocalConsistencyEnforcer extends CachedComputation<List<Vector>, Li
 		return labels;
 	}
 
+	@Override
+	protected Dependencies getDependencies() {
+		return DEPENDENCIES;
+	}
+
 	@Override
 	public Fingerprint fingerprint(List<Vector> vectors) {
-		fingerprint(WeirConfig.getString(LOCAL_CONSISTENCY_THRESHOLD));
-		for(Vector v : vectors)
+		final Set<Website> sites = new LinkedHashSet<>();
+		for(Vector v : vectors) {
 			fingerprint(v.getFingerprint());
+			sites.add(v.getWebsite());
+		}
+		/* n.b. vectors refer to the domain of their sites */
+		for(Website site : sites)
+			fingerprint(site.getFingerprintInDomain());
 
 		return getFingerprint("lce");
 	}
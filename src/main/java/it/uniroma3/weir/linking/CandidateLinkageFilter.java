@@ -5,12 +5,15 @@ import it.uniroma3.hlog.HypertextualLogger;
 import static it.uniroma3.weir.configuration.Constants.*;
 import it.uniroma3.weir.configuration.WeirConfig;
 import it.uniroma3.weir.evaluation.linking.CandidateLinkingStatistics;
+import it.uniroma3.weir.linking.blocking.BlockingStrategy;
 import it.uniroma3.weir.linking.linkage.DomainLinkage.WebsiteLinkageBuilder;
 import it.uniroma3.weir.linking.linkage.PageLinkage;
 import it.uniroma3.weir.linking.linkage.PageLinkageRepository;
 import it.uniroma3.weir.linking.linkage.WebsiteLinkage;
+import it.uniroma3.weir.metrics.Metrics;
 import it.uniroma3.weir.model.Webpage;
 import it.uniroma3.weir.model.Website;
+import it.uniroma3.weir.structures.Pair;
 
 import java.util.*;
 import static it.uniroma3.weir.linking.linkage.PageLinkageRepository.allOverSimilarityThreshold;
@@ -30,6 +33,9 @@ import static it.uniroma3.weir.linking.linkage.PageLinkageRepository.allOverSimi
 	
 	Select at most <tt>k</tt> candidate.
 	<br/>
+	Only the pairs of pages selected by the configured {@link BlockingStrategy}
+	are scored, unless the strategy is {@link BlockingStrategy#NONE}.
+	<br/>
 	FIXME Note that the average is set by false linkages whose max number is O(n*k) vs max O(n) true linkages
  */
 public class CandidateLinkageFilter extends WebsiteLinkageBuilder {
@@ -58,6 +64,9 @@ public class CandidateLinkageFilter extends WebsiteLinkageBuilder {
 	/* max number of candidate linkages to consider */
 	final private int topK;
 
+	/* select the pairs of pages worth scoring */
+	final private BlockingStrategy blocking;
+
 	final private CandidateLinkingStatistics stats; // stats about candidate linkage filters
 
 	public CandidateLinkageFilter() {		
@@ -65,6 +74,7 @@ public class CandidateLinkageFilter extends WebsiteLinkageBuilder {
 
 		this.minSimilarity = WeirConfig.getDouble(ENTITY_SIM_THRESHOLD);
 		this.topK = WeirConfig.getInteger(LINKING_TOP_K);
+		this.blocking = BlockingStrategy.valueOf(WeirConfig.getString(LINKING_BLOCKING));
 
 		String[] params = WeirConfig.getList(LINKING_PARAMETERS).toArray(new String[0]);
 		
@@ -79,21 +89,37 @@ public class CandidateLinkageFilter extends WebsiteLinkageBuilder {
 
 		log.newPage(w_i + " vs " + w_j);
 				
-		PageLinkageRepository linkages = allOverSimilarityThreshold(this.minSimilarity, 
-				w_i.getWebpages(), w_j.getWebpages()
-		);
+		PageLinkageRepository linkages = scoreCandidates(w_i, w_j);
 
 		linkages = linkages.top(topK);
 		
 		if (this.topK>1)
 			filterCandidates(linkages, w_i, w_j);
 
+		Metrics.counter("linking.linkages.kept").add(linkages.size());
+
 		log.endPage();
 		
 		 // n.b. no linkage cut-off was here!!!		
 		return new WebsiteLinkage(w_i, w_j, new ArrayList<>(linkages.getAll()));
 	}
 	
+	private PageLinkageRepository scoreCandidates(Website w_i, Website w_j) {
+		final List<Webpage> all_i = w_i.getWebpages();
+		final List<Webpage> all_j = w_j.getWebpages();
+		if (this.blocking==BlockingStrategy.NONE) {
+			Metrics.counter("linking.pairs.scored").add((long)all_i.size()*all_j.size());
+			return allOverSimilarityThreshold(this.minSimilarity, all_i, all_j);
+		}
+		
+		final Set<Pair<Webpage>> candidates = this.blocking.candidates(all_i, all_j);
+		Metrics.counter("linking.pairs.scored").add(candidates.size());
+		log.trace(this.blocking + " blocking: " + candidates.size() + " candidate pairs "
+				+ "out of " + (long)all_i.size()*all_j.size());
+		this.stats.updateBlockingStatistics(all_i, all_j, candidates);
+		return allOverSimilarityThreshold(this.minSimilarity, candidates);
+	}
+
 	private void filterCandidates(PageLinkageRepository linkages, Website w_i, Website w_j) {
 		for(Webpage p_i : w_i.getWebpages()) {
 			filterCandidates(p_i, linkages);
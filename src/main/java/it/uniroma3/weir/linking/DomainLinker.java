@@ -3,15 +3,18 @@ package it.uniroma3.weir.linking;
 import static it.uniroma3.weir.configuration.Constants.*;
 import it.uniroma3.hlog.HypertextualLogger;
 import it.uniroma3.weir.cache.CachedComputation;
+import it.uniroma3.weir.cache.Dependencies;
 import it.uniroma3.weir.cache.Fingerprint;
 import it.uniroma3.weir.configuration.WeirConfig;
 import it.uniroma3.weir.linking.entity.Entity;
 import it.uniroma3.weir.linking.entity.EntityFactory;
 import it.uniroma3.weir.linking.linkage.DomainLinkage;
 import it.uniroma3.weir.linking.linkage.DomainLinkage.WebsiteLinkageBuilder;
+import it.uniroma3.weir.metrics.Metrics;
 import it.uniroma3.weir.model.Domain;
 import it.uniroma3.weir.model.Webpage;
 import it.uniroma3.weir.model.Website;
+import it.uniroma3.weir.model.WebsiteLoader;
 /**
  *
  * Create a {@link DomainMatching} over an input {@link Domain}.
@@ -28,6 +31,13 @@ public class DomainLinker extends CachedComputation<Domain, DomainLinkage> {
 
 	static final protected HypertextualLogger log = HypertextualLogger.getLogger();
 
+	static final public Dependencies DEPENDENCIES =
+			new Dependencies("linker", WebsiteLoader.DEPENDENCIES)
+				.reads(LINKING_TOP_K, LINKING_PARAMETERS, LINKING_BLOCKING, LINKING_BLOCKING_PARAMETERS,
+					   ENTITY_FACTORY, TYPED_ENTITIES, ENTITY_SIM_THRESHOLD,
+					   ENTITY_TERM_SIM_THRESHOLD, ENTITY_TERM_IDF_THRESHOLD,
+					   MIN_OVERLAPPING_SAMPLES, MAX_OVERLAPPING_SAMPLES, DATATYPES);
+
 	private DomainLinkage repository;
 	
 	/* max number of candidate linkages to consider */
@@ -36,6 +46,9 @@ public class DomainLinker extends CachedComputation<Domain, DomainLinkage> {
 	/* the linking strategy parameters */
 	final private String linkingParameters;
 
+	/* the blocking strategy and its parameters */
+	final private String blocking;
+
 	/* the type of entities used */
 	final private String entityFactory;
 	
@@ -43,6 +56,8 @@ public class DomainLinker extends CachedComputation<Domain, DomainLinkage> {
 		this.topK = WeirConfig.getInteger(LINKING_TOP_K);
 		this.entityFactory 	   = WeirConfig.getString(ENTITY_FACTORY);
 		this.linkingParameters = WeirConfig.getString(LINKING_PARAMETERS);
+		this.blocking = WeirConfig.getString(LINKING_BLOCKING) + 
+				  ":" + WeirConfig.getString(LINKING_BLOCKING_PARAMETERS);
 	}
 
 	public DomainLinkage getRepository() {
@@ -57,6 +72,10 @@ public class DomainLinker extends CachedComputation<Domain, DomainLinkage> {
 		return this.linkingParameters;
 	}
 
+	public String getBlocking() {
+		return this.blocking;
+	}
+
 	public String getEntityFactory() {
 		return this.entityFactory;
 	}
@@ -66,14 +85,19 @@ public class DomainLinker extends CachedComputation<Domain, DomainLinkage> {
 	}
 
 	@Override
+	@SuppressWarnings("try")
 	public DomainLinkage uncachedComputation(final Domain domain) {
 		log.newPage("linking " + domain + " with " + this.getClass());
 		
 		/*  create entities over domain's pages */
-		this.createEntities(domain); // n.b. by entity we mean information for page-alignment
+		try (Metrics.Stage stage = Metrics.stage("linking.entities")) {
+			this.createEntities(domain); // n.b. by entity we mean information for page-alignment
+		}
 		
 		/* select the candidate record linkages */
-		this.repository = new DomainLinkage(domain, websiteLinkageBuilder());	
+		try (Metrics.Stage stage = Metrics.stage("linking.linkages")) {
+			this.repository = new DomainLinkage(domain, websiteLinkageBuilder());	
+		}
 		
 		/* n.b. possible linkage conflicts are not solved here */
 		log.endPage();
@@ -89,13 +113,15 @@ public class DomainLinker extends CachedComputation<Domain, DomainLinkage> {
 		factory.createEntities(domain);
 	}
 	
+	@Override
+	protected Dependencies getDependencies() {
+		return DEPENDENCIES;
+	}
+
 	@Override
 	public Fingerprint fingerprint(Domain domain) {
 		this.fingerprint(this.getClass().toString());
 		this.fingerprint(domain.getFingerprint());
-		this.fingerprint(getLinkingTopK());
-		this.fingerprint(getLinkingParameters());
-		this.fingerprint(getEntityFactory());
 		return this.getFingerprint("link");
 	}
 
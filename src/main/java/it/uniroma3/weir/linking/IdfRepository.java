@@ -41,6 +41,10 @@ public class IdfRepository implements Serializable {
 		}
 	}
 
+	public boolean contains(String term) {
+		return this.term2idf.containsKey(term);
+	}
+
 	public double getIdf(String term) {
 		return this.term2idf.get(term);
 	}
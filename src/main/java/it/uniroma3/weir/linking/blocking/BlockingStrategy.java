@@ -0,0 +1,221 @@
+package it.uniroma3.weir.linking.blocking;
+
+import static it.uniroma3.weir.configuration.Constants.ENTITY_TERM_IDF_THRESHOLD;
+import static it.uniroma3.weir.configuration.Constants.LINKING_BLOCKING_PARAMETERS;
+import static it.uniroma3.weir.configuration.Constants.LINKING_TOP_K;
+import it.uniroma3.weir.configuration.WeirConfig;
+import it.uniroma3.weir.linking.IdfRepository;
+import it.uniroma3.weir.linking.entity.Entity;
+import it.uniroma3.weir.linking.entity.SoftIdEntity;
+import it.uniroma3.weir.linking.index.InvertedIndex;
+import it.uniroma3.weir.linking.index.ScoredPage;
+import it.uniroma3.weir.linking.index.TopKSearcher;
+import it.uniroma3.weir.model.Webpage;
+import it.uniroma3.weir.structures.Pair;
+import it.uniroma3.weir.vector.value.Value;
+
+import java.util.*;
+
+/**
+ * Select the <em>candidate</em> pairs of {@link Webpage}s, from two
+ * {@link Website}s, that are worth comparing by means of the (expensive)
+ * {@linkplain Entity#similarity(Entity)}: only the pairs sharing a
+ * <em>block</em> are returned.
+ * <br/>
+ * {@link #NONE} keeps the whole Cartesian product, i.e., no blocking at all.
+ *
+ * @see CandidateLinkingStatistics for the pair-completeness vs
+ *      reduction-ratio trade-off of every strategy
+ */
+public enum BlockingStrategy {
+
+	NONE {
+		@Override
+		public Set<Pair<Webpage>> candidates(List<Webpage> all1, List<Webpage> all2) {
+			final Set<Pair<Webpage>> result = new LinkedHashSet<>(all1.size()*all2.size());
+			for(Webpage p1 : all1)
+				for(Webpage p2 : all2)
+					result.add(new Pair<>(p1, p2));
+			return result;
+		}
+	},
+
+	/**
+	 * Token blocking: pages sharing a token of a term whose idf
+	 * (as computed by the {@link IdfRepository} of their site)
+	 * is above {@link Constants#ENTITY_TERM_IDF_THRESHOLD}.
+	 * Frequent, i.e., not characterizing, terms never make a block.
+	 */
+	TOKEN {
+		@Override
+		public Set<Pair<Webpage>> candidates(List<Webpage> all1, List<Webpage> all2) {
+			final double minIdf = WeirConfig.getDouble(ENTITY_TERM_IDF_THRESHOLD);
+			final Map<String, List<Webpage>> token2pages = new HashMap<>();
+			for(Webpage p2 : all2)
+				for(String token : discriminativeTokens(p2, minIdf))
+					addToBlock(token2pages, token, p2);
+
+			final Set<Pair<Webpage>> result = new LinkedHashSet<>();
+			for(Webpage p1 : all1)
+				for(String token : discriminativeTokens(p1, minIdf))
+					addCandidates(result, p1, token2pages.get(token));
+			return result;
+		}
+	},
+
+	/**
+	 * Sorted-neighbourhood: the pages of both sites are sorted by their
+	 * soft-id (see {@link SoftIdEntity}), once straight and once reversed
+	 * to tolerate differing prefixes; a window of fixed size slides over
+	 * the sorted list and pages from different sites falling into the
+	 * same window form a candidate pair.
+	 */
+	SORTED_NEIGHBOURHOOD {
+		@Override
+		public Set<Pair<Webpage>> candidates(List<Webpage> all1, List<Webpage> all2) {
+			final int window = getParameter(0);
+			final Set<Webpage> firsts = Collections.newSetFromMap(new IdentityHashMap<Webpage, Boolean>());
+			firsts.addAll(all1);
+			final Set<Pair<Webpage>> result = new LinkedHashSet<>();
+			slideWindow(result, firsts, sortByKey(all1, all2, false), window);
+			slideWindow(result, firsts, sortByKey(all1, all2, true),  window);
+			return result;
+		}
+	},
+
+	/**
+	 * MinHash-LSH: the tokens of the values of an {@link Entity} are
+	 * min-hashed into a signature of <tt>bands*rows</tt> hashes; pages
+	 * whose signatures agree over all the rows of at least one band
+	 * form a candidate pair.
+	 */
+	MINHASH_LSH {
+		@Override
+		public Set<Pair<Webpage>> candidates(List<Webpage> all1, List<Webpage> all2) {
+			final MinHasher hasher = new MinHasher(getParameter(1), getParameter(2));
+			final Map<String, List<Webpage>> bucket2pages = new HashMap<>();
+			for(Webpage p2 : all2)
+				for(String bucket : hasher.buckets(tokens(p2)))
+					addToBlock(bucket2pages, bucket, p2);
+
+			final Set<Pair<Webpage>> result = new LinkedHashSet<>();
+			for(Webpage p1 : all1)
+				for(String bucket : hasher.buckets(tokens(p1)))
+					addCandidates(result, p1, bucket2pages.get(bucket));
+			return result;
+		}
+	},
+
+	/**
+	 * Top-k retrieval: every page queries an {@link InvertedIndex} over the
+	 * value tokens of the other site, weighted by idf, and only its best
+	 * {@link Constants#LINKING_TOP_K} pages (see {@link TopKSearcher}) form
+	 * candidate pairs, in both directions. The exact similarity of the
+	 * entities then just re-ranks these short lists.
+	 */
+	TOP_K {
+		@Override
+		public Set<Pair<Webpage>> candidates(List<Webpage> all1, List<Webpage> all2) {
+			final double minIdf = WeirConfig.getDouble(ENTITY_TERM_IDF_THRESHOLD);
+			final int k = WeirConfig.getInteger(LINKING_TOP_K);
+			final Set<Pair<Webpage>> result = new LinkedHashSet<>();
+			final TopKSearcher searcher2 = new TopKSearcher(new InvertedIndex(all2, minIdf));
+			for(Webpage p1 : all1)
+				for(ScoredPage hit : searcher2.search(InvertedIndex.weightedTokens(p1, minIdf), k))
+					result.add(new Pair<>(p1, hit.getPage()));
+			final TopKSearcher searcher1 = new TopKSearcher(new InvertedIndex(all1, minIdf));
+			for(Webpage p2 : all2)
+				for(ScoredPage hit : searcher1.search(InvertedIndex.weightedTokens(p2, minIdf), k))
+					result.add(new Pair<>(hit.getPage(), p2));
+			return result;
+		}
+	};
+
+	/**
+	 * @param all1 the pages from a site
+	 * @param all2 the pages from another site
+	 * @return the candidate pairs of pages worth comparing
+	 */
+	abstract public Set<Pair<Webpage>> candidates(List<Webpage> all1, List<Webpage> all2);
+
+	/**
+	 * @return the blocking parameters as configured by
+	 * {@link Constants#LINKING_BLOCKING_PARAMETERS}: the sorted-neighbourhood
+	 * window size, the number of LSH bands, the number of rows per band
+	 */
+	static int getParameter(int index) {
+		final List<String> params = WeirConfig.getList(LINKING_BLOCKING_PARAMETERS);
+		return Integer.parseInt(params.get(index).trim());
+	}
+
+	static private void addToBlock(Map<String, List<Webpage>> blocks, String key, Webpage page) {
+		List<Webpage> block = blocks.get(key);
+		if (block==null) {
+			block = new ArrayList<>();
+			blocks.put(key, block);
+		}
+		block.add(page);
+	}
+
+	static private void addCandidates(Set<Pair<Webpage>> result, Webpage pivot, List<Webpage> block) {
+		if (block==null) return;
+		for(Webpage mate : block)
+			result.add(new Pair<>(pivot, mate));
+	}
+
+	static Set<String> tokens(Webpage page) {
+		final Set<String> result = new HashSet<>();
+		for(Value value : page.getEntity().getValues())
+			if (!value.isNull())
+				addTokens(result, value.toString());
+		return result;
+	}
+
+	static private Set<String> discriminativeTokens(Webpage page, double minIdf) {
+		final IdfRepository idfs = page.getWebsite().getIdfRepository();
+		final Set<String> result = new HashSet<>();
+		for(Value value : page.getEntity().getValues()) {
+			if (value.isNull()) continue;
+			final String term = value.toString();
+			if (idfs.contains(term) && idfs.getIdf(term)>=minIdf)
+				addTokens(result, term);
+		}
+		return result;
+	}
+
+	static private void addTokens(Set<String> result, String term) {
+		result.addAll(InvertedIndex.tokenize(term));
+	}
+
+	static private List<Webpage> sortByKey(List<Webpage> all1, List<Webpage> all2, final boolean reversed) {
+		final List<Webpage> all = new ArrayList<>(all1.size()+all2.size());
+		all.addAll(all1);
+		all.addAll(all2);
+		Collections.sort(all, new Comparator<Webpage>() {
+			@Override
+			public int compare(Webpage p1, Webpage p2) {
+				final int cmp = sortingKey(p1, reversed).compareTo(sortingKey(p2, reversed));
+				return ( cmp!=0 ? cmp : p1.compareTo(p2) );
+			}
+		});
+		return all;
+	}
+
+	static private String sortingKey(Webpage page, boolean reversed) {
+		final String key = page.getId().toLowerCase();
+		return ( reversed ? new StringBuilder(key).reverse().toString() : key );
+	}
+
+	static private void slideWindow(Set<Pair<Webpage>> result, Set<Webpage> firsts,
+									List<Webpage> sorted, int window) {
+		for(int i=0; i<sorted.size(); i++) {
+			final Webpage pivot = sorted.get(i);
+			for(int j=i+1; j<Math.min(i+window, sorted.size()); j++) {
+				final Webpage mate = sorted.get(j);
+				if (firsts.contains(pivot)!=firsts.contains(mate))
+					result.add(new Pair<>(pivot, mate));
+			}
+		}
+	}
+
+}
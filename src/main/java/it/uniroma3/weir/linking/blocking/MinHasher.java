@@ -0,0 +1,85 @@
+package it.uniroma3.weir.linking.blocking;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Compute MinHash signatures of sets of tokens and split them into
+ * LSH <em>bands</em>: two sets sharing a band bucket have a probability
+ * of <tt>1-(1-s<sup>r</sup>)<sup>b</sup></tt> to collide, where
+ * <tt>s</tt> is their Jaccard similarity, <tt>b</tt> the number of
+ * bands, and <tt>r</tt> the number of rows per band.
+ * <br/>
+ * The hash functions are drawn from a fixed seed so that
+ * the same buckets are produced across sites and runs.
+ */
+public class MinHasher {
+
+	static final private long PRIME = 2147483647L; // 2^31-1
+
+	static final private long SEED = 33L;
+
+	final private int bands;
+
+	final private int rows;
+
+	final private long[] a;
+	final private long[] b;
+
+	public MinHasher(int bands, int rows) {
+		if (bands<=0 || rows<=0)
+			throw new IllegalArgumentException("Bands and rows must be positive: "+bands+", "+rows);
+		this.bands = bands;
+		this.rows = rows;
+		final int n = bands * rows;
+		this.a = new long[n];
+		this.b = new long[n];
+		final Random random = new Random(SEED);
+		for(int i=0; i<n; i++) {
+			this.a[i] = 1 + random.nextInt(Integer.MAX_VALUE-1);
+			this.b[i] = random.nextInt(Integer.MAX_VALUE);
+		}
+	}
+
+	/**
+	 * @param tokens the set of tokens to hash
+	 * @return the MinHash signature, or null for an empty set of tokens
+	 */
+	public long[] signature(Collection<String> tokens) {
+		if (tokens.isEmpty()) return null;
+		final long[] signature = new long[this.a.length];
+		Arrays.fill(signature, Long.MAX_VALUE);
+		for(String token : tokens) {
+			final long x = token.hashCode() & 0x7fffffffL;
+			for(int i=0; i<signature.length; i++) {
+				final long h = (this.a[i] * x + this.b[i]) % PRIME;
+				if (h<signature[i])
+					signature[i] = h;
+			}
+		}
+		return signature;
+	}
+
+	/**
+	 * @param tokens the set of tokens to hash
+	 * @return one bucket key for every band of the signature
+	 */
+	public List<String> buckets(Collection<String> tokens) {
+		final long[] signature = signature(tokens);
+		final List<String> result = new ArrayList<>(this.bands);
+		if (signature==null) return result;
+		for(int band=0; band<this.bands; band++) {
+			final StringBuilder key = new StringBuilder();
+			key.append(band);
+			for(int r=0; r<this.rows; r++) {
+				key.append(':').append(signature[band*this.rows+r]);
+			}
+			result.add(key.toString());
+		}
+		return result;
+	}
+
+}
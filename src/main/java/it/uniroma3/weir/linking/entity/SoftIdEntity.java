@@ -1,21 +1,18 @@
 package it.uniroma3.weir.linking.entity;
 
+import static it.uniroma3.weir.vector.signature.SignatureCache.signatureOf;
 import it.uniroma3.weir.model.Webpage;
+import it.uniroma3.weir.vector.signature.JensenShannon;
 import it.uniroma3.weir.vector.value.Value;
 
 import java.io.Serializable;
 import java.util.Collections;
 import java.util.List;
 
-import com.wcohen.ss.UnsmoothedJS;
-import com.wcohen.ss.api.StringDistance;
-
 public class SoftIdEntity extends Entity implements Serializable {
 
 	static final private long serialVersionUID = -26262970680949653L;
 	
-	static final private StringDistance JS_DISTANCE = new UnsmoothedJS();
-	
 	public SoftIdEntity(Webpage page) {
 		super(page);
 	}
@@ -24,7 +21,7 @@ public class SoftIdEntity extends Entity implements Serializable {
 	public double similarity(Entity that) {
 		final String id1 = this.getWebpage().getId();
 		final String id2 = that.getWebpage().getId();
-		return Math.min(JS_DISTANCE.score(id1, id2), 1.0d);
+		return Math.min(JensenShannon.similarity(signatureOf(id1), signatureOf(id2)), 1.0d);
 	}
 
 	@Override
@@ -75,7 +75,7 @@ public class ValueEntity extends Entity implements Serializable {
 			throw new IllegalStateException("No attribute extracted from "+this.getWebsite()+" yet");
 		final List<Value> values = new ArrayList<>(attributes.size());
 		for (Attribute a : attributes) {
-			this.values.add(this.getValue(a));
+			values.add(this.getValue(a));
 		}
 		return values;
 	}
@@ -0,0 +1,128 @@
+package it.uniroma3.weir.linking.index;
+
+import it.uniroma3.weir.linking.IdfRepository;
+import it.uniroma3.weir.linking.entity.Entity;
+import it.uniroma3.weir.linking.entity.ValueEntity;
+import it.uniroma3.weir.model.Webpage;
+import it.uniroma3.weir.model.Website;
+import it.uniroma3.weir.vector.value.Value;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * An inverted index from the tokens of the values of the
+ * {@link Entity}s of a list of {@link Webpage}s, usually all the pages
+ * of a {@link Website}, to the pages containing them.
+ * <br/>
+ * The values are split into lower-case tokens, and a token is weighted
+ * in a page by the largest idf (see {@link IdfRepository} of the site)
+ * of the page values containing it. The tokens of the values whose idf
+ * is below a threshold are not indexed at all: they do not contribute to
+ * the similarity of the entities (see {@link ValueEntity}) either.
+ * <br/>
+ * The pages are identified by their position in the indexed list.
+ */
+public class InvertedIndex {
+
+	static final private Pattern TOKEN_SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+	final private List<Webpage> pages;
+
+	final private Map<String, PostingList> token2postings;
+
+	/**
+	 * @param pages  - the pages to index
+	 * @param minIdf - the min idf of an indexed value
+	 */
+	public InvertedIndex(List<Webpage> pages, double minIdf) {
+		this.pages = new ArrayList<>(pages);
+		this.token2postings = new HashMap<>();
+		for(int doc=0; doc<this.pages.size(); doc++) {
+			final Map<String, Double> tokens = weightedTokens(this.pages.get(doc), minIdf);
+			for(Map.Entry<String, Double> token : tokens.entrySet())
+				postings(token.getKey()).add(doc, token.getValue());
+		}
+	}
+
+	private PostingList postings(String token) {
+		PostingList postings = this.token2postings.get(token);
+		if (postings==null) {
+			postings = new PostingList();
+			this.token2postings.put(token, postings);
+		}
+		return postings;
+	}
+
+	/**
+	 * @param token a token
+	 * @return the pages containing the token, null if none
+	 */
+	public PostingList getPostings(String token) {
+		return this.token2postings.get(token);
+	}
+
+	public Webpage getPage(int doc) {
+		return this.pages.get(doc);
+	}
+
+	public int size() {
+		return this.pages.size();
+	}
+
+	public int getNumberOfTokens() {
+		return this.token2postings.size();
+	}
+
+	/**
+	 * @param page   - a page whose entity has been created
+	 * @param minIdf - the min idf of a value to consider
+	 * @return the tokens of the values of the page, in order of
+	 *         first occurrence, each with its weight in the page
+	 */
+	static public Map<String, Double> weightedTokens(Webpage page, double minIdf) {
+		final IdfRepository idfs = page.getWebsite().getIdfRepository();
+		final Map<String, Double> result = new LinkedHashMap<>();
+		for(Value value : page.getEntity().getValues()) {
+			if (value.isNull()) continue;
+			final String term = value.toString();
+			if (!idfs.contains(term)) continue;
+			final double idf = idfs.getIdf(term);
+			if (idf<minIdf || idf<=0d) continue;
+			for(String token : tokenize(term)) {
+				final Double weight = result.get(token);
+				if (weight==null || weight<idf)
+					result.put(token, idf);
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * @param term a value
+	 * @return its lower-case alphanumeric tokens
+	 */
+	static public Set<String> tokenize(String term) {
+		final String[] split = TOKEN_SEPARATOR.split(term.toLowerCase());
+		if (split.length==0) return Collections.emptySet();
+		final Set<String> result = new LinkedHashSet<>(split.length);
+		for(String token : split)
+			if (!token.isEmpty())
+				result.add(token);
+		return result;
+	}
+
+	@Override
+	public String toString() {
+		return getClass().getSimpleName()+" ("+this.pages.size()+" pages, "
+				+this.token2postings.size()+" tokens)";
+	}
+
+}
@@ -0,0 +1,121 @@
+package it.uniroma3.weir.linking.index;
+
+import java.util.Arrays;
+
+/**
+ * The pages containing a token, in increasing order of their
+ * index (see {@link InvertedIndex}), each with the weight of
+ * the token in that page.
+ * <br/>
+ * A list is filled while the index is built, and then it is read
+ * by any number of {@link Cursor}s, i.e., it can be searched
+ * concurrently.
+ */
+public class PostingList {
+
+	private int[] docs;
+
+	private double[] weights;
+
+	private int size;
+
+	private double maxWeight;
+
+	PostingList() {
+		this.docs = new int[4];
+		this.weights = new double[4];
+		this.size = 0;
+		this.maxWeight = 0d;
+	}
+
+	/* n.b. docs are added in increasing order */
+	void add(int doc, double weight) {
+		if (this.size>0 && this.docs[this.size-1]>=doc)
+			throw new IllegalArgumentException("Postings must be added in increasing order: "
+											   +doc+" after "+this.docs[this.size-1]);
+		if (this.size==this.docs.length) {
+			this.docs = Arrays.copyOf(this.docs, 2*this.size);
+			this.weights = Arrays.copyOf(this.weights, 2*this.size);
+		}
+		this.docs[this.size] = doc;
+		this.weights[this.size] = weight;
+		this.size++;
+		this.maxWeight = Math.max(this.maxWeight, weight);
+	}
+
+	public int size() {
+		return this.size;
+	}
+
+	public int getDoc(int i) {
+		return this.docs[i];
+	}
+
+	public double getWeight(int i) {
+		return this.weights[i];
+	}
+
+	/**
+	 * @return the max weight of the token over all its pages,
+	 *         i.e., an upper bound of its contribution to any score
+	 */
+	public double getMaxWeight() {
+		return this.maxWeight;
+	}
+
+	public Cursor cursor() {
+		return new Cursor();
+	}
+
+	/**
+	 * Iterates over the postings, possibly skipping ahead.
+	 */
+	public class Cursor {
+
+		static final public int END = Integer.MAX_VALUE;
+
+		private int position = 0;
+
+		/**
+		 * @return the current page, {@link #END} once exhausted
+		 */
+		public int doc() {
+			return ( this.position<size ? docs[this.position] : END );
+		}
+
+		public double weight() {
+			return weights[this.position];
+		}
+
+		public void next() {
+			this.position++;
+		}
+
+		/**
+		 * Move to the first posting whose page is not before the given one:
+		 * galloping, and then binary search, over the remaining postings.
+		 * @param target the page to reach
+		 */
+		public void advance(int target) {
+			if (doc()>=target) return;
+			int step = 1;
+			int low = this.position;
+			int high = this.position + step;
+			while (high<size && docs[high]<target) {
+				low = high;
+				step <<= 1;
+				high = low + step;
+			}
+			high = Math.min(high, size);
+			/* docs[low] < target <= docs[high] (or high==size) */
+			final int found = Arrays.binarySearch(docs, low+1, high, target);
+			this.position = ( found>=0 ? found : -found-1 );
+		}
+
+		public PostingList getPostingList() {
+			return PostingList.this;
+		}
+
+	}
+
+}
@@ -0,0 +1,42 @@
+package it.uniroma3.weir.linking.index;
+
+import it.uniroma3.weir.model.Webpage;
+
+/**
+ * A page retrieved by a {@link TopKSearcher}, with its score.
+ */
+public class ScoredPage {
+
+	final private Webpage page;
+
+	final private int doc;
+
+	final private double score;
+
+	ScoredPage(Webpage page, int doc, double score) {
+		this.page = page;
+		this.doc = doc;
+		this.score = score;
+	}
+
+	public Webpage getPage() {
+		return this.page;
+	}
+
+	/**
+	 * @return the position of the page in its {@link InvertedIndex}
+	 */
+	public int getDoc() {
+		return this.doc;
+	}
+
+	public double getScore() {
+		return this.score;
+	}
+
+	@Override
+	public String toString() {
+		return this.page+":"+this.score;
+	}
+
+}
@@ -0,0 +1,155 @@
+package it.uniroma3.weir.linking.index;
+
+import it.uniroma3.weir.metrics.Metrics;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * Retrieve from an {@link InvertedIndex} the <tt>k</tt> pages with the
+ * largest score for a query, i.e., a set of weighted tokens: the score of
+ * a page is the sum, over the tokens it shares with the query, of the
+ * product of the query and the page weights.
+ * <br/>
+ * The postings are traversed by WAND (<em>Weak AND</em>, see
+ * <a href="http://dl.acm.org/citation.cfm?id=956944">Efficient query
+ * evaluation using a two-level retrieval process</a>, Broder et al., CIKM 2003):
+ * the cursors are kept sorted by their current page, and a page is fully
+ * scored only if the upper bounds of the tokens that can reach it overcome
+ * the score of the <tt>k</tt>-th best page found so far; otherwise the
+ * cursors are moved directly past it.
+ * <br/>
+ * The result is the same of an exhaustive scoring: pages are ranked by
+ * decreasing score and, on ties, in order of index.
+ */
+public class TopKSearcher {
+
+	final private InvertedIndex index;
+
+	public TopKSearcher(InvertedIndex index) {
+		this.index = index;
+	}
+
+	public InvertedIndex getIndex() {
+		return this.index;
+	}
+
+	static final private class TermCursor {
+
+		final private PostingList.Cursor cursor;
+
+		final private double queryWeight;
+
+		final private double upperBound;
+
+		TermCursor(PostingList postings, double queryWeight) {
+			this.cursor = postings.cursor();
+			this.queryWeight = queryWeight;
+			this.upperBound = queryWeight * postings.getMaxWeight();
+		}
+
+		int doc() {
+			return this.cursor.doc();
+		}
+
+		double score() {
+			return this.queryWeight * this.cursor.weight();
+		}
+
+	}
+
+	static final private Comparator<TermCursor> BY_DOC = new Comparator<TermCursor>() {
+		@Override
+		public int compare(TermCursor c1, TermCursor c2) {
+			return Integer.compare(c1.doc(), c2.doc());
+		}
+	};
+
+	/* the worst hit first: lower score, and then later page */
+	static final private Comparator<ScoredPage> WORST_FIRST = new Comparator<ScoredPage>() {
+		@Override
+		public int compare(ScoredPage h1, ScoredPage h2) {
+			final int cmp = Double.compare(h1.getScore(), h2.getScore());
+			return ( cmp!=0 ? cmp : Integer.compare(h2.getDoc(), h1.getDoc()) );
+		}
+	};
+
+	/**
+	 * @param query - the tokens of the query, with their weights
+	 * @param k     - the max number of pages to retrieve
+	 * @return the (at most) <tt>k</tt> pages with a positive score,
+	 *         from the best one
+	 */
+	public List<ScoredPage> search(Map<String, Double> query, int k) {
+		if (k<=0) return Collections.emptyList();
+		final List<TermCursor> cursors = new ArrayList<>(query.size());
+		for(Map.Entry<String, Double> token : query.entrySet()) {
+			final PostingList postings = this.index.getPostings(token.getKey());
+			if (postings!=null && token.getValue()>0d)
+				cursors.add(new TermCursor(postings, token.getValue()));
+		}
+
+		final PriorityQueue<ScoredPage> top = new PriorityQueue<>(k+1, WORST_FIRST);
+		double threshold = 0d;
+		long scored = 0;
+		while (true) {
+			Collections.sort(cursors, BY_DOC);
+			final int pivot = findPivot(cursors, threshold);
+			if (pivot<0) break;
+			final int doc = cursors.get(pivot).doc();
+			if (doc==PostingList.Cursor.END) break;
+
+			if (cursors.get(0).doc()==doc) {
+				/* all the cursors up to the pivot are on its page: score it */
+				double score = 0d;
+				for(TermCursor cursor : cursors) {
+					if (cursor.doc()!=doc) break;
+					score += cursor.score();
+					cursor.cursor.next();
+				}
+				scored++;
+				if (top.size()<k || score>threshold) {
+					top.add(new ScoredPage(this.index.getPage(doc), doc, score));
+					if (top.size()>k) top.poll();
+					if (top.size()==k) threshold = top.peek().getScore();
+				}
+			} else {
+				/* no page before the pivot can make it to the top-k */
+				for(int i=0; i<pivot; i++) {
+					final TermCursor cursor = cursors.get(i);
+					if (cursor.doc()>=doc) break;
+					cursor.cursor.advance(doc);
+				}
+			}
+		}
+		Metrics.counter("linking.index.pages.scored").add(scored);
+
+		final List<ScoredPage> result = new ArrayList<>(top);
+		Collections.sort(result, Collections.reverseOrder(WORST_FIRST));
+		return result;
+	}
+
+	/*
+	 * The first cursor whose page can be scored above the threshold,
+	 * summing up the upper bounds of all the cursors preceding it;
+	 * -1 if no page can make it to the top-k.
+	 */
+	static private int findPivot(List<TermCursor> cursors, double threshold) {
+		double bound = 0d;
+		for(int i=0; i<cursors.size(); i++) {
+			final TermCursor cursor = cursors.get(i);
+			if (cursor.doc()==PostingList.Cursor.END) return -1;
+			bound += cursor.upperBound;
+			if (bound>threshold) {
+				/* the cursors on the same page all contribute */
+				return i;
+			}
+		}
+		return -1;
+	}
+
+}
@@ -49,7 +49,7 @@ public class DomainLinkage extends DomainRepository<WebsiteLinkage> {
 	}
 
 	public DomainLinkage(Domain domain, WebsiteLinkageBuilder builder) {
-		super(domain, WebsiteLinkage.class, builder);
+		super(domain, builder);
 	}
 	
 	public DomainLinkage top(final int k) {		
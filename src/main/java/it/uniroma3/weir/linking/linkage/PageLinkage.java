@@ -43,6 +43,8 @@ public class PageLinkage extends Pair<Webpage> implements Comparable<PageLinkage
 
 	public Webpage from(Website site) {
 		Objects.requireNonNull(site);
+		if (getMin().getWebsite()==site) return getMin();
+		if (getMax().getWebsite()==site) return getMax();
 		if (getMin().getWebsite().equals(site))
 			return getMin();
 		if (getMax().getWebsite().equals(site))
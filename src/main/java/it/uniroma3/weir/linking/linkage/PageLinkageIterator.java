@@ -109,18 +109,42 @@ public class PageLinkageIterator extends PairIterator<Value> {
 	@Override
 	public Pair<Value> next() {
 		// N.B.: min Vector is that from the min Website: same as for max Vector...
-		this.currentPageLinkage = pageLinkageIterator.next();
-		final Webpage minPage = this.currentPageLinkage.from(this.minSite);
-		final Webpage maxPage = this.currentPageLinkage.from(this.maxSite);
-		this.weight = this.currentPageLinkage.getSimilarity();
-		this.minValue = this.minVector.get(minPage);
-		this.maxValue = this.maxVector.get(maxPage);
+		this.nextPageLinkage();
+		this.minValue = this.minVector.get(this.getMinPage());
+		this.maxValue = this.maxVector.get(this.getMaxPage());
 		/* N.B. min and max as values from min and max as vectors, 
 		 * once inserted into a pair of values could be reordered! */
 		if (this.minValue==null || this.maxValue==null) return null;
 		return new Pair<>(this.minValue, this.maxValue);
 	}
 	
+	/**
+	 * Move to the next {@link PageLinkage} without looking up its
+	 * pair of values, e.g., to scan the columns of the vectors.
+	 * @return the next page linkage
+	 */
+	public PageLinkage nextPageLinkage() {
+		this.currentPageLinkage = pageLinkageIterator.next();
+		this.weight = this.currentPageLinkage.getSimilarity();
+		this.minValue = null;
+		this.maxValue = null;
+		return this.currentPageLinkage;
+	}
+
+	/**
+	 * @return the page of the current linkage from the min {@link Website}
+	 */
+	public Webpage getMinPage() {
+		return this.currentPageLinkage.from(this.minSite);
+	}
+
+	/**
+	 * @return the page of the current linkage from the max {@link Website}
+	 */
+	public Webpage getMaxPage() {
+		return this.currentPageLinkage.from(this.maxSite);
+	}
+
 	/**
 	 * @return the last value from the min {@link Attribute}
 	 */
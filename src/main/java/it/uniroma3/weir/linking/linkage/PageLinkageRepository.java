@@ -3,11 +3,11 @@ package it.uniroma3.weir.linking.linkage;
 
 import static it.uniroma3.weir.configuration.Constants.ENTITY_SIM_THRESHOLD;
 import static it.uniroma3.weir.vector.type.Type.STRING;
-import static java.util.Collections.sort;
 import it.uniroma3.weir.configuration.WeirConfig;
 import it.uniroma3.weir.model.Webpage;
 import it.uniroma3.weir.model.WebsitePair;
-import it.uniroma3.weir.structures.MapPairRepository;
+import it.uniroma3.weir.structures.OrderedPairRepository;
+import it.uniroma3.weir.structures.Pair;
 import it.uniroma3.weir.structures.PairRepositories;
 import it.uniroma3.weir.structures.PairRepository;
 
@@ -21,7 +21,7 @@ import java.util.List;
  * 		primo livello di indicizzazione basato su {@link WebsitePair}s
  */
 public class PageLinkageRepository
-	   extends MapPairRepository<PageLinkage, Webpage> 
+	   extends OrderedPairRepository<PageLinkage, Webpage> 
 	   implements PairRepository<PageLinkage, Webpage> {
 
 	static final private long serialVersionUID = 609955104922679986L;
@@ -30,7 +30,7 @@ public class PageLinkageRepository
 		this(new Builder());
 	}
 
-	private PageLinkageRepository(Builder builder) {
+	public PageLinkageRepository(Builder builder) {
 		super(builder);
 	}
 	
@@ -74,6 +74,16 @@ public class PageLinkageRepository
 	}
 	
 	
+	/*
+	 * Score only the candidate pairs, e.g., as selected by a blocking strategy
+	 */
+	static public PageLinkageRepository allOverSimilarityThreshold(double th,
+																   Collection<Pair<Webpage>> candidates) {
+		PageLinkageRepository result = new PageLinkageRepository(new ThresholdBuilder(th));
+		result.addCandidatePairs(candidates);
+		return result;
+	}
+	
 	static public PageLinkageRepository topK(int k, 
 											 List<Webpage> all1, 
 											 List<Webpage> all2) {
@@ -158,17 +168,18 @@ public class PageLinkageRepository
 
 	}
 	
+	@Override
+	protected double key(PageLinkage linkage) {
+		/* descending similarity order */
+		return -linkage.getSimilarity();
+	}
+
+	/**
+	 * @return the <tt>k</tt> most similar page-linkages
+	 */
 	public PageLinkageRepository top(int k) {
-		final int n = this.size();
-		if (k<n) return this;
-		return new PageLinkageRepository(order().subList(0, Math.min(k,n)));
+		return new PageLinkageRepository(first(k));
 	}
-	
-	public List<PageLinkage> order() {
-		final List<PageLinkage> all = getAllLinkages();
-		sort(all);
-		return all;
-	}	
 
 	public LinkedList<PageLinkage> getAllLinkages() {
 		final LinkedList<PageLinkage> allLinkages = new LinkedList<>();
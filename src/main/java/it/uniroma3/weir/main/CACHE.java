@@ -0,0 +1,82 @@
+package it.uniroma3.weir.main;
+
+import static it.uniroma3.weir.Formats.percentage;
+import it.uniroma3.weir.cache.CacheAdmin;
+import it.uniroma3.weir.cache.CacheManifest;
+import it.uniroma3.weir.cache.CacheOrganizer;
+import it.uniroma3.weir.configuration.WeirConfig;
+
+import java.net.URL;
+import java.util.Date;
+import java.util.List;
+
+import org.apache.commons.configuration.ConfigurationException;
+
+/**
+ * Inspect and maintain the cache files (see {@link CacheAdmin}):
+ * <pre>
+ *   CACHE list   [&lt;dataset&gt; [&lt;domain&gt;]]
+ *   CACHE verify [&lt;dataset&gt; [&lt;domain&gt;]]
+ *   CACHE prune  [&lt;dataset&gt; [&lt;domain&gt;]]
+ * </pre>
+ * Without a dataset, <tt>prune</tt> deletes the unusable cache files
+ * and those no experiment uses, and enforces the configured quota and
+ * maximum age; otherwise, it forgets which cache files the experiments
+ * over the dataset (or the domain) use, and deletes those no other
+ * experiment uses.
+ */
+public class CACHE {
+
+	static final private String WEIR_CONFIG_FILENAME = "./weir-config.properties";
+
+	static public void main(String[] args) throws ConfigurationException {
+		if (args.length<1 || args.length>3) {
+			usage();
+			return;
+		}
+		final URL configURL = ClassLoader.getSystemResource(WEIR_CONFIG_FILENAME);
+		WeirConfig.load(configURL);
+
+		final String dataset = ( args.length>1 ? args[1] : null );
+		final String domain  = ( args.length>2 ? args[2] : null );
+		final CacheAdmin admin = new CacheAdmin(CacheManifest.of(CacheOrganizer.getCacheRoot()));
+		switch (args[0]) {
+		case "list":
+			list(admin, dataset, domain);
+			break;
+		case "verify":
+			final List<String> problems = admin.verify(dataset, domain);
+			for(String problem : problems)
+				System.out.println(problem);
+			System.out.println(problems.size()+" problem(s) found");
+			break;
+		case "prune":
+			final List<CacheManifest.Entry> deleted = admin.prune(dataset, domain);
+			for(CacheManifest.Entry entry : deleted)
+				System.out.println("deleted "+entry.getPath());
+			System.out.println(deleted.size()+" cache file(s) deleted");
+			break;
+		default:
+			usage();
+		}
+	}
+
+	static private void list(CacheAdmin admin, String dataset, String domain) {
+		final List<CacheManifest.Entry> entries = admin.list(dataset, domain);
+		long total = 0;
+		for(CacheManifest.Entry entry : entries) {
+			System.out.println(entry.getPath()+"\t"+entry.getBytes()+" bytes\t"+
+					"last accessed "+new Date(entry.getAccessed())+"\t"+
+					"used by "+entry.getReferences());
+			total += entry.getBytes();
+		}
+		final long all = admin.getManifest().getTotalBytes();
+		System.out.println(entries.size()+" cache file(s), "+total+" bytes"+
+				( all>0 ? " ("+percentage.format(total/(double)all)+" of the cache)" : "" ));
+	}
+
+	static private void usage() {
+		System.err.println("usage: "+CACHE.class.getSimpleName()+" (list|verify|prune) [<dataset> [<domain>]]");
+	}
+
+}
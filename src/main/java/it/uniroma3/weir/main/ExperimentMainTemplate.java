@@ -1,12 +1,17 @@
 package it.uniroma3.weir.main;
 
+import static it.uniroma3.hlog.HypertextualLogManager.getLoggingDir;
 import static it.uniroma3.hlog.HypertextualLogManager.loadConfiguration;
 import static it.uniroma3.hlog.HypertextualLogger.getLogger;
 import static it.uniroma3.hlog.HypertextualUtils.linkTo;
 import it.uniroma3.hlog.HypertextualLogger;
+import it.uniroma3.weir.cache.Cache;
 import it.uniroma3.weir.configuration.WeirConfig;
+import it.uniroma3.weir.metrics.Metrics;
+import it.uniroma3.weir.metrics.MetricsReport;
 import it.uniroma3.weir.model.Experiment;
 
+import java.io.File;
 import java.io.IOException;
 import java.net.URL;
 import java.util.Arrays;
@@ -103,6 +108,7 @@ public abstract class ExperimentMainTemplate {
 
 	protected long startTime, endTime;
 
+	@SuppressWarnings("try")
 	protected void run(String[] args) {
 		log = getLogger(this.getClass());
 		
@@ -127,6 +133,7 @@ public abstract class ExperimentMainTemplate {
 				log.trace();
 				/* set as current the experiment specification */
 				WeirConfig.getInstance().setCurrentExperiment(exp);
+				Metrics.reset();
 				
 				/* load input websites */
 				log.newPage("loading experiment "+exp);
@@ -141,10 +148,15 @@ public abstract class ExperimentMainTemplate {
 				/*   execute a generic experiment  which may involve  */
 				/*   ( extraction | integration | linking )+  phases  */
 				this.startTime = System.currentTimeMillis();
-				execute(exp);
+				try (Metrics.Stage stage = Metrics.stage("experiment")) {
+					execute(exp);
+				} finally {
+					Cache.flush(); // the cache hits recorded so far
+				}
 				this.endTime = System.currentTimeMillis();			
 
 				log.trace("experiment time: " + (this.endTime - this.startTime) / 1000 + " secs");
+				writeMetricsReport(exp);
 				log.trace();
 				pressAnyKeyToContinue();				
 			}
@@ -157,6 +169,19 @@ public abstract class ExperimentMainTemplate {
 		}
 	}
 
+	/* the summary of the metrics goes next to the log of the experiment */
+	private void writeMetricsReport(Experiment exp) {
+		final File dir = getLoggingDir();
+		if (dir==null) return;
+		final String basename = "metrics-"+exp.getDataset().getName()+"-"+exp.getDomain().getName();
+		try {
+			final File json = new MetricsReport(exp.toString()).write(dir, basename);
+			log.trace("metrics summary: "+linkTo(json));
+		} catch (IOException e) {
+			log.warn("cannot write the metrics summary: "+e);
+		}
+	}
+
 	private void pressAnyKeyToContinue() throws IOException {
 		System.out.println("Press any key to continue...");
 		try {
@@ -0,0 +1,54 @@
+package it.uniroma3.weir.metrics;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A monotonic counter, e.g., of the pages loaded or of the cache hits.
+ * It can be updated concurrently.
+ */
+public class Counter implements Metric {
+
+	final private String name;
+
+	final private LongAdder count;
+
+	Counter(String name) {
+		this.name = name;
+		this.count = new LongAdder();
+	}
+
+	@Override
+	public String getName() {
+		return this.name;
+	}
+
+	@Override
+	public String getKind() {
+		return "counter";
+	}
+
+	public void increment() {
+		this.count.increment();
+	}
+
+	public void add(long n) {
+		this.count.add(n);
+	}
+
+	public long get() {
+		return this.count.sum();
+	}
+
+	@Override
+	public Map<String, Number> snapshot() {
+		return Collections.<String, Number>singletonMap("count", get());
+	}
+
+	@Override
+	public String toString() {
+		return this.name+"="+get();
+	}
+
+}
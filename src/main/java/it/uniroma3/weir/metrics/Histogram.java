@@ -0,0 +1,123 @@
+package it.uniroma3.weir.metrics;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * The distribution of a non-negative quantity, e.g., the size of
+ * the cache files. Values are counted into power-of-two buckets, so
+ * the percentiles are approximated within a factor of two, while
+ * count, sum, min and max are exact.
+ * It can be updated concurrently.
+ */
+public class Histogram implements Metric {
+
+	static final private int BUCKETS = 64;
+
+	final private String name;
+
+	/* bucket b counts the values v such that 2^(b-1) <= v < 2^b, 0 at bucket 0 */
+	final private AtomicLongArray buckets;
+
+	final private AtomicLong count;
+
+	final private AtomicLong sum;
+
+	final private AtomicLong min;
+
+	final private AtomicLong max;
+
+	Histogram(String name) {
+		this.name = name;
+		this.buckets = new AtomicLongArray(BUCKETS);
+		this.count = new AtomicLong();
+		this.sum = new AtomicLong();
+		this.min = new AtomicLong(Long.MAX_VALUE);
+		this.max = new AtomicLong(Long.MIN_VALUE);
+	}
+
+	@Override
+	public String getName() {
+		return this.name;
+	}
+
+	@Override
+	public String getKind() {
+		return "histogram";
+	}
+
+	public void update(long value) {
+		final long v = Math.max(0, value);
+		this.buckets.incrementAndGet(bucket(v));
+		this.count.incrementAndGet();
+		this.sum.addAndGet(v);
+		long current;
+		while (v<(current=this.min.get()) && !this.min.compareAndSet(current, v));
+		while (v>(current=this.max.get()) && !this.max.compareAndSet(current, v));
+	}
+
+	static private int bucket(long v) {
+		return Math.min(BUCKETS-1, 64-Long.numberOfLeadingZeros(v));
+	}
+
+	public long getCount() {
+		return this.count.get();
+	}
+
+	public long getSum() {
+		return this.sum.get();
+	}
+
+	public long getMin() {
+		return ( getCount()>0 ? this.min.get() : 0 );
+	}
+
+	public long getMax() {
+		return ( getCount()>0 ? this.max.get() : 0 );
+	}
+
+	public double getMean() {
+		final long n = getCount();
+		return ( n>0 ? (double)getSum()/n : 0d );
+	}
+
+	/**
+	 * @param p - a fraction in [0,1], e.g., 0.99
+	 * @return an upper bound of the p-th percentile,
+	 *         within a factor of two and never above the max
+	 */
+	public long getPercentile(double p) {
+		final long n = getCount();
+		if (n==0) return 0;
+		final long rank = (long)Math.ceil(p*n);
+		long seen = 0;
+		for(int b=0; b<BUCKETS; b++) {
+			seen += this.buckets.get(b);
+			if (seen>=rank && seen>0)
+				return Math.min(getMax(), ( b==0 ? 0 : b>=63 ? Long.MAX_VALUE : (1L<<b)-1 ));
+		}
+		return getMax();
+	}
+
+	@Override
+	public Map<String, Number> snapshot() {
+		final Map<String, Number> result = new LinkedHashMap<>();
+		result.put("count", getCount());
+		result.put("sum",   getSum());
+		result.put("min",   getMin());
+		result.put("max",   getMax());
+		result.put("mean",  getMean());
+		result.put("p50",   getPercentile(0.50));
+		result.put("p90",   getPercentile(0.90));
+		result.put("p99",   getPercentile(0.99));
+		return result;
+	}
+
+	@Override
+	public String toString() {
+		return this.name+snapshot();
+	}
+
+}
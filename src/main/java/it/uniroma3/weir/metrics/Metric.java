@@ -0,0 +1,24 @@
+package it.uniroma3.weir.metrics;
+
+import java.util.Map;
+
+/**
+ * A named measure of the pipeline, e.g., the duration of a stage
+ * or the number of cache hits, collected in the {@link Metrics}.
+ */
+public interface Metric {
+
+	public String getName();
+
+	/**
+	 * @return the kind of this metric, e.g., <tt>counter</tt>
+	 */
+	public String getKind();
+
+	/**
+	 * @return a snapshot of the current values of this metric,
+	 *         by statistic name, e.g., <tt>count</tt>
+	 */
+	public Map<String, Number> snapshot();
+
+}
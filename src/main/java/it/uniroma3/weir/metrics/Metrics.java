@@ -0,0 +1,122 @@
+package it.uniroma3.weir.metrics;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * The registry of the {@link Metric}s collected over the current
+ * experiment: named {@link Counter}s, {@link Timer}s and {@link Histogram}s
+ * are created on first use, and they can be updated concurrently.
+ * <br/>
+ * Names are dot-separated, from the phase to the measure, e.g.,
+ * <tt>cache.hits</tt> or <tt>linking.pairs.scored</tt>.
+ * <br/>
+ * The registry is reset at the beginning of every experiment,
+ * and it is summarized at its end by a {@link MetricsReport}.
+ */
+public class Metrics {
+
+	static final private ConcurrentMap<String, Metric> registry = new ConcurrentHashMap<>();
+
+	private Metrics() { }
+
+	static public Counter counter(String name) {
+		final Metric metric = registry.get(name);
+		if (metric!=null) return cast(metric, Counter.class);
+		return cast(putIfAbsent(new Counter(name)), Counter.class);
+	}
+
+	static public Timer timer(String name) {
+		final Metric metric = registry.get(name);
+		if (metric!=null) return cast(metric, Timer.class);
+		return cast(putIfAbsent(new Timer(name)), Timer.class);
+	}
+
+	static public Histogram histogram(String name) {
+		final Metric metric = registry.get(name);
+		if (metric!=null) return cast(metric, Histogram.class);
+		return cast(putIfAbsent(new Histogram(name)), Histogram.class);
+	}
+
+	/**
+	 * Time a long stage of the pipeline: its duration is recorded
+	 * into the {@link Timer} with the same name and, whenever
+	 * Java Flight Recorder is available, emitted as a {@link StageEvent}.
+	 * <br/>
+	 * To be used in a <tt>try</tt>-with-resources block.
+	 * @param name - the name of the stage, e.g., <tt>weir.extraction</tt>
+	 * @return the running stage
+	 */
+	static public Stage stage(String name) {
+		return new Stage(name, timer(name).time());
+	}
+
+	static private Metric putIfAbsent(Metric metric) {
+		final Metric previous = registry.putIfAbsent(metric.getName(), metric);
+		return ( previous!=null ? previous : metric );
+	}
+
+	static private <M extends Metric> M cast(Metric metric, Class<M> kind) {
+		if (!kind.isInstance(metric))
+			throw new IllegalArgumentException("Metric "+metric.getName()+" is a "
+					+ metric.getKind() + ", not a " + kind.getSimpleName().toLowerCase());
+		return kind.cast(metric);
+	}
+
+	/**
+	 * @return all the metrics collected so far, sorted by name
+	 */
+	static public List<Metric> getMetrics() {
+		final List<Metric> result = new ArrayList<>(registry.values());
+		Collections.sort(result, new Comparator<Metric>() {
+			@Override
+			public int compare(Metric m1, Metric m2) {
+				return m1.getName().compareTo(m2.getName());
+			}
+		});
+		return result;
+	}
+
+	/**
+	 * Forget all the metrics collected so far.
+	 */
+	static public void reset() {
+		registry.clear();
+	}
+
+	/**
+	 * A running stage of the pipeline.
+	 * @see Metrics#stage(String)
+	 */
+	static public class Stage implements AutoCloseable {
+
+		final private String name;
+
+		final private Timer.Context context;
+
+		private Object event;
+
+		Stage(String name, Timer.Context context) {
+			this.name = name;
+			this.context = context;
+			this.event = StageEvents.begin(name);
+		}
+
+		public String getName() {
+			return this.name;
+		}
+
+		@Override
+		public void close() {
+			this.context.stop();
+			StageEvents.end(this.event);
+			this.event = null;
+		}
+
+	}
+
+}
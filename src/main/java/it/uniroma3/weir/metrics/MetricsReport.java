@@ -0,0 +1,128 @@
+package it.uniroma3.weir.metrics;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Summarizes the {@link Metrics} collected over an experiment into
+ * a JSON and a CSV file, e.g., to compare several runs.
+ * <br/>
+ * The CSV file has a row per statistic of every metric:
+ * <tt>metric,kind,statistic,value</tt>.
+ */
+public class MetricsReport {
+
+	final private String title;
+
+	final private List<Metric> metrics;
+
+	/**
+	 * @param title - what the metrics refer to, e.g., the experiment
+	 */
+	public MetricsReport(String title) {
+		this(title, Metrics.getMetrics());
+	}
+
+	public MetricsReport(String title, List<Metric> metrics) {
+		this.title = title;
+		this.metrics = metrics;
+	}
+
+	public List<Metric> getMetrics() {
+		return this.metrics;
+	}
+
+	/**
+	 * Write <tt>&lt;basename&gt;.json</tt> and <tt>&lt;basename&gt;.csv</tt>.
+	 * @param dir - the destination folder
+	 * @param basename - the name of both files, without extension
+	 * @return the JSON file written
+	 * @throws IOException
+	 */
+	public File write(File dir, String basename) throws IOException {
+		final File json = new File(dir, basename+".json");
+		try (Writer out = open(json)) {
+			out.write(toJSON());
+		}
+		try (Writer out = open(new File(dir, basename+".csv"))) {
+			out.write(toCSV());
+		}
+		return json;
+	}
+
+	static private Writer open(File file) throws IOException {
+		return new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8);
+	}
+
+	public String toJSON() {
+		final StringBuilder result = new StringBuilder();
+		result.append("{\n  \"title\": ").append(quote(this.title)).append(",\n");
+		result.append("  \"metrics\": {");
+		String separator = "\n";
+		for(Metric metric : this.metrics) {
+			result.append(separator).append("    ").append(quote(metric.getName()));
+			result.append(": { \"kind\": ").append(quote(metric.getKind()));
+			for(Map.Entry<String, Number> stat : metric.snapshot().entrySet())
+				result.append(", ").append(quote(stat.getKey())).append(": ").append(format(stat.getValue()));
+			result.append(" }");
+			separator = ",\n";
+		}
+		result.append("\n  }\n}\n");
+		return result.toString();
+	}
+
+	public String toCSV() {
+		final StringBuilder result = new StringBuilder("metric,kind,statistic,value\n");
+		for(Metric metric : this.metrics)
+			for(Map.Entry<String, Number> stat : metric.snapshot().entrySet())
+				result.append(metric.getName()).append(',')
+				      .append(metric.getKind()).append(',')
+				      .append(stat.getKey()).append(',')
+				      .append(format(stat.getValue())).append('\n');
+		return result.toString();
+	}
+
+	/* locale-independent: the default locale may use decimal commas */
+	static private String format(Number n) {
+		if (n instanceof Double || n instanceof Float) {
+			final double d = n.doubleValue();
+			if (Double.isNaN(d) || Double.isInfinite(d)) return "null";
+			return String.format(Locale.ROOT, "%.3f", d);
+		}
+		return n.toString();
+	}
+
+	static private String quote(String s) {
+		if (s==null) return "null";
+		final StringBuilder result = new StringBuilder("\"");
+		for(char c : s.toCharArray()) {
+			switch (c) {
+				case '"':  result.append("\\\""); break;
+				case '\\': result.append("\\\\"); break;
+				case '\n': result.append("\\n");  break;
+				case '\r': result.append("\\r");  break;
+				case '\t': result.append("\\t");  break;
+				default:
+					if (c<0x20) result.append(String.format("\\u%04x", (int)c));
+					else result.append(c);
+			}
+		}
+		return result.append('"').toString();
+	}
+
+	@Override
+	public String toString() {
+		final StringBuilder result = new StringBuilder(this.title);
+		for(Metric metric : this.metrics)
+			result.append('\n').append(metric);
+		return result.toString();
+	}
+
+}
@@ -0,0 +1,30 @@
+package it.uniroma3.weir.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * A Java Flight Recorder event spanning a long stage of the pipeline,
+ * e.g., the extraction or the linkage of the pages of a domain.
+ * <br/>
+ * It is recorded only when JFR is enabled, e.g., by
+ * <tt>-XX:StartFlightRecording</tt>.
+ * 
+ * @see Metrics#stage(String)
+ */
+@Name("it.uniroma3.weir.Stage")
+@Label("WEIR Stage")
+@Category("WEIR")
+@Description("A stage of the WEIR pipeline")
+class StageEvent extends Event {
+
+	@Label("Stage")
+	String stage;
+
+	@Label("Experiment")
+	String experiment;
+
+}
@@ -0,0 +1,54 @@
+package it.uniroma3.weir.metrics;
+
+import it.uniroma3.weir.configuration.WeirConfig;
+import it.uniroma3.weir.model.Experiment;
+
+/**
+ * Emits the {@link StageEvent}s, but only on the JVMs shipping
+ * Java Flight Recorder: elsewhere stages are just timed.
+ */
+class StageEvents {
+
+	static final private boolean AVAILABLE = isAvailable();
+
+	static private boolean isAvailable() {
+		try {
+			Class.forName("jdk.jfr.Event", false, StageEvents.class.getClassLoader());
+			return true;
+		} catch (ClassNotFoundException | LinkageError e) {
+			return false;
+		}
+	}
+
+	private StageEvents() { }
+
+	/**
+	 * @return the event begun, or null if JFR is not available
+	 */
+	static Object begin(String stage) {
+		if (!AVAILABLE) return null;
+		final StageEvent event = new StageEvent();
+		if (!event.isEnabled()) return null;
+		event.stage = stage;
+		event.experiment = currentExperiment();
+		event.begin();
+		return event;
+	}
+
+	static private String currentExperiment() {
+		try {
+			final Experiment experiment = WeirConfig.getCurrentExperiment();
+			return ( experiment!=null ? experiment.toString() : null );
+		} catch (IllegalStateException notLoadedYet) {
+			return null;
+		}
+	}
+
+	static void end(Object event) {
+		if (event==null) return;
+		final StageEvent stage = (StageEvent)event;
+		stage.end();
+		stage.commit();
+	}
+
+}
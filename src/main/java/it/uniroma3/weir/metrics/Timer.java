@@ -0,0 +1,111 @@
+package it.uniroma3.weir.metrics;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The distribution of the durations, in milliseconds, of an
+ * operation, e.g., of a stage of the pipeline.
+ * It can be updated concurrently.
+ * 
+ * @see Metrics#stage(String)
+ */
+public class Timer implements Metric {
+
+	final private Histogram nanos;
+
+	Timer(String name) {
+		this.nanos = new Histogram(name);
+	}
+
+	@Override
+	public String getName() {
+		return this.nanos.getName();
+	}
+
+	@Override
+	public String getKind() {
+		return "timer";
+	}
+
+	public void update(long duration, TimeUnit unit) {
+		this.nanos.update(unit.toNanos(duration));
+	}
+
+	/**
+	 * @return a running measure, to be closed when the operation ends
+	 */
+	public Context time() {
+		return new Context(this);
+	}
+
+	public long getCount() {
+		return this.nanos.getCount();
+	}
+
+	public double getTotalMillis() {
+		return millis(this.nanos.getSum());
+	}
+
+	static private double millis(long nanos) {
+		return nanos / 1e6;
+	}
+
+	@Override
+	public Map<String, Number> snapshot() {
+		final Map<String, Number> result = new LinkedHashMap<>();
+		result.put("count",   getCount());
+		result.put("sum_ms",  millis(this.nanos.getSum()));
+		result.put("min_ms",  millis(this.nanos.getMin()));
+		result.put("max_ms",  millis(this.nanos.getMax()));
+		result.put("mean_ms", this.nanos.getMean()/1e6);
+		result.put("p50_ms",  millis(this.nanos.getPercentile(0.50)));
+		result.put("p90_ms",  millis(this.nanos.getPercentile(0.90)));
+		result.put("p99_ms",  millis(this.nanos.getPercentile(0.99)));
+		return result;
+	}
+
+	@Override
+	public String toString() {
+		return getName()+snapshot();
+	}
+
+	/**
+	 * A running measure of a {@link Timer}: it is recorded once closed,
+	 * e.g., at the end of a <tt>try</tt>-with-resources block.
+	 */
+	static public class Context implements AutoCloseable {
+
+		final private Timer timer;
+
+		final private long start;
+
+		private boolean closed;
+
+		Context(Timer timer) {
+			this.timer = timer;
+			this.start = System.nanoTime();
+			this.closed = false;
+		}
+
+		/**
+		 * @return the elapsed nanoseconds, recorded only the first time
+		 */
+		public long stop() {
+			final long elapsed = System.nanoTime() - this.start;
+			if (!this.closed) {
+				this.closed = true;
+				this.timer.update(elapsed, TimeUnit.NANOSECONDS);
+			}
+			return elapsed;
+		}
+
+		@Override
+		public void close() {
+			stop();
+		}
+
+	}
+
+}
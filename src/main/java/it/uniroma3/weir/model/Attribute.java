@@ -8,7 +8,6 @@ import it.uniroma3.weir.extraction.rule.ExtractionRule;
 import it.uniroma3.weir.integration.AttributePair;
 import it.uniroma3.weir.integration.Match;
 import it.uniroma3.weir.linking.linkage.PageLinkageIterator;
-import it.uniroma3.weir.structures.Pair2BooleanRepository;
 import it.uniroma3.weir.structures.PairRepositories;
 import it.uniroma3.weir.vector.Label;
 import it.uniroma3.weir.vector.Vector;
@@ -154,7 +153,11 @@ public class Attribute extends WeirId implements Serializable/*, Renderable */ {
 		return getVector().size();
 	}
 
-
+	/**
+	 * Two attributes from the same site overlap iff they extract the same
+	 * value from the same PCDATA occurrence of a page.
+	 * @see it.uniroma3.weir.integration.OccurrenceIndex
+	 */
 	public boolean overlap(Attribute that) {
 		// it does not overlap with itself, by definition
 		if (this.equals(that)) return false;
@@ -162,13 +165,6 @@ public class Attribute extends WeirId implements Serializable/*, Renderable */ {
 		// attributes from different sites cannot overlap
 		if (!this.sameWebsiteAs(that)) return false;
 
-		final Pair2BooleanRepository<AttributePair, Attribute> cache = 
-				Experiment.getInstance().getOverlapCache();
-		
-		Boolean result = cache.get(this, that);
-		if (result!=null) return result; /* cache hit */
-		
-		/* cache miss :( */
 		final AttributePair pair = new AttributePair(this, that);		
 		
 		/* iterate over values as originally extracted from the pages */
@@ -194,11 +190,11 @@ public class Attribute extends WeirId implements Serializable/*, Renderable */ {
 			if (mark1==null || mark2==null) continue;
 			/* same PCDATA and same values extracted from it ? */
 			if (mark1.equals(mark2) && value1.equals(value2)) {
-				return cache.cache(pair, true);
+				return true;
 			}
 		}
 		
-		return cache.cache(pair, false);
+		return false;
 	}
 
 	@Override
@@ -1,8 +1,10 @@
 package it.uniroma3.weir.model;
 
+import static it.uniroma3.weir.configuration.Constants.EXTRACTION_MAX_LOADED_PAGES;
 import it.uniroma3.weir.cache.Fingerprint;
 import it.uniroma3.weir.cache.Fingerprinted;
 import it.uniroma3.weir.cache.Fingerprinter;
+import it.uniroma3.weir.configuration.WeirConfig;
 
 import java.io.Serializable;
 import java.util.*;
@@ -22,6 +24,9 @@ public class Domain extends WeirId
 
 	final private List<Website> sites;
 
+	/* whether the pages of all the sites have been loaded at once */
+	transient private boolean pagesLoaded;
+
 	public Domain(String name) {
 		super(name);
 		this.sites = new LinkedList<>();
@@ -72,9 +77,29 @@ public class Domain extends WeirId
 		return all;
 	}
 	
-	public void shrinkToOverlap() {
+	public synchronized void shrinkToOverlap() {
 		for(Website site : this)
 			site.shrinkToOverlap();
+		this.pagesLoaded = false; // other working pages
+	}
+
+	/**
+	 * The first time the pages of a site are needed, load the working
+	 * pages of all the sites at once, by the {@link PageLoader} shared
+	 * by them, as long as they are not more than
+	 * {@link Constants#EXTRACTION_MAX_LOADED_PAGES}: afterwards,
+	 * every site loads (again) its own pages
+	 * (see {@link Website#loadPages()}).
+	 */
+	synchronized void loadAllPages() {
+		if (this.pagesLoaded) return;
+		this.pagesLoaded = true;
+		final List<Webpage> pages = new ArrayList<>();
+		for(Website site : this)
+			if (site.getWorkingPages()!=null)
+				pages.addAll(site.getWorkingPages());
+		if (pages.size()>WeirConfig.getInteger(EXTRACTION_MAX_LOADED_PAGES)) return;
+		PageLoader.report(this, PageLoader.getInstance().load(pages));
 	}
 	
 	@Override
@@ -31,6 +31,9 @@ public class DomainLoader {
 			log.trace();
 		}
 		log.trace("total number of pages loaded for "+domain+" domain: " + pageCount);
+		/* n.b. the working pages are known only once the sites are linked */
+		log.trace("pages of all the sites are parsed at once, when first needed, by a "
+				 +PageLoader.getInstance());
 		return domain;
 	}
 
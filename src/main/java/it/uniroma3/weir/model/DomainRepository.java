@@ -21,16 +21,9 @@ public class DomainRepository<P extends WebsitePair>
 //		this(sites, null);
 //	}
 //	
-	@SuppressWarnings("unchecked")
 	public DomainRepository(Domain domain, 
 			   			    PairBuilder<P, Website> builder) {
-		this(domain, (Class<P>) WebsitePair.class, builder);
-	}	
-	
-	protected DomainRepository(Domain domain, 
-							   Class<P> cls,
-							   PairBuilder<P, Website> builder) {
-		super(domain.getSites(),cls,builder);
+		super(domain.getSites(),builder);
 		this.domain = domain;
 	}
 
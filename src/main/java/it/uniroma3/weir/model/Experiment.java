@@ -8,13 +8,10 @@ import it.uniroma3.weir.MatchRepository;
 import it.uniroma3.weir.cache.Fingerprint;
 import it.uniroma3.weir.cache.Fingerprinted;
 import it.uniroma3.weir.cache.Fingerprinter;
-import it.uniroma3.weir.configuration.Constants;
 import it.uniroma3.weir.configuration.WeirConfig;
 import it.uniroma3.weir.evaluation.GoldenReader;
-import it.uniroma3.weir.integration.AttributePair;
 import it.uniroma3.weir.linking.linkage.DomainLinkage;
 import it.uniroma3.weir.model.hiddenrelation.AbstractRelation;
-import it.uniroma3.weir.structures.Pair2BooleanRepository;
 
 import java.io.File;
 import java.io.IOException;
@@ -69,9 +66,6 @@ public class Experiment implements Serializable, Fingerprinted {
 	
 	private AbstractRelation _H_;      /* the hidden abstract relation */
 
-	transient
-	private Pair2BooleanRepository<AttributePair, Attribute> overlapCache;
-	
 	/**
 	 * 
 	 * @param datasetName - e.g., swde/weir
@@ -84,7 +78,6 @@ public class Experiment implements Serializable, Fingerprinted {
 		this.domain.setDataset(dataset);
 		this.goldenMappings = null;
 		this._H_ = new AbstractRelation(this);
-		this.overlapCache = new Pair2BooleanRepository<AttributePair,Attribute>();
 	}
 
 	public File getExperimentSpecificationFolder() {
@@ -147,10 +140,6 @@ public class Experiment implements Serializable, Fingerprinted {
 		return this._H_.getMatches();
 	}
 	
-	public Pair2BooleanRepository<AttributePair, Attribute> getOverlapCache() {
-		return this.overlapCache;
-	}
-
 	/* --- */
 	/**
 	 * @return the folder containing all available datasets
@@ -235,11 +224,8 @@ public class Experiment implements Serializable, Fingerprinted {
 		Fingerprinter printer = new Fingerprinter();
 		
 		printer.fingerprint(this.getDomain().getFingerprint());
-		
-		for(Constants c : Constants.values()) {
-			printer.fingerprint(WeirConfig.getString(c));
-		}
-		
+		/* n.b. the configuration is fingerprinted by the Dependencies
+		 *      of the computations taking the experiment as input   */
 		return printer.getFingerprint("exp");
 	}
 	
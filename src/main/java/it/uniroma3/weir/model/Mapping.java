@@ -53,7 +53,12 @@ public class Mapping extends WeirId
 
 	//MGC
 	public Mapping(Collection<Attribute> attrs) {
-		super(nextIdByClass(Mapping.class));
+		this(nextIdByClass(Mapping.class), attrs);
+	}
+
+	/* restore a mapping with a given id, e.g., as built by an integration */
+	public Mapping(String id, Collection<Attribute> attrs) {
+		super(id);
 		this.attributes = new HashSet<>();
 		this.complete = false;
 		this.golden = false;
@@ -0,0 +1,222 @@
+package it.uniroma3.weir.model;
+
+import static it.uniroma3.weir.configuration.Constants.PAGE_PARSING_MEMORY_BUDGET;
+import static it.uniroma3.weir.configuration.Constants.PAGE_LOADING_THREADS;
+import it.uniroma3.hlog.HypertextualLogger;
+import it.uniroma3.weir.configuration.WeirConfig;
+import it.uniroma3.weir.metrics.Metrics;
+import it.uniroma3.weir.model.snapshot.DOMSnapshotStore;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.configuration.Configuration;
+
+/**
+ * Load and parse {@link Webpage}s concurrently.
+ * <br/>
+ * Every loading thread works with its own {@link WebFetcher}. The
+ * pages are submitted to a fixed pool only as long as the estimated
+ * memory needed to parse the pages in flight stays within a budget
+ * of {@link Constants#PAGE_PARSING_MEMORY_BUDGET} MB: beyond that,
+ * the submitting thread waits for some page to be parsed. N.B. the
+ * budget limits the parses in flight, not the parsed pages that are
+ * kept loaded until released (see {@link Website#releasePages()}).
+ * <br/>
+ * A page that cannot be loaded, e.g., a malformed HTML file, even
+ * if it overflows the stack, does not abort the whole experiment:
+ * it is reported in the {@link PageLoadingStatistics} and replaced
+ * by an empty document.
+ * <br/>
+ * A single loader, and hence a single budget, is shared by all the
+ * {@link Website}s of the {@link Domain}: its settings are read again
+ * as soon as another configuration is loaded, e.g., by the next experiment.
+ * The replaced loader completes the pages already submitted to it.
+ */
+public class PageLoader {
+
+	static final private HypertextualLogger log = HypertextualLogger.getLogger();
+
+	static final private int NCPU = Runtime.getRuntime().availableProcessors();
+
+	/* rough ratio between the heap footprint of a DOM and its HTML source */
+	static final private int DOM_BYTES_PER_SOURCE_BYTE = 10;
+
+	/* source size assumed for the pages that are not local files */
+	static final private long DEFAULT_SOURCE_BYTES = 64 * 1024;
+
+	/* after which an idle loading thread terminates */
+	static final private long IDLE_SECONDS = 60;
+
+	static private PageLoader instance;
+
+	static private Configuration prefs; // the settings of the instance
+
+	static synchronized public PageLoader getInstance() {
+		if (instance==null || prefs!=WeirConfig.getConfiguration()) {
+			/* n.b. a replaced pool is not shut down: its threads time out once idle */
+			final int threads = WeirConfig.getInteger(PAGE_LOADING_THREADS);
+			instance = new PageLoader(threads>0 ? threads : NCPU,
+									  WeirConfig.getInteger(PAGE_PARSING_MEMORY_BUDGET));
+			prefs = WeirConfig.getConfiguration();
+		}
+		return instance;
+	}
+
+	final private ExecutorService pool;
+
+	final private int threads;
+
+	/* the budget is counted in KB */
+	final private int budget;
+
+	final private Semaphore available;
+
+	/**
+	 * @param threads  - the number of loading threads
+	 * @param budgetMB - the memory budget (MB) of the pages being parsed
+	 */
+	public PageLoader(int threads, int budgetMB) {
+		if (threads<=0 || budgetMB<=0)
+			throw new IllegalArgumentException("Threads and memory budget must be positive: "
+												+threads+", "+budgetMB);
+		this.threads = threads;
+		this.budget = budgetMB * 1024;
+		this.available = new Semaphore(this.budget, true);
+		final ThreadPoolExecutor pool = new ThreadPoolExecutor(threads, threads,
+				IDLE_SECONDS, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(), new LoadingThreads());
+		pool.allowCoreThreadTimeOut(true);
+		this.pool = pool;
+	}
+
+	public int getNumberOfThreads() {
+		return this.threads;
+	}
+
+	/**
+	 * Load all the given pages that have not been loaded yet,
+	 * and wait for them to be completed.
+	 * @param pages - the pages to load
+	 * @return the timing and the failures of the loaded pages
+	 */
+	@SuppressWarnings("try")
+	public PageLoadingStatistics load(Collection<Webpage> pages) {
+		try (Metrics.Stage stage = Metrics.stage("pages.loading")) {
+			return loadAll(pages);
+		} finally {
+			DOMSnapshotStore.flush();
+		}
+	}
+
+	private PageLoadingStatistics loadAll(Collection<Webpage> pages) {
+		final PageLoadingStatistics stats = new PageLoadingStatistics();
+		final List<Future<?>> loading = new ArrayList<>(pages.size());
+		for(final Webpage page : pages) {
+			if (page.getDocument()!=null) continue;
+			final int cost = cost(page);
+			this.available.acquireUninterruptibly(cost); // back-pressure
+			try {
+				loading.add(this.pool.submit(new LoadPageTask(page, cost, stats)));
+			} catch (RuntimeException e) {
+				this.available.release(cost);
+				throw e;
+			}
+		}
+		try {
+			for(Future<?> task : loading)
+				task.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException(e);
+		} catch (ExecutionException e) {
+			throw new IllegalStateException(e.getCause());
+		}
+		return stats;
+	}
+
+	/* the estimated memory (KB) needed to parse a page */
+	private int cost(Webpage page) {
+		long bytes = DEFAULT_SOURCE_BYTES;
+		if ("file".equals(page.getURI().getScheme()))
+			bytes = new File(page.getURI()).length();
+		final long kb = bytes * DOM_BYTES_PER_SOURCE_BYTE / 1024;
+		return (int) Math.max(1, Math.min(kb, this.budget));
+	}
+
+	private class LoadPageTask implements Runnable {
+
+		final private Webpage page;
+
+		final private int cost;
+
+		final private PageLoadingStatistics stats;
+
+		LoadPageTask(Webpage page, int cost, PageLoadingStatistics stats) {
+			this.page = page;
+			this.cost = cost;
+			this.stats = stats;
+		}
+
+		@Override
+		public void run() {
+			final long start = System.currentTimeMillis();
+			try {
+				this.page.loadDocument();
+				final long elapsed = System.currentTimeMillis()-start;
+				this.stats.loaded(this.page, elapsed);
+				Metrics.counter("pages.loaded").increment();
+				Metrics.histogram("pages.loading.ms").update(elapsed);
+			} catch (Throwable e) {
+				/* n.b. a stack overflow just discards the deepest tree */
+				if (e instanceof VirtualMachineError && !(e instanceof StackOverflowError))
+					throw e;
+				this.page.loadEmptyDocument();
+				this.stats.failed(this.page, System.currentTimeMillis()-start, e);
+				Metrics.counter("pages.failed").increment();
+			} finally {
+				available.release(this.cost);
+			}
+		}
+
+	}
+
+	/* daemons, terminated once idle: see getInstance() */
+	static final private class LoadingThreads implements ThreadFactory {
+
+		static final private AtomicInteger counter = new AtomicInteger();
+
+		@Override
+		public Thread newThread(Runnable task) {
+			final Thread thread = new Thread(task, "page-loader-"+counter.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		}
+
+	}
+
+	@Override
+	public String toString() {
+		return getClass().getSimpleName()+" ("+this.threads+" threads, "
+				+ (this.budget/1024)+" MB parsing budget)";
+	}
+
+	/* the pages of a site, or of all the sites of a domain */
+	static void report(Object loaded, PageLoadingStatistics stats) {
+		log.trace("loading pages of "+loaded+": "+stats);
+		for(Webpage page : stats.getFailures().keySet())
+			log.warn("page "+page.getName()+" of "+page.getWebsite()+" could not be loaded and it is "
+					+ "taken as empty: "+stats.getFailures().get(page));
+	}
+
+}
@@ -0,0 +1,95 @@
+package it.uniroma3.weir.model;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Collects the time spent loading every {@link Webpage} by
+ * a {@link PageLoader}, together with the pages that could not be
+ * loaded and the reason why.
+ * <br/>
+ * Pages are recorded concurrently by the loading threads.
+ */
+public class PageLoadingStatistics {
+
+	final private Map<Webpage, Long> millis;
+
+	final private Map<Webpage, String> failures;
+
+	public PageLoadingStatistics() {
+		this.millis = new LinkedHashMap<>();
+		this.failures = new LinkedHashMap<>();
+	}
+
+	synchronized void loaded(Webpage page, long millis) {
+		this.millis.put(page, millis);
+	}
+
+	synchronized void failed(Webpage page, long millis, Throwable cause) {
+		this.millis.put(page, millis);
+		this.failures.put(page, describe(cause));
+	}
+
+	static private String describe(Throwable cause) {
+		Throwable root = cause;
+		while (root.getCause()!=null && root.getCause()!=root)
+			root = root.getCause();
+		return root.getClass().getSimpleName()+": "+root.getMessage();
+	}
+
+	/**
+	 * @return the loading time (ms) of every page, failed ones included
+	 */
+	synchronized public Map<Webpage, Long> getMillis() {
+		return Collections.unmodifiableMap(new LinkedHashMap<>(this.millis));
+	}
+
+	/**
+	 * @return the reason of failure of every page that could not be loaded
+	 */
+	synchronized public Map<Webpage, String> getFailures() {
+		return Collections.unmodifiableMap(new LinkedHashMap<>(this.failures));
+	}
+
+	synchronized public int getNumberOfPages() {
+		return this.millis.size();
+	}
+
+	synchronized public int getNumberOfFailures() {
+		return this.failures.size();
+	}
+
+	synchronized public long getTotalMillis() {
+		long total = 0;
+		for(long ms : this.millis.values())
+			total += ms;
+		return total;
+	}
+
+	/**
+	 * @return the page that took longest to load, null if none
+	 */
+	synchronized public Webpage getSlowest() {
+		Webpage slowest = null;
+		long max = -1;
+		for(Map.Entry<Webpage, Long> entry : this.millis.entrySet()) {
+			if (entry.getValue()>max) {
+				max = entry.getValue();
+				slowest = entry.getKey();
+			}
+		}
+		return slowest;
+	}
+
+	@Override
+	synchronized public String toString() {
+		final int n = this.millis.size();
+		final long total = getTotalMillis();
+		final Webpage slowest = getSlowest();
+		return n+" pages loaded in "+total+" ms (thread time)"
+				+ ( n>0 ? ", avg "+(total/n)+" ms, max "+this.millis.get(slowest)+" ms by "+slowest.getId() : "" )
+				+ ", "+this.failures.size()+" failed";
+	}
+
+}
@@ -14,10 +14,17 @@ import it.uniroma3.token.dom.node.DOMNodeFactory;
 import it.uniroma3.token.loader.DOMLoader;
 import it.uniroma3.token.loader.PCDATATokenizer;
 import it.uniroma3.token.loader.Skipper;
+import it.uniroma3.weir.cache.Fingerprint;
 import it.uniroma3.weir.configuration.WeirConfig;
+import it.uniroma3.weir.model.snapshot.DOMSnapshot;
+import it.uniroma3.weir.model.snapshot.DOMSnapshotStore;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
 import java.util.HashSet;
 import java.util.Set;
 
@@ -31,21 +38,43 @@ import org.xml.sax.SAXException;
  * template nodes, eventually by annotating each node with a 
  * disambiguation positional XPath rule that leads to the
  * node itself.
+ * <br/>
+ * If enabled, the preprocessed documents are saved as
+ * {@link it.uniroma3.weir.model.snapshot.DOMSnapshot}s, and
+ * rebuilt from them rather than parsed again next time.
  */ 
 class WebFetcher {
 
 	@SuppressWarnings("unused")
 	static final private HypertextualLogger log = HypertextualLogger.getLogger();
 
-	static private WebFetcher instance;
+	/* the settings shared by all the fetching contexts,
+	 * as read from the configuration currently loaded */
+	static private WebFetcher settings;
+
+	static synchronized private WebFetcher getSettings() {
+		if (settings==null || settings.prefs!=WeirConfig.getConfiguration()) {
+			settings = new WebFetcher();
+		}
+		return settings;
+	}
+
+	/* a fetching context per thread: see PageLoader */
+	static final private ThreadLocal<WebFetcher> contexts = new ThreadLocal<>();
 
 	static public WebFetcher getInstance() {
-		if (instance==null) {
-			instance = new WebFetcher();
+		final WebFetcher current = getSettings();
+		WebFetcher context = contexts.get();
+		if (context==null || context.prefs!=current.prefs) {
+			context = new WebFetcher(current);
+			contexts.set(context);
 		}
-		return instance;
+		return context;
 	}
 
+	/* what a page that cannot be fetched is replaced with */
+	static final private String EMPTY_DOCUMENT = "<HTML><HEAD></HEAD><BODY></BODY></HTML>";
+
 	final private Configuration prefs;
 
 	final private Set<String> skipTrees;
@@ -56,15 +85,28 @@ class WebFetcher {
 	
 	final private int maxPCDATAlength;
 
+	final private DOMSnapshotStore snapshots; // null if disabled
+
 	private WebFetcher() {
 		this.prefs = WeirConfig.getConfiguration();
 		this.skipTags = new HashSet<>(WeirConfig.getList(IGNORE_TAGS));
 		this.skipTrees = new HashSet<>(WeirConfig.getList(IGNORE_TREES));
 		this.separators = WeirConfig.getString(SEPARATOR_CHARS);
 		this.maxPCDATAlength = WeirConfig.getInteger(MAX_PCDATA_LENGTH);
+		this.snapshots = ( DOMSnapshotStore.isEnabled() ? new DOMSnapshotStore() : null );
+	}
+
+	private WebFetcher(WebFetcher settings) {
+		this.prefs = settings.prefs;
+		this.skipTags = settings.skipTags;
+		this.skipTrees = settings.skipTrees;
+		this.separators = settings.separators;
+		this.maxPCDATAlength = settings.maxPCDATAlength;
+		this.snapshots = settings.snapshots;
 	}
 
 	public DOMNodeFactory fetchDocument(Webpage page) {
+		if (this.snapshots!=null) return fetchSnapshotDocument(page);
 		try (final InputStreamReader reader = new InputStreamReader(page.getURI().toURL().openStream())) {			
 			/* load a customized DOM tree of the HTML page to support
 			 * a tokenization functional to our template analysis */
@@ -74,6 +116,85 @@ class WebFetcher {
 		}
 	}
 
+	/* the source is read anyway, to fingerprint its snapshot */
+	private DOMNodeFactory fetchSnapshotDocument(Webpage page) {
+		try {
+			final byte[] source = read(page);
+			final Fingerprint fingerprint = this.snapshots.fingerprint(source);
+			final DOMNodeFactory snapshot = this.snapshots.load(fingerprint);
+			if (snapshot!=null) {
+				snapshot.setTagFactory(TagFactoryBuilder.getFactory(prefs));
+				return snapshot;
+			}
+			final DOMNodeFactory document = parse(source);
+			synchronized (document) {
+				this.snapshots.store(fingerprint, document);
+			}
+			return document;
+		} catch (SAXException | IOException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	/**
+	 * @return a snapshot of the preprocessed document of a page: it is
+	 *         mapped from the saved one, if any, or else taken from a
+	 *         DOM tree built just for it
+	 * @throws IllegalStateException if the page cannot be fetched, or
+	 *         its document cannot be snapshot
+	 */
+	public DOMSnapshot fetchSnapshot(Webpage page) {
+		try {
+			if (this.snapshots==null) {
+				final DOMNodeFactory document = fetchDocument(page);
+				synchronized (document) {
+					return DOMSnapshot.of(document);
+				}
+			}
+			final byte[] source = read(page);
+			final Fingerprint fingerprint = this.snapshots.fingerprint(source);
+			final DOMSnapshot snapshot = this.snapshots.loadSnapshot(fingerprint);
+			if (snapshot!=null) return snapshot;
+			final DOMNodeFactory document = parse(source);
+			synchronized (document) {
+				final DOMSnapshot stored = this.snapshots.store(fingerprint, document);
+				return ( stored!=null ? stored : DOMSnapshot.of(document) );
+			}
+		} catch (SAXException | IOException | IllegalArgumentException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private DOMNodeFactory parse(byte[] source) throws SAXException, IOException {
+		try (final InputStreamReader reader = new InputStreamReader(new ByteArrayInputStream(source))) {
+			return loadAndPreProcessDocument(reader);
+		}
+	}
+
+	static private byte[] read(Webpage page) throws IOException {
+		try (final InputStream in = page.getURI().toURL().openStream()) {
+			final ByteArrayOutputStream result = new ByteArrayOutputStream();
+			final byte[] buffer = new byte[8192];
+			int read;
+			while ((read=in.read(buffer))!=-1)
+				result.write(buffer, 0, read);
+			return result.toByteArray();
+		}
+	}
+
+	/**
+	 * @return an empty, yet preprocessed, document to stand in
+	 *         for a page that could not be fetched
+	 */
+	public DOMNodeFactory emptyDocument() {
+		try (final InputStreamReader reader = new InputStreamReader(
+				new ByteArrayInputStream(EMPTY_DOCUMENT.getBytes(StandardCharsets.US_ASCII)))) {
+			return loadAndPreProcessDocument(reader);
+		} catch (SAXException | IOException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
 	private DOMNodeFactory loadAndPreProcessDocument(final InputStreamReader reader) 
 			throws SAXException, IOException {
 		final DOMLoader loader = new DOMLoader();			
@@ -5,6 +5,7 @@ package it.uniroma3.weir.model;
 import static it.uniroma3.hlog.HypertextualUtils.linkTo;
 import it.uniroma3.hlog.render.Renderable;
 import it.uniroma3.weir.linking.entity.Entity;
+import it.uniroma3.weir.model.snapshot.DOMSnapshot;
 
 import java.io.Serializable;
 import java.net.URI;
@@ -110,6 +111,28 @@ public class Webpage extends WeirId
 		if (this.doc==null)
 			this.doc = WebFetcher.getInstance().fetchDocument(this);
 	}
+
+	/**
+	 * @return a snapshot of the preprocessed DOM tree of this page, taken
+	 *         from the loaded one, if any, or else fetched without loading
+	 *         any tree into this page (see {@link WebFetcher#fetchSnapshot(Webpage)})
+	 */
+	public DOMSnapshot getSnapshot() {
+		final Document document = this.doc;
+		if (document==null)
+			return WebFetcher.getInstance().fetchSnapshot(this);
+		synchronized (document) {
+			return DOMSnapshot.of(document);
+		}
+	}
+
+	/**
+	 * Stand in for a page that could not be loaded (see {@link PageLoader})
+	 * with an empty document: rules extract only nulls from it.
+	 */
+	void loadEmptyDocument() {
+		this.doc = WebFetcher.getInstance().emptyDocument();
+	}
 	
 	/**
 	 * Get rid of the heavy {@linkplain org.w3c.dom.Document} representation
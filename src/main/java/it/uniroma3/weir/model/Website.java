@@ -7,6 +7,8 @@ import it.uniroma3.weir.cache.Fingerprinter;
 import it.uniroma3.weir.configuration.WeirConfig;
 import it.uniroma3.weir.linking.IdfRepository;
 import it.uniroma3.weir.linking.entity.Entity;
+import it.uniroma3.weir.vector.Vector;
+import it.uniroma3.weir.vector.column.StringDictionary;
 
 import java.io.ObjectStreamException;
 import java.io.Serializable;
@@ -42,6 +44,9 @@ public class Website extends WeirId implements Serializable, Fingerprinted {
 	
 	private List<Attribute> attributes;
 
+	/* strings of all the vectors from this site, see Column */
+	transient private StringDictionary dictionary;
+
 	/* This is the index of this page over the collection of all 
 	 * the sites from its domain. Transient because it depends on
 	 * how many other sites have been included in the domain.
@@ -67,6 +72,28 @@ public class Website extends WeirId implements Serializable, Fingerprinted {
 		return this.getId();
 	}
 
+	synchronized public StringDictionary getDictionary() {
+		if (this.dictionary==null)
+			this.dictionary = new StringDictionary();
+		return this.dictionary;
+	}
+
+	/**
+	 * Encode the vectors of the attributes of this site by a new
+	 * dictionary holding their strings only: the strings of all the
+	 * vectors discarded so far, e.g., by the filters, are released.
+	 */
+	synchronized public void compactDictionary() {
+		final StringDictionary compacted = new StringDictionary();
+		for(Attribute attribute : this.attributes) {
+			final Vector vector = attribute.getVector();
+			vector.recode(compacted);
+			if (vector.getOriginatingVector()!=null)
+				vector.getOriginatingVector().recode(compacted);
+		}
+		this.dictionary = compacted;
+	}
+
 	public Domain getDomain() {
 		return this.domain;
 	}
@@ -170,29 +197,31 @@ public class Website extends WeirId implements Serializable, Fingerprinted {
 		return null;
 	}
 	
+	/**
+	 * Load the working pages of this website, along with those of
+	 * the other sites of its domain the first time (see
+	 * {@link Domain#loadAllPages()})
+	 */
 	public void loadPages() {
+		if (this.getDomain()!=null)
+			this.getDomain().loadAllPages();
 		loadPages(this.getWorkingPages());
 	}
 
-	public void loadPages(Collection<Webpage> pages) {
+	/**
+	 * Load concurrently, by means of the {@link PageLoader} shared
+	 * by the whole domain, the pages not loaded yet: pages that cannot
+	 * be loaded are reported and taken as empty.
+	 * @param pages - the pages to load
+	 * @return the loading statistics
+	 */
+	public PageLoadingStatistics loadPages(Collection<Webpage> pages) {
 		if (this.loaded==null)
 			this.loaded = new LinkedHashSet<Webpage>();
-//		try {
-//			final ExecutorService pool = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
-			for (final Webpage p : pages) {
-//				pool.submit(new Runnable() {
-//					@Override
-//					public void run() {	
-						p.loadDocument();
-						this.loaded.add(p);
-//					}
-//				});
-			}
-//			pool.awaitTermination(10, TimeUnit.SECONDS);
-//			pool.shutdown();
-//		} catch (InterruptedException e) {
-//			throw new IllegalStateException(e);
-//		}
+		final PageLoadingStatistics stats = PageLoader.getInstance().load(pages);
+		this.loaded.addAll(pages);
+		PageLoader.report(this, stats);
+		return stats;
 	}
 	
 	public void releasePages() {
@@ -289,5 +318,20 @@ public class Website extends WeirId implements Serializable, Fingerprinted {
 		}
 		return printer.getFingerprint("site");
 	}
+
+	/**
+	 * @return the fingerprint of this site within its domain, for the
+	 *         results referring to the domain: unlike the site itself,
+	 *         they cannot be shared by the experiments over other domains
+	 */
+	public Fingerprint getFingerprintInDomain() {
+		final Fingerprinter printer = new Fingerprinter();
+		printer.fingerprint(this.getFingerprint());
+		if (this.getDomain()!=null) {
+			printer.fingerprint(this.getDomain().getName());
+			printer.fingerprint(this.getDomain().getDataset().getName());
+		}
+		return printer.getFingerprint("site");
+	}
 	
 }
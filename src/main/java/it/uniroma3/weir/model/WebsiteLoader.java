@@ -4,8 +4,12 @@ import static it.uniroma3.hlog.HypertextualLogger.getLogger;
 import static it.uniroma3.hlog.HypertextualUtils.linkTo;
 import static it.uniroma3.weir.configuration.Constants.SOFTID_FILTER;
 import static it.uniroma3.weir.configuration.Constants.MAX_PAGES_PER_SOURCE;
+import static it.uniroma3.weir.configuration.Constants.PAGE_PARSING_MEMORY_BUDGET;
+import static it.uniroma3.weir.configuration.Constants.PAGE_LOADING_THREADS;
+import static java.nio.charset.StandardCharsets.UTF_8;
 import it.uniroma3.hlog.HypertextualLogger;
 import it.uniroma3.weir.cache.CachedComputation;
+import it.uniroma3.weir.cache.Dependencies;
 import it.uniroma3.weir.cache.Fingerprint;
 import it.uniroma3.weir.cache.Fingerprinter;
 import it.uniroma3.weir.configuration.WeirConfig;
@@ -14,6 +18,7 @@ import java.io.File;
 import java.io.FileReader;
 import java.io.IOException;
 import java.io.Reader;
+import java.nio.file.Files;
 import java.util.Scanner;
 import java.util.regex.Pattern;
 
@@ -21,6 +26,10 @@ public class WebsiteLoader extends CachedComputation<String, Website> {
 
 	static final private HypertextualLogger log = getLogger();
 
+	static final public Dependencies DEPENDENCIES = 
+			new Dependencies("site").reads(MAX_PAGES_PER_SOURCE, SOFTID_FILTER)
+			                        .ignores(PAGE_LOADING_THREADS, PAGE_PARSING_MEMORY_BUDGET);
+
 	private final Experiment experiment;
 	
 	// max number of pages to load from each source
@@ -102,15 +111,24 @@ public class WebsiteLoader extends CachedComputation<String, Website> {
 		return softIdRegexp==null || this.softIdRegexp.matcher(softId).matches();
 	}
 
+	@Override
+	protected Dependencies getDependencies() {
+		return DEPENDENCIES;
+	}
+
+	/* the name and the index of pages of the site, rather than the
+	 * experiment loading it: the cached website is shared by all the
+	 * experiments over the same pages (see CacheOrganizer) */
 	@Override
 	public Fingerprint fingerprint(String sitename) {
 		final Fingerprinter printer = new Fingerprinter();
-		printer.fingerprint(this.experiment.getDataset().getName());
-		printer.fingerprint(this.experiment.getDomain().getName());
-		printer.fingerprint(this.experiment.getDomain().getName());
 		printer.fingerprint(sitename);
-		printer.fingerprint(Integer.toString(maxNumberOfPages));
-		printer.fingerprint(this.softIdRegexp);
+		final File pagesIndex = this.experiment.getWebsitePageIndex(sitename);
+		try {
+			printer.fingerprint(new String(Files.readAllBytes(pagesIndex.toPath()), UTF_8));
+		} catch (IOException e) {
+			throw new IllegalStateException("Cannot read the index of pages: "+pagesIndex, e);
+		}
 		return printer.getFingerprint("site");
 	}
 
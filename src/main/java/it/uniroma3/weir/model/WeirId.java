@@ -5,6 +5,8 @@ import it.uniroma3.id.IdGenerator;
 import it.uniroma3.id.Identifiable;
 
 import java.io.Serializable;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Objects;
 
 /**
@@ -16,12 +18,53 @@ public class WeirId implements Identifiable, Comparable<Identifiable>, Serializa
 	static final private long serialVersionUID = 5906549171892484171L;
 
 	private String id;
-	
+
+	/* the ids scope of the current thread, if any */
+	static final private ThreadLocal<Scope> scope = new ThreadLocal<>();
+
 	static final public String nextIdByClass(Class<?> cls) {
 		Objects.requireNonNull(cls);
-		return Integer.toString(IdGenerator.nextIdByClass(cls));
+		final Scope current = scope.get();
+		if (current!=null) return current.nextIdByClass(cls);
+		// N.B. the counters of IdGenerator are not thread-safe
+		synchronized (IdGenerator.class) {
+			return Integer.toString(IdGenerator.nextIdByClass(cls));
+		}
 	}
-	
+
+	/**
+	 * Number the ids next assigned by the current thread on their own,
+	 * e.g., <tt>prefix.1</tt>, <tt>prefix.2</tt>..., until {@link #closeScope()}:
+	 * they do not depend on the ids assigned by other threads meanwhile.
+	 * @param prefix - the prefix of the ids, unique among the scopes
+	 */
+	static public void openScope(String prefix) {
+		scope.set(new Scope(Objects.requireNonNull(prefix)));
+	}
+
+	static public void closeScope() {
+		scope.remove();
+	}
+
+	static final private class Scope {
+
+		final private String prefix;
+
+		final private Map<Class<?>, Integer> counters = new HashMap<>();
+
+		Scope(String prefix) {
+			this.prefix = prefix;
+		}
+
+		String nextIdByClass(Class<?> cls) {
+			final Integer last = this.counters.get(cls);
+			final int next = ( last!=null ? last+1 : 1 );
+			this.counters.put(cls, next);
+			return this.prefix+"."+next;
+		}
+
+	}
+
 	protected WeirId(String id) {
 		this.id = id;
 	}
@@ -58,7 +101,9 @@ public class WeirId implements Identifiable, Comparable<Identifiable>, Serializa
 	}
 
 	public void resetCounter() {
-		IdGenerator.resetCounterOfClass(this);
+		synchronized (IdGenerator.class) {
+			IdGenerator.resetCounterOfClass(this);
+		}
 	}
 	
 	@Override
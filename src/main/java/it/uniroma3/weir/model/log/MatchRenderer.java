@@ -12,7 +12,8 @@ import it.uniroma3.weir.linking.linkage.PageLinkageIterator;
 import it.uniroma3.weir.model.Attribute;
 import it.uniroma3.weir.model.Webpage;
 import it.uniroma3.weir.structures.Pair;
-import it.uniroma3.weir.vector.DistanceFunction;
+import it.uniroma3.weir.vector.distance.DistanceAccumulator;
+import it.uniroma3.weir.vector.distance.DistanceKernel;
 import it.uniroma3.weir.vector.NumericVector;
 import it.uniroma3.weir.vector.Vector;
 import it.uniroma3.weir.vector.type.NumberType;
@@ -44,7 +45,9 @@ public class MatchRenderer
 	private Attribute right;
 
 	/* just for numeric vectors */
-	private DistanceFunction distanceFunction;
+	private DistanceKernel distanceKernel;
+
+	private DistanceAccumulator accumulator;
 	
 	@Override
 	public Class<Match> getRenderedObjectClass() {
@@ -111,8 +114,9 @@ public class MatchRenderer
 				left.getVector().getType(), 
 				right.getVector().getType()
 		);
-		this.distanceFunction = this.type.createDistanceFunction();
-		this.distanceFunction.initFor(pairIt);
+		this.distanceKernel = this.type.getDistanceKernel();
+		this.accumulator = this.distanceKernel.newAccumulator(this.type, 
+				pairIt.getMinVector(), pairIt.getMaxVector());
 		return pairIt;
 	}
 	
@@ -165,7 +169,7 @@ public class MatchRenderer
 			return;
 		}
 			
-		final double distance = this.distanceFunction.distance(vL,vR);
+		final double distance = this.distanceKernel.distance(this.accumulator, vL, vR);
 		if (isNumeric(this.type)) {
 			final double weight = this.pairIt.getWeight();
 			final String tooltip = 
@@ -0,0 +1,398 @@
+package it.uniroma3.weir.model.snapshot;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import it.uniroma3.token.dom.node.DOMNode;
+import it.uniroma3.token.dom.node.DOMNodeFactory;
+import it.uniroma3.weir.structures.primitive.IntList;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.w3c.dom.Document;
+import org.w3c.dom.DocumentType;
+import org.w3c.dom.Element;
+import org.w3c.dom.NamedNodeMap;
+import org.w3c.dom.Node;
+
+/**
+ * A compact, read-only, binary snapshot of a preprocessed DOM tree
+ * (see {@link it.uniroma3.weir.model.Webpage}), to be written once
+ * per page and then read back, possibly memory-mapped, without
+ * parsing, tokenizing and annotating the HTML source again.
+ * <br/>
+ * The nodes are numbered in document order, the document being node
+ * <tt>0</tt>, and described by parallel arrays: their type, their
+ * name, the end of their subtree (the children of a node follow it,
+ * each one after the subtree of its previous sibling), their parent,
+ * their value, their XPath annotation (see
+ * {@link it.uniroma3.ecgm.loader.XPathAnnotator}), and the range of
+ * their attributes. All the strings are interned into a single table
+ * of offsets over a heap of UTF-8 bytes: e.g., the annotation shared
+ * by all the tokens of a PCDATA is saved only once.
+ * <br/>
+ * Only documents made of elements, texts and processing instructions
+ * (and a document type) can be snapshot, as they are once preprocessed:
+ * the name and the value of a processing instruction are its target
+ * and its data.
+ */
+public class DOMSnapshot {
+
+	static final private String XPATH_ROLE = "xpath";
+
+	static final private int NONE = -1;
+
+	/* node count, attribute count, string count, heap bytes, doctype (name, public, system) */
+	static final private int COUNTS = 7;
+
+	static final private int INT = 4;
+
+	final private ByteBuffer buffer;
+
+	final private int nodes;
+
+	final private int attributes;
+
+	final private int strings;
+
+	final private int heapBytes;
+
+	/* the offsets of the sections of the buffer */
+	final private int types, names, ends, parents, values, xpaths, attrStarts,
+					  attrNames, attrValues, stringStarts, heap;
+
+	/* the strings decoded so far, by id */
+	final private String[] decoded;
+
+	/**
+	 * @param buffer - a snapshot, from its current position on
+	 */
+	public DOMSnapshot(ByteBuffer buffer) {
+		this.buffer = buffer.slice();
+		if (this.buffer.limit()<COUNTS*INT)
+			throw new IllegalArgumentException("Not a DOM snapshot");
+		this.nodes = this.buffer.getInt(0);
+		this.attributes = this.buffer.getInt(INT);
+		this.strings = this.buffer.getInt(2*INT);
+		this.heapBytes = this.buffer.getInt(3*INT);
+		if (this.nodes<1 || this.attributes<0 || this.strings<0 || this.heapBytes<0)
+			throw new IllegalArgumentException("Not a DOM snapshot");
+		this.types = COUNTS*INT;
+		this.names = this.types + align(this.nodes);
+		this.ends = this.names + this.nodes*INT;
+		this.parents = this.ends + this.nodes*INT;
+		this.values = this.parents + this.nodes*INT;
+		this.xpaths = this.values + this.nodes*INT;
+		this.attrStarts = this.xpaths + this.nodes*INT;
+		this.attrNames = this.attrStarts + (this.nodes+1)*INT;
+		this.attrValues = this.attrNames + this.attributes*INT;
+		this.stringStarts = this.attrValues + this.attributes*INT;
+		this.heap = this.stringStarts + (this.strings+1)*INT;
+		if (this.heap+this.heapBytes>this.buffer.limit())
+			throw new IllegalArgumentException("Truncated DOM snapshot");
+		this.decoded = new String[this.strings];
+	}
+
+	static private int align(int bytes) {
+		return (bytes+INT-1)/INT*INT;
+	}
+
+	/**
+	 * @return the number of nodes, including the document
+	 */
+	public int size() {
+		return this.nodes;
+	}
+
+	/**
+	 * @return the number of bytes of this snapshot
+	 */
+	public int getByteSize() {
+		return this.heap + this.heapBytes;
+	}
+
+	/**
+	 * @return the type of a node, as in {@link Node#getNodeType()}
+	 */
+	public short getType(int node) {
+		return this.buffer.get(this.types+node);
+	}
+
+	public String getName(int node) {
+		return getString(this.buffer.getInt(this.names+node*INT));
+	}
+
+	public int getParent(int node) {
+		return this.buffer.getInt(this.parents+node*INT);
+	}
+
+	/**
+	 * @return the first node following the subtree of a node
+	 */
+	public int getEnd(int node) {
+		return this.buffer.getInt(this.ends+node*INT);
+	}
+
+	/**
+	 * @return the first child of a node, or -1 if none
+	 */
+	public int getFirstChild(int node) {
+		return ( node+1<getEnd(node) ? node+1 : NONE );
+	}
+
+	/**
+	 * @return the next sibling of a node, or -1 if none
+	 */
+	public int getNextSibling(int node) {
+		final int parent = getParent(node);
+		if (parent==NONE) return NONE;
+		final int next = getEnd(node);
+		return ( next<getEnd(parent) ? next : NONE );
+	}
+
+	/**
+	 * @return the value of a text or of a processing instruction, or null
+	 */
+	public String getValue(int node) {
+		return getString(this.buffer.getInt(this.values+node*INT));
+	}
+
+	/**
+	 * @return the XPath annotation of a node, or null
+	 */
+	public String getXPath(int node) {
+		return getString(this.buffer.getInt(this.xpaths+node*INT));
+	}
+
+	public int getAttributeCount(int node) {
+		return attrStart(node+1) - attrStart(node);
+	}
+
+	public String getAttributeName(int node, int index) {
+		return getString(this.buffer.getInt(this.attrNames+(attrStart(node)+index)*INT));
+	}
+
+	public String getAttributeValue(int node, int index) {
+		return getString(this.buffer.getInt(this.attrValues+(attrStart(node)+index)*INT));
+	}
+
+	/**
+	 * @return the value of an attribute of a node, or null if missing
+	 */
+	public String getAttribute(int node, String name) {
+		final int end = attrStart(node+1);
+		for(int i=attrStart(node); i<end; i++)
+			if (name.equals(getString(this.buffer.getInt(this.attrNames+i*INT))))
+				return getString(this.buffer.getInt(this.attrValues+i*INT));
+		return null;
+	}
+
+	private int attrStart(int node) {
+		return this.buffer.getInt(this.attrStarts+node*INT);
+	}
+
+	/**
+	 * @return an interned string, or null for id -1
+	 */
+	public String getString(int id) {
+		if (id==NONE) return null;
+		String result = this.decoded[id];
+		if (result==null) {
+			final int start = this.buffer.getInt(this.stringStarts+id*INT);
+			final int end = this.buffer.getInt(this.stringStarts+(id+1)*INT);
+			final byte[] bytes = new byte[end-start];
+			final ByteBuffer view = this.buffer.duplicate();
+			view.position(this.heap+start);
+			view.get(bytes);
+			result = new String(bytes, UTF_8);
+			this.decoded[id] = result;
+		}
+		return result;
+	}
+
+	/**
+	 * @return a new DOM tree equal to the snapshot one, but for
+	 *         the {@link it.uniroma3.token.dom.TagFactory} to set
+	 */
+	public DOMNodeFactory toDocument() {
+		final DOMNodeFactory document = new DOMNodeFactory();
+		final String doctype = getString(this.buffer.getInt(4*INT));
+		if (doctype!=null)
+			document.appendChild(document.createDocumentType(doctype,
+					getString(this.buffer.getInt(5*INT)), getString(this.buffer.getInt(6*INT))));
+		final Node[] created = new Node[this.nodes];
+		created[0] = document;
+		for(int node=1; node<this.nodes; node++) {
+			final Node result;
+			switch (getType(node)) {
+			case Node.ELEMENT_NODE:
+				final Element element = document.createElement(getName(node));
+				for(int i=0; i<getAttributeCount(node); i++)
+					element.setAttribute(getAttributeName(node, i), getAttributeValue(node, i));
+				result = element;
+				break;
+			case Node.TEXT_NODE:
+				result = document.createTextNode(getValue(node));
+				break;
+			case Node.PROCESSING_INSTRUCTION_NODE:
+				result = document.createProcessingInstruction(getName(node), getValue(node));
+				break;
+			default:
+				throw new IllegalStateException("Unknown type of node "+node+": "+getType(node));
+			}
+			created[getParent(node)].appendChild(result);
+			final String xpath = getXPath(node);
+			if (xpath!=null)
+				((DOMNode)result).asDOMToken().putAnnotation(XPATH_ROLE, xpath);
+			created[node] = result;
+		}
+		return document;
+	}
+
+	public void writeTo(OutputStream out) throws IOException {
+		final ByteBuffer view = this.buffer.duplicate();
+		view.position(0).limit(getByteSize());
+		Channels.newChannel(out).write(view);
+		out.flush();
+	}
+
+	/**
+	 * @param document - a preprocessed DOM tree
+	 * @return its snapshot
+	 * @throws IllegalArgumentException if the document has nodes
+	 *         other than elements, texts and processing instructions
+	 */
+	static public DOMSnapshot of(Document document) {
+		return new Builder(document).build();
+	}
+
+	static private class Builder {
+
+		final private IntList types = new IntList();
+		final private IntList names = new IntList();
+		final private IntList ends = new IntList();
+		final private IntList parents = new IntList();
+		final private IntList values = new IntList();
+		final private IntList xpaths = new IntList();
+		final private IntList attrStarts = new IntList();
+		final private IntList attrNames = new IntList();
+		final private IntList attrValues = new IntList();
+
+		final private Map<String, Integer> string2id = new HashMap<>();
+		final private IntList stringStarts = new IntList();
+		final private ByteArrayOutputStream heap = new ByteArrayOutputStream();
+
+		final private int[] doctype = { NONE, NONE, NONE };
+
+		Builder(Document document) {
+			for(Node child=document.getFirstChild(); child!=null; child=child.getNextSibling()) {
+				if (child.getNodeType()==Node.DOCUMENT_TYPE_NODE) {
+					final DocumentType type = (DocumentType)child;
+					this.doctype[0] = intern(type.getName());
+					this.doctype[1] = intern(type.getPublicId());
+					this.doctype[2] = intern(type.getSystemId());
+				}
+			}
+			add(document, NONE);
+			this.attrStarts.add(this.attrNames.size());
+			this.stringStarts.add(this.heap.size());
+		}
+
+		/* in document order */
+		private void add(Node node, int parent) {
+			final int id = this.types.size();
+			this.types.add(node.getNodeType());
+			this.parents.add(parent);
+			this.attrStarts.add(this.attrNames.size());
+			this.ends.add(NONE); // set below
+			switch (node.getNodeType()) {
+			case Node.DOCUMENT_NODE:
+				this.names.add(NONE);
+				this.values.add(NONE);
+				break;
+			case Node.ELEMENT_NODE:
+				this.names.add(intern(node.getNodeName()));
+				this.values.add(NONE);
+				final NamedNodeMap attributes = node.getAttributes();
+				for(int i=0; i<attributes.getLength(); i++) {
+					final Node attribute = attributes.item(i);
+					this.attrNames.add(intern(attribute.getNodeName()));
+					this.attrValues.add(intern(attribute.getNodeValue()));
+				}
+				break;
+			case Node.TEXT_NODE:
+				this.names.add(NONE);
+				this.values.add(intern(node.getNodeValue()));
+				break;
+			case Node.PROCESSING_INSTRUCTION_NODE:
+				this.names.add(intern(node.getNodeName()));
+				this.values.add(intern(node.getNodeValue()));
+				break;
+			default:
+				throw new IllegalArgumentException("Cannot snapshot a node of type "+node.getNodeType()+
+						": "+node.getNodeName());
+			}
+			this.xpaths.add(node instanceof DOMNode ? intern(xpath((DOMNode)node)) : NONE);
+			for(Node child=node.getFirstChild(); child!=null; child=child.getNextSibling())
+				if (child.getNodeType()!=Node.DOCUMENT_TYPE_NODE)
+					add(child, id);
+			this.ends.set(id, this.types.size());
+		}
+
+		static private String xpath(DOMNode node) {
+			final Object annotation = node.asDOMToken().getAnnotation(XPATH_ROLE);
+			return ( annotation!=null ? annotation.toString() : null );
+		}
+
+		private int intern(String s) {
+			if (s==null) return NONE;
+			Integer id = this.string2id.get(s);
+			if (id==null) {
+				id = this.string2id.size();
+				this.string2id.put(s, id);
+				this.stringStarts.add(this.heap.size());
+				final byte[] bytes = s.getBytes(UTF_8);
+				this.heap.write(bytes, 0, bytes.length);
+			}
+			return id;
+		}
+
+		DOMSnapshot build() {
+			final int nodes = this.types.size();
+			final int attributes = this.attrNames.size();
+			final int strings = this.string2id.size();
+			final byte[] heap = this.heap.toByteArray();
+			final int size = COUNTS*INT + align(nodes) + 5*nodes*INT + (nodes+1)*INT
+					+ 2*attributes*INT + (strings+1)*INT + heap.length;
+			final ByteBuffer buffer = ByteBuffer.allocate(size);
+			buffer.putInt(nodes).putInt(attributes).putInt(strings).putInt(heap.length);
+			buffer.putInt(this.doctype[0]).putInt(this.doctype[1]).putInt(this.doctype[2]);
+			for(int i=0; i<nodes; i++)
+				buffer.put((byte)this.types.get(i));
+			buffer.position(buffer.position()+align(nodes)-nodes);
+			put(buffer, this.names);
+			put(buffer, this.ends);
+			put(buffer, this.parents);
+			put(buffer, this.values);
+			put(buffer, this.xpaths);
+			put(buffer, this.attrStarts);
+			put(buffer, this.attrNames);
+			put(buffer, this.attrValues);
+			put(buffer, this.stringStarts);
+			buffer.put(heap);
+			buffer.flip();
+			return new DOMSnapshot(buffer);
+		}
+
+		static private void put(ByteBuffer buffer, IntList list) {
+			for(int i=0; i<list.size(); i++)
+				buffer.putInt(list.get(i));
+		}
+
+	}
+
+}
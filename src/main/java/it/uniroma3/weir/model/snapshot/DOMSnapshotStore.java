@@ -0,0 +1,201 @@
+package it.uniroma3.weir.model.snapshot;
+
+import static it.uniroma3.ecgm.Constants.USE_XPATH_ROLES;
+import static it.uniroma3.token.Constants.IGNORE_TAGS;
+import static it.uniroma3.token.Constants.IGNORE_TREES;
+import static it.uniroma3.token.Constants.MAX_PCDATA_LENGTH;
+import static it.uniroma3.token.Constants.SEPARATOR_CHARS;
+import static it.uniroma3.token.Constants.WHITESPACE_SEPARATOR;
+import static it.uniroma3.weir.configuration.Constants.CACHING_ENABLED;
+import it.uniroma3.hlog.HypertextualLogger;
+import it.uniroma3.token.dom.node.DOMNodeFactory;
+import it.uniroma3.weir.cache.Cache;
+import it.uniroma3.weir.cache.CacheManifest;
+import it.uniroma3.weir.cache.CacheOrganizer;
+import it.uniroma3.weir.cache.Dependencies;
+import it.uniroma3.weir.cache.Fingerprint;
+import it.uniroma3.weir.cache.Fingerprinter;
+import it.uniroma3.weir.cache.codec.CacheCodec;
+import it.uniroma3.weir.cache.codec.CacheCodecs;
+import it.uniroma3.weir.cache.codec.CacheHeader;
+import it.uniroma3.weir.cache.codec.StaleCacheEntryException;
+import it.uniroma3.weir.configuration.WeirConfig;
+import it.uniroma3.weir.metrics.Metrics;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+
+import org.w3c.dom.Document;
+
+/**
+ * The {@link DOMSnapshot}s of the preprocessed pages, saved among the
+ * cache files (see {@link CacheOrganizer}) and named after the
+ * {@link Fingerprint} of the source of the page and of the settings
+ * of the preprocessing: a page is parsed only the first time, then
+ * its snapshot is mapped into memory and its DOM tree rebuilt
+ * straight from it.
+ * <br/>
+ * The snapshots are enabled as the cached computations are, i.e., by
+ * {@link it.uniroma3.weir.configuration.Constants#CACHING_ENABLED} and
+ * by the switch <tt>it.uniroma3.weir.model.snapshot.DOMSnapshotStore.cache</tt>.
+ * <br/>
+ * The snapshots are recorded in the {@link CacheManifest}, which is
+ * saved by {@link #flush()}: they are evicted as the other cache files,
+ * and the store of a new snapshot can evict the others.
+ */
+public class DOMSnapshotStore {
+
+	static final private HypertextualLogger log = HypertextualLogger.getLogger();
+
+	static final public Dependencies DEPENDENCIES =
+			new Dependencies("dom").reads(SEPARATOR_CHARS, WHITESPACE_SEPARATOR, IGNORE_TAGS,
+										  IGNORE_TREES, MAX_PCDATA_LENGTH, USE_XPATH_ROLES);
+
+	static final private String PREFIX = "dom";
+
+	static final private String SWITCH_PROPERTY = DOMSnapshotStore.class.getName() + ".cache";
+
+	static public boolean isEnabled() {
+		return WeirConfig.getBoolean(CACHING_ENABLED) &&
+			   WeirConfig.getConfiguration().getBoolean(SWITCH_PROPERTY, false);
+	}
+
+	/**
+	 * Save the records of the snapshots written or read so far
+	 */
+	static public void flush() {
+		if (isEnabled())
+			Cache.flush();
+	}
+
+	final private CacheOrganizer organizer;
+
+	final private CacheCodec codec;
+
+	/* of the settings of the preprocessing */
+	final private Fingerprint settings;
+
+	public DOMSnapshotStore() {
+		this.organizer = new CacheOrganizer();
+		this.codec = CacheCodecs.DOM.getCodec();
+		this.settings = DEPENDENCIES.getFingerprint();
+	}
+
+	/**
+	 * @param source - the source of a page
+	 * @return the fingerprint of its snapshot
+	 */
+	public Fingerprint fingerprint(byte[] source) {
+		return new Fingerprinter().fingerprint(this.settings)
+								  .fingerprint(source)
+								  .getFingerprint(PREFIX);
+	}
+
+	/**
+	 * @return the DOM tree rebuilt from a snapshot, or null if missing
+	 */
+	public DOMNodeFactory load(Fingerprint fingerprint) {
+		final DOMSnapshot snapshot = loadSnapshot(fingerprint);
+		if (snapshot==null) return null;
+		try {
+			return snapshot.toDocument();
+		} catch (IllegalArgumentException | IllegalStateException | IndexOutOfBoundsException e) {
+			corrupted(e);
+			return null;
+		}
+	}
+
+	/**
+	 * @return a snapshot mapped into memory, or null if missing:
+	 *         only its layout is checked, not its nodes
+	 */
+	public DOMSnapshot loadSnapshot(Fingerprint fingerprint) {
+		final File file = this.organizer.getCacheDatafile(fingerprint);
+		if (!file.exists()) {
+			Metrics.counter("pages.snapshots.misses").increment();
+			return null;
+		}
+		try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+			/* n.b. the header is read unbuffered: the snapshot follows */
+			final CacheHeader header = CacheHeader.read(Channels.newInputStream(channel));
+			if (header.check(fingerprint)!=this.codec)
+				throw new StaleCacheEntryException("not a DOM snapshot");
+			final long start = channel.position();
+			/* n.b. the mapping outlives the channel */
+			final MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, start, channel.size()-start);
+			final DOMSnapshot result = new DOMSnapshot(mapped);
+			record(file, false);
+			Metrics.counter("pages.snapshots.hits").increment();
+			return result;
+		} catch (StaleCacheEntryException e) {
+			log.warn("stale DOM snapshot ignored: "+e.getMessage());
+			Metrics.counter("cache.stale").increment();
+		} catch (IOException | IllegalArgumentException e) {
+			corrupted(e);
+		}
+		return null;
+	}
+
+	static private void corrupted(Exception e) {
+		log.warn("corrupted DOM snapshot ignored: "+e);
+		Metrics.counter("pages.snapshots.corrupted").increment();
+	}
+
+	/**
+	 * Save the snapshot of a preprocessed DOM tree, unless it has nodes
+	 * that cannot be snapshot (see {@link DOMSnapshot#of(Document)}):
+	 * a snapshot that cannot be written is just not saved
+	 * @return the snapshot saved, or null if none
+	 */
+	public DOMSnapshot store(Fingerprint fingerprint, Document document) {
+		final DOMSnapshot snapshot;
+		try {
+			snapshot = DOMSnapshot.of(document);
+		} catch (IllegalArgumentException e) {
+			log.trace("no DOM snapshot: "+e.getMessage());
+			return null;
+		}
+		File tmp = null;
+		try {
+			final File toSave = this.organizer.getCacheDatafile(fingerprint);
+			tmp = File.createTempFile(toSave.getName(), ".tmp", toSave.getParentFile());
+			try (OutputStream out = new BufferedOutputStream(new FileOutputStream(tmp))) {
+				new CacheHeader(this.codec, false, fingerprint).write(out);
+				this.codec.encode(snapshot, out);
+			}
+			Cache.rename(tmp, toSave);
+			record(toSave, true);
+			Metrics.histogram("pages.snapshots.bytes").update(snapshot.getByteSize());
+			return snapshot;
+		} catch (IOException e) {
+			log.warn("DOM snapshot not saved: "+e);
+			Metrics.counter("pages.snapshots.failures").increment();
+			return null;
+		} finally {
+			if (tmp!=null) tmp.delete();
+		}
+	}
+
+	/* the current experiment uses the snapshot: a new one can evict the others */
+	private void record(File file, boolean created) {
+		final CacheManifest manifest = CacheManifest.of(CacheOrganizer.getCacheRoot());
+		final long now = System.currentTimeMillis();
+		if (created)
+			manifest.add(file, now);
+		else manifest.touch(file, now);
+		final String dataset = this.organizer.getDatasetName();
+		final String domain = this.organizer.getDomainName();
+		if (dataset!=null && domain!=null)
+			manifest.reference(file, dataset, domain);
+		if (created)
+			Cache.stored(manifest);
+	}
+
+}
@@ -1,13 +1,18 @@
 package it.uniroma3.weir.structures;
 
+import it.uniroma3.weir.structures.primitive.ElementIds;
+import it.uniroma3.weir.structures.primitive.TriangularArray;
+
 import java.io.Serializable;
-import java.lang.reflect.Array;
 import java.util.*;
 
 /**
- * A structure to set up, update, and access a set of <tt>N*(N-1)/2</tt>
+ * A structure to set up, update, and access a set of <tt>N*(N+1)/2</tt>
  * unordered {@link Pair}s indexed by two unordered integer indices 
  * ranging from <tt>0</tt> to <tt>N-1</tt>.
+ * <br/>
+ * The pairs are packed into a {@link TriangularArray}, addressed by
+ * the dense ids of the sorted elements (see {@link ElementIds}).
  * 
  * @param <P> the type of the pairs hosted in the repository
  * @param <T> the type of the elements in the pairs
@@ -18,54 +23,48 @@ public abstract class ArrayPairRepository<P extends Pair<T>,
 				extends AbstractPairRepository<P,T>
                 implements PairRepository<P,T>, Serializable {
 
-	static final private long serialVersionUID = 1610131165514444270L;
+	static final private long serialVersionUID = -4989485930356046946L;
 
-	final private P[][] repository;
+	final private TriangularArray<P> repository;
 	
-	final private int n; // index range: 0..n-1
+	final private ElementIds<T> ids; // index in this.elements
 
 	final private List<T> elements;
 
-	final private Map<T, Integer> element2index; // index in this.elements
-	
-	protected ArrayPairRepository(Collection<T> all, Class<? extends P> cls) {
-		this(all, cls, null);
+	protected ArrayPairRepository(Collection<T> all) {
+		this(all, null);
 	}
 	
 	protected ArrayPairRepository(Collection<T> all, 
-								  Class<? extends P> cls, 
 								  PairBuilder<? extends P,T> builder) {
-		this.n = all.size();
-		this.element2index = new HashMap<>();
-		if (n<1) 
+		if (all.size()<1) 
 			throw new IllegalArgumentException(
 					this.getClass() + " repository undersized:  n > 0"
 			);
 		this.elements = new ArrayList<>(all);
 		Collections.sort(this.elements); // sort comparable elements
-		this.repository = initArrays(cls, builder);
+		this.ids = new ElementIds<>();
+		for(T element : this.elements)
+			this.ids.idOf(element); // save its index
+		this.repository = initArray(builder);
 	}
 
-	@SuppressWarnings("unchecked")
-	private P[][] initArrays(Class<? extends P> cls, PairBuilder<? extends P, T> builder) {
-		// an array hosting n arrays...
-		final P[][] arrays = (P[][])Array.newInstance(cls, n, n);
-		for(int i=0; i<this.n; i++) {
-			arrays[i] = (P[]) Array.newInstance(cls, n);
-			final T a = this.elements.get(i);
-			for(int j=i; j<this.n; j++) {
-				// ...each hosting n references to pairs ...
-				final T b = this.elements.get(j);
-				arrays[i][j] = ( builder!=null ? builder.createPair(a, b) : null );
+	private TriangularArray<P> initArray(PairBuilder<? extends P, T> builder) {
+		final int n = this.elements.size();
+		final TriangularArray<P> array = new TriangularArray<>(n);
+		if (builder==null) return array;
+		for(int j=0; j<n; j++) {
+			final T b = this.elements.get(j);
+			for(int i=0; i<=j; i++) {
+				final T a = this.elements.get(i);
+				array.set(i, j, builder.createPair(a, b));
 			}
-			this.element2index.put(a,i); // save its index
 		}
-		/* waste n * ( n - 1 ) / 2 array elements to simplify the access */
-		return arrays;
+		return array;
 	}
 	
 	public List<T> getIndexedElements() {
-		return this.elements;
+		return Collections.unmodifiableList(this.elements);
 	}
 
 	/**
@@ -76,22 +75,23 @@ public abstract class ArrayPairRepository<P extends Pair<T>,
 	public int getIndex(T element) {
 		Objects.requireNonNull(element, "Cannot search null elements");
 		
-		final Integer index = this.element2index.get(element);
-		if (index==null)
+		final int index = this.ids.find(element);
+		if (index==ElementIds.NO_ID)
 			throw new NoSuchElementException(element.toString());
 		return index;
 	}
 	
+	/**
+	 * @return the number of (non-null) pairs in the repository
+	 */
 	@Override
-	public int size() { return this.n; }
+	public int size() { return this.repository.size(); }
 	
 	@Override
 	public P add(P p) {
 		final int i = getIndex(p.getMin());
 		final int j = getIndex(p.getMax());
-		final P result = this.repository[i][j];
-		this.repository[i][j]=p;
-		return result;
+		return this.repository.set(i, j, p);
 	}
 
 	@Override
@@ -104,33 +104,25 @@ public abstract class ArrayPairRepository<P extends Pair<T>,
 		return ( get(a,b)!=null );
 	}
 	
-	public P get(int _i, int _j) {
-		final int i = Math.min(_i, _j);
-		final int j = Math.max(_i, _j);
-		return this.repository[i][j];
+	public P get(int i, int j) {
+		return this.repository.get(i, j);
 	}
 
 	public boolean remove(P p) {
 		final int i = getIndex(p.getMin());
 		final int j = getIndex(p.getMax());
-		boolean result = ( this.repository[i][j] == null);
-		this.repository[i][j] = null;
-		return result;
+		return ( this.repository.set(i, j, null)!=null );
 	}
-	
-//	final private int getMinIndex(T a, T b) {
-//		return Math.min(getIndex(a), getIndex(b));
-//	}
-//
-//	final private int getMaxIndex(T a, T b) {
-//		return Math.max(getIndex(a), getIndex(b));
-//	}
 
 	@Override
 	public void forEach(PairProcessor<P,T> processor) {
-		for(int i=0; i<this.n; i++) {
-			for(int j=i; j<this.n; j++) {
-				processor.process(this.repository[i][j]);
+		/* row by row, as in the upper triangle of a matrix */
+		final int n = this.elements.size();
+		for(int i=0; i<n; i++) {
+			for(int j=i; j<n; j++) {
+				final P pair = this.repository.get(i, j);
+				if (pair!=null)
+					processor.process(pair);
 			}
 		}
 	}
@@ -1,5 +1,11 @@
 package it.uniroma3.weir.structures;
 
+import static it.uniroma3.weir.structures.primitive.ElementIds.NO_ID;
+import it.uniroma3.weir.structures.primitive.ElementIds;
+import it.uniroma3.weir.structures.primitive.IntList;
+import it.uniroma3.weir.structures.primitive.LongObjectHashMap;
+import it.uniroma3.weir.structures.primitive.PairKeys;
+
 import java.io.Serializable;
 import java.util.*;
 
@@ -7,8 +13,14 @@ import java.util.*;
  * A data structure to set up, update, and access a set of 
  * <em>unordered</em> {@link Pair}s indexed by two
  * {@link Comparable} elements in the pairs.
+ * <br/>
+ * The elements are given dense ids (see {@link ElementIds}), and the
+ * pairs are hashed by the primitive keys of their ids (see
+ * {@link PairKeys}), in order of insertion; the ids of the mates of every
+ * element are also kept, to find the pairs of an element in time
+ * linear in their number.
  * 
- * @param <P> the type of the pairs hosted in the min2pairs
+ * @param <P> the type of the pairs hosted in the repository
  * @param <T> the type of the elements in the pairs
  */
 public class MapPairRepository<P extends Pair<T>, 
@@ -16,24 +28,24 @@ public class MapPairRepository<P extends Pair<T>,
 			 extends AbstractPairRepository<P,T>
              implements PairRepository<P,T>, Serializable {
 
-	static final private long serialVersionUID = -5380575322388969906L;
+	static final private long serialVersionUID = -3436750514398405696L;
 	
-	private Map<T,Map<T,P>> min2pairs; 
+	final private ElementIds<T> ids;
+
+	final private LongObjectHashMap<P> pairs; // by pair key
+
+	final private List<IntList> mates; // by element id
 
 	private PairBuilder<P,T> builder;
 	
 	public MapPairRepository(PairBuilder<P,T> builder) {
-		this(new HashMap<T,Map<T,P>>(),builder);
-	}
-	
-	/* MGC */
-	protected MapPairRepository(Map<T,Map<T,P>> min2pairs, PairBuilder<P,T> builder) {
-		this.min2pairs = min2pairs;	
+		this.ids = new ElementIds<>();
+		this.pairs = new LongObjectHashMap<>();
+		this.mates = new ArrayList<>();
 		this.builder = builder;
 	}
 
-	/* make it public for every type of repository or delete this method: CHECK */
-	protected PairBuilder<P,T> getPairBuilder() {
+	public PairBuilder<P,T> getPairBuilder() {
 		return this.builder;
 	}
 	
@@ -61,6 +73,21 @@ public class MapPairRepository<P extends Pair<T>,
 		return this;
 	}
 	
+	/**
+	 * Populate the repository with the pairs built out of a given
+	 * collection of candidate pairs, e.g., as selected by a blocking
+	 * step rather than by a whole Cartesian product.
+	 * @param candidates the candidate pairs of elements
+	 */
+	public MapPairRepository<P,T> addCandidatePairs(Collection<? extends Pair<T>> candidates) {
+		for(Pair<T> candidate : candidates) {
+			final P pair = getPairBuilder().createPair(candidate.getMin(), candidate.getMax());
+			if (pair!=null)
+				this.add(pair);
+		}
+		return this;
+	}
+	
 	public MapPairRepository<P,T> addReflexiveCartesianProduct(Collection<T> all1, 
 			   												   Collection<T> all2) {
 		this.addAll(getPairBuilder().createPairs(all1,all2));
@@ -78,23 +105,15 @@ public class MapPairRepository<P extends Pair<T>,
 	
 	@Override
 	public int size() {
-		int result = 0;
-		for(Map<T,P> map : this.min2pairs.values())
-			result += map.size();
-		return result;
+		return this.pairs.size();
 	}
 
 	@Override
 	public P get(T a, T b) {
-		
-		if (a.compareTo(b)>0) {
-			/* swap if min>max */
-			T tmp = b;
-			b = a;
-			a = tmp;
-		}
-		
-		return getPair(a,b);
+		final int i = this.ids.find(a);
+		final int j = this.ids.find(b);
+		if (i==NO_ID || j==NO_ID) return null;
+		return this.pairs.get(PairKeys.key(i, j));
 	}
 	
 	@Override
@@ -102,45 +121,34 @@ public class MapPairRepository<P extends Pair<T>,
 		return ( get(a,b)!=null );
 	}
 	
-	private P getPair(T min, T max) {
-		Map<T, P> max2pair = this.min2pairs.get(min);
-		if (max2pair==null) return null;
-		return max2pair.get(max);		
-	}
-	
 	@Override
 	public P add(P pair) {
-		T min = pair.getMin();
-		T max = pair.getMax();
-		
-		Map<T, P> max2pair = this.min2pairs.get(min);
-		
-		if (max2pair==null) {
-			max2pair = createInnerMap();
-			this.min2pairs.put(min, max2pair);
+		final int i = idOf(pair.getMin());
+		final int j = idOf(pair.getMax());
+		final P result = this.pairs.put(PairKeys.key(i, j), pair);
+		if (result==null) {
+			this.mates.get(i).add(j);
+			if (i!=j) this.mates.get(j).add(i);
 		}
-		
-		return max2pair.put(max,pair);
+		return result;
 	}
 
-	protected Map<T, P> createInnerMap() {
-		return new HashMap<T, P>();	
+	private int idOf(T element) {
+		final int id = this.ids.idOf(element);
+		if (id==this.mates.size())
+			this.mates.add(new IntList());
+		return id;
 	}
 
+	@Override
 	public boolean remove(P pair) {
-		final T min = pair.getMin();
-		final T max = pair.getMax();
-		
-		final Map<T, P> max2pair = this.min2pairs.get(min);
-		
-		if (max2pair!=null) {
-			max2pair.remove(max);
-			if (max2pair.isEmpty())
-				this.min2pairs.remove(min);
-			return true;
-		}
-		
-		return false;
+		final int i = this.ids.find(pair.getMin());
+		final int j = this.ids.find(pair.getMax());
+		if (i==NO_ID || j==NO_ID) return false;
+		if (this.pairs.remove(PairKeys.key(i, j))==null) return false;
+		this.mates.get(i).removeValue(j);
+		if (i!=j) this.mates.get(j).removeValue(i);
+		return true;
 	}
 
 	/**
@@ -158,35 +166,25 @@ public class MapPairRepository<P extends Pair<T>,
 	 * @return the set of pairs containing the element
 	 */
 	public Set<P> getPairs(T a) {
-		final Set<P> result = new HashSet<>();
-		result.addAll(getPairsByMin(a));
-		result.addAll(getPairsByMax(a));
+		final int i = this.ids.find(a);
+		if (i==NO_ID) return new HashSet<>();
+		final IntList mates = this.mates.get(i);
+		final Set<P> result = new HashSet<>(mates.size()*2);
+		for(int m=0; m<mates.size(); m++)
+			result.add(this.pairs.get(PairKeys.key(i, mates.get(m))));
 		return result;
 	}
 
 	public Set<T> getMates(T a) {
-		final Set<T> mates = new HashSet<>();
-		for(P pair : getPairs(a)) {
-			mates.add(pair.getMate(a));
-		}
-		return mates;
-	}
-
-	private Set<P> getPairsByMin(T min) {
-		if (this.min2pairs.containsKey(min))
-			 return new HashSet<>(this.min2pairs.get(min).values());
-		return Collections.emptySet();
-	}
-
-	private Set<P> getPairsByMax(T max) {
-		Set<P> result = new HashSet<>();
-		for(Map<T,P> max2pairs : this.min2pairs.values()) {
-			if (max2pairs.containsKey(max))
-				 result.add(max2pairs.get(max));
-		}
+		final int i = this.ids.find(a);
+		if (i==NO_ID) return new HashSet<>();
+		final IntList mates = this.mates.get(i);
+		final Set<T> result = new HashSet<>(mates.size()*2);
+		for(int m=0; m<mates.size(); m++)
+			result.add(this.ids.get(mates.get(m)));
 		return result;
 	}
-	
+
 	public Set<P> getPairs(Collection<? extends T> c) {
 		final Set<P> result = new HashSet<>();
 		for(T a : c)
@@ -204,9 +202,11 @@ public class MapPairRepository<P extends Pair<T>,
 
 	@Override
 	public void forEach(PairProcessor<P, T> processor) {
-		for(Map<T, P> max2pair : this.min2pairs.values())
-			for(P pair : max2pair.values())
+		for(int slot=0; slot<this.pairs.slots(); slot++) {
+			final P pair = this.pairs.valueAt(slot);
+			if (pair!=null)
 				processor.process(pair);
+		}
 	}
 
 }
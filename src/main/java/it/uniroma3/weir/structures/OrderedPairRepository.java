@@ -0,0 +1,146 @@
+package it.uniroma3.weir.structures;
+
+import it.uniroma3.weir.structures.primitive.WeightColumn;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * A {@link MapPairRepository} whose pairs are ordered according to their
+ * natural ordering, with ties kept in the order of {@link #getAll()}, as
+ * a stable sort of all the pairs would do.
+ * <br/>
+ * Every pair has a primitive <em>key</em> (see {@link #key(Pair)}),
+ * collected into a {@link WeightColumn} and compared first, so that
+ * {@link Comparable#compareTo(Object)} is invoked only for pairs with the
+ * same key. The best <tt>k</tt> pairs are selected by means of a bounded
+ * heap, in <tt>O(n log k)</tt> time.
+ * <br/>
+ * The sorted view (see {@link #order()}) is cached until the next change
+ * of the repository: since the pairs may change their ordering in place
+ * (e.g., the usage of a page linkage), a cached view is checked, in
+ * linear time, before being reused (and a pair changed in place might
+ * keep its previous position wrt the pairs equal to it).
+ *
+ * @param <P> the type of the pairs
+ * @param <T> the type of the elements in the pairs
+ */
+public abstract class OrderedPairRepository<P extends Pair<T> & Comparable<? super P>,
+                                            T extends Comparable<? super T>>
+			 extends MapPairRepository<P,T> {
+
+	static final private long serialVersionUID = -1650296580327453027L;
+
+	transient
+	private List<P> ordered; // cached sorted view, null if not available
+
+	public OrderedPairRepository(PairBuilder<P,T> builder) {
+		super(builder);
+		this.ordered = null;
+	}
+
+	/**
+	 * @return a key of the pair consistent with its natural ordering,
+	 *         i.e., pairs with a smaller key come first
+	 */
+	protected abstract double key(P pair);
+
+	@Override
+	public P add(P pair) {
+		this.ordered = null;
+		return super.add(pair);
+	}
+
+	@Override
+	public boolean remove(P pair) {
+		this.ordered = null;
+		return super.remove(pair);
+	}
+
+	/**
+	 * @return an unmodifiable list of all the pairs, in order
+	 */
+	public List<P> order() {
+		if (this.ordered==null || !isOrdered(this.ordered))
+			this.ordered = sort();
+		return Collections.unmodifiableList(this.ordered);
+	}
+
+	/**
+	 * @param k - the number of pairs to select
+	 * @return the first <tt>k</tt> pairs, in order (all of them if they
+	 *         are not more than <tt>k</tt>)
+	 */
+	public List<P> first(int k) {
+		if (k<0) throw new IllegalArgumentException("Cannot select "+k+" pairs");
+		if (this.ordered!=null && isOrdered(this.ordered))
+			return new ArrayList<>(this.ordered.subList(0, Math.min(k, this.ordered.size())));
+
+		final WeightColumn<P> column = column();
+		return pairsOf(column, column.first(k));
+	}
+
+	/**
+	 * @return the first pair in order
+	 * @throws NoSuchElementException if the repository is empty
+	 */
+	public P min() {
+		return select(true);
+	}
+
+	/**
+	 * @return the last pair in order
+	 * @throws NoSuchElementException if the repository is empty
+	 */
+	public P max() {
+		return select(false);
+	}
+
+	private P select(boolean first) {
+		if (this.ordered!=null && isOrdered(this.ordered)) {
+			if (this.ordered.isEmpty()) throw new NoSuchElementException();
+			return this.ordered.get(first ? 0 : this.ordered.size()-1);
+		}
+		final WeightColumn<P> column = column();
+		return column.get(first ? column.min() : column.max());
+	}
+
+	private List<P> sort() {
+		final WeightColumn<P> column = column();
+		return pairsOf(column, column.order());
+	}
+
+	private WeightColumn<P> column() {
+		final Object[] pairs = this.getAll().toArray();
+		final double[] keys = new double[pairs.length];
+		for(int i=0; i<pairs.length; i++) {
+			@SuppressWarnings("unchecked")
+			final P pair = (P) pairs[i];
+			keys[i] = key(pair);
+		}
+		return new WeightColumn<>(pairs, keys, new Comparator<P>() {
+			@Override
+			public int compare(P p1, P p2) {
+				return p1.compareTo(p2);
+			}
+		});
+	}
+
+	private List<P> pairsOf(WeightColumn<P> column, int[] positions) {
+		final List<P> result = new ArrayList<>(positions.length);
+		for(int position : positions)
+			result.add(column.get(position));
+		return result;
+	}
+
+	private boolean isOrdered(List<P> pairs) {
+		for(int i=1; i<pairs.size(); i++)
+			if (pairs.get(i-1).compareTo(pairs.get(i))>0)
+				return false;
+		return true;
+	}
+
+}
@@ -0,0 +1,61 @@
+package it.uniroma3.weir.structures.primitive;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Dense integer ids, from <tt>0</tt> on, for the elements of the pairs:
+ * the ids are assigned in order of registration and never reused.
+ *
+ * @param <T> the type of the elements
+ */
+public class ElementIds<T> implements Serializable {
+
+	static final private long serialVersionUID = 2618370441928873093L;
+
+	static final public int NO_ID = -1;
+
+	final private Map<T, Integer> element2id;
+
+	final private List<T> elements;
+
+	public ElementIds() {
+		this.element2id = new HashMap<>();
+		this.elements = new ArrayList<>();
+	}
+
+	/**
+	 * @return the id of an element, after registering it if needed
+	 */
+	public int idOf(T element) {
+		final Integer id = this.element2id.get(element);
+		if (id!=null) return id;
+		final int result = this.elements.size();
+		this.element2id.put(element, result);
+		this.elements.add(element);
+		return result;
+	}
+
+	/**
+	 * @return the id of an element, or {@link #NO_ID} if not registered
+	 */
+	public int find(T element) {
+		final Integer id = this.element2id.get(element);
+		return ( id!=null ? id : NO_ID );
+	}
+
+	public T get(int id) {
+		return this.elements.get(id);
+	}
+
+	/**
+	 * @return the number of registered elements
+	 */
+	public int size() {
+		return this.elements.size();
+	}
+
+}
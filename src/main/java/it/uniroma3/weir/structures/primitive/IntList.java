@@ -0,0 +1,75 @@
+package it.uniroma3.weir.structures.primitive;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ * A growable list of primitive <tt>int</tt>s, e.g., the ids of the
+ * mates of an element (see {@link ElementIds}), without boxing.
+ */
+public class IntList implements Serializable {
+
+	static final private long serialVersionUID = -6043516729541800452L;
+
+	static final private int[] EMPTY = new int[0];
+
+	private int[] values;
+
+	private int size;
+
+	public IntList() {
+		this.values = EMPTY;
+		this.size = 0;
+	}
+
+	public int size() {
+		return this.size;
+	}
+
+	public boolean isEmpty() {
+		return ( this.size==0 );
+	}
+
+	public int get(int index) {
+		if (index<0 || index>=this.size)
+			throw new IndexOutOfBoundsException(index+" out of 0.."+(this.size-1));
+		return this.values[index];
+	}
+
+	public void set(int index, int value) {
+		if (index<0 || index>=this.size)
+			throw new IndexOutOfBoundsException(index+" out of 0.."+(this.size-1));
+		this.values[index] = value;
+	}
+
+	public void add(int value) {
+		if (this.size==this.values.length)
+			this.values = Arrays.copyOf(this.values, Math.max(4, this.size*2));
+		this.values[this.size++] = value;
+	}
+
+	/**
+	 * Remove an occurrence of a value, by moving the last value
+	 * in its place: the order of the values is not preserved.
+	 * @return true iff the value was found
+	 */
+	public boolean removeValue(int value) {
+		for(int i=0; i<this.size; i++) {
+			if (this.values[i]==value) {
+				this.values[i] = this.values[--this.size];
+				return true;
+			}
+		}
+		return false;
+	}
+
+	public int[] toArray() {
+		return Arrays.copyOf(this.values, this.size);
+	}
+
+	@Override
+	public String toString() {
+		return Arrays.toString(toArray());
+	}
+
+}
@@ -0,0 +1,207 @@
+package it.uniroma3.weir.structures.primitive;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+/**
+ * A map from primitive <tt>long</tt> keys (e.g., the pair keys of
+ * {@link PairKeys}) to non-null values, by open addressing with linear
+ * probing, without boxing the keys.
+ * <br/>
+ * The entries are stored, in order of insertion, in a pair of parallel
+ * arrays of <em>slots</em>: the hash table only hosts the positions of the
+ * slots. A removed entry leaves an empty slot, i.e., a slot with a
+ * <tt>null</tt> value, until the slots are compacted.
+ *
+ * @param <V> the type of the values
+ */
+public class LongObjectHashMap<V> implements Serializable {
+
+	static final private long serialVersionUID = 4390731120518394126L;
+
+	static final private int MIN_CAPACITY = 8;
+
+	private long[] keys;     // by slot
+
+	private Object[] values; // by slot, null if removed
+
+	private int slots;       // slots in use, removed ones included
+
+	private int size;        // live entries
+
+	private int[] table;     // slot+1 by hash position, 0 if free
+
+	public LongObjectHashMap() {
+		this(MIN_CAPACITY);
+	}
+
+	public LongObjectHashMap(int expected) {
+		final int capacity = Math.max(MIN_CAPACITY, expected);
+		this.keys = new long[capacity];
+		this.values = new Object[capacity];
+		this.slots = 0;
+		this.size = 0;
+		this.table = new int[tableSize(capacity)];
+	}
+
+	public int size() {
+		return this.size;
+	}
+
+	public boolean isEmpty() {
+		return ( this.size==0 );
+	}
+
+	public boolean containsKey(long key) {
+		return ( position(key)>=0 );
+	}
+
+	@SuppressWarnings("unchecked")
+	public V get(long key) {
+		final int position = position(key);
+		return ( position>=0 ? (V) this.values[this.table[position]-1] : null );
+	}
+
+	/**
+	 * @return the previous value of the key, if any
+	 */
+	@SuppressWarnings("unchecked")
+	public V put(long key, V value) {
+		Objects.requireNonNull(value, "Cannot map null values");
+		final int position = position(key);
+		if (position>=0) {
+			final int slot = this.table[position]-1;
+			final V previous = (V) this.values[slot];
+			this.values[slot] = value;
+			return previous;
+		}
+		if (this.slots==this.keys.length)
+			resize();
+		final int slot = this.slots++;
+		this.keys[slot] = key;
+		this.values[slot] = value;
+		this.table[free(key)] = slot+1;
+		this.size++;
+		return null;
+	}
+
+	/**
+	 * @return the removed value of the key, if any
+	 */
+	@SuppressWarnings("unchecked")
+	public V remove(long key) {
+		final int position = position(key);
+		if (position<0) return null;
+		final int slot = this.table[position]-1;
+		final V previous = (V) this.values[slot];
+		this.values[slot] = null;
+		this.size--;
+		delete(position);
+		return previous;
+	}
+
+	/**
+	 * @return the number of slots to scan for all the entries,
+	 *         by means of {@link #keyAt(int)} and {@link #valueAt(int)}
+	 */
+	public int slots() {
+		return this.slots;
+	}
+
+	public long keyAt(int slot) {
+		return this.keys[slot];
+	}
+
+	/**
+	 * @return the value in a slot, or <tt>null</tt> if removed
+	 */
+	@SuppressWarnings("unchecked")
+	public V valueAt(int slot) {
+		return (V) this.values[slot];
+	}
+
+	/* hash position of the key, or -1 if absent */
+	private int position(long key) {
+		final int mask = this.table.length-1;
+		int position = hash(key) & mask;
+		while (this.table[position]!=0) {
+			if (this.keys[this.table[position]-1]==key)
+				return position;
+			position = (position+1) & mask;
+		}
+		return -1;
+	}
+
+	/* first free hash position for an absent key */
+	private int free(long key) {
+		final int mask = this.table.length-1;
+		int position = hash(key) & mask;
+		while (this.table[position]!=0)
+			position = (position+1) & mask;
+		return position;
+	}
+
+	/* backward-shift deletion: no tombstones in the table */
+	private void delete(int position) {
+		final int mask = this.table.length-1;
+		int free = position;
+		this.table[free] = 0;
+		int next = free;
+		while (true) {
+			next = (next+1) & mask;
+			if (this.table[next]==0) return;
+			final int home = hash(this.keys[this.table[next]-1]) & mask;
+			/* leave the entry if its home is cyclically in (free, next] */
+			final boolean stays = ( free<=next ? free<home && home<=next
+					                           : free<home || home<=next );
+			if (!stays) {
+				this.table[free] = this.table[next];
+				this.table[next] = 0;
+				free = next;
+			}
+		}
+	}
+
+	/* compact the removed slots away, and grow if still full */
+	private void resize() {
+		final int capacity = ( this.size*2>this.keys.length ? this.keys.length*2 : this.keys.length );
+		final long[] keys = new long[capacity];
+		final Object[] values = new Object[capacity];
+		int slot = 0;
+		for(int i=0; i<this.slots; i++) {
+			if (this.values[i]!=null) {
+				keys[slot] = this.keys[i];
+				values[slot] = this.values[i];
+				slot++;
+			}
+		}
+		this.keys = keys;
+		this.values = values;
+		this.slots = slot;
+		this.table = new int[tableSize(capacity)];
+		for(int i=0; i<this.slots; i++)
+			this.table[free(this.keys[i])] = i+1;
+	}
+
+	@Override
+	public String toString() {
+		final StringBuilder result = new StringBuilder("{");
+		for(int i=0; i<this.slots; i++) {
+			if (this.values[i]==null) continue;
+			if (result.length()>1) result.append(", ");
+			result.append(this.keys[i]).append('=').append(this.values[i]);
+		}
+		return result.append('}').toString();
+	}
+
+	/* a power of two, at least twice the capacity */
+	static private int tableSize(int capacity) {
+		return Integer.highestOneBit(Math.max(MIN_CAPACITY, capacity)*2-1)*2;
+	}
+
+	static private int hash(long key) {
+		final long h = key * 0x9E3779B97F4A7C15L;
+		return (int)(h ^ (h>>>32));
+	}
+
+}
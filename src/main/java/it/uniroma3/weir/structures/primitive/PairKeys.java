@@ -0,0 +1,55 @@
+package it.uniroma3.weir.structures.primitive;
+
+/**
+ * Addressing of the <em>unordered</em> pairs of dense element ids
+ * (see {@link ElementIds}).
+ */
+public class PairKeys {
+
+	static final private long LOW_BITS = 0xFFFFFFFFL;
+
+	private PairKeys() { }
+
+	/**
+	 * @return a key of the unordered pair <tt>{i,j}</tt>, with the
+	 *         smaller id in the high bits
+	 */
+	static public long key(int i, int j) {
+		final int min = Math.min(i, j);
+		final int max = Math.max(i, j);
+		return ((long)min<<32) | (max & LOW_BITS);
+	}
+
+	/**
+	 * @return the smaller id of a pair key
+	 */
+	static public int min(long key) {
+		return (int)(key>>>32);
+	}
+
+	/**
+	 * @return the greater id of a pair key
+	 */
+	static public int max(long key) {
+		return (int)(key & LOW_BITS);
+	}
+
+	/**
+	 * @return the position of the unordered pair <tt>{i,j}</tt> in
+	 *         a packed upper triangular array, diagonal included
+	 */
+	static public int triangularIndex(int i, int j) {
+		final int min = Math.min(i, j);
+		final int max = Math.max(i, j);
+		return max*(max+1)/2 + min;
+	}
+
+	/**
+	 * @return the size of a packed upper triangular array over
+	 *         <tt>n</tt> ids, diagonal included
+	 */
+	static public int triangularSize(int n) {
+		return n*(n+1)/2;
+	}
+
+}
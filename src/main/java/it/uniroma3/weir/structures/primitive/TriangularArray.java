@@ -0,0 +1,86 @@
+package it.uniroma3.weir.structures.primitive;
+
+import static it.uniroma3.weir.structures.primitive.PairKeys.triangularIndex;
+import static it.uniroma3.weir.structures.primitive.PairKeys.triangularSize;
+
+import java.io.Serializable;
+
+/**
+ * A symmetric relation over <tt>n</tt> dense ids (see {@link ElementIds})
+ * packed into a single array of its <tt>n*(n+1)/2</tt> unordered pairs,
+ * diagonal included.
+ *
+ * @param <E> the type of the values of the pairs
+ */
+public class TriangularArray<E> implements Serializable {
+
+	static final private long serialVersionUID = -3514519466281830921L;
+
+	final private int n;
+
+	final private Object[] cells;
+
+	private int count; // non-null cells
+
+	public TriangularArray(int n) {
+		if (n<0) throw new IllegalArgumentException("Negative size: "+n);
+		this.n = n;
+		this.cells = new Object[triangularSize(n)];
+		this.count = 0;
+	}
+
+	/**
+	 * @return the number of ids
+	 */
+	public int getRange() {
+		return this.n;
+	}
+
+	/**
+	 * @return the number of non-null values
+	 */
+	public int size() {
+		return this.count;
+	}
+
+	@SuppressWarnings("unchecked")
+	public E get(int i, int j) {
+		return (E) this.cells[index(i, j)];
+	}
+
+	/**
+	 * @return the previous value of the pair, if any
+	 */
+	@SuppressWarnings("unchecked")
+	public E set(int i, int j, E value) {
+		final int index = index(i, j);
+		final E previous = (E) this.cells[index];
+		this.cells[index] = value;
+		if (previous==null && value!=null) this.count++;
+		if (previous!=null && value==null) this.count--;
+		return previous;
+	}
+
+	/**
+	 * @return the value at a position in the packed array, i.e.,
+	 *         from <tt>0</tt> to <tt>n*(n+1)/2-1</tt>
+	 */
+	@SuppressWarnings("unchecked")
+	public E getAt(int index) {
+		return (E) this.cells[index];
+	}
+
+	/**
+	 * @return the number of positions in the packed array
+	 */
+	public int length() {
+		return this.cells.length;
+	}
+
+	private int index(int i, int j) {
+		if (i<0 || j<0 || i>=this.n || j>=this.n)
+			throw new IndexOutOfBoundsException("("+i+","+j+") out of 0.."+(this.n-1));
+		return triangularIndex(i, j);
+	}
+
+}
@@ -0,0 +1,175 @@
+package it.uniroma3.weir.structures.primitive;
+
+import java.util.Comparator;
+import java.util.NoSuchElementException;
+
+/**
+ * A column of primitive <tt>double</tt> weights, one for each position
+ * of a list of elements, to order the positions by weight (smaller
+ * weights first) without boxing the weights and without comparing the
+ * elements but to break ties.
+ * <br/>
+ * The order is <em>stable</em>: positions with the same weight and
+ * equal elements keep their relative order.
+ *
+ * @param <E> the type of the weighted elements
+ */
+public class WeightColumn<E> {
+
+	final private Object[] elements;
+
+	final private double[] weights;
+
+	final private Comparator<? super E> ties;
+
+	/**
+	 * @param elements - the weighted elements
+	 * @param weights - the weights of the elements, by position
+	 * @param ties - the order of the elements with the same weight
+	 */
+	public WeightColumn(Object[] elements, double[] weights, Comparator<? super E> ties) {
+		if (elements.length!=weights.length)
+			throw new IllegalArgumentException(elements.length+" elements but "+weights.length+" weights");
+		this.elements = elements;
+		this.weights = weights;
+		this.ties = ties;
+	}
+
+	public int size() {
+		return this.weights.length;
+	}
+
+	@SuppressWarnings("unchecked")
+	public E get(int position) {
+		return (E) this.elements[position];
+	}
+
+	public double weight(int position) {
+		return this.weights[position];
+	}
+
+	/**
+	 * @return all the positions, in order, by means of a merge sort
+	 */
+	public int[] order() {
+		final int n = size();
+		int[] from = new int[n];
+		for(int i=0; i<n; i++) from[i] = i;
+		int[] to = new int[n];
+		for(int width=1; width<n; width*=2) {
+			for(int lo=0; lo<n; lo+=2*width) {
+				final int mid = Math.min(lo+width, n);
+				final int hi = Math.min(lo+2*width, n);
+				int i = lo, j = mid, k = lo;
+				while (i<mid && j<hi)
+					to[k++] = ( compare(from[j], from[i])<0 ? from[j++] : from[i++] );
+				while (i<mid) to[k++] = from[i++];
+				while (j<hi)  to[k++] = from[j++];
+			}
+			final int[] tmp = from;
+			from = to;
+			to = tmp;
+		}
+		return from;
+	}
+
+	/**
+	 * @param k - the number of positions to select
+	 * @return the first <tt>k</tt> positions, in order (all of them if
+	 *         they are not more than <tt>k</tt>), by means of a bounded
+	 *         heap in <tt>O(n log k)</tt> time
+	 */
+	public int[] first(int k) {
+		if (k<0) throw new IllegalArgumentException("Cannot select "+k+" positions");
+		final int n = size();
+		final int m = Math.min(k, n);
+		/* a max-heap of the best m positions found so far */
+		final int[] heap = new int[m];
+		int size = 0;
+		for(int p=0; p<n && m>0; p++) {
+			if (size<m) {
+				heap[size] = p;
+				siftUp(heap, size++);
+			}
+			else if (compare(p, heap[0])<0) {
+				heap[0] = p;
+				siftDown(heap, size);
+			}
+		}
+		/* pop the heap from the back: the worst position goes last */
+		final int[] result = new int[size];
+		while (size>0) {
+			result[size-1] = heap[0];
+			heap[0] = heap[--size];
+			siftDown(heap, size);
+		}
+		return result;
+	}
+
+	/**
+	 * @return the first position in order
+	 * @throws NoSuchElementException if the column is empty
+	 */
+	public int min() {
+		return select(true);
+	}
+
+	/**
+	 * @return the last position in order
+	 * @throws NoSuchElementException if the column is empty
+	 */
+	public int max() {
+		return select(false);
+	}
+
+	private int select(boolean first) {
+		if (size()==0) throw new NoSuchElementException();
+		int result = 0;
+		for(int p=1; p<size(); p++) {
+			final int cmp = compare(p, result);
+			if (first ? cmp<0 : cmp>0) result = p;
+		}
+		return result;
+	}
+
+	private void siftUp(int[] heap, int i) {
+		while (i>0) {
+			final int parent = (i-1)/2;
+			if (compare(heap[i], heap[parent])<=0) return;
+			swap(heap, i, parent);
+			i = parent;
+		}
+	}
+
+	private void siftDown(int[] heap, int size) {
+		int i = 0;
+		while (true) {
+			final int left = 2*i+1;
+			if (left>=size) return;
+			final int right = left+1;
+			final int child = ( right<size && compare(heap[right], heap[left])>0 ? right : left );
+			if (compare(heap[child], heap[i])<=0) return;
+			swap(heap, i, child);
+			i = child;
+		}
+	}
+
+	static private void swap(int[] a, int i, int j) {
+		final int tmp = a[i];
+		a[i] = a[j];
+		a[j] = tmp;
+	}
+
+	/* by weight, then by element, then by position */
+	private int compare(int p1, int p2) {
+		final double w1 = this.weights[p1];
+		final double w2 = this.weights[p2];
+		/* n.b. NaN and signed zeros are left to the comparator */
+		if (w1<w2) return -1;
+		if (w1>w2) return +1;
+		final int result = this.ties.compare(get(p1), get(p2));
+		if (result!=0) return result;
+		return Integer.compare(p1, p2);
+	}
+
+}
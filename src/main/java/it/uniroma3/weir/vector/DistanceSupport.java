@@ -26,7 +26,7 @@ public class DistanceSupport {
 		requireNonNull(type,"The types hierarchy should be single rooted");
 		
 		if (isNumeric(type)) return numericDistance(type, it);
-		else return type.createDistanceFunction().distance(it);
+		else return type.getDistanceKernel().distance(type, it);
 	}
 
 	static private double numericDistance(Type commonType, PageLinkageIterator it) {
@@ -43,10 +43,10 @@ public class DistanceSupport {
 				// Deal with different unit-measures for the same dimensional type?...
 				// ...NO! the normalization should have already forced 
 				//        both vectors to adopt the same reference unit
-				return commonType.createDistanceFunction().distance(it)*canberraDistance(min.getNormMod(), max.getNormMod());
+				return commonType.getDistanceKernel().distance(commonType, it)*canberraDistance(min.getNormMod(), max.getNormMod());
 			}
 		}
-		return commonType.createDistanceFunction().distance(it);
+		return commonType.getDistanceKernel().distance(commonType, it);
 //		else if (isDimensional(min.getType()) || isDimensional(max.getType())) {
 //			//QUESTO DOVREBBE ESSERE IRRILEVANTE visto che la distanza numerica non dipende dal cambio scala
 //			// one is dimensioned but the other is not e.g., mass vs numbers	
@@ -23,7 +23,13 @@ public class ExtractedVector extends Vector
 	
 	static final private long serialVersionUID = 2389846799310849683L;
 
-	static final private Normalizer normalizer = new Normalizer();
+	/* a normalizer per thread: sites can be processed in parallel (see Extraction) */
+	static final private ThreadLocal<Normalizer> normalizer = new ThreadLocal<Normalizer>() {
+		@Override
+		protected Normalizer initialValue() {
+			return new Normalizer();
+		}
+	};
 
 	/**
 	 * Use {@link ExtractedVector} to mimic vectors of {@link GoldenValue}
@@ -50,9 +56,15 @@ public class ExtractedVector extends Vector
 	
 	public ExtractedVector(ExtractedValue[] elements, ExtractionRule rule) {
 		super(Type.rootType()); // ExtractedVector are STRINGs
-		this.elements = elements;
 		this.rule = rule;
-		this.initIndexPage2Value(this.elements);
+		this.setElements(elements, rule);
+	}
+
+	/* restore a vector with a given id, e.g., from the cache */
+	public ExtractedVector(String id, ExtractedValue[] elements, ExtractionRule rule) {
+		super(id, Type.rootType());
+		this.rule = rule;
+		this.setElements(elements, rule);
 	}
 	
 	/**
@@ -98,7 +110,7 @@ public class ExtractedVector extends Vector
 	 *         the most specific {@link Type}
 	 */
 	public Vector normalize() {
-		return normalizer.normalize(this);
+		return normalizer.get().normalize(this);
 	}
 	
 	public ExtractedValue[] getElements() {
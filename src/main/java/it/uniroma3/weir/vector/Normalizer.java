@@ -6,7 +6,6 @@ import it.uniroma3.weir.vector.value.ExtractedValue;
 import it.uniroma3.weir.vector.value.Value;
 
 import java.util.*;
-import java.util.regex.Pattern;
 
 /**
  * This class is in charge of finding a common {@link Type} to
@@ -25,19 +24,37 @@ public class Normalizer {
 	static final private HypertextualLogger log = HypertextualLogger.getLogger();
 
 	// preserve letters, whitespaces, numbers, currencies, and punctuations. That's all!
-	static final private String CANONICAL_CHARS_REGEX = "[^\\p{L}\\p{Z}\\p{N}\\p{Sc}\\p{P}]";
-	static final private String SEQUENCES_OF_WHITESPACES = "[\\p{Z}\\s]+";
-	
-	static final private Pattern SPACES_PATTERN = Pattern.compile(SEQUENCES_OF_WHITESPACES);
-	static final private Pattern CHARS_PATTERN  = Pattern.compile(CANONICAL_CHARS_REGEX);
+	// i.e., remove any char not in [\p{L}\p{Z}\p{N}\p{Sc}\p{P}]
+	static final private int CANONICAL_CHAR_TYPES = 
+			1<<Character.UPPERCASE_LETTER | 1<<Character.LOWERCASE_LETTER | 
+			1<<Character.TITLECASE_LETTER | 1<<Character.MODIFIER_LETTER  | 
+			1<<Character.OTHER_LETTER     |
+			1<<Character.SPACE_SEPARATOR  | 1<<Character.LINE_SEPARATOR   | 
+			1<<Character.PARAGRAPH_SEPARATOR |
+			1<<Character.DECIMAL_DIGIT_NUMBER | 1<<Character.LETTER_NUMBER | 
+			1<<Character.OTHER_NUMBER     |
+			1<<Character.CURRENCY_SYMBOL  |
+			1<<Character.DASH_PUNCTUATION | 1<<Character.START_PUNCTUATION | 
+			1<<Character.END_PUNCTUATION  | 1<<Character.CONNECTOR_PUNCTUATION | 
+			1<<Character.OTHER_PUNCTUATION | 1<<Character.INITIAL_QUOTE_PUNCTUATION | 
+			1<<Character.FINAL_QUOTE_PUNCTUATION;
+
+	// sequences of whitespaces, i.e., of [\p{Z}\s], are reduced to a single blank
+	static final private int WHITESPACE_CHAR_TYPES = 
+			1<<Character.SPACE_SEPARATOR  | 1<<Character.LINE_SEPARATOR   | 
+			1<<Character.PARAGRAPH_SEPARATOR;
 	
 	private Map<Type, Integer> type2freq;
 
 	private VectorCaster caster;
 
+	/* reused by every value: see normalizeValue() */
+	private StringBuilder buffer;
+
 	public Normalizer() {
 		this.caster = new VectorCaster();
 		this.type2freq = new HashMap<>();		
+		this.buffer = new StringBuilder();
 	}
 
 	public Vector normalize(ExtractedVector extracted) {
@@ -57,9 +74,10 @@ public class Normalizer {
 
 	private String[] normalizeValues(Value[] values, String prefix, String suffix) {
 
-		/* make a simple regexp to strip prefixes and/or suffixes */
-		// CHECK why regex just to strip prefixes and suffixes?
-		final Pattern stripPattern = makeStrippingPattern(prefix, suffix); 
+		/* n.b. prefixes and suffixes with a '$' are kept: they used to be
+		 * stripped by regexps where '$', left unescaped, never matched */
+		final String strippedPrefix = ( prefix.indexOf('$')<0 ? prefix : "" );
+		final String strippedSuffix = ( suffix.indexOf('$')<0 ? suffix : "" );
 		
 		final String[] normalized = new String[values.length];
 		for(int i=0; i<values.length; i++) {
@@ -67,78 +85,63 @@ public class Normalizer {
 				normalized[i] = null;
 			} else {
 				final String value = values[i].toString();
-				/* strip prefixes & suffixes */
-				String stripped = null;
-				if (stripPattern!=null)
-					stripped = stripPattern.matcher(value).replaceAll("");
-				else
-					stripped = value;
-				/* keep only a certain subset of chars */
-				final String cleaned = CHARS_PATTERN.matcher(stripped).replaceAll("");
-				
-				/* normalize sequences of whitespaces as a single blank space */
-				final String spaced = SPACES_PATTERN.matcher(cleaned).replaceAll(" ");
-				
 				/* the empty string is a null marker */
-				normalized[i] = emptyStringAsNullMarker(spaced);
+				normalized[i] = emptyStringAsNullMarker(normalizeValue(value, strippedPrefix, strippedSuffix));
 				logValue(normalized, i, value);
 			}
 		}
 		return normalized;
 	}
 
-	private void logValue(final String[] normalized, int i, final String value) {
-		if (!Objects.equals(value,normalized[i]))
-			log.trace(i+"-th value \'"+value+"\' normalized to \'"+normalized[i]+"\'");
-	}
-
-	private Pattern makeStrippingPattern(String prefix, String suffix) {
-		if (prefix.isEmpty() && suffix.isEmpty()) return null;
-		
-		String regex = null;		
-		if (prefix.isEmpty() && !suffix.isEmpty()) {
-			regex = regex(suffix) + "$";
-		}
-		if (!prefix.isEmpty() && suffix.isEmpty()) {
-			regex = "^"+regex(prefix) ;
-		}
-		if (!prefix.isEmpty() && !suffix.isEmpty()) {
-			regex = "(^"+regex(prefix) +"|"+regex(suffix) + "$)";
-		}
-		return Pattern.compile(regex);
-	}
-
-	final private String emptyStringAsNullMarker(String s) {
-		return ( s.trim().isEmpty() ? null : s );
-	}
-
-	private String regex(String regex) {
-		StringBuilder result = new StringBuilder();
-		for (int i=0; i<regex.length(); i++) {
-			char character = regex.charAt(i);
-			if (isCharToEscapeInRegex(character)) {
-				result.append(escapeInRegex(character));
+	/* strip prefix & suffix, keep only a certain subset of chars, and
+	 * normalize sequences of whitespaces as a single blank space: all
+	 * in one pass over the code points of the value */
+	private String normalizeValue(String value, String prefix, String suffix) {
+		final int start = ( !prefix.isEmpty() && value.startsWith(prefix) ? prefix.length() : 0 );
+		int end = value.length();
+		if (!suffix.isEmpty() && value.endsWith(suffix) && end-suffix.length()>=start) 
+			end -= suffix.length();
+
+		final StringBuilder result = this.buffer;
+		result.setLength(0);
+		boolean changed = false;
+		boolean spaces = false;
+		for(int i=start; i<end; ) {
+			final int c = codePointAt(value, i, end);
+			final int charType = 1<<Character.getType(c);
+			i += Character.charCount(c);
+			if ((charType & CANONICAL_CHAR_TYPES)==0) {
+				changed = true;
+			} else if ((charType & WHITESPACE_CHAR_TYPES)!=0) {
+				if (!spaces) result.append(' ');
+				changed |= ( spaces || c!=' ' );
+				spaces = true;
 			} else {
-				result.append(character);
+				result.appendCodePoint(c);
+				spaces = false;
 			}
 		}
+		if (!changed && start==0 && end==value.length()) return value;
 		return result.toString();
 	}
 
-	final private String escapeInRegex(char character) {
-		return "\\" + character;
+	/* n.b. a surrogate pair split by the stripping counts as two chars */
+	static private int codePointAt(String value, int i, int end) {
+		final char high = value.charAt(i);
+		if (Character.isHighSurrogate(high) && i+1<end) {
+			final char low = value.charAt(i+1);
+			if (Character.isLowSurrogate(low)) return Character.toCodePoint(high, low);
+		}
+		return high;
 	}
 
-	static final private char[] CHARS_TO_ESCAPE_IN_REGEX = {
-		'\\','(','[','{','^','-','|',']','}',')','?','*','+','.'
-	};
-
+	private void logValue(final String[] normalized, int i, final String value) {
+		if (!Objects.equals(value,normalized[i]))
+			log.trace(i+"-th value \'"+value+"\' normalized to \'"+normalized[i]+"\'");
+	}
 
-	final private boolean isCharToEscapeInRegex(char character) {
-		for(char c : CHARS_TO_ESCAPE_IN_REGEX)
-			if (c==character)
-				return true;
-		return false;
+	final private String emptyStringAsNullMarker(String s) {
+		return ( s.trim().isEmpty() ? null : s );
 	}
 
 	private void incrementTypeFrequency(Type type) {
@@ -1,7 +1,7 @@
 package it.uniroma3.weir.vector;
 
+import it.uniroma3.weir.vector.column.Column;
 import it.uniroma3.weir.vector.type.Type;
-import it.uniroma3.weir.vector.value.Value;
 
 import java.io.Serializable;
 import static java.lang.Double.NaN;
@@ -13,7 +13,7 @@ import static java.lang.Math.sqrt;
  * first the vectors are translated of their average value to depart 
  * from the origin, and second their scaled of the standard deviation.
  * 
- * @see DistanceFunction
+ * @see DistanceKernel
  */
 public class NumericVector extends Vector implements Serializable {
 	
@@ -58,22 +58,24 @@ public class NumericVector extends Vector implements Serializable {
 	}
 	
 	private double computeAverage() {
+		final Column column = this.getColumn();
 		this.sum = 0;
 		int n = 0;
-		for(Value element : this.getElements()) {
-			if (element.isNull()) continue;
+		for(int i=0; i<column.size(); i++) {
+			if (column.isNull(i)) continue;
 			n++;
-			this.sum += element.getNumericValue();
+			this.sum += column.getNumericValue(i);
 		}
 		this.nonNullCounter = n;
 		return ( n>0 ? this.sum / n : NaN);
 	}
 	
 	private void computeAggregates(double average) {
+		final Column column = this.getColumn();
 		this.sumOfSquares = 0;
-		for(Value element : this.getElements()) {
-			if (element.isNull()) continue;
-			final double d = element.getNumericValue();
+		for(int i=0; i<column.size(); i++) {
+			if (column.isNull(i)) continue;
+			final double d = column.getNumericValue(i);
 			this.sumOfSquares += d * d;
 			this.transSquares += (d-average)*(d-average);
 		}
@@ -10,83 +10,87 @@ import java.util.regex.Pattern;
 /**
  * 
  * Find a common prefix and suffix for the values of a vector
+ * 
+ * The longest prefix (suffix) shared by all the non-null values
+ * is found in a single scan, char by char; the common prefix (suffix)
+ * is then cut at its last (first) separator, not to split words.
  *
  */
 public class PrefixAndSuffixFinder {
 
-	static final private String PREFIX_SEPARATOR = "[ :!\\?\\*\\+\\.\\|\\-\\^\\{\\}\\[\\]]"; //[ :!?*+.|-^{}[]];
-	static final private Pattern PREFIX_PATTERN = Pattern.compile(PREFIX_SEPARATOR);
+	static final private String SEPARATORS = " :!?*+.|-^{}[]";
 	static final private String NUMBER_REGEX_PATTERN = "\\d";
 	static final private FormatRule RULE_FOR_NUMBER = new FormatRule(NUMBER_REGEX_PATTERN);
 
 	private Vector vector;
 	
-	// suffixes are searched as prefixes over reversed values
-	private boolean reverseMode;	
+	/* the first non-null value, if any */
+	private String pivot;
+
+	/* the lengths of the longest common prefix and suffix */
+	private int prefixLength;
+	private int suffixLength;
 
 	public PrefixAndSuffixFinder(Vector vector) {
 		this.vector = vector;		
-		this.reverseMode = false;
 	}
 		
-	private boolean isReverseModeEnabled() {
-		return reverseMode;
+	private void scan() {
+		if (this.pivot!=null) return;
+		final Iterator<String> valuesIt = this.vector.stringsIterator();
+		while (valuesIt.hasNext()) {
+			final String value = valuesIt.next();
+			if (value==null) continue;
+			if (this.pivot==null) {
+				this.pivot = value;
+				this.prefixLength = value.length();
+				this.suffixLength = value.length();
+			} else {
+				this.prefixLength = commonPrefixLength(this.pivot, value, this.prefixLength);
+				this.suffixLength = commonSuffixLength(this.pivot, value, this.suffixLength);
+				if (this.prefixLength==0 && this.suffixLength==0) break;
+			}
+		}
 	}
 
-	private void setReverseMode(boolean reverseMode) {
-		this.reverseMode = reverseMode;
+	static private int commonPrefixLength(String s1, String s2, int max) {
+		final int n = Math.min(max, s2.length());
+		int i = 0;
+		while (i<n && s1.charAt(i)==s2.charAt(i)) i++;
+		return i;
 	}
-	
+
+	static private int commonSuffixLength(String s1, String s2, int max) {
+		final int n = Math.min(max, s2.length());
+		final int l1 = s1.length(), l2 = s2.length();
+		int i = 0;
+		while (i<n && s1.charAt(l1-1-i)==s2.charAt(l2-1-i)) i++;
+		return i;
+	}
+
+	static private boolean isSeparator(char c) {
+		return SEPARATORS.indexOf(c)>=0;
+	}
+
 	/**
 	 * was getPrefixWithoutSplittingWords()
 	 * @return
 	 */
 	public String getPrefix() {		
-		final String pivot = findFirstNonNullValue();
-		if (pivot==null) return "";
+		scan();
+		if (this.pivot==null) return "";
 
-		String prefix = null;
-		
-		for(int len=1; len<=pivot.length(); len++) {
-			final String candidatePrefix = pivot.substring(0, len);
-			final char charAt = candidatePrefix.charAt(candidatePrefix.length()-1);
-			if (PREFIX_PATTERN.matcher(Character.toString(charAt)).matches()) {
-				if (isAcommonPrefix(candidatePrefix)) {
-					prefix = candidatePrefix;
-				} else break;
-			}
+		int length = 0;
+		for(int len=1; len<=this.prefixLength; len++) {
+			if (isSeparator(this.pivot.charAt(len-1)))
+				length = len;
 		}
-		return finalCheckOverWhitelistedPrefix(prefix);
+		return finalCheckOverWhitelistedPrefix(this.pivot.substring(0, length));
 	}
 	
-	private String findFirstNonNullValue() {
-		Iterator<String> valuesIt = stringValueIterator();
-		while (valuesIt.hasNext()) {
-			String value = valuesIt.next();
-			if (value!=null)
-				return value;
-		}
-		return null;
-	}
-
-	private boolean isAcommonPrefix(String prefix) {
-		Iterator<String> valuesIt = stringValueIterator();
-		while (valuesIt.hasNext()) {
-			String value = valuesIt.next();
-			if (value!=null && !value.startsWith(prefix)) {
-				return false;
-			}
-		}
-		return true;
-	}
-
 	private String finalCheckOverWhitelistedPrefix(String ffix) {
-		final String first = findFirstNonNullValue();
 		// cannot discard prefix=value
-		if (ffix==null || first==null || ffix.equals(first) ) return "";
-		
-		/* if looking for suffixes, reverse the string befor checking */
-		if (isReverseModeEnabled()) ffix = reverse(ffix);
+		if (ffix.isEmpty() || ffix.length()==this.pivot.length()) return "";
 		
 		// there are pre/suffixes we want to keep, e.g., http://
 		return !isPrefixSuffixToPreserve(ffix.trim()) ? ffix : "";
@@ -97,40 +101,18 @@ public class PrefixAndSuffixFinder {
 	 * @return
 	 */
 	public String getSuffix() {
-		setReverseMode(true);
-		final String suffix =  getPrefix();
-		setReverseMode(false);
-		return suffix;
-	}
-
-	final private String reverse(String s) {
-		if (s==null) return null;
-		StringBuilder result = new StringBuilder(s);
-		return result.reverse().toString();
-	}
-
-	private Iterator<String> stringValueIterator() {
-		final Vector vector = this.vector;
-		if (isReverseModeEnabled()) {
-			return new Iterator<String>() {
-				final Iterator<String> innerIt = vector.stringsIterator();
-				@Override
-				public boolean hasNext() {
-					return innerIt.hasNext();
-				}
-				@Override
-				public String next() {
-					return reverse(innerIt.next());
-				}
-				@Override
-				public void remove() {
-					throw new UnsupportedOperationException();
-				}
-			};
+		scan();
+		if (this.pivot==null) return "";
+
+		final int n = this.pivot.length();
+		int length = 0;
+		for(int len=1; len<=this.suffixLength; len++) {
+			if (isSeparator(this.pivot.charAt(n-len)))
+				length = len;
 		}
-		else return vector.stringsIterator();
+		return finalCheckOverWhitelistedPrefix(this.pivot.substring(n-length));
 	}
-	
+
 	/**
 	 * TODO introduce regexp here.
 	 * 
@@ -8,6 +8,9 @@ import it.uniroma3.weir.linking.linkage.PageLinkageIterator;
 import it.uniroma3.weir.model.Webpage;
 import it.uniroma3.weir.model.Website;
 import it.uniroma3.weir.model.WeirId;
+import it.uniroma3.weir.vector.column.Column;
+import it.uniroma3.weir.vector.column.PageIndex;
+import it.uniroma3.weir.vector.column.StringDictionary;
 import it.uniroma3.weir.vector.type.Type;
 import it.uniroma3.weir.vector.value.ExtractedValue;
 import it.uniroma3.weir.vector.value.Value;
@@ -19,37 +22,45 @@ import java.util.*;
  * A vector of {@link Value}s associated with a { @link Type} such that
  * every element in the vector is of that type. The values have been
  * extracted from {@link Webpage}s and then eventually normalized
+ * <br/>
+ * The values are stored by a {@link Column}, and the {@link Value}
+ * objects are just a view materialized on demand.
  * @see Normalizer, {@link ExtractedVector}
  * 
  */
 public class Vector extends WeirId implements Iterable<Value>, Serializable, Fingerprinted {
 
-	static final private long serialVersionUID = -3455939240963536316L;
+	static final private long serialVersionUID = -6480413837101547204L;
 
 	final private Type type;
 
-	protected Value[] elements;
+	private Column column;
 	
-	protected Map<Webpage, Value> page2value; // this is an indexed vector
+	private PageIndex pages; // this is an indexed vector
 
 	private ExtractedVector originating;
 
 	final private SortedSet<Label> labels;
 	
 	protected Vector(Type type) {
-		super(nextIdByClass(Vector.class));
+		this(nextIdByClass(Vector.class), type);
+	}
+
+	/* restore a vector with a given id, e.g., from the cache */
+	protected Vector(String id, Type type) {
+		super(id);
 		this.type = type;
 		this.labels = new TreeSet<>();
-		this.elements = null;
-		this.page2value = new HashMap<>();
+		this.column = null;
+		this.pages = null;
 		this.originating = null;
 	}
 
 	protected Vector(Vector vector) {
 		this(vector.getType());
 		this.originating = vector.getOriginatingVector();
-		this.elements = vector.getElements();
-		this.page2value = vector.getPage2Value();
+		this.column = vector.getColumn();
+		this.pages = vector.getPageIndex();
 	}
 
 	/**
@@ -63,25 +74,28 @@ public class Vector extends WeirId implements Iterable<Value>, Serializable, Fin
 	public Vector(ExtractedVector original, Type type, String...values) {
 		this(type);
 		this.originating = original;
-		this.elements = castValues(original, type, values);
+		this.column = castValues(original, type, values);
+		this.pages = original.getPageIndex(); // same pages
 		this.labels.addAll(original.getLabels());
 	}
 
-	private Value[] castValues(ExtractedVector original, Type type, String...values) {
-		final Value[] casted = new Value[values.length];
+	private Column castValues(ExtractedVector original, Type type, String...values) {
+		final Object[] casted = new Object[values.length];
 		for (int i=0; i<values.length; i++) {
-			final Webpage page = original.get(i).getPage();
-			final Object normalized = type.cast(values[i]);
-			final Value value = new Value(page,normalized);
-			this.page2value.put(page, value);
-			casted[i] = value;
+			casted[i] = type.cast(values[i]);
 		}
-		return casted;
+		return Column.typed(casted, dictionaryOf(original.getExtractionRule()));
 	}	
 	
-	protected void initIndexPage2Value(Value[] elements) {
-		for(Value value : elements)
-			this.page2value.put(value.getPage(), value);
+	protected void setElements(Value[] elements, ExtractionRule rule) {
+		this.column = Column.of(elements, dictionaryOf(rule));
+		this.pages = new PageIndex(elements);
+	}
+
+	/* strings are encoded by the dictionary of the site, if any */
+	static private StringDictionary dictionaryOf(ExtractionRule rule) {
+		final Website site = ( rule!=null ? rule.getWebsite() : null );
+		return ( site!=null ? site.getDictionary() : new StringDictionary() );
 	}
 
 	/**
@@ -97,16 +111,33 @@ public class Vector extends WeirId implements Iterable<Value>, Serializable, Fin
 		return this.type;
 	}
 
+	/**
+	 * @return the values of this vector, materialized at every call
+	 */
 	public Value[] getElements() {
-		return this.elements;
+		return this.column.toArray(this.pages);
+	}
+
+	public Column getColumn() {
+		return this.column;
 	}
 
-	public Map<Webpage,Value> getPage2Value() {
-		return this.page2value;
+	public PageIndex getPageIndex() {
+		return this.pages;
+	}
+
+	/**
+	 * Encode the strings of this vector by another dictionary,
+	 * e.g., to release the strings of the vectors discarded
+	 * (see {@link Website#compactDictionary()}).
+	 * @param dictionary the new dictionary
+	 */
+	public void recode(StringDictionary dictionary) {
+		this.column = this.column.recode(dictionary);
 	}
 	
 	public Value get(int index) {
-		return this.elements[index];
+		return this.column.get(index, this.pages.get(index));
 	}
 	
 	/**
@@ -115,7 +146,8 @@ public class Vector extends WeirId implements Iterable<Value>, Serializable, Fin
 	 *         if the page is not indexed by the {@link Website}
 	 */
 	public Value get(Webpage page) {
-		return this.page2value.get(page);
+		final int position = this.pages.positionOf(page);
+		return ( position>=0 ? get(position) : null );
 	}
 
 	/**
@@ -131,7 +163,7 @@ public class Vector extends WeirId implements Iterable<Value>, Serializable, Fin
 	}
 	
 	public int size() {
-		return this.elements.length;
+		return this.column.size();
 	}
 
 	public boolean isEmpty() {
@@ -139,13 +171,7 @@ public class Vector extends WeirId implements Iterable<Value>, Serializable, Fin
 	}
 
 	public int countNonNulls() {
-		int nonNullCounter = 0;
-		for (int i=0; i<this.size(); i++) {
-			if (!this.get(i).isNull()) {
-				nonNullCounter++;
-			}
-		}
-		return nonNullCounter;
+		return this.column.countNonNulls();
 	}
 
 	public int nulls() {
@@ -202,9 +228,8 @@ public class Vector extends WeirId implements Iterable<Value>, Serializable, Fin
 		for (int i=0; i<this.size(); i++) {
 			// FIXME use linkage! non è un problema perché al momento 
 			// è usato solo dentro il clustering intrasite
-			final Value thisValue = this.get(i), thatValue = that.get(i);
-			if (thisValue.isNull() || thatValue.isNull()) continue;
-			if (!Objects.equals(thisValue.toString(), thatValue.toString())) {
+			if (this.column.isNull(i) || that.column.isNull(i)) continue;
+			if (!Objects.equals(this.get(i).toString(), that.get(i).toString())) {
 				return false;
 			}
 		}
@@ -218,7 +243,25 @@ public class Vector extends WeirId implements Iterable<Value>, Serializable, Fin
 	
 	@Override
 	public Iterator<Value> iterator() {
-		return Arrays.asList(getElements()).iterator();
+		return new Iterator<Value>() {
+			private int next = 0;
+
+			@Override
+			public boolean hasNext() {
+				return this.next<size();
+			}
+
+			@Override
+			public Value next() {
+				if (!hasNext()) throw new NoSuchElementException();
+				return get(this.next++);
+			}
+
+			@Override
+			public void remove() {
+				throw new UnsupportedOperationException();
+			}
+		};
 	}
 
 	public Iterator<String> stringsIterator() {
@@ -251,7 +294,7 @@ public class Vector extends WeirId implements Iterable<Value>, Serializable, Fin
 	public Fingerprint getFingerprint() {
 		final Fingerprinter printer = new Fingerprinter();
 		printer.fingerprint(Integer.toString(this.size()));
-		for(Value value : this.getElements()) {
+		for(Value value : this) {
 			 /* n.b. String.valueOf(value.toString())  
 			  *      may produce null values          ! */
 			if (!value.isNull())
@@ -268,7 +311,11 @@ public class Vector extends WeirId implements Iterable<Value>, Serializable, Fin
 	
 	@Override
 	public int hashCode() {
-		return this.getType().hashCode()+Arrays.hashCode(this.getElements());
+		/* as Arrays.hashCode(getElements()), without materializing them */
+		int result = 1;
+		for(int i=0; i<this.size(); i++)
+			result = 31*result + this.column.hashCode(i);
+		return this.getType().hashCode()+result;
 	}
 
 	@Override
@@ -276,8 +323,12 @@ public class Vector extends WeirId implements Iterable<Value>, Serializable, Fin
 		if (object==null || !(object instanceof Vector)) return false;
 
 		final Vector that = (Vector)object;
-		return this.getType().equals(that.getType()) &&
-			   Arrays.equals(this.getElements(), that.getElements());
+		if (!this.getType().equals(that.getType()) || this.size()!=that.size())
+			return false;
+		for(int i=0; i<this.size(); i++)
+			if (!this.column.equals(i, that.column))
+				return false;
+		return true;
 	}
 
 	@Override
@@ -5,6 +5,7 @@ import java.util.List;
 
 import it.uniroma3.hlog.HypertextualLogger;
 import it.uniroma3.weir.vector.type.Type;
+import it.uniroma3.weir.vector.type.TypeRecognizer;
 import static it.uniroma3.weir.vector.type.Type.availableDatatypes;
 
 public class VectorCaster {
@@ -17,6 +18,8 @@ public class VectorCaster {
 	//       (most generic type)
 	private List<Type> datatypes;
 	
+	private TypeRecognizer recognizer;
+	
 	public VectorCaster() {
 		this(availableDatatypes());
 	}
@@ -24,6 +27,7 @@ public class VectorCaster {
 	public VectorCaster(List<Type> dataTypes) {
 		this.datatypes = dataTypes;
 		Collections.reverse(this.datatypes);
+		this.recognizer = new TypeRecognizer(this.datatypes);
 	}
 
 	public List<Type> getAvailableDatatypes() {
@@ -37,25 +41,12 @@ public class VectorCaster {
 	 * @return the most specific type of this vector
 	 */
 	public Type findMostSpecificType(String...values) {
-		// iterate from the most specific to the most general type
-		for(Type type : this.getAvailableDatatypes()) {
-			log.trace("Checking "+type);
-			if (allInstanceOf(type, values))
-				return type;
-			log.trace();
-		}
-		throw new IllegalStateException("Any vector should be at least be of the root type!");
-	}
-
-	private boolean allInstanceOf(Type type, String...values) {
-		for(String value : values) {
-			if (!type.instanceOf(value)) {
-				log.trace("\'"+value+"\' is not a "+type);
-				return false;
-			}
-		}
+		// the first type, from the most specific to the most general one
+		final Type type = this.recognizer.findType(values);
+		if (type==null)
+			throw new IllegalStateException("Any vector should be at least be of the root type!");
 		log.trace("All values are "+type);
-		return true;
+		return type;
 	}
 		
 }
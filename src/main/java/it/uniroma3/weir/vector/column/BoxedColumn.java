@@ -0,0 +1,41 @@
+package it.uniroma3.weir.vector.column;
+
+import it.uniroma3.weir.model.Webpage;
+import it.uniroma3.weir.vector.value.GoldenValue;
+import it.uniroma3.weir.vector.value.Value;
+
+/**
+ * The values as they are, for the vectors that cannot be stored
+ * more compactly without losing anything, e.g., of {@link GoldenValue}s.
+ */
+class BoxedColumn extends Column {
+
+	static final private long serialVersionUID = -7930118416405640455L;
+
+	final private Value[] values;
+
+	BoxedColumn(Value[] values) {
+		this.values = values;
+	}
+
+	@Override
+	public int size() {
+		return this.values.length;
+	}
+
+	@Override
+	public boolean isNull(int index) {
+		return this.values[index]==null || this.values[index].isNull();
+	}
+
+	@Override
+	public Value get(int index, Webpage page) {
+		return this.values[index];
+	}
+
+	@Override
+	public Value[] toArray(PageIndex pages) {
+		return this.values;
+	}
+
+}
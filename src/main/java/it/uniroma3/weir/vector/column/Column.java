@@ -0,0 +1,136 @@
+package it.uniroma3.weir.vector.column;
+
+import it.uniroma3.weir.model.Webpage;
+import it.uniroma3.weir.vector.Vector;
+import it.uniroma3.weir.vector.value.Date;
+import it.uniroma3.weir.vector.value.ExtractedValue;
+import it.uniroma3.weir.vector.value.Number;
+import it.uniroma3.weir.vector.value.Value;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+/**
+ * The columnar storage of the elements of a {@link Vector}: values
+ * are kept as primitive arrays rather than as {@link Value} objects,
+ * which are materialized, as a view, only when they are asked for.
+ * <br/>
+ * <ul>
+ * <li>numbers (and dimensional numbers) as <tt>double</tt>s,</li>
+ * <li>dates as packed <tt>long</tt>s,</li>
+ * <li>strings as <tt>int</tt> codes of a {@link StringDictionary}
+ *     shared by the whole {@link Website}.</li>
+ * </ul>
+ * Columns are immutable.
+ */
+public abstract class Column implements Serializable {
+
+	static final private long serialVersionUID = 8150380226745758126L;
+
+	/**
+	 * @param values the typed values, i.e., what a {@link Type} casts to
+	 * @param dictionary where strings are encoded
+	 * @return the most compact column hosting all the values
+	 */
+	static public Column typed(Object[] values, StringDictionary dictionary) {
+		Class<?> cls = null;
+		for(Object value : values) {
+			if (value==null) continue;
+			final Class<?> c = ( value instanceof Number ? Number.class : value.getClass() );
+			if (cls==null) cls = c;
+			else if (cls!=c) return new ObjectColumn(values);
+		}
+		if (cls==Number.class) return new NumericColumn(values, dictionary);
+		if (cls==Date.class)   return new DateColumn(values);
+		if (cls==String.class) return new StringColumn(values, dictionary);
+		return new ObjectColumn(values);
+	}
+
+	/**
+	 * @param values the values of a vector
+	 * @param dictionary where strings are encoded
+	 * @return a column hosting all the values
+	 */
+	static public Column of(Value[] values, StringDictionary dictionary) {
+		boolean allPlain = true, allExtracted = true;
+		for(Value value : values) {
+			if (value==null) return new BoxedColumn(values);
+			allPlain &= ( value.getClass()==Value.class );
+			allExtracted &= ( value.getClass()==ExtractedValue.class );
+		}
+		if (allExtracted && values.length>0)
+			return new ExtractedColumn((ExtractedValue[])values, dictionary);
+		if (allPlain) {
+			final Object[] objects = new Object[values.length];
+			for(int i=0; i<values.length; i++)
+				objects[i] = values[i].getValue();
+			return typed(objects, dictionary);
+		}
+		return new BoxedColumn(values);
+	}
+
+	abstract public int size();
+
+	abstract public boolean isNull(int index);
+
+	/**
+	 * @param index the position of the value
+	 * @param page the page the value comes from
+	 * @return a view of the value as a {@link Value}
+	 */
+	abstract public Value get(int index, Webpage page);
+
+	/**
+	 * @param pages where the values come from
+	 * @return all the values materialized
+	 */
+	public Value[] toArray(PageIndex pages) {
+		final Value[] result = new Value[size()];
+		for(int i=0; i<result.length; i++)
+			result[i] = get(i, pages.get(i));
+		return result;
+	}
+
+	/**
+	 * @param index the position of a value
+	 * @return the hash code of the value as a {@link Value},
+	 *         possibly without materializing it
+	 */
+	public int hashCode(int index) {
+		return Objects.hashCode(get(index, null));
+	}
+
+	/**
+	 * @param index the position of a value
+	 * @param that another column
+	 * @return true iff the values at the same position of the two columns
+	 *         are equal as {@link Value}s, possibly without materializing them
+	 */
+	public boolean equals(int index, Column that) {
+		return Objects.equals(get(index, null), that.get(index, null));
+	}
+
+	/**
+	 * @param dictionary another dictionary
+	 * @return a column with the same values, whose strings
+	 *         are encoded by the given dictionary
+	 */
+	public Column recode(StringDictionary dictionary) {
+		return this; // no strings
+	}
+
+	public int countNonNulls() {
+		int result = 0;
+		for(int i=0; i<size(); i++)
+			if (!isNull(i)) result++;
+		return result;
+	}
+
+	/**
+	 * @throws IllegalStateException if the value is null or not a number
+	 */
+	public double getNumericValue(int index) {
+		return get(index, null).getNumericValue();
+	}
+
+}
@@ -0,0 +1,80 @@
+package it.uniroma3.weir.vector.column;
+
+import it.uniroma3.weir.model.Webpage;
+import it.uniroma3.weir.vector.value.Date;
+import it.uniroma3.weir.vector.value.Value;
+
+import java.util.BitSet;
+
+/**
+ * {@link Date}s packed into <tt>long</tt>s, with a bitmap of the nulls.
+ * <br/>
+ * N.B. dates may lack the day, or even the month, so that they are
+ * not stored as epoch days, but as <tt>year:month:day</tt> fields
+ * of a single <tt>long</tt>, with <tt>-1</tt> for a missing field.
+ */
+class DateColumn extends Column {
+
+	static final private long serialVersionUID = 2610870367043016281L;
+
+	final private long[] dates;
+
+	final private BitSet nulls;
+
+	DateColumn(Object[] values) {
+		this.dates = new long[values.length];
+		this.nulls = new BitSet(values.length);
+		for(int i=0; i<values.length; i++) {
+			if (values[i]==null)
+				this.nulls.set(i);
+			else this.dates[i] = pack((Date)values[i]);
+		}
+	}
+
+	/* the +1 shift takes -1 for a missing field */
+	static private long pack(Date date) {
+		return ((long)date.getYear() << 16) | ((date.getMonth()+1) << 8) | (date.getDay()+1);
+	}
+
+	static private Date unpack(long packed) {
+		return new Date((int)(packed & 0xff)-1, (int)((packed >> 8) & 0xff)-1, (int)(packed >> 16));
+	}
+
+	@Override
+	public int size() {
+		return this.dates.length;
+	}
+
+	@Override
+	public boolean isNull(int index) {
+		return this.nulls.get(index);
+	}
+
+	@Override
+	public int countNonNulls() {
+		return this.dates.length - this.nulls.cardinality();
+	}
+
+	/* as Date#hashCode() */
+	@Override
+	public int hashCode(int index) {
+		if (isNull(index)) return 0;
+		final long packed = this.dates[index];
+		return Date.hashCode((int)(packed & 0xff)-1, (int)((packed >> 8) & 0xff)-1, (int)(packed >> 16));
+	}
+
+	@Override
+	public boolean equals(int index, Column column) {
+		if (!(column instanceof DateColumn)) return super.equals(index, column);
+		final DateColumn that = (DateColumn)column;
+		if (this.isNull(index) || that.isNull(index))
+			return this.isNull(index) && that.isNull(index);
+		return this.dates[index]==that.dates[index];
+	}
+
+	@Override
+	public Value get(int index, Webpage page) {
+		return new Value(page, ( isNull(index) ? null : unpack(this.dates[index]) ));
+	}
+
+}
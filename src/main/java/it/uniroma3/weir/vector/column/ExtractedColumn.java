@@ -0,0 +1,91 @@
+package it.uniroma3.weir.vector.column;
+
+import it.uniroma3.weir.model.Webpage;
+import it.uniroma3.weir.vector.value.ExtractedValue;
+import it.uniroma3.weir.vector.value.Value;
+
+import java.util.Objects;
+
+/**
+ * {@link ExtractedValue}s as the codes of their texts and
+ * of their occurrence marks in a {@link StringDictionary}.
+ */
+class ExtractedColumn extends Column {
+
+	static final private long serialVersionUID = -2267140541788802166L;
+
+	final private int[] texts;
+
+	final private int[] marks;
+
+	final private StringDictionary dictionary;
+
+	ExtractedColumn(ExtractedValue[] values, StringDictionary dictionary) {
+		this.texts = new int[values.length];
+		this.marks = new int[values.length];
+		this.dictionary = dictionary;
+		for(int i=0; i<values.length; i++) {
+			this.texts[i] = dictionary.encode(values[i].getValue());
+			this.marks[i] = dictionary.encode(values[i].getOccurrenceMark());
+		}
+	}
+
+	private ExtractedColumn(ExtractedColumn column, StringDictionary dictionary) {
+		this.texts = new int[column.size()];
+		this.marks = new int[column.size()];
+		this.dictionary = dictionary;
+		for(int i=0; i<this.texts.length; i++) {
+			this.texts[i] = dictionary.encode(column.text(i));
+			this.marks[i] = dictionary.encode(column.dictionary.decode(column.marks[i]));
+		}
+	}
+
+	private String text(int index) {
+		return this.dictionary.decode(this.texts[index]);
+	}
+
+	@Override
+	public int size() {
+		return this.texts.length;
+	}
+
+	@Override
+	public boolean isNull(int index) {
+		return this.texts[index]==StringDictionary.NULL;
+	}
+
+	@Override
+	public ExtractedValue get(int index, Webpage page) {
+		return ExtractedValue.restore(page, text(index),
+				this.dictionary.decode(this.marks[index]));
+	}
+
+	/* n.b. extracted values are equal iff their texts are */
+	@Override
+	public int hashCode(int index) {
+		return Objects.hashCode(text(index));
+	}
+
+	@Override
+	public boolean equals(int index, Column column) {
+		if (!(column instanceof ExtractedColumn)) return super.equals(index, column);
+		final ExtractedColumn that = (ExtractedColumn)column;
+		if (this.dictionary==that.dictionary)
+			return this.texts[index]==that.texts[index];
+		return Objects.equals(this.text(index), that.text(index));
+	}
+
+	@Override
+	public Column recode(StringDictionary dictionary) {
+		return new ExtractedColumn(this, dictionary);
+	}
+
+	@Override
+	public ExtractedValue[] toArray(PageIndex pages) {
+		final ExtractedValue[] result = new ExtractedValue[size()];
+		for(int i=0; i<result.length; i++)
+			result[i] = get(i, pages.get(i));
+		return result;
+	}
+
+}
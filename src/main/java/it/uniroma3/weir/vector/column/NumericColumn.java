@@ -0,0 +1,125 @@
+package it.uniroma3.weir.vector.column;
+
+import it.uniroma3.weir.model.Webpage;
+import it.uniroma3.weir.vector.value.Dimensional;
+import it.uniroma3.weir.vector.value.Number;
+import it.uniroma3.weir.vector.value.Value;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Objects;
+
+/**
+ * {@link Number}s and {@link Dimensional}s as <tt>double</tt>s,
+ * with a bitmap of the nulls; the unit-measure markers, if any,
+ * are encoded by a {@link StringDictionary}.
+ */
+class NumericColumn extends Column {
+
+	static final private long serialVersionUID = -4203337367606226561L;
+
+	final private double[] numbers;
+
+	final private BitSet nulls;
+
+	/* null iff there are no dimensional numbers */
+	final private int[] markers;
+
+	final private StringDictionary dictionary;
+
+	NumericColumn(Object[] values, StringDictionary dictionary) {
+		this.numbers = new double[values.length];
+		this.nulls = new BitSet(values.length);
+		this.dictionary = dictionary;
+		int[] markers = null;
+		for(int i=0; i<values.length; i++) {
+			final Object value = values[i];
+			if (value==null) {
+				this.nulls.set(i);
+				continue;
+			}
+			this.numbers[i] = ((Number)value).getValue();
+			if (value instanceof Dimensional) {
+				if (markers==null) {
+					markers = new int[values.length];
+					Arrays.fill(markers, StringDictionary.NULL);
+				}
+				markers[i] = dictionary.encode(((Dimensional)value).getMarker());
+			}
+		}
+		this.markers = markers;
+	}
+
+	private NumericColumn(NumericColumn column, StringDictionary dictionary) {
+		this.numbers = column.numbers;
+		this.nulls = column.nulls;
+		this.dictionary = dictionary;
+		if (column.markers!=null) {
+			this.markers = new int[column.markers.length];
+			for(int i=0; i<this.markers.length; i++)
+				this.markers[i] = dictionary.encode(column.marker(i));
+		} else this.markers = null;
+	}
+
+	/* null if not a dimensional number */
+	private String marker(int index) {
+		return ( this.markers==null ? null : this.dictionary.decode(this.markers[index]) );
+	}
+
+	@Override
+	public int size() {
+		return this.numbers.length;
+	}
+
+	@Override
+	public boolean isNull(int index) {
+		return this.nulls.get(index);
+	}
+
+	@Override
+	public int countNonNulls() {
+		return this.numbers.length - this.nulls.cardinality();
+	}
+
+	@Override
+	public double getNumericValue(int index) {
+		if (isNull(index))
+			throw new IllegalStateException("null value at "+index+" cannot be cast to a number");
+		return this.numbers[index];
+	}
+
+	@Override
+	public Value get(int index, Webpage page) {
+		return new Value(page, number(index));
+	}
+
+	/* as Number#hashCode() */
+	@Override
+	public int hashCode(int index) {
+		return ( isNull(index) ? 0 : Double.hashCode(this.numbers[index]) );
+	}
+
+	@Override
+	public boolean equals(int index, Column column) {
+		if (!(column instanceof NumericColumn)) return super.equals(index, column);
+		final NumericColumn that = (NumericColumn)column;
+		if (this.isNull(index) || that.isNull(index))
+			return this.isNull(index) && that.isNull(index);
+		/* as Double#equals() */
+		return Double.doubleToLongBits(this.numbers[index])==Double.doubleToLongBits(that.numbers[index])
+			&& Objects.equals(this.marker(index), that.marker(index));
+	}
+
+	@Override
+	public Column recode(StringDictionary dictionary) {
+		return new NumericColumn(this, dictionary);
+	}
+
+	private Number number(int index) {
+		if (isNull(index)) return null;
+		if (this.markers==null || this.markers[index]==StringDictionary.NULL)
+			return new Number(this.numbers[index]);
+		return new Dimensional(this.numbers[index], this.dictionary.decode(this.markers[index]));
+	}
+
+}
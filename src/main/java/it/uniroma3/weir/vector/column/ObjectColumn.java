@@ -0,0 +1,34 @@
+package it.uniroma3.weir.vector.column;
+
+import it.uniroma3.weir.model.Webpage;
+import it.uniroma3.weir.vector.value.Value;
+
+/**
+ * Any other typed objects (e.g., URLs, ISBNs, phone numbers) as they are.
+ */
+class ObjectColumn extends Column {
+
+	static final private long serialVersionUID = -3520212788367546853L;
+
+	final private Object[] objects;
+
+	ObjectColumn(Object[] objects) {
+		this.objects = objects;
+	}
+
+	@Override
+	public int size() {
+		return this.objects.length;
+	}
+
+	@Override
+	public boolean isNull(int index) {
+		return this.objects[index]==null;
+	}
+
+	@Override
+	public Value get(int index, Webpage page) {
+		return new Value(page, this.objects[index]);
+	}
+
+}
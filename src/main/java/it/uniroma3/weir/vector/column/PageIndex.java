@@ -0,0 +1,109 @@
+package it.uniroma3.weir.vector.column;
+
+import it.uniroma3.weir.model.Webpage;
+import it.uniroma3.weir.vector.Vector;
+import it.uniroma3.weir.vector.value.Value;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The {@link Webpage}s the elements of a {@link Vector} come from,
+ * indexed by position and by page.
+ * <br/>
+ * The lookup by page goes through a dense array aligned on
+ * {@link Webpage#getIndex()}; only when those indices are not usable
+ * (e.g., pages from several sites) a map is built on demand.
+ * <br/>
+ * Several vectors over the same pages share the same index.
+ */
+public class PageIndex implements Serializable {
+
+	static final private long serialVersionUID = 4581398061473624722L;
+
+	static final private int NONE = -1;
+
+	final private Webpage[] pages;
+
+	/* page index -> position; null if page indices are not usable */
+	final private int[] positions;
+
+	transient volatile private Map<Webpage, Integer> fallback;
+
+	public PageIndex(Value[] values) {
+		this(pagesOf(values));
+	}
+
+	public PageIndex(Webpage[] pages) {
+		this.pages = pages;
+		this.positions = dense(pages);
+	}
+
+	static private Webpage[] pagesOf(Value[] values) {
+		final Webpage[] pages = new Webpage[values.length];
+		for(int i=0; i<values.length; i++)
+			pages[i] = ( values[i]!=null ? values[i].getPage() : null );
+		return pages;
+	}
+
+	static private int[] dense(Webpage[] pages) {
+		int max = NONE;
+		for(Webpage page : pages) {
+			if (page==null || page.getIndex()<0) return null;
+			max = Math.max(max, page.getIndex());
+		}
+		/* too sparse to be worth it */
+		if (max >= 4*pages.length+64) return null;
+		final int[] result = new int[max+1];
+		Arrays.fill(result, NONE);
+		for(int i=0; i<pages.length; i++) {
+			final int index = pages[i].getIndex();
+			if (result[index]!=NONE) return null; // not unique
+			result[index] = i;
+		}
+		return result;
+	}
+
+	public int size() {
+		return this.pages.length;
+	}
+
+	public Webpage get(int position) {
+		return this.pages[position];
+	}
+
+	/**
+	 * @param page
+	 * @return the position of the page, -1 if absent
+	 */
+	public int positionOf(Webpage page) {
+		if (page==null) return NONE;
+		if (this.positions!=null) {
+			/* equal pages have the same index */
+			final int index = page.getIndex();
+			if (index<0 || index>=this.positions.length) return NONE;
+			final int position = this.positions[index];
+			if (position==NONE) return NONE;
+			final Webpage candidate = this.pages[position];
+			return ( candidate==page || candidate.equals(page) ? position : NONE );
+		}
+		final Integer position = fallback().get(page);
+		return ( position!=null ? position : NONE );
+	}
+
+	/* as the old page->value maps, it is based on Webpage.equals() */
+	private Map<Webpage, Integer> fallback() {
+		Map<Webpage, Integer> result = this.fallback;
+		if (result==null) {
+			result = new HashMap<>(this.pages.length*2);
+			for(int i=0; i<this.pages.length; i++)
+				if (this.pages[i]!=null)
+					result.put(this.pages[i], i);
+			this.fallback = result;
+		}
+		return result;
+	}
+
+}
@@ -0,0 +1,67 @@
+package it.uniroma3.weir.vector.column;
+
+import it.uniroma3.weir.model.Webpage;
+import it.uniroma3.weir.vector.value.Value;
+
+import java.util.Objects;
+
+/**
+ * Strings as codes of a {@link StringDictionary}.
+ */
+class StringColumn extends Column {
+
+	static final private long serialVersionUID = 6012935620811227713L;
+
+	final private int[] codes;
+
+	final private StringDictionary dictionary;
+
+	StringColumn(Object[] values, StringDictionary dictionary) {
+		this.codes = new int[values.length];
+		this.dictionary = dictionary;
+		for(int i=0; i<values.length; i++)
+			this.codes[i] = dictionary.encode((String)values[i]);
+	}
+
+	private String string(int index) {
+		return this.dictionary.decode(this.codes[index]);
+	}
+
+	@Override
+	public int size() {
+		return this.codes.length;
+	}
+
+	@Override
+	public boolean isNull(int index) {
+		return this.codes[index]==StringDictionary.NULL;
+	}
+
+	@Override
+	public Value get(int index, Webpage page) {
+		return new Value(page, string(index));
+	}
+
+	@Override
+	public int hashCode(int index) {
+		return Objects.hashCode(string(index));
+	}
+
+	@Override
+	public boolean equals(int index, Column column) {
+		if (!(column instanceof StringColumn)) return super.equals(index, column);
+		final StringColumn that = (StringColumn)column;
+		if (this.dictionary==that.dictionary)
+			return this.codes[index]==that.codes[index];
+		return Objects.equals(this.string(index), that.string(index));
+	}
+
+	@Override
+	public Column recode(StringDictionary dictionary) {
+		final Object[] strings = new Object[size()];
+		for(int i=0; i<strings.length; i++)
+			strings[i] = string(i);
+		return new StringColumn(strings, dictionary);
+	}
+
+}
@@ -0,0 +1,88 @@
+package it.uniroma3.weir.vector.column;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Encode strings as dense <tt>int</tt> codes: the same texts are
+ * extracted from a page by many rules, and a dictionary shared by
+ * all the vectors of a {@link Website} stores each of them once.
+ * <br/>
+ * Codes are never reused, and the strings are append-only: decoding,
+ * as encoding an already known string, takes no lock, while only the
+ * codes of new strings are assigned one at a time.
+ */
+public class StringDictionary implements Serializable {
+
+	static final private long serialVersionUID = 2717043393218770538L;
+
+	static final public int NULL = -1;
+
+	/* n.b. a new code is published only once its string is stored */
+	transient private volatile String[] strings;
+
+	transient private int size;
+
+	transient private ConcurrentHashMap<String, Integer> codes;
+
+	public StringDictionary() {
+		this.strings = new String[16];
+		this.size = 0;
+		this.codes = new ConcurrentHashMap<>();
+	}
+
+	/**
+	 * @param string a string, or null
+	 * @return its code, {@link #NULL} for null
+	 */
+	public int encode(String string) {
+		if (string==null) return NULL;
+		final Integer code = this.codes.get(string);
+		return ( code!=null ? code : add(string) );
+	}
+
+	synchronized private int add(String string) {
+		final Integer known = this.codes.get(string);
+		if (known!=null) return known;
+		String[] table = this.strings;
+		if (this.size==table.length)
+			table = Arrays.copyOf(table, table.length*2);
+		final int code = this.size++;
+		table[code] = string;
+		this.strings = table; // publish the string, then its code
+		this.codes.put(string, code);
+		return code;
+	}
+
+	public String decode(int code) {
+		return ( code==NULL ? null : this.strings[code] );
+	}
+
+	synchronized public int size() {
+		return this.size;
+	}
+
+	synchronized private void writeObject(ObjectOutputStream out) throws IOException {
+		out.defaultWriteObject();
+		out.writeInt(this.size);
+		for(int i=0; i<this.size; i++)
+			out.writeObject(this.strings[i]);
+	}
+
+	private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+		in.defaultReadObject();
+		this.size = in.readInt();
+		final String[] table = new String[Math.max(16, this.size)];
+		this.codes = new ConcurrentHashMap<>(this.size*2);
+		for(int i=0; i<this.size; i++) {
+			table[i] = (String)in.readObject();
+			this.codes.put(table[i], i);
+		}
+		this.strings = table;
+	}
+
+}
@@ -0,0 +1,96 @@
+package it.uniroma3.weir.vector.distance;
+
+import static java.lang.Double.NaN;
+import it.uniroma3.weir.vector.NumericVector;
+import it.uniroma3.weir.vector.Vector;
+import it.uniroma3.weir.vector.type.Type;
+
+/**
+ * The state of a single distance computation between two
+ * {@link Vector}s by means of a {@link DistanceKernel}.
+ * <br/>
+ * An accumulator is created for every computation, and it must
+ * never be shared among threads; kernels instead are immutable.
+ */
+public class DistanceAccumulator {
+
+	final private Type type;       /* common type of the vectors */
+
+	final private Vector min;      /* vectors being compared */
+	final private Vector max;
+
+	/* aggregates of the vectors being compared (numeric only) */
+	final private boolean numeric;
+	final private double avgMin, stdMin, normModMin;
+	final private double avgMax, stdMax, normModMax;
+
+	private double acc;            /* weighted sums accumulator */
+
+	private double sumOfWeights;   /* sum of weights of the value pairs processed */
+
+	private int ones;              /* number of pairs at the max distance */
+
+	public DistanceAccumulator(Type type, Vector min, Vector max) {
+		this.type = type;
+		this.min = min;
+		this.max = max;
+		this.numeric = ( min instanceof NumericVector && max instanceof NumericVector );
+		if (this.numeric) {
+			final NumericVector nMin = (NumericVector)min, nMax = (NumericVector)max;
+			this.avgMin = nMin.getAvg();
+			this.stdMin = nMin.getStd();
+			this.normModMin = nMin.getNormMod();
+			this.avgMax = nMax.getAvg();
+			this.stdMax = nMax.getStd();
+			this.normModMax = nMax.getNormMod();
+		} else {
+			this.avgMin = this.stdMin = this.normModMin = NaN;
+			this.avgMax = this.stdMax = this.normModMax = NaN;
+		}
+	}
+
+	public Type getType() { return this.type; }
+
+	public Vector getMin() { return this.min; }
+
+	public Vector getMax() { return this.max; }
+
+	/**
+	 * @return true iff both the vectors are {@link NumericVector}s
+	 */
+	public boolean isNumeric() { return this.numeric; }
+
+	public double getAvgMin() { return this.avgMin; }
+
+	public double getStdMin() { return this.stdMin; }
+
+	public double getNormModMin() { return this.normModMin; }
+
+	public double getAvgMax() { return this.avgMax; }
+
+	public double getStdMax() { return this.stdMax; }
+
+	public double getNormModMax() { return this.normModMax; }
+
+	public double getAccumulated() { return this.acc; }
+
+	public double getSumOfWeights() { return this.sumOfWeights; }
+
+	void addWeight(double weight) {
+		this.sumOfWeights += weight;
+	}
+
+	void accumulate(double weighted) {
+		this.acc += weighted;
+	}
+
+	/**
+	 * @param d the distance of the last pair
+	 * @return the number of pairs at the max distance so far
+	 */
+	int countOnes(double d) {
+		if (d>=1) ++this.ones;
+		return this.ones;
+	}
+
+}
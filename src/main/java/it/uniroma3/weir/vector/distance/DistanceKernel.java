@@ -0,0 +1,265 @@
+package it.uniroma3.weir.vector.distance;
+
+import static it.uniroma3.weir.configuration.Constants.ONES2ONE;
+import static it.uniroma3.weir.vector.value.Value.nonNullsTypedDistance;
+import static java.lang.Double.NaN;
+import static java.lang.Double.POSITIVE_INFINITY;
+import static java.lang.Math.*;
+import it.uniroma3.weir.configuration.WeirConfig;
+import it.uniroma3.weir.linking.linkage.PageLinkageIterator;
+import it.uniroma3.weir.vector.NumericVector;
+import it.uniroma3.weir.vector.Vector;
+import it.uniroma3.weir.vector.column.Column;
+import it.uniroma3.weir.vector.column.PageIndex;
+import it.uniroma3.weir.vector.type.Type;
+import it.uniroma3.weir.vector.value.Value;
+
+/**
+ * Several kinds of distance functions over {@link Vector}s of typed
+ * values.
+ * <br/>
+ * Kernels are stateless: the state of every computation is kept
+ * by its own {@link DistanceAccumulator}, so that the same kernel
+ * can be used by several threads at the same time.
+ * <br/>
+ * The kernels for numbers scan the columns of two {@link NumericVector}s
+ * directly, without materializing their {@link Value}s.
+ */
+// http://numerics.mathdotnet.com/Distance.html
+public enum DistanceKernel {
+
+	MEAN() { // mean over distance values (MAE)
+
+		@Override
+		protected double accumulate(double d) { return d;       }
+
+		@Override
+		protected double distanceNonNulls(DistanceAccumulator acc, Value min, Value max) {
+			return nonNullsTypedDistance(acc.getType(), min, max);
+		}
+
+	},
+	MSE() {  // mean over squared distance values
+
+		@Override
+		protected double accumulate(double d) { return d * d;   }
+
+		@Override
+		protected double distanceNonNulls(DistanceAccumulator acc, Value min, Value max) {
+			return nonNullsTypedDistance(acc.getType(), min, max);
+		}
+
+	},
+//	HAMMING(), // mean number of equal values
+//	COSINE(),     /* ONLY FOR NUMBERS */
+	EUCLIDEAN(true) { /* ONLY FOR NUMBERS */
+		/* The Normalized Euclidean Distance is */
+		/* invariant to translation and scaling */
+		/* https://en.wikipedia.org/wiki/Mahalanobis_distance
+		 * Mahalanobis distance is preserved under full-rank
+		 * linear transformations of the space spanned by the data */
+
+		@Override
+		protected double accumulate(double d) {	return d*d;     }
+
+		@Override
+		protected double distanceNonNulls(DistanceAccumulator acc, double vMin, double vMax) {
+			final double _min_ = normalize(vMin, acc.getAvgMin(), acc.getStdMin());
+			final double _max_ = normalize(vMax, acc.getAvgMax(), acc.getStdMax());
+			return _max_ - _min_ ;
+		}
+
+		final private double normalize(double d, double avg, double std) {
+			if (std==0) return NaN; // n.b.: constant vectors are turned into 0-vectors...
+			/* this does not yields unit-length vectors but the distance
+			 * is invariant to scaling and translation from the average
+			 */
+			return ( d - avg ) / ( std ) ; // this does not lead to unit-length vectors
+		}
+
+		@Override
+		public double distance(DistanceAccumulator acc) {
+			// distance of two all-nulls vectors = + inf
+			return acc.getSumOfWeights()==0 ? POSITIVE_INFINITY :
+				   sqrt ( acc.getAccumulated() / acc.getSumOfWeights() )
+				   / ( acc.getNormModMin() * acc.getNormModMax() );
+		}
+
+	},
+	MINKOWSKI(true) { /* ONLY FOR NUMBERS */
+
+		@Override
+		protected double accumulate(double d) {	return d; }
+
+		static final private double p = 2;
+
+		@Override
+		protected double distanceNonNulls(DistanceAccumulator acc, double min, double max) {
+			return pow ( pow(min,p) + pow(max,p), 1/p );
+		}
+
+	},
+	CANBERRA(true) {  /* ONLY FOR NUMBERS */ //looks like the legacy one!
+
+		@Override
+		protected double accumulate(double d) {	return d; }
+
+		@Override
+		protected double distanceNonNulls(DistanceAccumulator acc, double min, double max) {
+			if (min==0d && max==0d) return 0d;
+			if (min==0d || max==0d) return 1d;
+			return abs(max-min) / ( abs(max)+abs(min) ); // 0<d<1
+		}
+
+	};
+
+	static final public double NULL_VS_NON_NULL_PAIRWISE_DISTANCE = 1d; // max value
+
+	final private boolean numeric;
+
+	private DistanceKernel() {
+		this(false);
+	}
+
+	private DistanceKernel(boolean numeric) {
+		this.numeric = numeric;
+	}
+
+	/**
+	 * @return true iff this kernel is defined only over numbers
+	 */
+	public boolean isNumeric() {
+		return this.numeric;
+	}
+
+	/**
+	 * @param type - the common type of the vectors
+	 * @param min  - the vector from the min site
+	 * @param max  - the vector from the max site
+	 * @return a new accumulator, to use for a single computation
+	 */
+	public DistanceAccumulator newAccumulator(Type type, Vector min, Vector max) {
+		return new DistanceAccumulator(type, min, max);
+	}
+
+	/**
+	 * The weighted distance between the two vectors by taking
+	 * into account all the linkages and their weight as returned
+	 * by a {@link PageLinkageIterator} object
+	 * @param type - the common type of the vectors
+	 * @param it -
+	 * @return the weighted distance
+	 */
+	public double distance(Type type, PageLinkageIterator it) {
+		final DistanceAccumulator acc = newAccumulator(type, it.getMinVector(), it.getMaxVector());
+		/* n.b. read at every computation, as the configuration may change */
+		final int onesThreshold = WeirConfig.getInteger(ONES2ONE);
+		if (this.isNumeric() && acc.isNumeric())
+			return numericDistance(acc, it, onesThreshold);
+		while (it.hasNext()) {
+			it.next(); // cross next Pair of values with their weight
+
+			final Value min = it.getMin(), max = it.getMax();
+
+			if (min==null || max==null) continue;
+			// ignore this pair of null-values
+			if (min.isNull() && max.isNull()) continue; // CHECK why not 0d?
+
+			final double weight = it.getWeight();
+			acc.addWeight(weight); // accumulate weights
+
+			final double d = this.distance(acc, min, max);
+			if (acc.countOnes(d)==onesThreshold)
+				return POSITIVE_INFINITY;
+
+			acc.accumulate(weight * this.accumulate(d));
+		}
+		return this.distance(acc);
+	}
+
+	/* same as above, straight over the columns of the vectors */
+	private double numericDistance(DistanceAccumulator acc, PageLinkageIterator it, int onesThreshold) {
+		final Column minColumn = acc.getMin().getColumn(), maxColumn = acc.getMax().getColumn();
+		final PageIndex minPages = acc.getMin().getPageIndex(), maxPages = acc.getMax().getPageIndex();
+		while (it.hasNext()) {
+			it.nextPageLinkage();
+
+			final int i = minPages.positionOf(it.getMinPage());
+			final int j = maxPages.positionOf(it.getMaxPage());
+			if (i<0 || j<0) continue;
+
+			final boolean minIsNull = minColumn.isNull(i), maxIsNull = maxColumn.isNull(j);
+			if (minIsNull && maxIsNull) continue;
+
+			final double weight = it.getWeight();
+			acc.addWeight(weight);
+
+			final double d = ( minIsNull || maxIsNull ? NULL_VS_NON_NULL_PAIRWISE_DISTANCE :
+				distanceNonNulls(acc, minColumn.getNumericValue(i), maxColumn.getNumericValue(j)) );
+			if (acc.countOnes(d)==onesThreshold)
+				return POSITIVE_INFINITY;
+
+			acc.accumulate(weight * this.accumulate(d));
+		}
+		return this.distance(acc);
+	}
+
+	abstract protected double accumulate(double d);
+
+	/**
+	 * Pairwise distance between two values
+	 * @param acc - the accumulator of the current computation
+	 * @param min
+	 * @param max
+	 */
+	public double distance(DistanceAccumulator acc, Value min, Value max) {
+		if (min.isNull() || max.isNull())
+			/* compute over a pair with one null value */
+			return distanceOneNull(min, max);
+		else
+			/* compute over a  pair of non null values */
+			return distanceNonNulls(acc, min, max);
+	}
+
+	/**
+	 * Pairwise distance between two values which are both not nulls
+	 * @param acc
+	 * @param min
+	 * @param max
+	 */
+	protected double distanceNonNulls(DistanceAccumulator acc, Value min, Value max) {
+		return distanceNonNulls(acc, min.getNumericValue(), max.getNumericValue());
+	}
+
+	/**
+	 * Pairwise distance between two numbers
+	 * @param acc
+	 * @param min
+	 * @param max
+	 */
+	protected double distanceNonNulls(DistanceAccumulator acc, double min, double max) {
+		throw new UnsupportedOperationException();
+	}
+
+	/**
+	 * Pairwise distance between two values one of which is null.
+	 * Default behavior is to use max value distance, i.e., 1.0
+	 * @param min
+	 * @param max
+	 */
+	protected double distanceOneNull(Value min, Value max) {
+		return NULL_VS_NON_NULL_PAIRWISE_DISTANCE;
+	}
+
+	/**
+	 * Wrap-up.
+	 * @param acc
+	 * @return the final distance value.
+	 */
+	public double distance(DistanceAccumulator acc) {
+		// distance of two all-nulls vectors = + inf
+		return ( acc.getSumOfWeights()==0  ? POSITIVE_INFINITY :
+			     acc.getAccumulated() / acc.getSumOfWeights() );
+	}
+
+}
@@ -51,17 +51,11 @@ public class FormatRule {
 	public String extract(String s) {
 		if (this.matchIndex==-1) return null;
 		final Matcher matcher = this.pattern.matcher(s);
-		matcher.find();
-		for (int i=0; i<this.matchIndex; i++) {
-			matcher.find();
-		}
-		try {
-			return matcher.group();
-		}
-		catch (final IllegalStateException e) {
+		for (int i=0; i<=this.matchIndex; i++) {
 			// no match means that the rule does not apply
-			return null;
+			if (!matcher.find()) return null;
 		}
+		return matcher.group();
 	}
 
 	public LinkedList<String> extractAll(String s) {
@@ -0,0 +1,58 @@
+package it.uniroma3.weir.vector.signature;
+
+/**
+ * The unsmoothed Jensen-Shannon similarity between the token
+ * distributions of two {@link Signature}s, computed by merging their
+ * sorted token ids.
+ * <br/>
+ * It gives the same scores of {@link com.wcohen.ss.UnsmoothedJS}
+ * (up to the rounding of a different summation order): with
+ * <tt>p</tt> and <tt>q</tt> the relative frequencies of a token in
+ * the two values, and <tt>h(x) = -x ln(x)</tt>, the score is
+ * <br/>
+ * <tt>1/2 &Sigma;<sub>shared tokens</sub> ( h(p) + h(q) - h(p+q) ) / ln(2)</tt>
+ * <br/>
+ * Two signatures from different {@link TokenDictionary}s, e.g., one
+ * cached before the {@link SignatureCache} was cleared, are compared
+ * by signing again the first one. Values without common q-grams score
+ * 0 straight away (see {@link Signature#mayShareTokens(Signature)}).
+ */
+public class JensenShannon {
+
+	static final private double LN_2 = Math.log(2d);
+
+	private JensenShannon() { }
+
+	/**
+	 * @return the similarity, 0 if no token is shared, about 1
+	 *         (maybe slightly more) for the same distributions
+	 */
+	static public double similarity(Signature s1, Signature s2) {
+		if (!s1.mayShareTokens(s2)) return 0d;
+		return score(s1.in(s2.getDictionary()), s2);
+	}
+
+	static private double score(Signature s1, Signature s2) {
+		final int[] t1 = s1.getTokens(), t2 = s2.getTokens();
+		final int[] c1 = s1.getCounts(), c2 = s2.getCounts();
+		final double n1 = s1.getTotalCount(), n2 = s2.getTotalCount();
+		double sum = 0d;
+		for(int i=0, j=0; i<t1.length && j<t2.length; ) {
+			if (t1[i]<t2[j]) i++;
+			else if (t1[i]>t2[j]) j++;
+			else {
+				final double p = c1[i] / n1;
+				final double q = c2[j] / n2;
+				sum += h(p) + h(q) - h(p+q);
+				i++;
+				j++;
+			}
+		}
+		return 0.5d * sum / LN_2;
+	}
+
+	static private double h(double x) {
+		return -x * Math.log(x);
+	}
+
+}
@@ -0,0 +1,185 @@
+package it.uniroma3.weir.vector.signature;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The precomputed features of a string value used by the string
+ * similarities, so that the same value is not tokenized again at
+ * every comparison:
+ * <ul>
+ * <li>the multiset of its tokens, as the sorted ids of its distinct
+ *     tokens (see {@link TokenDictionary}) with their counts: only the
+ *     signatures from the same dictionary can be compared;</li>
+ * <li>a sketch of the character {@value #Q}-grams of its tokens, as
+ *     their sorted hashes, also folded into 64 bits: two values
+ *     without common {@value #Q}-grams cannot share any token,
+ *     whatever the dictionaries of their signatures.</li>
+ * </ul>
+ * Tokens are the maximal runs of letters, and of digits, in lower case;
+ * any other character is a separator, as for the
+ * {@link com.wcohen.ss.tokens.SimpleTokenizer} of secondstring
+ * ignoring punctuation and case.
+ * <br/>
+ * Instances of this class are immutable, and usually obtained
+ * from a {@link SignatureCache}.
+ */
+public class Signature {
+
+	static final public int Q = 3;
+
+	/* pads every token, so that even the shortest has a q-gram */
+	static final private char PAD = ' ';
+
+	final private String text;
+
+	final private TokenDictionary dictionary;
+
+	final private int[] tokens;
+
+	final private int[] counts;
+
+	final private int totalCount;
+
+	final private int[] qgrams;
+
+	final private long qgramBits;
+
+	/**
+	 * @param text a (non-null) value
+	 * @param dictionary interning the tokens
+	 */
+	public Signature(String text, TokenDictionary dictionary) {
+		this.text = text;
+		this.dictionary = dictionary;
+		final List<String> tokens = tokens(text);
+		final int[] ids = new int[tokens.size()];
+		for(int i=0; i<ids.length; i++)
+			ids[i] = dictionary.intern(tokens.get(i));
+		Arrays.sort(ids);
+		int distinct = 0;
+		for(int i=0; i<ids.length; i++)
+			if (i==0 || ids[i]!=ids[i-1]) distinct++;
+		this.tokens = new int[distinct];
+		this.counts = new int[distinct];
+		int j = -1;
+		for(int i=0; i<ids.length; i++) {
+			if (i==0 || ids[i]!=ids[i-1]) this.tokens[++j] = ids[i];
+			this.counts[j]++;
+		}
+		this.totalCount = ids.length;
+		this.qgrams = qgrams(tokens);
+		long bits = 0L;
+		for(int qgram : this.qgrams)
+			bits |= 1L << ( (qgram*0x9E3779B9) >>> 26 );
+		this.qgramBits = bits;
+	}
+
+	static private List<String> tokens(String text) {
+		final List<String> result = new ArrayList<>();
+		final int length = text.length();
+		int i = 0;
+		while (i<length) {
+			final char c = text.charAt(i);
+			final int start = i;
+			if (Character.isLetter(c)) {
+				while (i<length && Character.isLetter(text.charAt(i))) i++;
+			} else if (Character.isDigit(c)) {
+				while (i<length && Character.isDigit(text.charAt(i))) i++;
+			} else {
+				i++;
+				continue;
+			}
+			result.add(text.substring(start, i).toLowerCase());
+		}
+		return result;
+	}
+
+	static private int[] qgrams(List<String> tokens) {
+		int[] result = new int[8];
+		int size = 0;
+		for(String token : tokens) {
+			final String padded = PAD + token + PAD;
+			for(int i=0; i+Q<=padded.length(); i++) {
+				if (size==result.length) result = Arrays.copyOf(result, 2*size);
+				result[size++] = padded.substring(i, i+Q).hashCode();
+			}
+		}
+		Arrays.sort(result, 0, size);
+		int distinct = 0;
+		for(int i=0; i<size; i++)
+			if (i==0 || result[i]!=result[distinct-1])
+				result[distinct++] = result[i];
+		return Arrays.copyOf(result, distinct);
+	}
+
+	public String getText() {
+		return this.text;
+	}
+
+	public TokenDictionary getDictionary() {
+		return this.dictionary;
+	}
+
+	/**
+	 * @param dictionary a dictionary
+	 * @return the signature of the same text from that dictionary
+	 */
+	public Signature in(TokenDictionary dictionary) {
+		return ( this.dictionary==dictionary ? this : new Signature(this.text, dictionary) );
+	}
+
+	/**
+	 * @return the sorted ids of the distinct tokens
+	 */
+	public int[] getTokens() {
+		return this.tokens;
+	}
+
+	/**
+	 * @return the number of occurrences of each token
+	 *         returned by {@link #getTokens()}
+	 */
+	public int[] getCounts() {
+		return this.counts;
+	}
+
+	/**
+	 * @return the number of tokens, with repetitions
+	 */
+	public int getTotalCount() {
+		return this.totalCount;
+	}
+
+	/**
+	 * @return the sorted hashes of the distinct {@value #Q}-grams
+	 *         of the tokens, each padded by a blank
+	 */
+	public int[] getQGrams() {
+		return this.qgrams;
+	}
+
+	/**
+	 * @param that another signature, maybe from another dictionary
+	 * @return false if the two values certainly share no token,
+	 *         as they share no {@value #Q}-gram
+	 */
+	public boolean mayShareTokens(Signature that) {
+		if ((this.qgramBits & that.qgramBits)==0L) return false;
+		if (this.dictionary==that.dictionary) return true; // tokens are merged anyway
+		final int[] q1 = this.qgrams, q2 = that.qgrams;
+		for(int i=0, j=0; i<q1.length && j<q2.length; ) {
+			if (q1[i]<q2[j]) i++;
+			else if (q1[i]>q2[j]) j++;
+			else return true;
+		}
+		return false;
+	}
+
+	@Override
+	public String toString() {
+		return this.text+Arrays.toString(this.tokens);
+	}
+
+}
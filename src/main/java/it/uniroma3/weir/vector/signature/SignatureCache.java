@@ -0,0 +1,90 @@
+package it.uniroma3.weir.vector.signature;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * The {@link Signature}s of the distinct values compared so far,
+ * computed once and shared by all the threads.
+ * <br/>
+ * The same values are compared over and over, e.g., while building
+ * the pyramid of the attribute distances, while clustering vectors,
+ * and while linking pages: the cache is simply emptied, together with
+ * its {@link TokenDictionary}, whenever it grows beyond {@link #MAX_SIZE}
+ * values, or whenever it is {@link #clear()}ed, so that neither grows
+ * without bound.
+ * <br/>
+ * The values are not given their own signatures: the values of a vector
+ * are materialized anew at every access, but their texts are the very
+ * strings of its {@link it.uniroma3.weir.vector.column.StringDictionary},
+ * whose lookups here are cheap.
+ */
+public class SignatureCache {
+
+	static final public int MAX_SIZE = 1 << 20;
+
+	static final private SignatureCache INSTANCE = new SignatureCache();
+
+	static public SignatureCache getInstance() {
+		return INSTANCE;
+	}
+
+	/**
+	 * @param text a (non-null) value
+	 * @return its signature from the shared cache
+	 */
+	static public Signature signatureOf(String text) {
+		return INSTANCE.get(text);
+	}
+
+	/* the signatures cached so far, with the dictionary of their tokens */
+	static final private class Generation {
+
+		final private TokenDictionary dictionary = new TokenDictionary();
+
+		final private ConcurrentMap<String, Signature> text2signature = new ConcurrentHashMap<>();
+
+	}
+
+	private volatile Generation generation;
+
+	SignatureCache() {
+		this.generation = new Generation();
+	}
+
+	public Signature get(String text) {
+		Generation current = this.generation;
+		Signature result = current.text2signature.get(text);
+		if (result==null) {
+			if (current.text2signature.size()>=MAX_SIZE) {
+				clear();
+				current = this.generation;
+			}
+			result = new Signature(text, current.dictionary);
+			/* n.b. equivalent signatures computed concurrently are interchangeable */
+			current.text2signature.put(text, result);
+		}
+		return result;
+	}
+
+	/**
+	 * @return the dictionary of the signatures cached now
+	 */
+	public TokenDictionary getDictionary() {
+		return this.generation.dictionary;
+	}
+
+	public int size() {
+		return this.generation.text2signature.size();
+	}
+
+	/**
+	 * Forget all the signatures and their tokens: the signatures
+	 * already obtained can still be compared with the new ones,
+	 * see {@link JensenShannon}.
+	 */
+	public void clear() {
+		this.generation = new Generation();
+	}
+
+}
@@ -0,0 +1,44 @@
+package it.uniroma3.weir.vector.signature;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Intern the tokens of all the values as dense <tt>int</tt> ids,
+ * shared by all the {@link Signature}s: two signatures can be compared
+ * by their ids only, without looking at the tokens again.
+ * <br/>
+ * Ids are never reused; the dictionary can be used concurrently.
+ * It is discarded, with all its ids, together with the
+ * {@link SignatureCache} that owns it.
+ */
+public class TokenDictionary {
+
+	final private ConcurrentMap<String, Integer> ids;
+
+	final private AtomicInteger nextId;
+
+	public TokenDictionary() {
+		this.ids = new ConcurrentHashMap<>();
+		this.nextId = new AtomicInteger();
+	}
+
+	/**
+	 * @param token a token
+	 * @return its id, possibly a new one
+	 */
+	public int intern(String token) {
+		final Integer id = this.ids.get(token);
+		if (id!=null) return id;
+		final Integer candidate = this.nextId.getAndIncrement();
+		final Integer previous = this.ids.putIfAbsent(token, candidate);
+		/* n.b. a concurrently wasted id just leaves a gap */
+		return ( previous!=null ? previous : candidate );
+	}
+
+	public int size() {
+		return this.ids.size();
+	}
+
+}
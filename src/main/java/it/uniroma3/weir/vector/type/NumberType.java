@@ -2,7 +2,7 @@ package it.uniroma3.weir.vector.type;
 
 import static it.uniroma3.weir.vector.format.Decoders.NUMBER_DECODER;
 import static it.uniroma3.weir.vector.value.ValueDistances.NUMBER_DISTANCE;
-import it.uniroma3.weir.vector.DistanceFunction;
+import it.uniroma3.weir.vector.distance.DistanceKernel;
 import it.uniroma3.weir.vector.ExtractedVector;
 import it.uniroma3.weir.vector.NumericVector;
 import it.uniroma3.weir.vector.format.TypeDecoder;
@@ -17,14 +17,12 @@ public class NumberType extends Type {
 	static final private long serialVersionUID = -8027306138243762948L;
 
 	/**
-	 * Create a type-aware distance function between 
+	 * The type-aware distance kernel between 
 	 * numeric vectors
 	 */
 	@Override
-	public DistanceFunction createDistanceFunction() {
-		final DistanceFunction df = DistanceFunction.EUCLIDEAN;
-		df.init(this);
-		return df;
+	public DistanceKernel getDistanceKernel() {
+		return DistanceKernel.EUCLIDEAN;
 	}
 	
 	@Override
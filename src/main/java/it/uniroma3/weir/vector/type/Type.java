@@ -3,7 +3,7 @@ package it.uniroma3.weir.vector.type;
 import static it.uniroma3.weir.configuration.Constants.DATATYPES;
 import static it.uniroma3.weir.vector.format.TypeDecoder.IDENTITY;
 import it.uniroma3.weir.configuration.WeirConfig;
-import it.uniroma3.weir.vector.DistanceFunction;
+import it.uniroma3.weir.vector.distance.DistanceKernel;
 import it.uniroma3.weir.vector.ExtractedVector;
 import it.uniroma3.weir.vector.Vector;
 import it.uniroma3.weir.vector.format.TypeDecoder;
@@ -78,6 +78,13 @@ public abstract class Type implements Serializable {
 	static public Type rootType() { return STRING; }
 	
 	static public Type getCommonAncestor(Type t1, Type t2) {
+		final int i1 = Hierarchy.indexOf(t1);
+		final int i2 = Hierarchy.indexOf(t2);
+		if (i1>=0 && i2>=0) return Hierarchy.COMMON_ANCESTORS[i1][i2];
+		return findCommonAncestor(t1, t2);
+	}
+
+	static private Type findCommonAncestor(Type t1, Type t2) {
 		List<Type> anc1 = t1.getAllAncestors();
 		List<Type> anc2 = t2.getAllAncestors();
 		for (Type a : anc1) {
@@ -89,6 +96,29 @@ public abstract class Type implements Serializable {
 		throw new IllegalStateException("The types hierarchy must be single rooted at "+rootType());
 	}
 		
+	/* the common ancestors of the built-in types, computed once */
+	static final private class Hierarchy {
+
+		static final private Type[] TYPES = { 
+			STRING, NUMBER, DATE, ISBN, PHONE, URL, DIMENSIONAL, SPACE, MONEY, MASS 
+		};
+
+		static final private Type[][] COMMON_ANCESTORS = new Type[TYPES.length][TYPES.length];
+
+		static {
+			for(int i=0; i<TYPES.length; i++)
+				for(int j=0; j<TYPES.length; j++)
+					COMMON_ANCESTORS[i][j] = findCommonAncestor(TYPES[i], TYPES[j]);
+		}
+
+		static private int indexOf(Type type) {
+			for(int i=0; i<TYPES.length; i++)
+				if (TYPES[i].getClass()==type.getClass()) return i;
+			return -1;
+		}
+
+	}
+
 	private List<Type> getAllAncestors() {
 		final List<Type> ancestors = new ArrayList<Type>();
 		Type current = this;
@@ -186,13 +216,11 @@ public abstract class Type implements Serializable {
 	
 	
 	/**
-	 * Create a type-aware distance function between 
+	 * The type-aware distance kernel between 
 	 * vectors of all values of a certain type
 	 */
-	public DistanceFunction createDistanceFunction() {
-		final DistanceFunction df = DistanceFunction.MEAN;
-		df.init(this);
-		return df;
+	public DistanceKernel getDistanceKernel() {
+		return DistanceKernel.MEAN;
 	}
 	
 	public Vector createTypedVector(ExtractedVector extracted, String... values) {
@@ -0,0 +1,115 @@
+package it.uniroma3.weir.vector.type;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Recognize at once all the {@link Type}s, out of a list, of
+ * a string value: the result is a bitmask with the <tt>i</tt>-th bit
+ * set iff the value is an instance of the <tt>i</tt>-th type.
+ * <br/>
+ * The types of a whole vector are then the bitwise AND of
+ * the bitmasks of its values, and they are computed lazily: a value is
+ * checked only against the types still shared by all the values
+ * before it, and the root type (see {@link Type#rootType()}), which
+ * accepts any value, is never checked.
+ * <br/>
+ * The same texts are extracted by many rules: the types already
+ * recognized for a text are remembered (up to {@link #MAX_CACHED}
+ * distinct texts), together with the types already excluded.
+ */
+public class TypeRecognizer {
+
+	static final public int MAX_TYPES = 32;
+
+	static final public int MAX_CACHED = 1 << 16;
+
+	static final private long LOW_BITS = 0xFFFFFFFFL;
+
+	final private Type[] types;
+
+	/* the types checked without running their decoders */
+	final private int anyValue;
+
+	final private int all;
+
+	/* for every checked text: the tested types (high bits)
+	 * and those accepting it (low bits) */
+	final private ConcurrentMap<String, Long> text2types;
+
+	/**
+	 * @param types - the types to recognize, at most {@link #MAX_TYPES}
+	 */
+	public TypeRecognizer(List<Type> types) {
+		if (types.size()>MAX_TYPES)
+			throw new IllegalArgumentException("At most "+MAX_TYPES+" types can be recognized: "+types);
+		this.types = types.toArray(new Type[types.size()]);
+		this.all = ( this.types.length==MAX_TYPES ? -1 : (1<<this.types.length)-1 );
+		int root = 0;
+		for(int i=0; i<this.types.length; i++)
+			if (this.types[i].getParent()==null) root |= 1<<i;
+		this.anyValue = root;
+		this.text2types = new ConcurrentHashMap<>();
+	}
+
+	public Type getType(int index) {
+		return this.types[index];
+	}
+
+	/**
+	 * @return the bitmask of all the types
+	 */
+	public int all() {
+		return this.all;
+	}
+
+	/**
+	 * @param value      - a value, or null (an instance of any type)
+	 * @param candidates - a bitmask of the types to check
+	 * @return the bitmask of the candidate types of the value
+	 */
+	public int recognize(String value, int candidates) {
+		if (value==null) return candidates;
+		final int toCheck = candidates & ~this.anyValue;
+		if (toCheck==0) return candidates;
+
+		final Long cached = this.text2types.get(value);
+		int tested   = ( cached!=null ? (int)(cached>>>32)      : 0 );
+		int accepted = ( cached!=null ? (int)(cached & LOW_BITS) : 0 );
+		final int untested = toCheck & ~tested;
+		if (untested!=0) {
+			for(int i=0; i<this.types.length; i++)
+				if ((untested & (1<<i))!=0 && this.types[i].instanceOf(value))
+					accepted |= 1<<i;
+			tested |= untested;
+			if (this.text2types.size()>=MAX_CACHED) this.text2types.clear();
+			this.text2types.put(value, ((long)tested<<32) | (accepted & LOW_BITS));
+		}
+		return candidates & (accepted | this.anyValue);
+	}
+
+	/**
+	 * @param values - the values of a vector
+	 * @return the bitmask of the types of all the values
+	 */
+	public int recognizeAll(String... values) {
+		int result = this.all;
+		for(String value : values) {
+			result = recognize(value, result);
+			if ((result & ~this.anyValue)==0) break;
+		}
+		return result;
+	}
+
+	/**
+	 * @param values - the values of a vector
+	 * @return the first type, in order, of all the values;
+	 *         null if none
+	 */
+	public Type findType(String... values) {
+		final int mask = recognizeAll(values);
+		return ( mask==0 ? null : this.types[Integer.numberOfTrailingZeros(mask)] );
+	}
+
+}
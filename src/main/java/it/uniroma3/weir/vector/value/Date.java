@@ -55,6 +55,16 @@ public class Date implements Comparable<Date>, Serializable {
 		return this.day==that.day && this.month==that.month && this.year==that.year;
 	}
 
+	@Override
+	public int hashCode() {
+		return hashCode(this.day, this.month, this.year);
+	}
+
+	/* see DateColumn */
+	static public int hashCode(int day, int month, int year) {
+		return (31*year + month)*31 + day;
+	}
+
 	@Override
 	public int compareTo(Date that) {
 		int cmp = this.getYear()-that.getYear();
@@ -51,11 +51,28 @@ public class ExtractedValue extends Value implements Serializable {
 		this(page,text,(String)null); 
 	}
 
-    /* golden-values: see a few lines below... */
-	protected ExtractedValue(Webpage page, String text, String mark) {
+    /* golden-values: see a few lines below... (and cached values) */
+	public ExtractedValue(Webpage page, String text, String mark) {
 		super(page,emptyStringAsNullMarker(sanitize(text)));
 		this.mark = mark;
 	}
+
+	/* restore an already sanitized value, e.g., from a columnar vector */
+	private ExtractedValue(Webpage page, Object sanitized, String mark) {
+		super(page,sanitized);
+		this.mark = mark;
+	}
+
+	/**
+	 * @param page
+	 * @param text a text as returned by {@link #getValue()}
+	 * @param mark
+	 * @return the value, without sanitizing its text again
+	 */
+	static public ExtractedValue restore(Webpage page, String text, String mark) {
+		return new ExtractedValue(page, (Object)text, mark);
+	}
+
 	static private String emptyStringAsNullMarker(String value) {
 		// the empty string is a null-marker
 		return value==null || value.isEmpty() ? null : value.trim();
@@ -64,7 +81,7 @@ public class ExtractedValue extends Value implements Serializable {
 	public String getOccurrenceMark() {
 		return this.mark;
 	}
-	
+
 	/**
 	 * @return the {@link String} object as a typed 
 	 *         interpretation of this extracted value
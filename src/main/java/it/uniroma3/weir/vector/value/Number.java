@@ -38,6 +38,12 @@ public class Number implements Comparable<Number>, Serializable {
 		return this.value.equals(that.value);
 	}
 
+	/* n.b. the same for a Dimensional, whatever its marker */
+	@Override
+	public int hashCode() {
+		return this.value.hashCode();
+	}
+
 	@Override
 	public String toString() {
 		return thousandth.format(this.value);
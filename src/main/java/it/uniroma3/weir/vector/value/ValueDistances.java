@@ -1,9 +1,9 @@
 package it.uniroma3.weir.vector.value;
 
 import static java.lang.Math.abs;
-
-import com.wcohen.ss.UnsmoothedJS;
-import com.wcohen.ss.api.StringDistance;
+import it.uniroma3.weir.vector.signature.JensenShannon;
+import it.uniroma3.weir.vector.signature.Signature;
+import it.uniroma3.weir.vector.signature.SignatureCache;
 
 public enum ValueDistances {
 	
@@ -17,7 +17,7 @@ public enum ValueDistances {
 	JSDISTANCE {
 		@Override
 		public double distance(Object value1, Object value2) {
-			final double score = JS_DISTANCE.score(value1.toString(), value2.toString());
+			final double score = JensenShannon.similarity(signatureOf(value1), signatureOf(value2));
 			return (score > 1d ? 0d : 1d - score );
 		}
 	},
@@ -54,7 +54,10 @@ public enum ValueDistances {
 
 	abstract public double distance(Object value1, Object value2);
 
-	static final private StringDistance JS_DISTANCE = new UnsmoothedJS();
+	/* the tokens of a value are computed once, see SignatureCache */
+	static final private Signature signatureOf(Object value) {
+		return SignatureCache.signatureOf(value.toString());
+	}
 
 //	static final public double dateDistance(Object value1, Object value2) {
 //		final Date date1 = (Date)value1, date2 = (Date)value2;
@@ -0,0 +1,181 @@
+package it.uniroma3.weir.cache;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.List;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class CacheManifestTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private File blob(String name, int bytes) throws IOException {
+		final File dir = new File(new File(this.folder.getRoot(), CacheOrganizer.BLOBS_DIR), name.substring(0, 2));
+		dir.mkdirs();
+		final File file = new File(dir, name);
+		Files.write(file.toPath(), new byte[bytes]);
+		return file;
+	}
+
+	private CacheManifest reload() {
+		final CacheManifest result = new CacheManifest(this.folder.getRoot());
+		result.load();
+		return result;
+	}
+
+	@Test
+	public void testReference_byDatasetAndDomain() throws IOException {
+		final CacheManifest manifest = new CacheManifest(this.folder.getRoot());
+		final File b1 = blob("01_data", 10);
+		final File b2 = blob("02_data", 20);
+		manifest.add(b1, 1);
+		manifest.add(b2, 2);
+		manifest.add(blob("03_data", 30), 3);
+		assertTrue(manifest.reference(b1, "swde", "book"));
+		assertFalse(manifest.reference(b1, "swde", "book"));
+		manifest.reference(b1, "weir", "book");
+		manifest.reference(b2, "swde", "auto");
+		assertEquals(3, manifest.getEntries(null, null).size());
+		assertEquals(2, manifest.getEntries("swde", null).size());
+		assertEquals(1, manifest.getEntries(null, "book").size());
+		assertEquals("blobs/02/02_data", manifest.getEntries("swde", "auto").get(0).getPath());
+		assertEquals(2, manifest.getEntries(null, "book").get(0).getReferenceCount());
+		assertEquals(60, manifest.getTotalBytes());
+	}
+
+	@Test
+	public void testCollectGarbage_unreferencedOnly() throws IOException {
+		final CacheManifest manifest = new CacheManifest(this.folder.getRoot());
+		final File shared = blob("01_data", 10);
+		final File owned = blob("02_data", 10);
+		manifest.add(shared, 1);
+		manifest.add(owned, 2);
+		manifest.reference(shared, "swde", "book");
+		manifest.reference(shared, "weir", "book");
+		manifest.reference(owned, "swde", "book");
+		assertEquals(2, manifest.unreference("swde", null));
+		final List<CacheManifest.Entry> collected = manifest.collectGarbage();
+		assertEquals(1, collected.size());
+		assertFalse(owned.exists());
+		assertTrue(shared.exists());
+		assertEquals(1, manifest.getEntries("weir", "book").size());
+	}
+
+	@Test
+	public void testEvict_leastRecentlyAccessedBeyondQuota() throws IOException {
+		final CacheManifest manifest = new CacheManifest(this.folder.getRoot());
+		final File b1 = blob("01_data", 10);
+		final File b2 = blob("02_data", 10);
+		final File b3 = blob("03_data", 10);
+		manifest.add(b1, 1);
+		manifest.add(b2, 2);
+		manifest.add(b3, 3);
+		manifest.touch(b1, 4);
+		final List<CacheManifest.Entry> evicted = manifest.evict(20, 0, 5);
+		assertEquals(1, evicted.size());
+		assertEquals("blobs/02/02_data", evicted.get(0).getPath());
+		assertFalse(b2.exists());
+		assertTrue(b1.exists());
+		assertEquals(20, manifest.getTotalBytes());
+	}
+
+	@Test
+	public void testEvict_tooOld() throws IOException {
+		final CacheManifest manifest = new CacheManifest(this.folder.getRoot());
+		manifest.add(blob("01_data", 10), 100);
+		manifest.add(blob("02_data", 10), 900);
+		assertEquals(1, manifest.evict(0, 500, 1000).size());
+		assertEquals(0, manifest.evict(0, 0, 1000).size());
+		assertEquals(1, manifest.size());
+	}
+
+	@Test
+	public void testSave_andLoad() throws IOException {
+		final CacheManifest saved = new CacheManifest(this.folder.getRoot());
+		final File b1 = blob("01_data", 10);
+		saved.add(b1, 7);
+		saved.reference(b1, "swde", "book");
+		saved.save();
+		assertTrue(new File(this.folder.getRoot(), "swde/book/"+CacheManifest.INDEX_FILENAME).exists());
+		final CacheManifest loaded = reload();
+		assertEquals(1, loaded.size());
+		final CacheManifest.Entry entry = loaded.getEntries(null, null).get(0);
+		assertEquals(10, entry.getBytes());
+		assertEquals(7, entry.getAccessed());
+		assertTrue(entry.isReferencedBy("swde", "book"));
+	}
+
+	@Test
+	public void testSave_dropsEmptyIndexes() throws IOException {
+		final CacheManifest manifest = new CacheManifest(this.folder.getRoot());
+		final File b1 = blob("01_data", 10);
+		manifest.add(b1, 7);
+		manifest.reference(b1, "swde", "book");
+		manifest.save();
+		manifest.unreference("swde", "book");
+		manifest.save();
+		assertFalse(new File(this.folder.getRoot(), "swde/book/"+CacheManifest.INDEX_FILENAME).exists());
+		assertEquals(0, reload().getEntries("swde", null).size());
+	}
+
+	@Test
+	public void testSave_onlyIfModified() throws IOException {
+		final CacheManifest manifest = new CacheManifest(this.folder.getRoot());
+		final File b1 = blob("01_data", 10);
+		manifest.add(b1, 7);
+		assertTrue(manifest.isModified());
+		manifest.save();
+		assertFalse(manifest.isModified());
+		final File saved = new File(this.folder.getRoot(), CacheManifest.MANIFEST_FILENAME);
+		assertTrue(saved.delete());
+		manifest.touch(b1, 7);
+		manifest.save();
+		assertFalse(saved.exists());
+		manifest.touch(b1, 8);
+		assertTrue(manifest.isModified());
+		manifest.save();
+		assertEquals(8, reload().getEntries(null, null).get(0).getAccessed());
+	}
+
+	@Test
+	public void testPendingChanges_onlyAddedOrRemovedBlobs() throws IOException {
+		final CacheManifest manifest = new CacheManifest(this.folder.getRoot());
+		final File b1 = blob("01_data", 10);
+		manifest.add(b1, 7);
+		manifest.add(blob("02_data", 20), 7);
+		manifest.touch(b1, 8);
+		manifest.reference(b1, "swde", "book");
+		assertEquals(2, manifest.getPendingChanges());
+		manifest.remove(manifest.getEntries(null, null).get(0));
+		assertEquals(3, manifest.getPendingChanges());
+		manifest.save();
+		assertEquals(0, manifest.getPendingChanges());
+	}
+
+	@Test
+	public void testLoad_reconcilesWithBlobs() throws IOException {
+		final CacheManifest saved = new CacheManifest(this.folder.getRoot());
+		final File deleted = blob("01_data", 10);
+		saved.add(deleted, 7);
+		saved.reference(deleted, "swde", "book");
+		saved.save();
+		deleted.delete();
+		blob("02_data", 20);
+		blob("03_data.tmp", 5);
+		final CacheManifest loaded = reload();
+		assertEquals(1, loaded.size());
+		final CacheManifest.Entry adopted = loaded.getEntries(null, null).get(0);
+		assertEquals("blobs/02/02_data", adopted.getPath());
+		assertEquals(0, adopted.getReferenceCount());
+	}
+
+}
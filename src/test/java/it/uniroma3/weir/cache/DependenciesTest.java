@@ -0,0 +1,116 @@
+package it.uniroma3.weir.cache;
+
+import static it.uniroma3.weir.configuration.Constants.*;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import it.uniroma3.preferences.Constant;
+import it.uniroma3.weir.configuration.WeirConfig;
+import it.uniroma3.weir.fixture.WeirTest;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class DependenciesTest extends WeirTest {
+
+	private Dependencies upstream;
+
+	private Dependencies downstream;
+
+	private Dependencies sibling;
+
+	@Before
+	public void setUp() {
+		this.upstream = new Dependencies("up").reads(MAX_EXTRACTION_SAMPLES).ignores(EXTRACTION_THREADS);
+		this.downstream = new Dependencies("down", this.upstream).reads(MAX_DISTANCE_THRESHOLD);
+		this.sibling = new Dependencies("sibling", this.upstream).reads(LOCAL_CONSISTENCY_THRESHOLD);
+	}
+
+	private void set(Constant constant, String value) {
+		WeirConfig.getInstance().setProperty(constant, value);
+	}
+
+	@Test
+	public void testFingerprintIsStable() {
+		assertEquals(this.downstream.getFingerprint().toString(),
+					 this.downstream.getFingerprint().toString());
+		assertFalse(this.downstream.getFingerprint().toString().equals(
+					this.sibling.getFingerprint().toString()));
+	}
+
+	@Test
+	public void testChangeInvalidatesOnlyDownstream() {
+		final String up = this.upstream.getFingerprint().toString();
+		final String down = this.downstream.getFingerprint().toString();
+		final String sibling = this.sibling.getFingerprint().toString();
+
+		set(MAX_DISTANCE_THRESHOLD, "0.25");
+		assertEquals(up, this.upstream.getFingerprint().toString());
+		assertFalse(down.equals(this.downstream.getFingerprint().toString()));
+		assertEquals(sibling, this.sibling.getFingerprint().toString());
+	}
+
+	@Test
+	public void testUpstreamChangePropagates() {
+		final String down = this.downstream.getFingerprint().toString();
+		final String sibling = this.sibling.getFingerprint().toString();
+
+		set(MAX_EXTRACTION_SAMPLES, "7");
+		assertFalse(down.equals(this.downstream.getFingerprint().toString()));
+		assertFalse(sibling.equals(this.sibling.getFingerprint().toString()));
+	}
+
+	@Test
+	public void testUndeclaredAndIgnoredChangesDoNotInvalidate() {
+		final String down = this.downstream.getFingerprint().toString();
+		set(EXTRACTION_THREADS, "7");
+		set(LOCAL_CONSISTENCY_THRESHOLD, "0.5");
+		assertEquals(down, this.downstream.getFingerprint().toString());
+	}
+
+	@Test
+	public void testAllValuesOfListsAreFingerprinted() {
+		final Dependencies node = new Dependencies("list").reads(EXTRACTION_RULES_CLASSES);
+		set(EXTRACTION_RULES_CLASSES, "positional,relative");
+		final String both = node.getFingerprint().toString();
+		set(EXTRACTION_RULES_CLASSES, "positional");
+		assertFalse(both.equals(node.getFingerprint().toString()));
+	}
+
+	@Test
+	public void testUndeclared() {
+		final Constant[] accessed = { MAX_DISTANCE_THRESHOLD, MAX_EXTRACTION_SAMPLES, EXTRACTION_THREADS,
+				                      CACHING_ENABLED, LOCAL_CONSISTENCY_THRESHOLD };
+		assertEquals(Collections.singleton(LOCAL_CONSISTENCY_THRESHOLD),
+					 this.downstream.undeclared(Arrays.asList(accessed)));
+		assertEquals(new HashSet<>(Arrays.asList(MAX_DISTANCE_THRESHOLD)),
+					 this.sibling.undeclared(Arrays.asList(accessed)));
+	}
+
+	@Test
+	public void testAllReads() {
+		assertEquals(new HashSet<>(Arrays.asList(MAX_DISTANCE_THRESHOLD, MAX_EXTRACTION_SAMPLES)),
+					 this.downstream.getAllReads());
+	}
+
+	@Test
+	public void testTrackedReads() {
+		WeirConfig.getString(MIN_PIVOT_LENGTH); // not tracked
+		try (WeirConfig.AccessLog outer = WeirConfig.track()) {
+			WeirConfig.getDouble(MAX_DISTANCE_THRESHOLD);
+			try (WeirConfig.AccessLog inner = WeirConfig.track()) {
+				WeirConfig.getInteger(MAX_EXTRACTION_SAMPLES);
+				assertEquals(Collections.singleton(MAX_EXTRACTION_SAMPLES), inner.getAccessed());
+			}
+			WeirConfig.getList(DATATYPES);
+			assertEquals(new HashSet<>(Arrays.asList(MAX_DISTANCE_THRESHOLD, MAX_EXTRACTION_SAMPLES, DATATYPES)),
+						 outer.getAccessed());
+			assertTrue(!outer.getAccessed().contains(MIN_PIVOT_LENGTH));
+		}
+	}
+
+}
@@ -0,0 +1,64 @@
+package it.uniroma3.weir.cache;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class MemoryTierTest {
+
+	private MemoryTier memory;
+
+	@Before
+	public void setUp() {
+		this.memory = new MemoryTier(10);
+	}
+
+	@Test
+	public void testPut_withinBudget() {
+		this.memory.put("a", new byte[4]);
+		this.memory.put("b", new byte[6]);
+		assertEquals(2, this.memory.size());
+		assertEquals(10, this.memory.getWeight());
+	}
+
+	@Test
+	public void testPut_evictsLeastRecentlyUsed() {
+		this.memory.put("a", new byte[4]);
+		this.memory.put("b", new byte[4]);
+		this.memory.get("a");
+		this.memory.put("c", new byte[4]);
+		assertNotNull(this.memory.get("a"));
+		assertNull(this.memory.get("b"));
+		assertNotNull(this.memory.get("c"));
+		assertEquals(8, this.memory.getWeight());
+	}
+
+	@Test
+	public void testPut_largerThanBudget() {
+		this.memory.put("a", new byte[4]);
+		this.memory.put("b", new byte[11]);
+		assertNull(this.memory.get("b"));
+		assertNotNull(this.memory.get("a"));
+	}
+
+	@Test
+	public void testPut_replaces() {
+		this.memory.put("a", new byte[4]);
+		this.memory.put("a", new byte[2]);
+		assertEquals(1, this.memory.size());
+		assertEquals(2, this.memory.getWeight());
+	}
+
+	@Test
+	public void testRemove() {
+		this.memory.put("a", new byte[4]);
+		this.memory.remove("a");
+		this.memory.remove("b");
+		assertEquals(0, this.memory.size());
+		assertEquals(0, this.memory.getWeight());
+	}
+
+}
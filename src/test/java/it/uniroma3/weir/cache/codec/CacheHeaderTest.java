@@ -0,0 +1,62 @@
+package it.uniroma3.weir.cache.codec;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import it.uniroma3.weir.cache.Fingerprint;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+
+import org.junit.Test;
+
+public class CacheHeaderTest {
+
+	static private Fingerprint fingerprint(final byte... bytes) {
+		return new Fingerprint() {
+			@Override
+			public byte[] getBytes() { return bytes; }
+			@Override
+			public String getCachePrefix() { return "test"; }
+		};
+	}
+
+	static private CacheHeader roundTrip(CacheHeader header) throws IOException {
+		final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		header.write(bytes);
+		return CacheHeader.read(new ByteArrayInputStream(bytes.toByteArray()));
+	}
+
+	@Test
+	public void testCheck_sameCodecAndFingerprint() throws IOException {
+		final CacheCodec codec = CacheCodecs.COMPACT.getCodec();
+		final CacheHeader read = roundTrip(new CacheHeader(codec, true, fingerprint((byte)1, (byte)2)));
+		assertTrue(read.isCompressed());
+		assertSame(codec, read.check(fingerprint((byte)1, (byte)2)));
+	}
+
+	@Test
+	public void testGetFingerprint_asInCacheFileNames() throws IOException {
+		final CacheCodec codec = CacheCodecs.JAVA.getCodec();
+		final CacheHeader read = roundTrip(new CacheHeader(codec, false, fingerprint((byte)0x0A, (byte)0xFF)));
+		assertEquals("0AFF", read.getFingerprint());
+	}
+
+	@Test(expected=StaleCacheEntryException.class)
+	public void testCheck_anotherFingerprint() throws IOException {
+		final CacheCodec codec = CacheCodecs.JAVA.getCodec();
+		roundTrip(new CacheHeader(codec, false, fingerprint((byte)1))).check(fingerprint((byte)2));
+	}
+
+	@Test(expected=StaleCacheEntryException.class)
+	public void testRead_plainJavaSerialization() throws IOException {
+		final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		final ObjectOutputStream out = new ObjectOutputStream(bytes);
+		out.writeObject("cached by an older release");
+		out.close();
+		CacheHeader.read(new ByteArrayInputStream(bytes.toByteArray()));
+	}
+
+}
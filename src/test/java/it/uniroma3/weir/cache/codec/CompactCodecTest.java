@@ -0,0 +1,132 @@
+package it.uniroma3.weir.cache.codec;
+
+import static it.uniroma3.weir.fixture.WebsiteFixture.createWebsite;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import it.uniroma3.weir.extraction.rule.ExtractionRule;
+import it.uniroma3.weir.extraction.rule.PositionalRule;
+import it.uniroma3.weir.extraction.rule.SubPCDATARule;
+import it.uniroma3.weir.fixture.WeirTest;
+import it.uniroma3.weir.linking.linkage.PageLinkage;
+import it.uniroma3.weir.linking.linkage.PageLinkageRepository;
+import it.uniroma3.weir.model.Attribute;
+import it.uniroma3.weir.model.Webpage;
+import it.uniroma3.weir.model.Website;
+import it.uniroma3.weir.vector.ExtractedVector;
+import it.uniroma3.weir.vector.Label;
+import it.uniroma3.weir.vector.type.Type;
+import it.uniroma3.weir.vector.value.ExtractedValue;
+import it.uniroma3.weir.vector.value.GoldenValue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class CompactCodecTest extends WeirTest {
+
+	private CacheCodec codec;
+
+	private Website site;
+
+	@Before
+	public void setUp() {
+		this.codec = new CompactCodec();
+		this.site = createWebsite("p1", "p2", "p3");
+	}
+
+	private Object roundTrip(Object data) throws IOException, ClassNotFoundException {
+		final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		this.codec.encode(data, bytes);
+		return this.codec.decode(new ByteArrayInputStream(bytes.toByteArray()));
+	}
+
+	private ExtractedVector extract(ExtractionRule rule, String... values) {
+		final List<Webpage> pages = this.site.getWebpages();
+		final ExtractedValue[] elements = new ExtractedValue[values.length];
+		for(int i=0; i<values.length; i++)
+			elements[i] = new ExtractedValue(pages.get(i), values[i], "/html[1]/body[1]/text()["+(i+1)+"]");
+		return new ExtractedVector(elements, rule);
+	}
+
+	private PositionalRule rule(String xpath) {
+		final PositionalRule rule = new PositionalRule(xpath);
+		rule.setWebsite(this.site);
+		return rule;
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void testRoundTrip_extractedVectors() throws Exception {
+		final PositionalRule rule = rule("//TD/text()");
+		final ExtractedVector v1 = extract(rule, "10", null, "30");
+		final ExtractedVector v2 = extract(new SubPCDATARule(rule, "substring(.,1,1)"), "1", "2", "3");
+		v1.addLabel(new Label("price", 1, 2));
+
+		final List<ExtractedVector> decoded = (List<ExtractedVector>) roundTrip(new ArrayList<>(Arrays.asList(v1, v2)));
+
+		final ExtractedVector d1 = decoded.get(0);
+		final ExtractedVector d2 = decoded.get(1);
+		assertEquals(v1.getId(), d1.getId());
+		assertEquals(v1.getLabels().first().getLabel(), d1.getLabels().first().getLabel());
+		assertEquals(rule.getId(), d1.getExtractionRule().getId());
+		assertEquals(rule.getXPath(), d1.getExtractionRule().getXPath());
+		assertTrue(d1.getExtractionRule().getXPathExpression()!=null);
+		for(int i=0; i<v1.size(); i++) {
+			assertEquals(v1.get(i).getValue(), d1.get(i).getValue());
+			assertEquals(v1.get(i).getOccurrenceMark(), d1.get(i).getOccurrenceMark());
+			assertEquals(v1.get(i).getPage().getId(), d1.get(i).getPage().getId());
+			/* shared objects are still shared */
+			assertSame(d1.get(i).getPage(), d2.get(i).getPage());
+		}
+		assertNull(d1.get(1).getValue());
+		assertSame(d1.getExtractionRule(), d2.getExtractionRule().getOriginatingRule());
+		assertSame(d1.get(0).getPage().getWebsite(), d1.getWebsite());
+	}
+
+	@Test
+	public void testRoundTrip_goldenValues() throws Exception {
+		final Webpage page = this.site.getWebpages().get(0);
+		final ExtractedVector vector = new ExtractedVector(
+				new ExtractedValue[] { new GoldenValue(page, "Rome") }, rule("//B/text()"));
+		final ExtractedVector decoded = (ExtractedVector) roundTrip(vector);
+		assertEquals(GoldenValue.class, decoded.get(0).getClass());
+		assertEquals("Rome", decoded.get(0).getValue());
+	}
+
+	@Test
+	public void testRoundTrip_vectorsReachableFromAttributes() throws Exception {
+		final ExtractedVector vector = extract(rule("//I/text()"), "a", "b", "c");
+		this.site.addAttribute(new Attribute(vector.cast(Type.STRING)));
+		final ExtractedVector decoded = (ExtractedVector) roundTrip(vector);
+		assertEquals(vector.getId(), decoded.getId());
+		assertSame(decoded, decoded.getWebsite().getAttributes().get(0).getVector().getOriginatingVector());
+	}
+
+	@Test
+	public void testRoundTrip_pageLinkages() throws Exception {
+		final Website other = createWebsite("q1", "q2");
+		final PageLinkageRepository linkages = new PageLinkageRepository();
+		final PageLinkage linkage = new PageLinkage(this.site.getWebpages().get(0), other.getWebpages().get(1), 0.75);
+		linkage.setUsage(3);
+		linkages.add(linkage);
+		linkages.add(new PageLinkage(this.site.getWebpages().get(1), other.getWebpages().get(0), 0.5));
+
+		final PageLinkageRepository decoded = (PageLinkageRepository) roundTrip(linkages);
+		assertEquals(2, decoded.size());
+		final PageLinkage first = decoded.order().get(0);
+		assertEquals(0.75, first.getSimilarity(), 0d);
+		assertEquals(3, first.getUsage());
+		assertEquals(new HashSet<>(Arrays.asList("p1", "q2")),
+					 new HashSet<>(Arrays.asList(first.getMin().getId(), first.getMax().getId())));
+	}
+
+}
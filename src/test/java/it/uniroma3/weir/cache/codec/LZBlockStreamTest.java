@@ -0,0 +1,96 @@
+package it.uniroma3.weir.cache.codec;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.StreamCorruptedException;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class LZBlockStreamTest {
+
+	static private byte[] compress(byte[] data) throws IOException {
+		final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		final OutputStream out = new LZBlockOutputStream(bytes);
+		/* mix single-byte and bulk writes */
+		int i = 0;
+		for(; i<Math.min(17, data.length); i++)
+			out.write(data[i]);
+		out.write(data, i, data.length-i);
+		out.close();
+		return bytes.toByteArray();
+	}
+
+	static private byte[] decompress(byte[] data) throws IOException {
+		final InputStream in = new LZBlockInputStream(new ByteArrayInputStream(data));
+		final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		final byte[] buffer = new byte[1000];
+		int n;
+		while ((n=in.read(buffer))>=0)
+			bytes.write(buffer, 0, n);
+		in.close();
+		return bytes.toByteArray();
+	}
+
+	static private byte[] repetitive(int length) {
+		final StringBuilder text = new StringBuilder();
+		for(int i=0; text.length()<length; i++)
+			text.append("/html[1]/body[1]/div[").append(i%7).append("]/text()[1] ");
+		return text.substring(0, length).getBytes(StandardCharsets.UTF_8);
+	}
+
+	static private byte[] random(int length) {
+		final byte[] result = new byte[length];
+		new Random(33).nextBytes(result);
+		return result;
+	}
+
+	@Test
+	public void testRoundTrip_empty() throws IOException {
+		assertArrayEquals(new byte[0], decompress(compress(new byte[0])));
+	}
+
+	@Test
+	public void testRoundTrip_shorterThanAMatch() throws IOException {
+		final byte[] data = { 1, 2, 3 };
+		assertArrayEquals(data, decompress(compress(data)));
+	}
+
+	@Test
+	public void testRoundTrip_overlappingMatches() throws IOException {
+		final byte[] data = new byte[1000];
+		assertArrayEquals(data, decompress(compress(data)));
+	}
+
+	@Test
+	public void testRoundTrip_repetitiveDataOverSeveralBlocks() throws IOException {
+		final byte[] data = repetitive(3*LZBlockOutputStream.BLOCK_SIZE+123);
+		final byte[] compressed = compress(data);
+		assertTrue(compressed.length<data.length/4);
+		assertArrayEquals(data, decompress(compressed));
+	}
+
+	@Test
+	public void testRoundTrip_incompressibleDataAreStored() throws IOException {
+		final byte[] data = random(LZBlockOutputStream.BLOCK_SIZE+1);
+		final byte[] compressed = compress(data);
+		assertTrue(compressed.length<=data.length+3*9);
+		assertArrayEquals(data, decompress(compressed));
+	}
+
+	@Test(expected=StreamCorruptedException.class)
+	public void testTruncatedStream() throws IOException {
+		final byte[] compressed = compress(repetitive(10000));
+		final byte[] truncated = new byte[compressed.length-9];
+		System.arraycopy(compressed, 0, truncated, 0, truncated.length);
+		decompress(truncated);
+	}
+
+}
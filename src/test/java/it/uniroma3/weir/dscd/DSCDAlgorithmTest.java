@@ -0,0 +1,105 @@
+package it.uniroma3.weir.dscd;
+
+import static it.uniroma3.weir.fixture.VectorFixture.createVector;
+import static it.uniroma3.weir.vector.type.Type.NUMBER;
+import static it.uniroma3.weir.vector.type.Type.STRING;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import it.uniroma3.weir.fixture.WeirTest;
+import it.uniroma3.weir.integration.Match;
+import it.uniroma3.weir.linking.entity.ValueEntity;
+import it.uniroma3.weir.linking.linkage.PageLinkage;
+import it.uniroma3.weir.model.Attribute;
+import it.uniroma3.weir.model.Dataset;
+import it.uniroma3.weir.model.Domain;
+import it.uniroma3.weir.model.Webpage;
+import it.uniroma3.weir.model.Website;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class DSCDAlgorithmTest extends WeirTest {
+
+	private DSCDAlgorithm dscd;
+
+	private List<PageLinkage> linkages;
+
+	private Match strings;
+
+	private Match numbers;
+
+	@Before
+	public void setUp() {
+		final Website a = createSite("www.a.com",
+				new String[] { "red car", "blue", null, "green" },
+				new String[] { "1", "2", "3", null });
+		final Website b = createSite("www.b.com",
+				new String[] { "Car", "red", "yellow", "green tea" },
+				new String[] { null, "20", "30", "40" });
+		final Domain domain = new Domain("dscd");
+		final Dataset dataset = new Dataset("test");
+		dataset.addDomain(domain);
+		domain.setDataset(dataset);
+		domain.addSite(a);
+		domain.addSite(b);
+		this.linkages = new ArrayList<>();
+		for(Webpage p : a.getWebpages())
+			for(Webpage q : b.getWebpages())
+				this.linkages.add(new PageLinkage(p, q, 1d));
+		this.strings = new Match(a.getAttributes().get(0), b.getAttributes().get(0), 0d);
+		this.numbers = new Match(a.getAttributes().get(1), b.getAttributes().get(1), 0d);
+		this.dscd = new DSCDAlgorithm();
+	}
+
+	static private Website createSite(String name, String[] strings, String[] numbers) {
+		final Website site = new Website(name);
+		for(int p=0; p<strings.length; p++) {
+			final Webpage page = new Webpage(name.charAt(4)+""+p); // a0, a1, ..., b0, ...
+			site.addPage(page);
+			site.addOverlapPage(page);
+		}
+		site.addAttribute(new Attribute(createVector(site, STRING, strings)));
+		site.addAttribute(new Attribute(createVector(site, NUMBER, numbers)));
+		for(Webpage page : site.getWebpages())
+			new ValueEntity(page);
+		return site;
+	}
+
+	/* the positions of the linkages that score non-zero */
+	private int[] scoring(Match match) {
+		final List<Integer> result = new ArrayList<>();
+		for(int i=0; i<this.linkages.size(); i++)
+			if (this.dscd.score(this.linkages.get(i), match)>0d)
+				result.add(i);
+		final int[] positions = new int[result.size()];
+		for(int i=0; i<positions.length; i++)
+			positions[i] = result.get(i);
+		return positions;
+	}
+
+	@Test
+	public void testCandidates_pagesSharingATokenOnly() {
+		final int[] candidates = this.dscd.candidates(this.linkages, this.strings);
+		/* red car ~ Car, red car ~ red, green ~ green tea */
+		assertEquals(3, candidates.length);
+		assertArrayEquals(scoring(this.strings), candidates);
+	}
+
+	@Test
+	public void testCandidates_anyPairOfNumbers() {
+		final int[] candidates = this.dscd.candidates(this.linkages, this.numbers);
+		assertEquals(3*3, candidates.length);
+		assertArrayEquals(scoring(this.numbers), candidates);
+	}
+
+	@Test
+	public void testCandidates_sameOnceIndexed() {
+		final int[] strings = this.dscd.candidates(this.linkages, this.strings);
+		this.dscd.candidates(this.linkages, this.numbers);
+		assertArrayEquals(strings, this.dscd.candidates(this.linkages, this.strings));
+	}
+
+}
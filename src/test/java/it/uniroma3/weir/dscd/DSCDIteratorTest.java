@@ -0,0 +1,173 @@
+package it.uniroma3.weir.dscd;
+
+import static it.uniroma3.weir.dscd.matrix.ResidualNorm.L1;
+import static it.uniroma3.weir.dscd.matrix.ResidualNorm.LINF;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import it.uniroma3.weir.fixture.WeirTest;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.jblas.DoubleMatrix;
+import org.junit.Before;
+import org.junit.Test;
+
+public class DSCDIteratorTest extends WeirTest {
+
+	static final private int ROWS = 60;
+	static final private int COLS = 20;
+
+	private double[][] scores;
+
+	private List<Integer> rows;
+
+	private List<Integer> cols;
+
+	private DSCDScorer<Integer, Integer> scorer;
+
+	private int scored;
+
+	@Before
+	public void setUp() {
+		final Random random = new Random(11);
+		this.scores = new double[ROWS][COLS];
+		for(int i=0; i<ROWS; i++)
+			for(int j=0; j<COLS; j++)
+				if (random.nextInt(4)==0)
+					this.scores[i][j] = random.nextDouble();
+		this.rows = range(ROWS);
+		this.cols = range(COLS);
+		this.scorer = new DSCDScorer<Integer, Integer>() {
+			@Override
+			public double score(Integer row, Integer col) {
+				scored++;
+				return scores[row][col];
+			}
+		};
+		this.scored = 0;
+	}
+
+	static private List<Integer> range(int n) {
+		final List<Integer> result = new ArrayList<>(n);
+		for(int i=0; i<n; i++) result.add(i);
+		return result;
+	}
+
+	/* the original iteration, over a dense matrix until C does not change at all */
+	private DoubleMatrix[] denseIteration() {
+		final DoubleMatrix S = new DoubleMatrix(this.scores);
+		DoubleMatrix C = DoubleMatrix.ones(COLS).mul(0.5d);
+		DoubleMatrix D = null;
+		double[] previous = null;
+		while (!Arrays.equals(previous, C.data)) {
+			previous = C.data.clone();
+			D = S.mmul(C);
+			D = D.div(D.normmax());
+			C = S.transpose().mmul(D);
+			C = C.div(C.normmax());
+		}
+		return new DoubleMatrix[] { D, C };
+	}
+
+	@Test
+	public void testSameScoresOfDenseIteration() {
+		final DSCDIterator<Integer, Integer> iterator =
+				new DSCDIterator<>(this.rows, this.cols, this.scorer, LINF, 0d, 10000);
+		iterator.iterate();
+		assertTrue(iterator.hasConverged());
+		final DoubleMatrix[] expected = denseIteration();
+		assertArrayEquals(expected[0].data, iterator.getD().data, 1e-12);
+		assertArrayEquals(expected[1].data, iterator.getC().data, 1e-12);
+	}
+
+	@Test
+	public void testResidualOfEveryIteration() {
+		final DSCDIterator<Integer, Integer> iterator =
+				new DSCDIterator<>(this.rows, this.cols, this.scorer, L1, 1e-6, 1000);
+		iterator.iterate();
+		assertTrue(iterator.hasConverged());
+		assertEquals(iterator.getIterations(), iterator.getResiduals().size());
+		final double last = iterator.getResiduals().get(iterator.getIterations()-1);
+		assertTrue(last<=1e-6);
+		for(double residual : iterator.getResiduals().subList(0, iterator.getIterations()-1))
+			assertTrue(residual>1e-6);
+	}
+
+	@Test
+	public void testMaxIterations() {
+		final DSCDIterator<Integer, Integer> iterator =
+				new DSCDIterator<>(this.rows, this.cols, this.scorer, LINF, 0d, 2);
+		iterator.iterate();
+		assertEquals(2, iterator.getIterations());
+		assertFalse(iterator.hasConverged() && iterator.getResiduals().get(1)>0d);
+		assertEquals(COLS, iterator.getC().length);
+		assertEquals(ROWS, iterator.getD().length);
+	}
+
+	@Test
+	public void testSparseScorerScoresOnlyCandidates() {
+		final DSCDSparseScorer<Integer, Integer> sparse = new DSCDSparseScorer<Integer, Integer>() {
+			@Override
+			public double score(Integer row, Integer col) {
+				return scorer.score(row, col);
+			}
+			@Override
+			public int[] candidates(List<Integer> rows, Integer col) {
+				final int[] result = new int[rows.size()];
+				int n = 0;
+				for(int i=0; i<rows.size(); i++)
+					if (scores[i][col]!=0d) result[n++] = i;
+				final int[] candidates = new int[n];
+				System.arraycopy(result, 0, candidates, 0, n);
+				return candidates;
+			}
+		};
+		final DSCDIterator<Integer, Integer> iterator =
+				new DSCDIterator<>(this.rows, this.cols, sparse, LINF, 0d, 10000);
+		assertEquals(iterator.getEvidenceMatrix().getNonZeros(), this.scored);
+		assertTrue(this.scored < ROWS*COLS);
+
+		iterator.iterate();
+		final DoubleMatrix[] expected = denseIteration();
+		assertArrayEquals(expected[1].data, iterator.getC().data, 1e-12);
+	}
+
+	@Test
+	public void testConfiguredConvergence() {
+		final DSCDIterator<Integer, Integer> iterator =
+				new DSCDIterator<>(this.rows, this.cols, this.scorer);
+		iterator.iterate();
+		assertTrue(iterator.hasConverged());
+	}
+
+	/* the original stop criterion: until jblas considers two consecutive Cs equal */
+	private int originalIterations() {
+		final DoubleMatrix S = new DoubleMatrix(this.scores);
+		DoubleMatrix C = DoubleMatrix.ones(COLS).mul(0.5d);
+		DoubleMatrix previous = new DoubleMatrix();
+		int i = 0;
+		while (!previous.equals(C)) {
+			previous = new DoubleMatrix(C.data);
+			final DoubleMatrix D = S.mmul(C);
+			C = S.transpose().mmul(D.div(D.normmax()));
+			C = C.div(C.normmax());
+			i++;
+		}
+		return i;
+	}
+
+	@Test
+	public void testConfiguredConvergence_asTheOriginalCriterion() {
+		final DSCDIterator<Integer, Integer> iterator =
+				new DSCDIterator<>(this.rows, this.cols, this.scorer);
+		iterator.iterate();
+		assertEquals(originalIterations(), iterator.getIterations());
+		assertTrue(iterator.getIterations()>1);
+	}
+
+}
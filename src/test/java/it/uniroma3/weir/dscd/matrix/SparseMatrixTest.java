@@ -0,0 +1,123 @@
+package it.uniroma3.weir.dscd.matrix;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+public class SparseMatrixTest {
+
+	static final private double DELTA = 0d;
+
+	static private double[][] randomDense(Random random, int rows, int columns, double density) {
+		final double[][] dense = new double[rows][columns];
+		for(int i=0; i<rows; i++)
+			for(int j=0; j<columns; j++)
+				if (random.nextDouble()<density)
+					dense[i][j] = random.nextDouble();
+		return dense;
+	}
+
+	/* cells are set column by column, as the evidence matrix does */
+	static private SparseMatrix sparse(double[][] dense, int columns) {
+		final SparseMatrix.Builder builder = new SparseMatrix.Builder(dense.length, columns);
+		for(int j=0; j<columns; j++)
+			for(int i=0; i<dense.length; i++)
+				builder.set(i, j, dense[i][j]);
+		return builder.build();
+	}
+
+	@Test
+	public void testOnlyNonZerosAreStored() {
+		final SparseMatrix m = new SparseMatrix.Builder(3, 4)
+			.set(2, 3, 1d).set(0, 1, 0.5d).set(1, 1, 0d).set(0, 0, 2d).build();
+		assertEquals(3, m.getRows());
+		assertEquals(4, m.getColumns());
+		assertEquals(3, m.getNonZeros());
+		assertEquals(2d,   m.get(0, 0), DELTA);
+		assertEquals(0.5d, m.get(0, 1), DELTA);
+		assertEquals(0d,   m.get(1, 1), DELTA);
+		assertEquals(1d,   m.get(2, 3), DELTA);
+		assertEquals(0.25d, m.getDensity(), DELTA);
+	}
+
+	@Test
+	public void testMultiplyAsDense() {
+		final Random random = new Random(1);
+		final double[][] dense = randomDense(random, 40, 25, 0.2);
+		final SparseMatrix m = sparse(dense, 25);
+		final double[] x = new double[25];
+		for(int j=0; j<x.length; j++) x[j] = random.nextDouble();
+
+		final double[] expected = new double[40];
+		for(int i=0; i<40; i++)
+			for(int j=0; j<25; j++)
+				if (dense[i][j]!=0d)
+					expected[i] += dense[i][j] * x[j];
+		assertArrayEquals(expected, m.multiply(x, new double[40]), DELTA);
+	}
+
+	@Test
+	public void testTranspose() {
+		final double[][] dense = randomDense(new Random(2), 30, 17, 0.3);
+		final SparseMatrix m = sparse(dense, 17);
+		final SparseMatrix t = m.transpose();
+		assertEquals(17, t.getRows());
+		assertEquals(30, t.getColumns());
+		assertEquals(m.getNonZeros(), t.getNonZeros());
+		for(int i=0; i<30; i++)
+			for(int j=0; j<17; j++)
+				assertEquals(dense[i][j], t.get(j, i), DELTA);
+	}
+
+	@Test
+	public void testTransposeIsCached() {
+		final SparseMatrix m = sparse(randomDense(new Random(3), 5, 6, 0.5), 6);
+		assertSame(m.transpose(), m.transpose());
+		assertSame(m, m.transpose().transpose());
+	}
+
+	@Test
+	public void testEmptyMatrix() {
+		final SparseMatrix m = new SparseMatrix.Builder(3, 2).build();
+		assertEquals(0, m.getNonZeros());
+		assertArrayEquals(new double[3], m.multiply(new double[] { 1d, 1d }, new double[3]), DELTA);
+		assertArrayEquals(new double[2], m.transpose().multiply(new double[] { 1d, 1d, 1d }, new double[2]), DELTA);
+	}
+
+	@Test(expected=IndexOutOfBoundsException.class)
+	public void testCellOutOfBounds() {
+		new SparseMatrix.Builder(2, 2).set(2, 0, 1d);
+	}
+
+	@Test(expected=IllegalStateException.class)
+	public void testCellSetTwice() {
+		new SparseMatrix.Builder(2, 3).set(1, 2, 1d).set(0, 0, 1d).set(1, 2, 0.5d).build();
+	}
+
+	@Test
+	public void testInvertedIndex() {
+		final InvertedIndex<String> index = new InvertedIndex<>();
+		index.add("a", 0);
+		index.add("b", 1);
+		index.add("a", 2);
+		index.add("a", 2);
+		assertArrayEquals(new int[] { 0, 2 }, index.get("a"));
+		assertArrayEquals(new int[] { 1 }, index.get("b"));
+		assertArrayEquals(new int[0], index.get("c"));
+		assertEquals(2, index.size());
+	}
+
+	@Test
+	public void testResidualNorms() {
+		final double[] previous = { 0d, 1d, 0.5d };
+		final double[] current  = { 0.25d, 0.5d, 0.5d };
+		assertEquals(0.75d, ResidualNorm.L1.residual(previous, current), DELTA);
+		assertEquals(0.5d,  ResidualNorm.LINF.residual(previous, current), DELTA);
+		assertEquals(0.5d/3, ResidualNorm.LINF_PER_ELEMENT.residual(previous, current), DELTA);
+	}
+
+}
@@ -0,0 +1,165 @@
+package it.uniroma3.weir.extraction;
+
+import static it.uniroma3.weir.extraction.wrapper.DocumentFixtures._HTML_TREE_;
+import static it.uniroma3.weir.fixture.WebpageFixture.webpage;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import it.uniroma3.weir.extraction.rule.ExtractionRule;
+import it.uniroma3.weir.extraction.rule.PositionalRule;
+import it.uniroma3.weir.fixture.WeirTest;
+import it.uniroma3.weir.model.Webpage;
+import it.uniroma3.weir.vector.ExtractedVector;
+import it.uniroma3.weir.vector.value.ExtractedValue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.w3c.dom.Document;
+
+public class ExtractionSchedulerTest extends WeirTest {
+
+	private ExtractionScheduler scheduler;
+
+	private CountDownLatch blocked;
+
+	@Before
+	public void setUp() {
+		this.scheduler = new ExtractionScheduler(4, 3, 60, true);
+		this.blocked = new CountDownLatch(1);
+	}
+
+	@After
+	public void tearDown() {
+		this.blocked.countDown();
+		this.scheduler.shutdown();
+	}
+
+	static private List<Webpage> pages(int n) {
+		final List<Webpage> pages = new ArrayList<>(n);
+		for(int i=0; i<n; i++) {
+			final Webpage page = webpage(_HTML_TREE_(
+					"<DIV><B>Name</B>name"+i+"</DIV>" +
+					"<TABLE><TBODY><TR><TD>"+i+"</TD><TD>"+(i*i)+"</TD></TR></TBODY></TABLE>" +
+					"<P>"+( i%2==0 ? "even" : "odd" )+"</P>"));
+			page.getDocument().normalize();
+			pages.add(page);
+		}
+		return pages;
+	}
+
+	static private List<ExtractionRule> rules() {
+		final List<ExtractionRule> rules = new ArrayList<>();
+		for(String xpath : new String[] {
+				"/HTML[1]/BODY[1]/DIV[1]/text()[1]",
+				"/HTML[1]/BODY[1]/DIV[1]/B[1]/text()[1]",
+				"/HTML[1]/BODY[1]/TABLE[1]/TBODY[1]/TR[1]/TD[1]/text()[1]",
+				"/HTML[1]/BODY[1]/TABLE[1]/TBODY[1]/TR[1]/TD[2]/text()[1]",
+				"/HTML[1]/BODY[1]/P[1]/text()[1]",
+				"/HTML[1]/BODY[1]/P[2]/text()[1]",
+				"//TD/text()" })
+			rules.add(new PositionalRule(xpath));
+		return rules;
+	}
+
+	@Test
+	public void testExtractAsEveryRuleAlone() {
+		final List<Webpage> pages = pages(20);
+		final List<ExtractionRule> rules = rules();
+		final List<ExtractedVector> extracted = this.scheduler.extract(pages, rules);
+		assertEquals(rules.size(), extracted.size());
+		for(int r=0; r<rules.size(); r++) {
+			final ExtractedVector vector = extracted.get(r);
+			assertEquals(rules.get(r), vector.getExtractionRule());
+			assertEquals(pages.size(), vector.size());
+			for(int p=0; p<pages.size(); p++) {
+				final ExtractedValue expected = rules.get(r).applyTo(pages.get(p));
+				assertEquals(expected.getValue(), vector.get(p).getValue());
+			}
+		}
+	}
+
+	@Test
+	public void testStreamAsExtract() {
+		final List<Webpage> pages = pages(20);
+		final List<ExtractionRule> rules = rules().subList(0, 6); // all streamable
+		final List<ExtractedVector> streamed = this.scheduler.stream(pages, rules);
+		final List<ExtractedVector> extracted = this.scheduler.extract(pages, rules);
+		assertEquals(rules.size(), streamed.size());
+		for(int r=0; r<rules.size(); r++) {
+			assertEquals(rules.get(r), streamed.get(r).getExtractionRule());
+			for(int p=0; p<pages.size(); p++) {
+				assertEquals(extracted.get(r).get(p).getValue(), streamed.get(r).get(p).getValue());
+				assertEquals(extracted.get(r).get(p).getOccurrenceMark(), streamed.get(r).get(p).getOccurrenceMark());
+			}
+		}
+	}
+
+	@Test
+	public void testJobTasksAndProgress() {
+		final ExtractionJob job = this.scheduler.submit(pages(5), rules());
+		/* 7 rules in blocks of 3 */
+		assertEquals(5*3, job.getNumberOfTasks());
+		job.await(60, SECONDS);
+		assertTrue(job.isDone());
+		assertEquals(job.getNumberOfTasks(), job.getCompletedTasks());
+	}
+
+	@Test
+	public void testDeadlineCancelsTheJob() {
+		final ExtractionJob job = this.scheduler.submit(pages(8), Collections.singletonList(blockingRule()));
+		try {
+			job.await(100, MILLISECONDS);
+			fail("the job should not complete before the deadline");
+		} catch (IllegalStateException expected) {
+			assertTrue(job.isCancelled());
+		}
+		this.blocked.countDown();
+		/* the pool is still available to other jobs */
+		assertEquals(rules().size(), this.scheduler.extract(pages(3), rules()).size());
+	}
+
+	@Test(expected=IllegalStateException.class)
+	public void testCancelledJob() {
+		final ExtractionJob job = this.scheduler.submit(pages(8), Collections.singletonList(blockingRule()));
+		job.cancel();
+		this.blocked.countDown();
+		job.await(60, SECONDS);
+	}
+
+	@Test(expected=IllegalStateException.class)
+	public void testFailingTaskFailsTheJob() {
+		final ExtractionRule failing = new PositionalRule("/HTML[1]/BODY[1]/text()") {
+			static final private long serialVersionUID = 1L;
+			@Override
+			protected ExtractedValue extract(Webpage page, Document document) {
+				throw new IllegalArgumentException("failing rule");
+			}
+		};
+		this.scheduler.extract(pages(4), Collections.singletonList(failing));
+	}
+
+	/* not compilable, hence applied as usual: it waits for the test to release it */
+	private ExtractionRule blockingRule() {
+		return new PositionalRule("/HTML[1]/BODY[1]/P[1]/text()[1]") {
+			static final private long serialVersionUID = 1L;
+			@Override
+			protected ExtractedValue extract(Webpage page, Document document) {
+				try {
+					blocked.await();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+				return super.extract(page, document);
+			}
+		};
+	}
+
+}
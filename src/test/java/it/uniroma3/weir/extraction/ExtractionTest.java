@@ -0,0 +1,172 @@
+package it.uniroma3.weir.extraction;
+
+import static it.uniroma3.ecgm.Constants.LFEQ_SIZE_THRESHOLD;
+import static it.uniroma3.ecgm.Constants.LFEQ_SUPP_THRESHOLD;
+import static it.uniroma3.token.Constants.SEPARATOR_CHARS;
+import static it.uniroma3.weir.configuration.Constants.EXTRACTION_STREAMING;
+import static it.uniroma3.weir.configuration.Constants.MAX_EXTRACTION_SAMPLES;
+import static it.uniroma3.weir.configuration.Constants.MAX_PIVOT_DISTANCE;
+import static it.uniroma3.weir.configuration.Constants.MIN_EXTRACTION_SAMPLES;
+import static it.uniroma3.weir.configuration.Constants.MIN_PIVOT_LENGTH;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import it.uniroma3.util.FixtureUtils;
+import it.uniroma3.weir.configuration.WeirConfig;
+import it.uniroma3.weir.fixture.WeirTest;
+import it.uniroma3.weir.linking.entity.SoftIdEntity;
+import it.uniroma3.weir.linking.linkage.DomainLinkage;
+import it.uniroma3.weir.linking.linkage.DomainLinkage.WebsiteLinkageBuilder;
+import it.uniroma3.weir.linking.linkage.WebsiteLinkage;
+import it.uniroma3.weir.model.Attribute;
+import it.uniroma3.weir.model.Dataset;
+import it.uniroma3.weir.model.Domain;
+import it.uniroma3.weir.model.Experiment;
+import it.uniroma3.weir.model.Webpage;
+import it.uniroma3.weir.model.Website;
+import it.uniroma3.weir.vector.Vector;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class ExtractionTest extends WeirTest {
+
+	static final private int SITES = 4;
+
+	static final private int PAGES = 5;
+
+	static private URI[][] sources;
+
+	@BeforeClass
+	public static void setUp() {
+		WeirConfig.getInstance().setProperty(MIN_EXTRACTION_SAMPLES, "2");
+		WeirConfig.getInstance().setProperty(MAX_EXTRACTION_SAMPLES, "4");
+		WeirConfig.getInstance().setProperty(MAX_PIVOT_DISTANCE,  "2");
+		WeirConfig.getInstance().setProperty(MIN_PIVOT_LENGTH,    "0");
+		WeirConfig.getInstance().setProperty(LFEQ_SIZE_THRESHOLD, "2");
+		WeirConfig.getInstance().setProperty(LFEQ_SUPP_THRESHOLD, "0.5");
+		WeirConfig.getInstance().setProperty(SEPARATOR_CHARS, "");
+		WeirConfig.getInstance().setCurrentExperiment(Experiment.makeExperiment(null, null));
+		sources = new URI[SITES][PAGES];
+		for(int s=0; s<SITES; s++)
+			for(int p=0; p<PAGES; p++)
+				sources[s][p] = FixtureUtils.makeTmpFile(html(s, p), "extraction_"+s+"_"+p+".html").toURI();
+	}
+
+	static private String html(int s, int p) {
+		return "<HTML><BODY>" +
+				"<H1>Item "+s+"."+p+"</H1>" +
+				"<TABLE><TBODY>" +
+				"<TR><TD>Name</TD><TD>item_"+s+"_"+p+"</TD></TR>" +
+				"<TR><TD>Price</TD><TD>$ "+(10*p+s)+".99</TD></TR>" +
+				"<TR><TD>Year</TD><TD>"+(1990+p*s)+"</TD></TR>" +
+				"</TBODY></TABLE>" +
+				"<P>site "+s+"</P>" +
+				"</BODY></HTML>";
+	}
+
+	/* every run works on its own sites and pages, built from the same sources */
+	static private Domain domain() {
+		final Domain domain = new Domain("extraction");
+		final Dataset dataset = new Dataset("test");
+		dataset.addDomain(domain);
+		domain.setDataset(dataset);
+		for(int s=0; s<SITES; s++) {
+			final Website site = new Website("www.extraction-"+s+".com");
+			for(int p=0; p<PAGES; p++) {
+				final Webpage page = new Webpage("page_"+s+"_"+p, sources[s][p]);
+				site.addPage(page);
+				site.addOverlapPage(page);
+				new SoftIdEntity(page);
+			}
+			domain.addSite(site);
+		}
+		return domain;
+	}
+
+	static private Domain extract(int parallelSites, int maxLoadedPages) {
+		final Domain domain = domain();
+		final Experiment experiment = Experiment.makeExperiment(null, null);
+		/* the local consistency only needs the linkage of every site with itself */
+		experiment.getAbstractRelation().setLinkages(new DomainLinkage(domain, new WebsiteLinkageBuilder() {
+
+			static final private long serialVersionUID = -3528431945013447021L;
+
+			@Override
+			public WebsiteLinkage createPair(Website s1, Website s2) {
+				return ( s1.equals(s2) ? new WebsiteLinkage(s1) : null );
+			}
+
+		}));
+		new Extraction(experiment, parallelSites, maxLoadedPages).extract(domain);
+		return domain;
+	}
+
+	static private void assertSameAttributes(Domain expected, Domain actual) {
+		for(int s=0; s<SITES; s++) {
+			final List<Attribute> e = expected.getSites().get(s).getAttributes();
+			final List<Attribute> a = actual.getSites().get(s).getAttributes();
+			assertEquals(vectors(e), vectors(a));
+			for(int i=0; i<e.size(); i++) {
+				final Vector ev = e.get(i).getVector();
+				final Vector av = a.get(i).getVector();
+				assertEquals(ev.getLabels(), av.getLabels());
+				assertEquals(ev.getId(), av.getId());
+				assertEquals(ev.getOriginatingVector().getId(), av.getOriginatingVector().getId());
+				assertEquals(ev.getExtractionRule().getId(), av.getExtractionRule().getId());
+			}
+		}
+	}
+
+	static private List<Vector> vectors(List<Attribute> attributes) {
+		final List<Vector> result = new ArrayList<>(attributes.size());
+		for(Attribute attribute : attributes)
+			result.add(attribute.getVector());
+		return result;
+	}
+
+	@Test
+	public void testParallelExtractionProducesTheSequentialVectors() {
+		final Domain sequential = extract(1, 100);
+		for(Website site : sequential.getSites())
+			assertTrue(site+" has no attribute", site.getAttributes().size()>0);
+		assertSameAttributes(sequential, extract(SITES, 100));
+	}
+
+	@Test
+	public void testIdsAreNumberedAfterThePositionOfTheSite() {
+		final Domain domain = extract(SITES, 100);
+		for(int s=0; s<SITES; s++) {
+			final String prefix = (s+1)+".";
+			for(Attribute attribute : domain.getSites().get(s).getAttributes()) {
+				assertTrue(attribute.getVector().getId().startsWith(prefix));
+				assertTrue(attribute.getVector().getExtractionRule().getId().startsWith(prefix));
+			}
+		}
+	}
+
+	@Test
+	public void testCapOnLoadedPagesSerializesLargerSites() {
+		assertSameAttributes(extract(1, 100), extract(SITES, PAGES-1));
+	}
+
+	@Test
+	public void testStreamingExtractionProducesTheSameVectors() {
+		final Domain loaded = extract(1, 100);
+		WeirConfig.getInstance().setProperty(EXTRACTION_STREAMING, "true");
+		try {
+			assertSameAttributes(loaded, extract(1, 100));
+		} finally {
+			WeirConfig.getInstance().setProperty(EXTRACTION_STREAMING, "false");
+		}
+	}
+
+	@Test(expected=IllegalArgumentException.class)
+	public void testNegativeParallelism() {
+		new Extraction(Experiment.makeExperiment(null, null), -1, 100);
+	}
+
+}
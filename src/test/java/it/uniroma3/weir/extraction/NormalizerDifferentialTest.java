@@ -0,0 +1,237 @@
+package it.uniroma3.weir.extraction;
+
+import static it.uniroma3.weir.fixture.VectorFixture.createExtractedVector;
+import static org.junit.Assert.assertEquals;
+import it.uniroma3.weir.fixture.WeirTest;
+import it.uniroma3.weir.vector.ExtractedVector;
+import it.uniroma3.weir.vector.Normalizer;
+import it.uniroma3.weir.vector.PrefixAndSuffixFinder;
+import it.uniroma3.weir.vector.Vector;
+import it.uniroma3.weir.vector.VectorCaster;
+import it.uniroma3.weir.vector.format.FormatRule;
+import it.uniroma3.weir.vector.format.Regexps;
+import it.uniroma3.weir.vector.type.Type;
+import it.uniroma3.weir.vector.unitmeasure.UnitMeasure;
+import it.uniroma3.weir.vector.value.Value;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Random;
+import java.util.regex.Pattern;
+
+import org.junit.Test;
+
+/**
+ * Check the {@link Normalizer} and the {@link PrefixAndSuffixFinder}
+ * against their former, regexp-based, implementations.
+ */
+public class NormalizerDifferentialTest extends WeirTest {
+
+	static final private String[][] VECTORS = {
+		{ null, null }, { null, "" }, { "", "" }, { "a", "a" }, { "a", "b" },
+		{ "!a", "!b" }, { "!a", null, "!b" }, { "1 1", "1 2" }, { "kg 1", "kg 2" },
+		{ "Price: 10", "Price: 20", "Price: 30" }, { "10 kg.", "20 kg.", "3 kg." },
+		{ "$ 10", "$ 20" }, { "10 $", "20 $" }, { "a $ - b", "c $ - b" },
+		{ "http://www.a.com", "http://www.b.com" }, { "www.a.it", "www.b.it" },
+		{ "- a -", "- b -", "- c -" }, { "[x] a [y]", "[x] b [y]" }, { "a-", "a-b" },
+		{ "Jan. 1999", "Jan. 2000" }, { "12:30 | live", "13:45 | live" },
+		{ "Author: Bob Press", "Author: J. R. Press" }, { "^a^", "^b^" },
+		{ " a b", "c  d" }, { "a\u0001b", "\u0007" },
+		{ "😀 smile", "😁 smile" }, { "x 𝐀", "y 𝐀" },
+		{ "€ 1.200,50", "€ 3.400,00" }, { "«quoted»", "“quoted”" }, { "a—b", "a–b" }
+	};
+
+	static final private String ALPHABET = "ab1 :!?*+.|-^{}[]$€  \u0001®©«»\\()";
+
+	static private void assertSameNormalization(String... values) {
+		final ExtractedVector extracted = createExtractedVector(values);
+
+		final LegacyPrefixAndSuffixFinder legacyFinder = new LegacyPrefixAndSuffixFinder(extracted);
+		final PrefixAndSuffixFinder finder = new PrefixAndSuffixFinder(extracted);
+		final String prefix = legacyFinder.getPrefix();
+		final String suffix = legacyFinder.getSuffix();
+		assertEquals(Arrays.toString(values), prefix, finder.getPrefix());
+		assertEquals(Arrays.toString(values), suffix, finder.getSuffix());
+
+		final String[] expectedValues = legacyNormalizeValues(extracted.getElements(), prefix, suffix);
+		final Type expectedType = new VectorCaster().findMostSpecificType(expectedValues);
+		final Vector expected = expectedType.createTypedVector(extracted, expectedValues);
+		final Vector actual = new Normalizer().normalize(extracted);
+		assertEquals(Arrays.toString(values), expectedType, actual.getType());
+		assertEquals(Arrays.toString(values),
+				Arrays.toString(expected.getElements()), Arrays.toString(actual.getElements()));
+	}
+
+	@Test
+	public void testSameNormalizationOfFixtures() {
+		for(String[] values : VECTORS)
+			assertSameNormalization(values);
+	}
+
+	@Test
+	public void testSameNormalizationOfRandomVectors() {
+		final Random random = new Random(5);
+		for(int i=0; i<3000; i++) {
+			final String[] values = new String[1+random.nextInt(4)];
+			final String common = randomString(random);
+			final String commonSuffix = randomString(random);
+			for(int j=0; j<values.length; j++)
+				values[j] = ( random.nextInt(8)==0 ? null :
+					common + randomString(random) + commonSuffix );
+			assertSameNormalization(values);
+		}
+	}
+
+	static private String randomString(Random random) {
+		final int length = random.nextInt(6);
+		final StringBuilder result = new StringBuilder(length);
+		for(int i=0; i<length; i++)
+			result.append(ALPHABET.charAt(random.nextInt(ALPHABET.length())));
+		return result.toString();
+	}
+
+	/* --- the former, regexp-based, implementation --- */
+
+	static final private Pattern SPACES_PATTERN = Pattern.compile("[\\p{Z}\\s]+");
+	static final private Pattern CHARS_PATTERN  = Pattern.compile("[^\\p{L}\\p{Z}\\p{N}\\p{Sc}\\p{P}]");
+
+	static private String[] legacyNormalizeValues(Value[] values, String prefix, String suffix) {
+		final Pattern stripPattern = makeStrippingPattern(prefix, suffix);
+		final String[] normalized = new String[values.length];
+		for(int i=0; i<values.length; i++) {
+			if (values[i].isNull()) continue;
+			final String value = values[i].toString();
+			final String stripped = ( stripPattern!=null ? stripPattern.matcher(value).replaceAll("") : value );
+			final String cleaned = CHARS_PATTERN.matcher(stripped).replaceAll("");
+			final String spaced = SPACES_PATTERN.matcher(cleaned).replaceAll(" ");
+			normalized[i] = ( spaced.trim().isEmpty() ? null : spaced );
+		}
+		return normalized;
+	}
+
+	static private Pattern makeStrippingPattern(String prefix, String suffix) {
+		if (prefix.isEmpty() && suffix.isEmpty()) return null;
+		if (prefix.isEmpty()) return Pattern.compile(regex(suffix) + "$");
+		if (suffix.isEmpty()) return Pattern.compile("^"+regex(prefix));
+		return Pattern.compile("(^"+regex(prefix) +"|"+regex(suffix) + "$)");
+	}
+
+	static private String regex(String regex) {
+		final StringBuilder result = new StringBuilder();
+		for (char c : regex.toCharArray()) {
+			if ("\\([{^-|]})?*+.".indexOf(c)>=0) result.append('\\');
+			result.append(c);
+		}
+		return result.toString();
+	}
+
+	static private class LegacyPrefixAndSuffixFinder {
+
+		static final private Pattern PREFIX_PATTERN = Pattern.compile("[ :!\\?\\*\\+\\.\\|\\-\\^\\{\\}\\[\\]]");
+		static final private FormatRule RULE_FOR_NUMBER = new FormatRule("\\d");
+		static final private Pattern UNIT_MEASURE_REGEXP = Pattern.compile("[^\\d\\w'\"$€£]");
+
+		final private Vector vector;
+
+		private boolean reverseMode;
+
+		LegacyPrefixAndSuffixFinder(Vector vector) {
+			this.vector = vector;
+		}
+
+		String getPrefix() {
+			final String pivot = findFirstNonNullValue();
+			if (pivot==null) return "";
+			String prefix = null;
+			for(int len=1; len<=pivot.length(); len++) {
+				final String candidatePrefix = pivot.substring(0, len);
+				final char charAt = candidatePrefix.charAt(candidatePrefix.length()-1);
+				if (PREFIX_PATTERN.matcher(Character.toString(charAt)).matches()) {
+					if (isAcommonPrefix(candidatePrefix)) {
+						prefix = candidatePrefix;
+					} else break;
+				}
+			}
+			return finalCheck(prefix);
+		}
+
+		String getSuffix() {
+			this.reverseMode = true;
+			final String suffix = getPrefix();
+			this.reverseMode = false;
+			return suffix;
+		}
+
+		private String findFirstNonNullValue() {
+			final Iterator<String> it = values();
+			while (it.hasNext()) {
+				final String value = it.next();
+				if (value!=null) return value;
+			}
+			return null;
+		}
+
+		private boolean isAcommonPrefix(String prefix) {
+			final Iterator<String> it = values();
+			while (it.hasNext()) {
+				final String value = it.next();
+				if (value!=null && !value.startsWith(prefix)) return false;
+			}
+			return true;
+		}
+
+		private String finalCheck(String ffix) {
+			final String first = findFirstNonNullValue();
+			if (ffix==null || first==null || ffix.equals(first)) return "";
+			if (this.reverseMode) ffix = reverse(ffix);
+			return isPrefixSuffixToPreserve(ffix.trim()) ? "" : ffix;
+		}
+
+		private boolean isPrefixSuffixToPreserve(String ffix) {
+			return 	   ffix.equals("") 
+					|| ffix.equals("-")
+					|| ffix.startsWith("http")
+					|| ffix.startsWith("www.")
+					|| ffix.endsWith(".com")
+					|| ffix.endsWith(".it")
+					|| ffix.endsWith(".net")
+					|| !RULE_FOR_NUMBER.extractAll(ffix).isEmpty()
+					|| containsUnitMeasureTags(ffix)
+					|| isAMonth(ffix);
+		}
+
+		private boolean containsUnitMeasureTags(String candidateMarker) {
+			final String marker = candidateMarker.toLowerCase().trim();
+			final String prefix = UNIT_MEASURE_REGEXP.matcher(marker).replaceAll("");
+			for (UnitMeasure um : UnitMeasure.values())
+				for (String unitMarker : um.getUnitMarkers())
+					if (prefix.equals(unitMarker)) return true;
+			return false;
+		}
+
+		private boolean isAMonth(String prefix) {
+			final String month = prefix.toLowerCase().trim();
+			return Arrays.asList(Regexps.MONTHS).contains(month) 
+				|| Arrays.asList(Regexps.MONTHS_ABBR).contains(month);
+		}
+
+		private Iterator<String> values() {
+			final Iterator<String> it = this.vector.stringsIterator();
+			if (!this.reverseMode) return it;
+			return new Iterator<String>() {
+				@Override
+				public boolean hasNext() { return it.hasNext(); }
+				@Override
+				public String next() { return reverse(it.next()); }
+				@Override
+				public void remove() { throw new UnsupportedOperationException(); }
+			};
+		}
+
+		static private String reverse(String s) {
+			return ( s==null ? null : new StringBuilder(s).reverse().toString() );
+		}
+
+	}
+
+}
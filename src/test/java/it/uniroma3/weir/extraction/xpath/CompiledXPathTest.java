@@ -0,0 +1,47 @@
+package it.uniroma3.weir.extraction.xpath;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import org.junit.Test;
+
+public class CompiledXPathTest {
+
+	static private void assertCompiled(String xpath) {
+		final CompiledXPath compiled = CompiledXPath.parse(xpath);
+		assertNotNull("Cannot compile "+xpath, compiled);
+		assertEquals(xpath, compiled.toString());
+	}
+
+	@Test
+	public void testParse_positional() {
+		assertCompiled("/HTML[1]/BODY[1]/DIV[2]/text()[1]");
+		assertCompiled("//SPAN[@id='price']/B[1]/text()[3]");
+	}
+
+	@Test
+	public void testParse_relative() {
+		assertCompiled("//TD[contains(text(),'Price:')]/following-sibling::node()[1]/self::text()");
+		assertCompiled("//TD[contains(text(),'Name')]/../preceding-sibling::node()[1]/child::*[2]/text()");
+		assertCompiled("//DIV[@id='main']/./text()");
+	}
+
+	@Test
+	public void testParse_sharedAnchor() {
+		final CompiledXPath p1 = CompiledXPath.parse("//TD[contains(text(),'Name')]/text()[1]");
+		final CompiledXPath p2 = CompiledXPath.parse("//TD[contains(text(),'Name')]/..");
+		assertEquals(p1.anchor, p2.anchor);
+		assertEquals(1, p2.steps.size());
+	}
+
+	@Test
+	public void testParse_unsupported() {
+		assertNull(CompiledXPath.parse("substring(//TD/text(),1,3)"));
+		assertNull(CompiledXPath.parse("//TD[position()=1]/text()"));
+		assertNull(CompiledXPath.parse("/HTML[2]/BODY[1]"));
+		assertNull(CompiledXPath.parse("/HTML[1]/BODY[1]/text()[0]"));
+		assertNull(CompiledXPath.parse("//TD[contains(text(),'Name')]/ancestor::*[1]"));
+	}
+
+}
@@ -0,0 +1,139 @@
+package it.uniroma3.weir.extraction.xpath;
+
+import static it.uniroma3.weir.extraction.wrapper.DocumentFixtures._HTML_TREE_;
+import static it.uniroma3.weir.fixture.WebpageFixture.webpage;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import it.uniroma3.util.FixtureUtils;
+import it.uniroma3.weir.extraction.rule.ExtractionRule;
+import it.uniroma3.weir.extraction.rule.PositionalRule;
+import it.uniroma3.weir.extraction.rule.RelativeRule;
+import it.uniroma3.weir.extraction.rule.SubPCDATARule;
+import it.uniroma3.weir.extraction.wrapper.PositionalXPathBuilder;
+import it.uniroma3.weir.fixture.WeirTest;
+import it.uniroma3.weir.model.Webpage;
+import it.uniroma3.weir.vector.value.ExtractedValue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+import org.w3c.dom.Text;
+
+/**
+ * The streaming evaluation must extract exactly what
+ * JAXP extracts, rule by rule, occurrence marks included.
+ */
+public class PathAutomatonTest extends WeirTest {
+
+	static final private String PAGE = _HTML_TREE_("" +
+			"<DIV id='main'>" +
+			/**/"intro<B>Price:</B> 10 <I>euro</I>" +
+			/**/"<DIV id='inner'><SPAN>a</SPAN><SPAN>b</SPAN><I>c</I><SPAN>d e</SPAN></DIV>" +
+			"</DIV>" +
+			"<TABLE><TBODY>" +
+			/**/"<TR><TD>Name</TD><TD>Mario</TD></TR>" +
+			/**/"<TR><TD>Name</TD><TD>Luigi</TD></TR>" +
+			/**/"<TR><TD id=''>Born</TD><TD>1981</TD></TR>" +
+			"</TBODY></TABLE>" +
+			"<P>one<BR/>two<!-- comment -->three<?php echo 1 ?>four</P>" +
+			"<P id='main'>again</P>" +
+			"<P>   </P>");
+
+	/* N.B. occurrence marks are cached within the DOM by the first
+	 *      extraction reaching a node: compare them over fresh pages */
+	static private Webpage page() {
+		final Webpage page = webpage(PAGE);
+		page.getDocument().normalize();
+		return page;
+	}
+
+	/* a page not loaded yet */
+	static private Webpage unloaded() {
+		return new Webpage("unloaded", FixtureUtils.makeTmpFile(PAGE, "unloaded.html").toURI());
+	}
+
+	private void assertSameExtraction(List<ExtractionRule> rules, Webpage page) {
+		final ExtractedValue[] actual = new PathAutomaton(rules).extract(page);
+		assertEquals(rules.size(), actual.length);
+		for(int r=0; r<rules.size(); r++) {
+			final ExtractionRule rule = rules.get(r);
+			final ExtractedValue expected = rule.applyTo(page());
+			assertEquals(rule.getXPath(), expected.getValue(), actual[r].getValue());
+			assertEquals(rule.getXPath(), expected.getOccurrenceMark(), actual[r].getOccurrenceMark());
+		}
+	}
+
+	static private List<ExtractionRule> allPositionalRules() {
+		final PositionalXPathBuilder builder = new PositionalXPathBuilder();
+		final List<ExtractionRule> rules = new ArrayList<>();
+		final NodeList texts = (NodeList) new PositionalRule("//text()").applyTo(page().getDocument());
+		for(int i=0; i<texts.getLength(); i++) {
+			final Node text = texts.item(i);
+			if (text instanceof Text)
+				rules.add(new PositionalRule(builder.getXPath((Text)text)));
+		}
+		rules.add(new PositionalRule("/HTML[1]/BODY[1]/DIV[2]/text()[1]"));
+		rules.add(new PositionalRule("/HTML[1]/BODY[1]/P[1]/text()[5]"));
+		rules.add(new PositionalRule("/HTML[1]/BODY[1]/P[3]/text()[1]"));
+		rules.add(new PositionalRule("//DIV[@id='main']/DIV[1]/SPAN[3]/text()[1]"));
+		rules.add(new PositionalRule("//DIV[@id='main']/DIV[1]/child::*[3]/text()[1]"));
+		rules.add(new PositionalRule("//DIV[@id='main']/text()"));
+		rules.add(new PositionalRule("//P[@id='main']/text()[1]"));
+		rules.add(new PositionalRule("//TD[@id='']/text()[1]"));
+		rules.add(new PositionalRule("//DIV[@id='none']/text()[1]"));
+		return rules;
+	}
+
+	@Test
+	public void testExtract_allPositionalRulesOfAPage() {
+		final List<ExtractionRule> rules = allPositionalRules();
+		assertTrue(rules.size()>20);
+		assertSameExtraction(rules, page());
+	}
+
+	@Test
+	public void testExtract_everyRuleAlone() {
+		for(ExtractionRule rule : allPositionalRules())
+			assertSameExtraction(Collections.singletonList(rule), page());
+	}
+
+	@Test
+	public void testExtract_withoutLoadingThePage() {
+		final Webpage page = unloaded();
+		assertSameExtraction(allPositionalRules(), page);
+		assertNull(page.getDocument());
+	}
+
+	@Test
+	public void testExtract_pageThatCannotBeFetched() {
+		final Webpage page = new Webpage("missing");
+		final ExtractedValue[] values = new PathAutomaton(allPositionalRules()).extract(page);
+		for(ExtractedValue value : values)
+			assertTrue(value.isNull());
+		assertNull(page.getDocument());
+	}
+
+	@Test
+	public void testIsStreamable() {
+		assertTrue(PathAutomaton.isStreamable(new PositionalRule("/HTML[1]/BODY[1]/P[1]/text()[1]")));
+		assertTrue(PathAutomaton.isStreamable(new PositionalRule("//DIV[@id='main']/text()[2]")));
+		assertFalse(PathAutomaton.isStreamable(new PositionalRule("//TD/text()")));
+		assertFalse(PathAutomaton.isStreamable(new PositionalRule("/HTML[1]/BODY[1]/P[1]")));
+		assertFalse(PathAutomaton.isStreamable(new PositionalRule("//DIV[@id='main']/../text()[1]")));
+		final ExtractionRule relative = new RelativeRule("//DIV[@id='main']/text()[2]");
+		assertFalse(PathAutomaton.isStreamable(relative));
+		assertFalse(PathAutomaton.isStreamable(new SubPCDATARule(relative, "substring(//DIV[@id='main']/text()[2],1,2)")));
+	}
+
+	@Test(expected=IllegalArgumentException.class)
+	public void testNew_notStreamable() {
+		new PathAutomaton(Collections.<ExtractionRule>singletonList(new RelativeRule("//DIV[@id='main']/text()[2]")));
+	}
+
+}
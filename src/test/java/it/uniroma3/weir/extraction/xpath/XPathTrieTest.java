@@ -0,0 +1,128 @@
+package it.uniroma3.weir.extraction.xpath;
+
+import static it.uniroma3.weir.extraction.wrapper.DocumentFixtures._HTML_TREE_;
+import static it.uniroma3.weir.fixture.WebpageFixture.webpage;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import it.uniroma3.weir.extraction.rule.ExtractionRule;
+import it.uniroma3.weir.extraction.rule.PositionalRule;
+import it.uniroma3.weir.extraction.rule.RelativeRule;
+import it.uniroma3.weir.extraction.rule.SubPCDATARule;
+import it.uniroma3.weir.extraction.wrapper.PositionalXPathBuilder;
+import it.uniroma3.weir.fixture.WeirTest;
+import it.uniroma3.weir.model.Webpage;
+import it.uniroma3.weir.vector.value.ExtractedValue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+import org.w3c.dom.Text;
+
+/**
+ * The single-pass evaluation must extract exactly what
+ * JAXP extracts, rule by rule.
+ */
+public class XPathTrieTest extends WeirTest {
+
+	static final private String PAGE = _HTML_TREE_("" +
+			"<DIV id='main'>" +
+			/**/"intro<B>Price:</B> 10 <I>euro</I>" +
+			"</DIV>" +
+			"<TABLE><TBODY>" +
+			/**/"<TR><TD>Name</TD><TD>Mario</TD></TR>" +
+			/**/"<TR><TD>Name</TD><TD>Luigi</TD></TR>" +
+			/**/"<TR><TD>Born</TD><TD>1981</TD></TR>" +
+			"</TBODY></TABLE>" +
+			"<P>one<BR/>two<!-- comment -->three</P>");
+
+	private Webpage page;
+
+	@Before
+	public void setUp() {
+		this.page = page();
+	}
+
+	static private Webpage page() {
+		final Webpage page = webpage(PAGE);
+		page.getDocument().normalize();
+		return page;
+	}
+
+	/* N.B. occurrence marks are cached within the DOM by the first
+	 *      extraction reaching a node: compare them over fresh pages */
+	private void assertSameExtraction(List<ExtractionRule> rules) {
+		final ExtractedValue[] actual = new XPathTrie(rules).extract(this.page);
+		assertEquals(rules.size(), actual.length);
+		for(int r=0; r<rules.size(); r++) {
+			final ExtractionRule rule = rules.get(r);
+			final ExtractedValue expected = rule.applyTo(page());
+			final ExtractedValue alone = new XPathTrie(rules.subList(r, r+1)).extract(page())[0];
+			assertEquals(rule.getXPath(), expected.getValue(), actual[r].getValue());
+			assertEquals(rule.getXPath(), expected.getValue(), alone.getValue());
+			assertEquals(rule.getXPath(), expected.getOccurrenceMark(), alone.getOccurrenceMark());
+		}
+	}
+
+	static private List<ExtractionRule> relativeRules(String... xpaths) {
+		final List<ExtractionRule> result = new ArrayList<>();
+		for(String xpath : xpaths)
+			result.add(new RelativeRule(xpath));
+		return result;
+	}
+
+	@Test
+	public void testExtract_allPositionalRulesOfAPage() {
+		final PositionalXPathBuilder builder = new PositionalXPathBuilder();
+		final List<ExtractionRule> rules = new ArrayList<>();
+		final NodeList texts = (NodeList) new PositionalRule("//text()").applyTo(this.page.getDocument());
+		for(int i=0; i<texts.getLength(); i++) {
+			final Node text = texts.item(i);
+			if (text instanceof Text)
+				rules.add(new PositionalRule(builder.getXPath((Text)text)));
+		}
+		rules.add(new PositionalRule("/HTML[1]/BODY[1]/DIV[2]/text()[1]"));
+		rules.add(new PositionalRule("/HTML[1]/BODY[1]/P[1]/text()[4]"));
+		assertTrue(rules.size()>10);
+		assertSameExtraction(rules);
+	}
+
+	@Test
+	public void testExtract_relativeRules() {
+		assertSameExtraction(relativeRules(
+				"//B[contains(text(),'Price')]/following-sibling::node()[1]/self::text()",
+				"//B[contains(text(),'Price')]/following-sibling::node()[1]/following-sibling::node()[1]/text()",
+				"//TD[contains(text(),'Name')]/following-sibling::node()[1]/text()",
+				"//TD[contains(text(),'Born')]/../preceding-sibling::node()[1]/child::*[2]/text()",
+				"//TD[contains(text(),'Born')]/../../child::*[1]/child::*[2]/./text()[1]",
+				"//DIV[@id='main']/text()",
+				"//DIV[@id='main']/text()[2]",
+				"//DIV[@id='none']/text()",
+				"//BR[contains(text(),'')]/preceding-sibling::node()[1]/self::text()",
+				"//P[contains(text(),'one')]/text()[3]"
+				));
+	}
+
+	@Test
+	public void testExtract_unsupportedRulesFallBackToJAXP() {
+		final List<ExtractionRule> rules = relativeRules(
+				"//TD[position()=2]/text()",
+				"//TD[contains(text(),'Born')]/following-sibling::node()[1]/text()");
+		final ExtractionRule pcdata = rules.get(1);
+		rules.add(new SubPCDATARule(pcdata, "substring(" + pcdata.getXPath() + ",1,2)"));
+		final XPathTrie trie = new XPathTrie(rules);
+		assertEquals(2, trie.getFallbackSize());
+		assertSameExtraction(rules);
+	}
+
+	@Test
+	public void testExtract_notCompiled() {
+		final List<ExtractionRule> rules = relativeRules("//DIV[@id='main']/text()[1]");
+		assertEquals(1, new XPathTrie(rules, false).getFallbackSize());
+		assertSameExtraction(rules);
+	}
+
+}
@@ -0,0 +1,201 @@
+package it.uniroma3.weir.integration;
+
+import static it.uniroma3.weir.fixture.VectorFixture.createVector;
+import static it.uniroma3.weir.vector.type.Type.STRING;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import it.uniroma3.weir.MatchRepository;
+import it.uniroma3.weir.fixture.WeirTest;
+import it.uniroma3.weir.integration.lc.ContainmentCorrelation;
+import it.uniroma3.weir.integration.lc.Correlation;
+import it.uniroma3.weir.integration.lc.LocalConsistency;
+import it.uniroma3.weir.integration.lc.StrictLocalConsistency;
+import it.uniroma3.weir.linking.entity.SoftIdEntity;
+import it.uniroma3.weir.linking.linkage.DomainLinkage;
+import it.uniroma3.weir.linking.linkage.DomainLinkage.WebsiteLinkageBuilder;
+import it.uniroma3.weir.linking.linkage.PageLinkage;
+import it.uniroma3.weir.linking.linkage.WebsiteLinkage;
+import it.uniroma3.weir.model.Attribute;
+import it.uniroma3.weir.model.Dataset;
+import it.uniroma3.weir.model.Domain;
+import it.uniroma3.weir.model.Experiment;
+import it.uniroma3.weir.model.Mapping;
+import it.uniroma3.weir.model.MappingSet;
+import it.uniroma3.weir.model.Webpage;
+import it.uniroma3.weir.model.Website;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * The mappings grouped by a {@link MappingForest} must be the same
+ * of those obtained by merging {@link Mapping}s, as done originally.
+ */
+public class AbstractIntegrationTest extends WeirTest {
+
+	static final private int SITES = 4;
+	static final private int PAGES = 20;
+	static final private int CONCEPTS = 6;
+
+	private List<Attribute> attributes;
+
+	private MatchRepository matches;
+
+	@Before
+	public void setUp() {
+		final Random random = new Random(17);
+		final Domain domain = new Domain("integration");
+		final Dataset dataset = new Dataset("test");
+		dataset.addDomain(domain);
+		domain.setDataset(dataset);
+		final String[][] values = new String[CONCEPTS][PAGES];
+		for(int c=0; c<CONCEPTS; c++)
+			for(int p=0; p<PAGES; p++)
+				values[c][p] = "value " + random.nextInt(8);
+		/* every site publishes every concept, a few of them twice */
+		final List<Integer> concepts = new ArrayList<>();
+		for(int s=0; s<SITES; s++) {
+			final Website site = new Website("www.integration-"+s+".com");
+			for(int p=0; p<PAGES; p++) {
+				final Webpage page = new Webpage("p"+p);
+				site.addPage(page);
+				site.addOverlapPage(page);
+				new SoftIdEntity(page);
+			}
+			for(int c=0; c<CONCEPTS+2; c++) {
+				final int concept = ( c<CONCEPTS ? c : random.nextInt(CONCEPTS) );
+				final String[] noisy = values[concept].clone();
+				noisy[random.nextInt(PAGES)] = null;
+				noisy[random.nextInt(PAGES)] = "value " + random.nextInt(8);
+				site.addAttribute(new Attribute(createVector(site, STRING, noisy)));
+				concepts.add(concept);
+			}
+			domain.addSite(site);
+		}
+		final Experiment experiment = Experiment.makeExperiment(null, null);
+		experiment.getAbstractRelation().setLinkages(new DomainLinkage(domain, new WebsiteLinkageBuilder() {
+
+			static final private long serialVersionUID = -2360339622958613840L;
+
+			@Override
+			public WebsiteLinkage createPair(Website s1, Website s2) {
+				if (s1.equals(s2)) return new WebsiteLinkage(s1);
+				final List<PageLinkage> linkage = new ArrayList<>();
+				for(int p=0; p<PAGES; p++)
+					linkage.add(new PageLinkage(s1.getWebpages().get(p), s2.getWebpages().get(p), 1.0));
+				return new WebsiteLinkage(s1, s2, linkage);
+			}
+
+		}));
+		this.attributes = new ArrayList<>(domain.getAllAttributes());
+		/* closer matches between attributes of the same concept */
+		this.matches = new MatchRepository();
+		for(int i=0; i<this.attributes.size(); i++)
+			for(int j=i+1; j<this.attributes.size(); j++) {
+				final boolean same = concepts.get(i).equals(concepts.get(j));
+				final double distance = ( same ? 0d : 0.5d ) + random.nextDouble()/2;
+				this.matches.add(new Match(this.attributes.get(i), this.attributes.get(j), distance));
+			}
+	}
+
+	/* the original algorithm: a new Mapping for every singleton and for every merge */
+	static private class MergingIntegration {
+
+		final private MappingSet mappingSet = new MappingSet();
+
+		final private LocalConsistency localConsistency = new StrictLocalConsistency();
+
+		final private Correlation correlation = new ContainmentCorrelation();
+
+		private int violations = 0;
+
+		private int looseViolations = 0;
+
+		MappingSet integrate(MatchRepository repository) {
+			for(Match match : repository.order()) {
+				final Mapping m_a = findOrCreateNewSingletonMapping(match.getMin());
+				final Mapping m_b = findOrCreateNewSingletonMapping(match.getMax());
+				handlePair(match, m_a, m_b);
+			}
+			return this.mappingSet;
+		}
+
+		private Mapping findOrCreateNewSingletonMapping(Attribute a) {
+			Mapping m_a = this.mappingSet.getMappingByAttribute(a);
+			if (m_a==null) {
+				m_a = new Mapping(a);
+				this.mappingSet.addMapping(m_a);
+			}
+			return m_a;
+		}
+
+		private void handlePair(Match pair, Mapping m_a, Mapping m_b) {
+			if (m_a.equals(m_b)) return;
+			if (m_a.isComplete() || m_b.isComplete()) {
+				m_a.markAsComplete();
+				m_b.markAsComplete();
+			} else if (aMergeWouldViolateLC(m_a, m_b)) {
+				this.violations++;
+				if (!this.correlation.areCorrelated(pair.getMin(), pair.getMax())) {
+					m_a.markAsComplete();
+					m_b.markAsComplete();
+				} else this.looseViolations++;
+			} else {
+				this.mappingSet.removeMapping(m_a);
+				this.mappingSet.removeMapping(m_b);
+				this.mappingSet.addMapping(new Mapping(m_a, m_b));
+			}
+		}
+
+		private boolean aMergeWouldViolateLC(Mapping m_a, Mapping m_b) {
+			final Set<Website> violating = m_a.getSourceSites();
+			violating.retainAll(m_b.getSourceSites());
+			for(Website site : violating)
+				for(Attribute a : m_a.fromSource(site))
+					for(Attribute b : m_b.fromSource(site))
+						if (this.localConsistency.violatedBy(a, b))
+							return true;
+			return false;
+		}
+
+	}
+
+	/* every mapping, as its attributes, whether it is complete, and its id shifted */
+	static private Set<String> describe(MappingSet mappings, int shift) {
+		final Set<String> result = new TreeSet<>();
+		for(Mapping mapping : mappings) {
+			final Set<String> ids = new TreeSet<>();
+			for(Attribute a : mapping)
+				ids.add(a.getId());
+			result.add(ids+(mapping.isComplete() ? " complete" : "")+" #"+(Integer.parseInt(mapping.getId())+shift));
+		}
+		return result;
+	}
+
+	static private int nextMappingId() {
+		return Integer.parseInt(new Mapping().getId());
+	}
+
+	@Test
+	public void testSameMappingsOfMergingMappings() {
+		final MergingIntegration original = new MergingIntegration();
+		final int before = nextMappingId();
+		final MappingSet expected = original.integrate(this.matches);
+		final int after = nextMappingId();
+		final MappingSet actual = new AbstractIntegration().integrate(this.matches);
+
+		/* both the kinds of violations of the local consistency occur */
+		assertTrue(original.violations>original.looseViolations);
+		assertTrue(original.looseViolations>0);
+		assertTrue(expected.size()<this.attributes.size());
+		/* n.b. the ids of the same mappings are drawn in the same order */
+		assertEquals(describe(expected, after-before), describe(actual, 0));
+	}
+
+}
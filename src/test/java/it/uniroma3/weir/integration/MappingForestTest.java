@@ -0,0 +1,155 @@
+package it.uniroma3.weir.integration;
+
+import static it.uniroma3.weir.fixture.AttributeFixture.createAttribute;
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+import it.uniroma3.weir.fixture.WeirTest;
+import it.uniroma3.weir.model.Attribute;
+import it.uniroma3.weir.model.Dataset;
+import it.uniroma3.weir.model.Domain;
+import it.uniroma3.weir.model.Mapping;
+import it.uniroma3.weir.model.MappingSet;
+import it.uniroma3.weir.model.Website;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class MappingForestTest extends WeirTest {
+
+	private Website s1, s2, s3;
+
+	private MappingForest forest;
+
+	@Before
+	public void setUp() {
+		final Domain domain = new Domain("test");
+		final Dataset dataset = new Dataset("test");
+		dataset.addDomain(domain);
+		domain.setDataset(dataset);
+		this.s1 = new Website("w1");
+		this.s2 = new Website("w2");
+		this.s3 = new Website("w3");
+		for(Website site : asList(this.s1, this.s2, this.s3))
+			domain.addSite(site);
+		this.forest = new MappingForest();
+	}
+
+	static private Attribute attribute(Website site) {
+		final Attribute result = createAttribute("x");
+		result.setWebsite(site);
+		return result;
+	}
+
+	@Test
+	public void testSingletons() {
+		final Attribute a = attribute(this.s1);
+		final Attribute b = attribute(this.s2);
+		assertTrue(this.forest.add(a));
+		assertFalse(this.forest.add(a));
+		this.forest.add(b);
+		assertTrue(this.forest.sameMapping(a, a));
+		assertFalse(this.forest.sameMapping(a, b));
+		assertEquals(Collections.singleton(a), this.forest.getMapping(a).getAttributes());
+		assertTrue(this.forest.getCommonSites(a, b).isEmpty());
+	}
+
+	@Test
+	public void testMerge() {
+		final Attribute a = attribute(this.s1);
+		final Attribute b = attribute(this.s2);
+		final Attribute c = attribute(this.s3);
+		for(Attribute attribute : asList(a, b, c))
+			this.forest.add(attribute);
+		final String id = this.forest.getMapping(a).getId();
+		this.forest.merge(a, b);
+		this.forest.merge(c, b);
+		assertTrue(this.forest.sameMapping(a, c));
+		assertNotEquals(id, this.forest.getMapping(a).getId());
+		assertEquals(new HashSet<>(asList(a, b, c)), this.forest.getMapping(c).getAttributes());
+		assertEquals(asList(b), this.forest.fromSource(a, this.s2));
+	}
+
+	@Test
+	public void testCommonSites() {
+		final Attribute a1 = attribute(this.s1);
+		final Attribute b1 = attribute(this.s1);
+		final Attribute a2 = attribute(this.s2);
+		final Attribute b3 = attribute(this.s3);
+		for(Attribute attribute : asList(a1, b1, a2, b3))
+			this.forest.add(attribute);
+		this.forest.merge(a1, a2);
+		this.forest.merge(b1, b3);
+		assertEquals(asList(this.s1), this.forest.getCommonSites(a2, b3));
+		assertEquals(asList(a1), this.forest.fromSource(a2, this.s1));
+		assertEquals(asList(b1), this.forest.fromSource(b3, this.s1));
+		assertTrue(this.forest.fromSource(a2, this.s3).isEmpty());
+	}
+
+	@Test
+	public void testCompleteUntilMerged() {
+		final Attribute a = attribute(this.s1);
+		final Attribute b = attribute(this.s2);
+		this.forest.add(a);
+		this.forest.add(b);
+		this.forest.markAsComplete(a);
+		assertTrue(this.forest.isComplete(a));
+		assertTrue(this.forest.getMapping(a).isComplete());
+		assertFalse(this.forest.isComplete(b));
+		this.forest.merge(a, b);
+		assertFalse(this.forest.isComplete(a));
+	}
+
+	@Test(expected=IllegalArgumentException.class)
+	public void testMergeOfTheSameMapping() {
+		final Attribute a = attribute(this.s1);
+		final Attribute b = attribute(this.s2);
+		this.forest.add(a);
+		this.forest.add(b);
+		this.forest.merge(a, b);
+		this.forest.merge(b, a);
+	}
+
+	@Test
+	public void testSameMappingsOfMergingMappings() {
+		final Website[] sites = { this.s1, this.s2, this.s3 };
+		final Attribute[] attributes = new Attribute[30];
+		final Random random = new Random(13);
+		final MappingSet expected = new MappingSet();
+		for(int i=0; i<attributes.length; i++) {
+			attributes[i] = attribute(sites[random.nextInt(sites.length)]);
+			this.forest.add(attributes[i]);
+			expected.addMapping(new Mapping(this.forest.getMapping(attributes[i]).getId(), asList(attributes[i])));
+		}
+		for(int i=0; i<100; i++) {
+			final Attribute a = attributes[random.nextInt(attributes.length)];
+			final Attribute b = attributes[random.nextInt(attributes.length)];
+			final Mapping m_a = expected.getMappingByAttribute(a);
+			final Mapping m_b = expected.getMappingByAttribute(b);
+			assertEquals(m_a.equals(m_b), this.forest.sameMapping(a, b));
+			if (m_a.equals(m_b)) continue;
+			final Set<Website> common = m_a.getSourceSites();
+			common.retainAll(m_b.getSourceSites());
+			assertEquals(common, new HashSet<>(this.forest.getCommonSites(a, b)));
+			expected.removeMapping(m_a);
+			expected.removeMapping(m_b);
+			this.forest.merge(a, b);
+			final Mapping merged = this.forest.getMapping(b);
+			assertEquals(new Mapping(m_a, m_b).getAttributes(), merged.getAttributes());
+			expected.addMapping(merged);
+		}
+		final MappingSet actual = new MappingSet();
+		this.forest.addMappingsTo(actual);
+		assertEquals(expected.getMappings(), actual.getMappings());
+		for(Mapping m : expected)
+			assertEquals(m.getAttributes(), actual.getMappingByAttribute(m.iterator().next()).getAttributes());
+	}
+
+}
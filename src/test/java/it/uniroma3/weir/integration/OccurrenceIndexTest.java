@@ -0,0 +1,115 @@
+package it.uniroma3.weir.integration;
+
+import static it.uniroma3.weir.fixture.WebsiteFixture.createWebsite;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import it.uniroma3.weir.fixture.WeirTest;
+import it.uniroma3.weir.model.Attribute;
+import it.uniroma3.weir.model.Webpage;
+import it.uniroma3.weir.model.Website;
+import it.uniroma3.weir.vector.ExtractedVector;
+import it.uniroma3.weir.vector.Vector;
+import it.uniroma3.weir.vector.type.Type;
+import it.uniroma3.weir.vector.value.ExtractedValue;
+
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class OccurrenceIndexTest extends WeirTest {
+
+	private Website site;
+
+	private List<Webpage> pages;
+
+	private OccurrenceIndex index;
+
+	@Before
+	public void setUp() {
+		this.site = createWebsite(3);
+		this.pages = this.site.getWebpages();
+		this.index = new OccurrenceIndex(this.pages);
+	}
+
+	/* values and occurrence marks, in pairs, one pair per page */
+	private Attribute createAttribute(String... valuesAndMarks) {
+		final int size = valuesAndMarks.length/2;
+		final ExtractedValue[] extracted = new ExtractedValue[size];
+		final String[] values = new String[size];
+		for(int i=0; i<size; i++) {
+			values[i] = valuesAndMarks[2*i];
+			extracted[i] = new ExtractedValue(this.pages.get(i), values[i], valuesAndMarks[2*i+1]);
+		}
+		final Attribute result = new Attribute(new Vector(new ExtractedVector(extracted, null), Type.STRING, values));
+		result.setWebsite(this.site);
+		return result;
+	}
+
+	@Test
+	public void testSameValueFromTheSameOccurrence() {
+		final Attribute a = createAttribute("x", "#1", "y", "#2", "z", "#3");
+		final Attribute b = createAttribute("w", "#4", "k", "#5", "z", "#3");
+		this.index.add(a);
+		assertSame(a, this.index.findOverlapping(b));
+	}
+
+	@Test
+	public void testDifferentValuesFromTheSameOccurrence() {
+		final Attribute a = createAttribute("x", "#1", "y", "#2");
+		final Attribute b = createAttribute("x y", "#1", "w", "#2");
+		this.index.add(a);
+		assertNull(this.index.findOverlapping(b));
+	}
+
+	@Test
+	public void testSameValueFromDifferentOccurrences() {
+		final Attribute a = createAttribute("x", "#1", "y", "#2");
+		final Attribute b = createAttribute("x", "#3", "y", "#4");
+		this.index.add(a);
+		assertNull(this.index.findOverlapping(b));
+	}
+
+	@Test
+	public void testSameOccurrenceOnDifferentPages() {
+		final Attribute a = createAttribute("x", "#1", "y", "#2");
+		final Attribute b = createAttribute("y", "#2", "x", "#1");
+		this.index.add(a);
+		assertNull(this.index.findOverlapping(b));
+	}
+
+	@Test
+	public void testNullsAndMissingMarksDoNotOverlap() {
+		final Attribute a = createAttribute(null, "#1", "y", null);
+		final Attribute b = createAttribute(null, "#1", "y", null);
+		this.index.add(a);
+		assertNull(this.index.findOverlapping(b));
+	}
+
+	@Test
+	public void testNoOverlapWithItself() {
+		final Attribute a = createAttribute("x", "#1");
+		this.index.add(a);
+		assertNull(this.index.findOverlapping(a));
+	}
+
+	@Test
+	public void testOnlyIndexedAttributes() {
+		final Attribute a = createAttribute("x", "#1");
+		final Attribute b = createAttribute("x", "#1");
+		assertNull(this.index.findOverlapping(b));
+		this.index.add(a);
+		assertSame(a, this.index.findOverlapping(b));
+	}
+
+	@Test
+	public void testTheSmallestOverlappingAttribute() {
+		final Attribute a = createAttribute("x", "#1");
+		final Attribute b = createAttribute("x", "#1");
+		final Attribute c = createAttribute("x", "#1");
+		this.index.add(c);
+		this.index.add(a);
+		assertSame(a, this.index.findOverlapping(b));
+	}
+
+}
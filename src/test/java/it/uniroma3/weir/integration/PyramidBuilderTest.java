@@ -0,0 +1,113 @@
+package it.uniroma3.weir.integration;
+
+import static it.uniroma3.weir.fixture.VectorFixture.createVector;
+import static it.uniroma3.weir.vector.type.Type.NUMBER;
+import static it.uniroma3.weir.vector.type.Type.STRING;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import it.uniroma3.weir.MatchRepository;
+import it.uniroma3.weir.fixture.WeirTest;
+import it.uniroma3.weir.linking.entity.SoftIdEntity;
+import it.uniroma3.weir.linking.linkage.DomainLinkage;
+import it.uniroma3.weir.linking.linkage.DomainLinkage.WebsiteLinkageBuilder;
+import it.uniroma3.weir.linking.linkage.PageLinkage;
+import it.uniroma3.weir.linking.linkage.WebsiteLinkage;
+import it.uniroma3.weir.model.Attribute;
+import it.uniroma3.weir.model.Dataset;
+import it.uniroma3.weir.model.Domain;
+import it.uniroma3.weir.model.Experiment;
+import it.uniroma3.weir.model.Webpage;
+import it.uniroma3.weir.model.Website;
+import it.uniroma3.weir.vector.type.Type;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * The pyramid must not depend on the number of
+ * threads, nor on how the pairs are split into tiles.
+ */
+public class PyramidBuilderTest extends WeirTest {
+
+	static final private int SITES = 3;
+	static final private int PAGES = 20;
+	static final private int ATTRIBUTES = 10;
+
+	private List<Attribute> attributes;
+
+	@Before
+	public void setUp() {
+		final Random random = new Random(13);
+		final Domain domain = new Domain("pyramid");
+		final Dataset dataset = new Dataset("test");
+		dataset.addDomain(domain);
+		domain.setDataset(dataset);
+		/* the same attributes, a bit noisy, over the same entities */
+		final String[][] values = new String[ATTRIBUTES][PAGES];
+		for(int a=0; a<ATTRIBUTES; a++)
+			for(int p=0; p<PAGES; p++)
+				values[a][p] = ( type(a)==NUMBER ?
+						Integer.toString(random.nextInt(100)) :
+						"value " + random.nextInt(8) );
+		for(int s=0; s<SITES; s++) {
+			final Website site = new Website("www.pyramid-"+s+".com");
+			for(int p=0; p<PAGES; p++) {
+				final Webpage page = new Webpage("p"+p);
+				site.addPage(page);
+				site.addOverlapPage(page);
+				new SoftIdEntity(page);
+			}
+			for(int a=0; a<ATTRIBUTES; a++) {
+				final String[] noisy = values[a].clone();
+				noisy[random.nextInt(PAGES)] = null;
+				site.addAttribute(new Attribute(createVector(site, type(a), noisy)));
+			}
+			domain.addSite(site);
+		}
+		final Experiment experiment = Experiment.makeExperiment(null, null);
+		experiment.getAbstractRelation().setLinkages(new DomainLinkage(domain, new WebsiteLinkageBuilder() {
+
+			static final private long serialVersionUID = 4906187612297305181L;
+
+			@Override
+			public WebsiteLinkage createPair(Website s1, Website s2) {
+				if (s1.equals(s2)) return new WebsiteLinkage(s1);
+				final List<PageLinkage> linkage = new ArrayList<>();
+				for(int p=0; p<PAGES; p++)
+					linkage.add(new PageLinkage(s1.getWebpages().get(p), s2.getWebpages().get(p), 1.0));
+				return new WebsiteLinkage(s1, s2, linkage);
+			}
+
+		}));
+		this.attributes = new ArrayList<>(domain.getAllAttributes());
+	}
+
+	static private Type type(int attribute) {
+		return ( attribute%2==0 ? NUMBER : STRING );
+	}
+
+	private List<String> pyramid(int threads, int tilePairs) {
+		final MatchRepository matches = new PyramidBuilder(threads, tilePairs).build(this.attributes);
+		final List<String> result = new ArrayList<>();
+		for(Match match : matches.order())
+			result.add(this.attributes.indexOf(match.getMin())+"-"+
+					   this.attributes.indexOf(match.getMax())+":"+
+					   Double.doubleToRawLongBits(match.distance()));
+		return result;
+	}
+
+	@Test
+	public void testOneVsManyThreads() {
+		final List<String> sequential = pyramid(1, 1 << 14);
+		assertTrue(sequential.size()>0);
+		assertTrue(sequential.size()<this.attributes.size()*(this.attributes.size()-1)/2);
+		assertEquals(sequential, pyramid(4, 1 << 14));
+		assertEquals(sequential, pyramid(4, 7));
+		assertEquals(sequential, pyramid(3, 1));
+	}
+
+}
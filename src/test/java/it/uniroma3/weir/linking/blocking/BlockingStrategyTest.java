@@ -0,0 +1,84 @@
+package it.uniroma3.weir.linking.blocking;
+
+import static it.uniroma3.weir.fixture.WebsiteFixture.createWebsite;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import it.uniroma3.weir.evaluation.linking.CandidateLinkingStatistics;
+import it.uniroma3.weir.fixture.WeirTest;
+import it.uniroma3.weir.linking.IdfRepository;
+import it.uniroma3.weir.linking.entity.SoftIdEntity;
+import it.uniroma3.weir.model.Webpage;
+import it.uniroma3.weir.model.Website;
+import it.uniroma3.weir.structures.Pair;
+
+import java.util.Set;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class BlockingStrategyTest extends WeirTest {
+
+	private Website site1;
+	private Website site2;
+
+	@Before
+	public void setUp() {
+		this.site1 = createSite("nikon-d3100", "canon-eos-600d", "sony-alpha-57", "pentax-k30",
+								"olympus-pen-e5", "fuji-x100s", "leica-m9", "samsung-nx300");
+		this.site2 = createSite("leica-m9", "canon-eos-600d", "nikon-d3100", "sony-alpha-57",
+								"fuji-x100s", "pentax-k30", "ricoh-gr", "panasonic-gx7");
+	}
+
+	static private Website createSite(String... ids) {
+		final Website site = createWebsite(ids);
+		final IdfRepository idfs = site.getIdfRepository();
+		for(Webpage page : site.getWebpages())
+			idfs.updateDfs(new SoftIdEntity(page));
+		idfs.finalizeIdfs(site.getWebpages().size());
+		return site;
+	}
+
+	private void assertAllGoldenPairsAmongFewerCandidates(BlockingStrategy blocking) {
+		final Set<Pair<Webpage>> candidates = blocking.candidates(site1.getWebpages(), site2.getWebpages());
+		final CandidateLinkingStatistics stats = new CandidateLinkingStatistics();
+		stats.updateBlockingStatistics(site1.getWebpages(), site2.getWebpages(), candidates);
+		assertEquals(1d, stats.getPairCompleteness(), 0d);
+		assertTrue(stats.getReductionRatio()>0d);
+	}
+
+	@Test
+	public void testNone_keepsTheCartesianProduct() {
+		final Set<Pair<Webpage>> candidates = 
+				BlockingStrategy.NONE.candidates(site1.getWebpages(), site2.getWebpages());
+		assertEquals(64, candidates.size());
+	}
+
+	@Test
+	public void testToken() {
+		assertAllGoldenPairsAmongFewerCandidates(BlockingStrategy.TOKEN);
+	}
+
+	@Test
+	public void testSortedNeighbourhood() {
+		assertAllGoldenPairsAmongFewerCandidates(BlockingStrategy.SORTED_NEIGHBOURHOOD);
+	}
+
+	@Test
+	public void testMinHashLSH() {
+		assertAllGoldenPairsAmongFewerCandidates(BlockingStrategy.MINHASH_LSH);
+	}
+
+	@Test
+	public void testTopK() {
+		assertAllGoldenPairsAmongFewerCandidates(BlockingStrategy.TOP_K);
+	}
+
+	@Test
+	public void testMinHasher_sameTokensSameBuckets() {
+		final MinHasher hasher = new MinHasher(4, 2);
+		final Set<String> tokens = BlockingStrategy.tokens(site1.getWebpages().get(0));
+		assertEquals(hasher.buckets(tokens), hasher.buckets(tokens));
+		assertEquals(4, hasher.buckets(tokens).size());
+	}
+
+}
@@ -0,0 +1,142 @@
+package it.uniroma3.weir.linking.index;
+
+import static it.uniroma3.weir.fixture.WebsiteFixture.createWebsite;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import it.uniroma3.weir.fixture.WeirTest;
+import it.uniroma3.weir.linking.IdfRepository;
+import it.uniroma3.weir.linking.entity.SoftIdEntity;
+import it.uniroma3.weir.model.Webpage;
+import it.uniroma3.weir.model.Website;
+
+import java.util.Map;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class TopKSearcherTest extends WeirTest {
+
+	static final private double DELTA = 1e-9;
+
+	static private Website createSite(String... ids) {
+		final Website site = createWebsite(ids);
+		final IdfRepository idfs = site.getIdfRepository();
+		for(Webpage page : site.getWebpages())
+			idfs.updateDfs(new SoftIdEntity(page));
+		idfs.finalizeIdfs(site.getWebpages().size());
+		return site;
+	}
+
+	/* soft-ids of a few tokens drawn from a small vocabulary */
+	static private Website createRandomSite(Random random, int pages, String prefix) {
+		final String[] ids = new String[pages];
+		for(int i=0; i<pages; i++) {
+			final StringBuilder id = new StringBuilder(prefix+i);
+			final int tokens = 1 + random.nextInt(4);
+			for(int t=0; t<tokens; t++)
+				id.append('-').append("w").append(random.nextInt(12));
+			ids[i] = id.toString();
+		}
+		return createSite(ids);
+	}
+
+	static private double exhaustiveScore(Map<String, Double> query, Webpage page) {
+		final Map<String, Double> tokens = InvertedIndex.weightedTokens(page, 0d);
+		double score = 0d;
+		for(Map.Entry<String, Double> token : query.entrySet())
+			if (tokens.containsKey(token.getKey()))
+				score += token.getValue() * tokens.get(token.getKey());
+		return score;
+	}
+
+	@Test
+	public void testSameIdRanksFirst() {
+		final Website site1 = createSite("nikon-d3100", "canon-eos-600d", "sony-alpha-57");
+		final Website site2 = createSite("sony-alpha-58", "canon-eos-600d", "nikon-d3200");
+		final TopKSearcher searcher = new TopKSearcher(new InvertedIndex(site2.getWebpages(), 0d));
+		final Webpage canon = site1.getWebpages().get(1);
+		final List<ScoredPage> top = searcher.search(InvertedIndex.weightedTokens(canon, 0d), 2);
+		assertEquals(1, top.size());
+		assertSame(site2.getWebpages().get(1), top.get(0).getPage());
+	}
+
+	@Test
+	public void testSameResultsAsExhaustiveScoring() {
+		final Random random = new Random(13);
+		for(int round=0; round<20; round++) {
+			final Website site1 = createRandomSite(random, 30, "a");
+			final Website site2 = createRandomSite(random, 200, "b");
+			final TopKSearcher searcher = new TopKSearcher(new InvertedIndex(site2.getWebpages(), 0d));
+			final int k = 1 + random.nextInt(5);
+			for(Webpage pivot : site1.getWebpages()) {
+				final Map<String, Double> query = InvertedIndex.weightedTokens(pivot, 0d);
+				final List<ScoredPage> top = searcher.search(query, k);
+				assertTrue(top.size()<=k);
+				double last = Double.MAX_VALUE;
+				for(ScoredPage hit : top) {
+					assertEquals(exhaustiveScore(query, hit.getPage()), hit.getScore(), DELTA);
+					assertTrue(hit.getScore()<=last+DELTA);
+					last = hit.getScore();
+				}
+				/* no page left out scores better than the last one retrieved */
+				int positives = 0;
+				for(Webpage page : site2.getWebpages()) {
+					final double score = exhaustiveScore(query, page);
+					if (score>0d) positives++;
+					if (!contains(top, page))
+						assertTrue(top.size()==k ? score<=last+DELTA : score==0d);
+				}
+				assertEquals(Math.min(k, positives), top.size());
+			}
+		}
+	}
+
+	static private boolean contains(List<ScoredPage> top, Webpage page) {
+		for(ScoredPage hit : top)
+			if (hit.getPage()==page) return true;
+		return false;
+	}
+
+	@Test
+	public void testNoSharedTokens() {
+		final Website site1 = createSite("alpha", "beta");
+		final Website site2 = createSite("gamma", "delta");
+		final TopKSearcher searcher = new TopKSearcher(new InvertedIndex(site2.getWebpages(), 0d));
+		final Webpage alpha = site1.getWebpages().get(0);
+		assertTrue(searcher.search(InvertedIndex.weightedTokens(alpha, 0d), 3).isEmpty());
+		assertNull(searcher.getIndex().getPostings("alpha"));
+	}
+
+	@Test
+	public void testCursorAdvance() {
+		final PostingList postings = new PostingList();
+		for(int doc=0; doc<1000; doc+=3)
+			postings.add(doc, 1d);
+		final PostingList.Cursor cursor = postings.cursor();
+		cursor.advance(0);
+		assertEquals(0, cursor.doc());
+		cursor.advance(4);
+		assertEquals(6, cursor.doc());
+		cursor.advance(6);
+		assertEquals(6, cursor.doc());
+		cursor.advance(500);
+		assertEquals(501, cursor.doc());
+		cursor.advance(999);
+		assertEquals(999, cursor.doc());
+		cursor.next();
+		assertEquals(PostingList.Cursor.END, cursor.doc());
+		cursor.advance(2000);
+		assertEquals(PostingList.Cursor.END, cursor.doc());
+	}
+
+	@Test(expected=IllegalArgumentException.class)
+	public void testPostingsOutOfOrder() {
+		final PostingList postings = new PostingList();
+		postings.add(5, 1d);
+		postings.add(3, 1d);
+	}
+
+}
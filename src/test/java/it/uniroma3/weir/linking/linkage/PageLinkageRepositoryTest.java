@@ -0,0 +1,76 @@
+package it.uniroma3.weir.linking.linkage;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import it.uniroma3.weir.model.Dataset;
+import it.uniroma3.weir.model.Domain;
+import it.uniroma3.weir.model.Webpage;
+import it.uniroma3.weir.model.Website;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class PageLinkageRepositoryTest {
+
+	static final private double[] SIMILARITIES = { 0.2, 0.9, 0.5, 0.7, 0.1 };
+
+	private List<PageLinkage> linkages;
+
+	private PageLinkageRepository repository;
+
+	@Before
+	public void setUp() {
+		final Domain domain = new Domain("test");
+		final Dataset dataset = new Dataset("test");
+		dataset.addDomain(domain);
+		domain.setDataset(dataset);
+		final Website a = new Website("a");
+		final Website b = new Website("b");
+		domain.addSite(a);
+		domain.addSite(b);
+
+		this.linkages = new ArrayList<>();
+		for(int i=0; i<SIMILARITIES.length; i++) {
+			final Webpage pageA = new Webpage("a"+i);
+			final Webpage pageB = new Webpage("b"+i);
+			a.addPage(pageA);
+			b.addPage(pageB);
+			this.linkages.add(new PageLinkage(pageA, pageB, SIMILARITIES[i]));
+		}
+		this.repository = new PageLinkageRepository(this.linkages);
+	}
+
+	@Test
+	public void testOrderBySimilarity() {
+		final List<PageLinkage> ordered = this.repository.order();
+		assertEquals(SIMILARITIES.length, ordered.size());
+		assertSame(this.linkages.get(1), ordered.get(0));
+		assertSame(this.linkages.get(3), ordered.get(1));
+		assertSame(this.linkages.get(2), ordered.get(2));
+		assertSame(this.linkages.get(0), ordered.get(3));
+		assertSame(this.linkages.get(4), ordered.get(4));
+	}
+
+	@Test
+	public void testTopK() {
+		final PageLinkageRepository top = this.repository.top(2);
+		assertEquals(2, top.size());
+		assertSame(this.linkages.get(1), top.order().get(0));
+		assertSame(this.linkages.get(3), top.order().get(1));
+	}
+
+	@Test
+	public void testTopMoreThanAll() {
+		assertEquals(this.repository.order(), this.repository.top(10).order());
+	}
+
+	@Test
+	public void testMinAndMax() {
+		assertSame(this.linkages.get(1), this.repository.min());
+		assertSame(this.linkages.get(4), this.repository.max());
+	}
+
+}
@@ -0,0 +1,134 @@
+package it.uniroma3.weir.metrics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import it.uniroma3.util.FixtureUtils;
+import it.uniroma3.weir.fixture.WeirTest;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class MetricsTest extends WeirTest {
+
+	@Before
+	public void setUp() {
+		Metrics.reset();
+	}
+
+	@Test
+	public void testMetricsAreCreatedOnFirstUse() {
+		final Counter counter = Metrics.counter("test.counter");
+		assertSame(counter, Metrics.counter("test.counter"));
+		assertEquals(1, Metrics.getMetrics().size());
+	}
+
+	@Test(expected=IllegalArgumentException.class)
+	public void testNameBoundToOneKind() {
+		Metrics.counter("test.metric");
+		Metrics.timer("test.metric");
+	}
+
+	@Test
+	public void testResetForgetsAllMetrics() {
+		Metrics.counter("test.counter").increment();
+		Metrics.reset();
+		assertTrue(Metrics.getMetrics().isEmpty());
+		assertEquals(0, Metrics.counter("test.counter").get());
+	}
+
+	@Test
+	public void testConcurrentCounter() throws Exception {
+		final int threads = 8, increments = 10000;
+		final ExecutorService pool = Executors.newFixedThreadPool(threads);
+		try {
+			final List<Future<?>> tasks = new ArrayList<>();
+			for(int t=0; t<threads; t++)
+				tasks.add(pool.submit(new Runnable() {
+					@Override
+					public void run() {
+						for(int i=0; i<increments; i++) {
+							Metrics.counter("test.counter").increment();
+							Metrics.histogram("test.histogram").update(i);
+						}
+					}
+				}));
+			for(Future<?> task : tasks)
+				task.get();
+		} finally {
+			pool.shutdown();
+		}
+		assertEquals(threads*increments, Metrics.counter("test.counter").get());
+		final Histogram histogram = Metrics.histogram("test.histogram");
+		assertEquals(threads*increments, histogram.getCount());
+		assertEquals(0, histogram.getMin());
+		assertEquals(increments-1, histogram.getMax());
+		assertEquals((long)threads*increments*(increments-1)/2, histogram.getSum());
+	}
+
+	@Test
+	public void testHistogramPercentilesWithinAFactorOfTwo() {
+		final Histogram histogram = Metrics.histogram("test.histogram");
+		for(int i=1; i<=1000; i++)
+			histogram.update(i);
+		assertEquals(500.5, histogram.getMean(), 1e-9);
+		final long p50 = histogram.getPercentile(0.5);
+		assertTrue(p50>=500 && p50<1000);
+		final long p99 = histogram.getPercentile(0.99);
+		assertTrue(p99>=990 && p99<=1000);
+		assertEquals(1000, histogram.getPercentile(1));
+	}
+
+	@Test
+	public void testEmptyHistogram() {
+		final Histogram histogram = Metrics.histogram("test.histogram");
+		assertEquals(0, histogram.getMin());
+		assertEquals(0, histogram.getMax());
+		assertEquals(0, histogram.getPercentile(0.5));
+	}
+
+	@Test
+	public void testStageIsTimedOnce() throws Exception {
+		final Metrics.Stage stage = Metrics.stage("test.stage");
+		Thread.sleep(5);
+		stage.close();
+		stage.close();
+		final Timer timer = Metrics.timer("test.stage");
+		assertEquals(1, timer.getCount());
+		assertTrue(timer.getTotalMillis()>=5);
+	}
+
+	@Test
+	public void testReport() throws Exception {
+		Metrics.counter("test.counter").add(3);
+		Metrics.histogram("test.histogram").update(7);
+		Metrics.stage("test.stage").close();
+
+		final MetricsReport report = new MetricsReport("test \"report\"");
+		final String json = report.toJSON();
+		assertTrue(json.contains("\"title\": \"test \\\"report\\\"\""));
+		assertTrue(json.contains("\"test.counter\": { \"kind\": \"counter\", \"count\": 3 }"));
+		assertTrue(json.contains("\"test.histogram\": { \"kind\": \"histogram\", \"count\": 1, \"sum\": 7"));
+		assertTrue(json.contains("\"test.stage\": { \"kind\": \"timer\", \"count\": 1"));
+
+		final String[] csv = report.toCSV().split("\n");
+		assertEquals("metric,kind,statistic,value", csv[0]);
+		assertEquals("test.counter,counter,count,3", csv[1]);
+		for(String row : csv)
+			assertEquals(row, 4, row.split(",").length);
+
+		final File written = report.write(FixtureUtils.getTmpDirectory(), "metrics-test");
+		assertEquals(json, new String(Files.readAllBytes(written.toPath()), StandardCharsets.UTF_8));
+		assertTrue(new File(FixtureUtils.getTmpDirectory(), "metrics-test.csv").exists());
+	}
+
+}
@@ -0,0 +1,121 @@
+package it.uniroma3.weir.model;
+
+import static it.uniroma3.weir.configuration.Constants.PAGE_LOADING_THREADS;
+import static it.uniroma3.weir.extraction.wrapper.DocumentFixtures._HTML_TREE_;
+import static it.uniroma3.weir.fixture.WebsiteFixture.createWebsite;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import it.uniroma3.util.FixtureUtils;
+import it.uniroma3.weir.configuration.WeirConfig;
+import it.uniroma3.weir.fixture.WeirTest;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+public class PageLoaderTest extends WeirTest {
+
+	static private List<Webpage> pages(int n) {
+		final List<Webpage> pages = new ArrayList<>(n);
+		for(int i=0; i<n; i++) {
+			final String html = _HTML_TREE_("<P>page</P><B>"+i+"</B>");
+			final File file = FixtureUtils.makeTmpFile(html, "loader_"+i+".html");
+			pages.add(new Webpage("loader_"+i, file.toURI()));
+		}
+		createWebsite(pages);
+		return pages;
+	}
+
+	@Test
+	public void testLoadAllPages() {
+		final List<Webpage> pages = pages(16);
+		final PageLoadingStatistics stats = new PageLoader(4, 1).load(pages);
+		assertEquals(16, stats.getNumberOfPages());
+		assertEquals(0, stats.getNumberOfFailures());
+		for(Webpage page : pages)
+			assertNotNull(page.getDocument());
+	}
+
+	@Test
+	public void testMissingPageIsReportedAndTakenAsEmpty() {
+		final List<Webpage> pages = pages(3);
+		final Webpage missing = new Webpage("missing", new File(FixtureUtils.getTmpDirectory(), "missing.html").toURI());
+		pages.add(1, missing);
+		createWebsite(pages);
+
+		final PageLoadingStatistics stats = new PageLoader(2, 16).load(pages);
+		assertEquals(4, stats.getNumberOfPages());
+		assertEquals(1, stats.getNumberOfFailures());
+		assertTrue(stats.getFailures().containsKey(missing));
+		assertNotNull(missing.getDocument());
+		assertEquals(0, missing.getDocument().getElementsByTagName("P").getLength());
+		assertEquals(1, pages.get(0).getDocument().getElementsByTagName("P").getLength());
+	}
+
+	@Test
+	public void testStackOverflowIsReportedAndTakenAsEmpty() {
+		final StringBuilder deep = new StringBuilder();
+		for(int i=0; i<20000; i++)
+			deep.append("<B>");
+		final File file = FixtureUtils.makeTmpFile(_HTML_TREE_(deep.toString()), "loader_deep.html");
+		final List<Webpage> pages = pages(1);
+		final Webpage overflowing = new Webpage("deep", file.toURI());
+		pages.add(overflowing);
+		createWebsite(pages);
+
+		final PageLoadingStatistics stats = new PageLoader(1, 16).load(pages);
+		assertEquals(2, stats.getNumberOfPages());
+		assertTrue(stats.getFailures().get(overflowing).startsWith("StackOverflowError"));
+		assertNotNull(overflowing.getDocument());
+	}
+
+	@Test
+	public void testLoadedPagesAreSkipped() {
+		final List<Webpage> pages = pages(2);
+		pages.get(0).loadDocument();
+		final PageLoadingStatistics stats = new PageLoader(1, 16).load(pages);
+		assertEquals(1, stats.getNumberOfPages());
+	}
+
+	@Test
+	public void testGetInstance_settingsOfTheLoadedConfiguration() throws Exception {
+		final PageLoader loader = PageLoader.getInstance();
+		assertSame(loader, PageLoader.getInstance());
+		/* e.g., the next experiment */
+		WeirConfig.reset();
+		WeirConfig.load(ClassLoader.getSystemResource(WEIR_CONFIG_FILENAME));
+		WeirConfig.getInstance().setProperty(PAGE_LOADING_THREADS, "3");
+		final PageLoader reloaded = PageLoader.getInstance();
+		assertNotSame(loader, reloaded);
+		assertEquals(3, reloaded.getNumberOfThreads());
+		/* e.g., a load still running over the replaced loader */
+		assertEquals(2, loader.load(pages(2)).getNumberOfPages());
+	}
+
+	@Test
+	public void testPagesOfAllTheSitesAreLoadedAtOnce() {
+		final Domain domain = new Domain("loading");
+		final Dataset dataset = new Dataset("test");
+		dataset.addDomain(domain);
+		domain.setDataset(dataset);
+		final List<Webpage> pages1 = pages(2);
+		final List<Webpage> pages2 = pages(3);
+		domain.addSite(pages1.get(0).getWebsite());
+		domain.addSite(pages2.get(0).getWebsite());
+
+		pages1.get(0).getWebsite().loadPages();
+		for(Webpage page : pages2)
+			assertNotNull(page.getDocument());
+		/* the other sites load their own pages afterwards */
+		pages1.get(0).getWebsite().releasePages();
+		pages2.get(0).getWebsite().loadPages();
+		assertNull(pages1.get(0).getDocument());
+	}
+
+}
@@ -0,0 +1,136 @@
+package it.uniroma3.weir.model.snapshot;
+
+import static it.uniroma3.weir.extraction.wrapper.DocumentFixtures._HTML_TREE_;
+import static it.uniroma3.weir.extraction.wrapper.DocumentFixtures.document;
+import static javax.xml.xpath.XPathConstants.NODESET;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import it.uniroma3.token.dom.node.DOMNode;
+import it.uniroma3.weir.cache.codec.CacheCodec;
+import it.uniroma3.weir.cache.codec.CacheCodecs;
+import it.uniroma3.weir.fixture.WeirTest;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import javax.xml.xpath.XPathExpressionException;
+import javax.xml.xpath.XPathFactory;
+
+import org.junit.Test;
+import org.w3c.dom.Document;
+import org.w3c.dom.NamedNodeMap;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+
+public class DOMSnapshotTest extends WeirTest {
+
+	static final private String PAGE = "<!DOCTYPE html><HTML><HEAD><TITLE>title</TITLE></HEAD>" +
+			_HTML_TREE_("<DIV class='c' id='d1'>price: 12.5 $</DIV>" +
+					"<!-- comment -->" +
+					"<P>pivot<B>bold text</B><BR/>tail<?php echo 1 ?>end</P>" +
+					"<SPAN>caffè</SPAN>").substring("<HTML>".length());
+
+	static private void assertSameTree(Node expected, Node actual) {
+		assertEquals(expected.getNodeType(), actual.getNodeType());
+		assertEquals(expected.getNodeName(), actual.getNodeName());
+		assertEquals(expected.getNodeValue(), actual.getNodeValue());
+		assertEquals(expected.getClass(), actual.getClass());
+		if (expected instanceof DOMNode)
+			assertEquals(((DOMNode)expected).asDOMToken().getAllAnnotations(),
+						 ((DOMNode)actual).asDOMToken().getAllAnnotations());
+		final NamedNodeMap attributes = expected.getAttributes();
+		if (attributes!=null && expected.getNodeType()==Node.ELEMENT_NODE) {
+			assertEquals(attributes.getLength(), actual.getAttributes().getLength());
+			for(int i=0; i<attributes.getLength(); i++) {
+				final Node attribute = attributes.item(i);
+				assertEquals(attribute.getNodeValue(),
+						actual.getAttributes().getNamedItem(attribute.getNodeName()).getNodeValue());
+			}
+		}
+		Node actualChild = actual.getFirstChild();
+		for(Node child=expected.getFirstChild(); child!=null; child=child.getNextSibling()) {
+			assertSameTree(child, actualChild);
+			actualChild = actualChild.getNextSibling();
+		}
+		assertEquals(null, actualChild);
+	}
+
+	static private String evaluate(String xpath, Document document) throws XPathExpressionException {
+		final NodeList nodes = (NodeList) XPathFactory.newInstance().newXPath().evaluate(xpath, document, NODESET);
+		final StringBuilder result = new StringBuilder();
+		for(int i=0; i<nodes.getLength(); i++)
+			result.append(nodes.item(i).getNodeValue()).append('|');
+		return result.toString();
+	}
+
+	@Test
+	public void testToDocument_sameTree() {
+		final Document original = document(PAGE);
+		assertSameTree(original, DOMSnapshot.of(original).toDocument());
+	}
+
+	@Test
+	public void testToDocument_sameExtraction() throws XPathExpressionException {
+		final Document original = document(PAGE);
+		final Document rebuilt = DOMSnapshot.of(original).toDocument();
+		for(String xpath : new String[] { "//DIV[@id='d1']/text()", "//P/B/text()", "//P/text()", "//SPAN/text()",
+										  "//P/processing-instruction()" }) {
+			assertEquals(evaluate(xpath, original), evaluate(xpath, rebuilt));
+		}
+	}
+
+	@Test
+	public void testOf_internedStrings() {
+		final DOMSnapshot snapshot = DOMSnapshot.of(document(PAGE));
+		int b = -1;
+		for(int node=0; node<snapshot.size(); node++)
+			if ("B".equals(snapshot.getName(node))) b = node;
+		/* "bold text" is split into three tokens */
+		final int first = snapshot.getFirstChild(b);
+		final int last = snapshot.getNextSibling(snapshot.getNextSibling(first));
+		assertEquals("bold", snapshot.getValue(first));
+		assertEquals("text", snapshot.getValue(last));
+		assertEquals(b, snapshot.getParent(last));
+		assertEquals(-1, snapshot.getNextSibling(last));
+		assertSame(snapshot.getXPath(first), snapshot.getXPath(last));
+	}
+
+	@Test
+	public void testGetAttribute() {
+		final DOMSnapshot snapshot = DOMSnapshot.of(document(PAGE));
+		int div = -1;
+		for(int node=0; node<snapshot.size(); node++)
+			if ("DIV".equals(snapshot.getName(node))) div = node;
+		assertEquals("d1", snapshot.getAttribute(div, "id"));
+		assertEquals("c", snapshot.getAttribute(div, "class"));
+		assertEquals(null, snapshot.getAttribute(div, "style"));
+	}
+
+	@Test
+	public void testWriteTo_andWrap() throws IOException {
+		final Document original = document(PAGE);
+		final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		DOMSnapshot.of(original).writeTo(bytes);
+		final DOMSnapshot read = new DOMSnapshot(ByteBuffer.wrap(bytes.toByteArray()));
+		assertEquals(bytes.size(), read.getByteSize());
+		assertSameTree(original, read.toDocument());
+	}
+
+	@Test
+	public void testCodec_roundTrip() throws IOException, ClassNotFoundException {
+		final Document original = document(PAGE);
+		final CacheCodec codec = CacheCodecs.DOM.getCodec();
+		final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		codec.encode(DOMSnapshot.of(original), bytes);
+		final DOMSnapshot decoded = (DOMSnapshot) codec.decode(new ByteArrayInputStream(bytes.toByteArray()));
+		assertSameTree(original, decoded.toDocument());
+	}
+
+	@Test(expected=IllegalArgumentException.class)
+	public void testWrap_notASnapshot() {
+		new DOMSnapshot(ByteBuffer.wrap(new byte[] { 0, 0, 0, 0 }));
+	}
+
+}
@@ -0,0 +1,66 @@
+package it.uniroma3.weir.structures;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class MapPairRepositoryTest {
+
+	private MapPairRepository<Pair<String>, String> repository;
+
+	private Pair<String> ab, bc, cc;
+
+	@Before
+	public void setUp() {
+		this.repository = new MapPairRepository<>(null);
+		this.ab = new Pair<>("b", "a");
+		this.bc = new Pair<>("b", "c");
+		this.cc = new Pair<>("c", "c");
+		this.repository.addAll(Arrays.asList(this.ab, this.bc, this.cc));
+	}
+
+	@Test
+	public void testGetIsSymmetric() {
+		assertEquals(3, this.repository.size());
+		assertSame(this.ab, this.repository.get("a", "b"));
+		assertSame(this.ab, this.repository.get("b", "a"));
+		assertNull(this.repository.get("a", "c"));
+		assertNull(this.repository.get("a", "z"));
+	}
+
+	@Test
+	public void testPairsAndMates() {
+		assertEquals(new HashSet<>(Arrays.asList(this.ab, this.bc)), this.repository.getPairs("b"));
+		assertEquals(new HashSet<>(Arrays.asList(this.bc, this.cc)), this.repository.getPairs("c"));
+		assertEquals(new HashSet<>(Arrays.asList("b", "c")), this.repository.getMates("c"));
+		assertTrue(this.repository.getPairs("z").isEmpty());
+	}
+
+	@Test
+	public void testRemove() {
+		assertTrue(this.repository.remove(new Pair<>("c", "b")));
+		assertFalse(this.repository.remove(this.bc));
+		assertFalse(this.repository.remove(new Pair<>("a", "z")));
+		assertEquals(2, this.repository.size());
+		assertEquals(new HashSet<>(Arrays.asList("a")), this.repository.getMates("b"));
+		this.repository.removeAll("a");
+		assertEquals(1, this.repository.size());
+		assertTrue(this.repository.getPairs("b").isEmpty());
+	}
+
+	@Test
+	public void testAllInOrderOfInsertion() {
+		final Set<Pair<String>> all = this.repository.getAll();
+		assertEquals(Arrays.asList(this.ab, this.bc, this.cc), Arrays.asList(all.toArray()));
+	}
+
+}
@@ -0,0 +1,155 @@
+package it.uniroma3.weir.structures;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Random;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class OrderedPairRepositoryTest {
+
+	/* a pair of integers ordered by a (mutable) score, with many ties */
+	@SuppressWarnings("serial")
+	static private class ScoredPair extends Pair<Integer> implements Comparable<ScoredPair> {
+
+		private double score;
+
+		ScoredPair(int a, int b, double score) {
+			super(a, b);
+			this.score = score;
+		}
+
+		@Override
+		public int compareTo(ScoredPair that) {
+			return Double.compare(this.score, that.score);
+		}
+
+	}
+
+	@SuppressWarnings("serial")
+	static private class ScoredPairRepository extends OrderedPairRepository<ScoredPair, Integer> {
+
+		ScoredPairRepository() {
+			super(null);
+		}
+
+		@Override
+		protected double key(ScoredPair pair) {
+			return pair.score;
+		}
+
+	}
+
+	static final private double[] SCORES = { 0d, -0d, 0.5d, 1d, 1d, 2d, Double.NaN, -1d };
+
+	private Random random;
+
+	@Before
+	public void setUp() {
+		this.random = new Random(17);
+	}
+
+	private ScoredPairRepository randomRepository(int size) {
+		final ScoredPairRepository result = new ScoredPairRepository();
+		while (result.size()<size) {
+			final int a = this.random.nextInt(3*size);
+			final int b = this.random.nextInt(3*size);
+			result.add(new ScoredPair(a, b, SCORES[this.random.nextInt(SCORES.length)]));
+		}
+		return result;
+	}
+
+	/* n.b. Collections.sort() is stable */
+	static private List<ScoredPair> expectedOrder(ScoredPairRepository repository) {
+		final List<ScoredPair> result = new ArrayList<>(repository.getAll());
+		Collections.sort(result);
+		return result;
+	}
+
+	@Test
+	public void testOrderIsAStableSort() {
+		for(int size=0; size<50; size++) {
+			final ScoredPairRepository repository = randomRepository(size);
+			assertEquals(expectedOrder(repository), repository.order());
+			assertEquals(expectedOrder(repository), repository.order());
+		}
+	}
+
+	@Test
+	public void testFirstKAreThePrefixOfTheOrder() {
+		for(int size=0; size<40; size++) {
+			for(int k=0; k<=size+2; k++) {
+				final ScoredPairRepository repository = randomRepository(size);
+				final List<ScoredPair> expected = expectedOrder(repository);
+				final List<ScoredPair> prefix = expected.subList(0, Math.min(k, size));
+				/* by the heap ... */
+				assertEquals(prefix, repository.first(k));
+				/* ... and by the cached order */
+				repository.order();
+				assertEquals(prefix, repository.first(k));
+			}
+		}
+	}
+
+	@Test
+	public void testMinAndMaxAreTheEndsOfTheOrder() {
+		for(int size=1; size<50; size++) {
+			final ScoredPairRepository repository = randomRepository(size);
+			final List<ScoredPair> expected = expectedOrder(repository);
+			assertSame(expected.get(0), repository.min());
+			assertSame(expected.get(size-1), repository.max());
+			repository.order();
+			assertSame(expected.get(0), repository.min());
+			assertSame(expected.get(size-1), repository.max());
+		}
+	}
+
+	@Test(expected=NoSuchElementException.class)
+	public void testNoMinOfAnEmptyRepository() {
+		new ScoredPairRepository().min();
+	}
+
+	@Test(expected=NoSuchElementException.class)
+	public void testNoMaxOfAnEmptyRepository() {
+		new ScoredPairRepository().max();
+	}
+
+	@Test(expected=IllegalArgumentException.class)
+	public void testNoNegativeK() {
+		randomRepository(3).first(-1);
+	}
+
+	@Test
+	public void testOrderAfterChanges() {
+		final ScoredPairRepository repository = randomRepository(30);
+		for(int i=0; i<100; i++) {
+			final List<ScoredPair> ordered = repository.order();
+			if (this.random.nextBoolean())
+				repository.remove(ordered.get(this.random.nextInt(ordered.size())));
+			else repository.add(new ScoredPair(i, -i, SCORES[this.random.nextInt(SCORES.length)]));
+			assertEquals(expectedOrder(repository), repository.order());
+		}
+	}
+
+	/* n.b. with ties, a pair changed in place might keep its previous
+	 *      position wrt the equal ones: test distinct scores only */
+	@Test
+	public void testOrderAfterChangesOfThePairs() {
+		final ScoredPairRepository repository = randomRepository(30);
+		for(ScoredPair pair : repository.getAll())
+			pair.score = this.random.nextDouble();
+		for(int i=0; i<100; i++) {
+			final List<ScoredPair> ordered = repository.order();
+			ordered.get(this.random.nextInt(ordered.size())).score = this.random.nextDouble();
+			assertEquals(expectedOrder(repository), repository.order());
+			assertEquals(expectedOrder(repository).subList(0, 3), repository.first(3));
+		}
+	}
+
+}
@@ -0,0 +1,106 @@
+package it.uniroma3.weir.structures.primitive;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class LongObjectHashMapTest {
+
+	private LongObjectHashMap<String> map;
+
+	@Before
+	public void setUp() {
+		this.map = new LongObjectHashMap<>();
+	}
+
+	@Test
+	public void testEmpty() {
+		assertTrue(this.map.isEmpty());
+		assertNull(this.map.get(42L));
+		assertNull(this.map.remove(42L));
+	}
+
+	@Test
+	public void testPutReplacesValue() {
+		assertNull(this.map.put(PairKeys.key(3, 1), "a"));
+		assertEquals("a", this.map.put(PairKeys.key(1, 3), "b"));
+		assertEquals(1, this.map.size());
+		assertEquals("b", this.map.get(PairKeys.key(3, 1)));
+	}
+
+	@Test(expected=NullPointerException.class)
+	public void testNullValuesNotAllowed() {
+		this.map.put(1L, null);
+	}
+
+	@Test
+	public void testSlotsInInsertionOrder() {
+		final long[] keys = { 7L, -3L, 1L<<40, 0L, 99L };
+		for(long key : keys)
+			this.map.put(key, Long.toString(key));
+		this.map.remove(1L<<40);
+		final List<Long> found = new ArrayList<>();
+		for(int slot=0; slot<this.map.slots(); slot++)
+			if (this.map.valueAt(slot)!=null)
+				found.add(this.map.keyAt(slot));
+		final List<Long> expected = new ArrayList<>();
+		for(long key : keys)
+			if (key!=1L<<40) expected.add(key);
+		assertEquals(expected, found);
+	}
+
+	@Test
+	public void testRandomOperationsAsHashMap() {
+		final Random random = new Random(31);
+		final Map<Long,String> expected = new HashMap<>();
+		for(int i=0; i<50000; i++) {
+			/* few distinct keys, to collide and remove often */
+			final long key = PairKeys.key(random.nextInt(60), random.nextInt(60));
+			if (random.nextInt(3)==0) {
+				assertEquals(expected.remove(key), this.map.remove(key));
+			}
+			else {
+				final String value = Integer.toString(i);
+				assertEquals(expected.put(key, value), this.map.put(key, value));
+			}
+			assertEquals(expected.size(), this.map.size());
+		}
+		for(Map.Entry<Long,String> entry : expected.entrySet())
+			assertEquals(entry.getValue(), this.map.get(entry.getKey()));
+	}
+
+	@Test
+	public void testRemoveAllThenReinsert() {
+		final Map<Long,String> expected = new LinkedHashMap<>();
+		for(int i=0; i<1000; i++) {
+			this.map.put(i, "v"+i);
+			expected.put((long)i, "v"+i);
+		}
+		for(int i=0; i<1000; i+=2) {
+			this.map.remove(i);
+			expected.remove((long)i);
+		}
+		for(int i=1000; i<1500; i++) {
+			this.map.put(i, "v"+i);
+			expected.put((long)i, "v"+i);
+		}
+		assertEquals(expected.size(), this.map.size());
+		for(long key=0; key<1500; key++) {
+			assertEquals(expected.get(key), this.map.get(key));
+			assertEquals(expected.containsKey(key), this.map.containsKey(key));
+		}
+		assertFalse(this.map.containsKey(-1L));
+	}
+
+}
@@ -0,0 +1,62 @@
+package it.uniroma3.weir.structures.primitive;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.Test;
+
+public class TriangularArrayTest {
+
+	@Test
+	public void testPackedIndexesAreDistinct() {
+		final int n = 20;
+		final Set<Integer> indexes = new HashSet<>();
+		for(int j=0; j<n; j++)
+			for(int i=0; i<=j; i++)
+				indexes.add(PairKeys.triangularIndex(i, j));
+		assertEquals(PairKeys.triangularSize(n), indexes.size());
+		for(int index : indexes)
+			assertEquals(true, index>=0 && index<PairKeys.triangularSize(n));
+	}
+
+	@Test
+	public void testSymmetric() {
+		final TriangularArray<String> array = new TriangularArray<>(5);
+		assertNull(array.set(4, 1, "a"));
+		assertEquals("a", array.get(1, 4));
+		assertEquals("a", array.set(1, 4, "b"));
+		assertEquals("b", array.get(4, 1));
+		assertNull(array.get(1, 1));
+	}
+
+	@Test
+	public void testSizeCountsNonNullValues() {
+		final TriangularArray<String> array = new TriangularArray<>(3);
+		assertEquals(0, array.size());
+		array.set(0, 0, "a");
+		array.set(0, 2, "b");
+		array.set(2, 0, "c");
+		assertEquals(2, array.size());
+		array.set(0, 2, null);
+		array.set(1, 2, null);
+		assertEquals(1, array.size());
+		assertEquals(6, array.length());
+	}
+
+	@Test(expected=IndexOutOfBoundsException.class)
+	public void testOutOfRange() {
+		new TriangularArray<String>(3).get(0, 3);
+	}
+
+	@Test
+	public void testPairKeys() {
+		final long key = PairKeys.key(70000, 3);
+		assertEquals(key, PairKeys.key(3, 70000));
+		assertEquals(3, PairKeys.min(key));
+		assertEquals(70000, PairKeys.max(key));
+	}
+
+}
@@ -0,0 +1,84 @@
+package it.uniroma3.weir.structures.primitive;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class WeightColumnTest {
+
+	/* ties between equal weights broken by the reverse order of the names */
+	static final private Comparator<String> REVERSE = Collections.reverseOrder();
+
+	private WeightColumn<String> column(double... weights) {
+		final Object[] names = new Object[weights.length];
+		for(int i=0; i<weights.length; i++)
+			names[i] = ( i%2==0 ? "even" : "odd" );
+		return new WeightColumn<>(names, weights, REVERSE);
+	}
+
+	@Test
+	public void testOrderByWeightThenByElementThenByPosition() {
+		final WeightColumn<String> column = column(2d, 1d, 1d, 0d, 1d, 1d);
+		assertArrayEquals(new int[] { 3, 1, 5, 2, 4, 0 }, column.order());
+	}
+
+	@Test
+	public void testFirstIsPrefixOfOrder() {
+		final Random random = new Random(7);
+		for(int round=0; round<200; round++) {
+			final double[] weights = new double[random.nextInt(30)];
+			for(int i=0; i<weights.length; i++)
+				weights[i] = random.nextInt(5);
+			final WeightColumn<String> column = column(weights);
+			final int[] order = column.order();
+			final int k = random.nextInt(weights.length+3);
+			final int[] first = column.first(k);
+			assertEquals(Math.min(k, weights.length), first.length);
+			for(int i=0; i<first.length; i++)
+				assertEquals(order[i], first[i]);
+		}
+	}
+
+	@Test
+	public void testOrderAsStableSort() {
+		final Random random = new Random(11);
+		final double[] weights = new double[500];
+		for(int i=0; i<weights.length; i++)
+			weights[i] = random.nextInt(20);
+		final List<Integer> expected = new ArrayList<>();
+		for(int i=0; i<weights.length; i++) expected.add(i);
+		final WeightColumn<String> column = column(weights);
+		Collections.sort(expected, new Comparator<Integer>() {
+			@Override
+			public int compare(Integer p1, Integer p2) {
+				final int result = Double.compare(weights[p1], weights[p2]);
+				if (result!=0) return result;
+				return REVERSE.compare(column.get(p1), column.get(p2));
+			}
+		});
+		final int[] order = column.order();
+		for(int i=0; i<order.length; i++)
+			assertEquals((int)expected.get(i), order[i]);
+		assertEquals((int)expected.get(0), column.min());
+		assertEquals((int)expected.get(order.length-1), column.max());
+	}
+
+	@Test(expected=NoSuchElementException.class)
+	public void testMinOfEmpty() {
+		column().min();
+	}
+
+	@Test(expected=IllegalArgumentException.class)
+	public void testMismatchingLengths() {
+		new WeightColumn<String>(new Object[1], new double[2], REVERSE);
+	}
+
+}
@@ -0,0 +1,253 @@
+package it.uniroma3.weir.vector.column;
+
+import static it.uniroma3.weir.fixture.WebsiteFixture.createWebsite;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import it.uniroma3.weir.model.Webpage;
+import it.uniroma3.weir.vector.value.Date;
+import it.uniroma3.weir.vector.value.Dimensional;
+import it.uniroma3.weir.vector.value.ExtractedValue;
+import it.uniroma3.weir.vector.value.Number;
+import it.uniroma3.weir.vector.value.Value;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.net.URI;
+import java.util.List;
+import java.util.Objects;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class ColumnTest {
+
+	private StringDictionary dictionary;
+
+	@Before
+	public void setUp() {
+		this.dictionary = new StringDictionary();
+	}
+
+	static private void assertRoundTrip(Column column, Object... expected) {
+		assertEquals(expected.length, column.size());
+		for(int i=0; i<expected.length; i++) {
+			assertEquals(expected[i]==null, column.isNull(i));
+			assertEquals(expected[i], column.get(i, null).getValue());
+		}
+	}
+
+	@Test
+	public void testNumbers() {
+		final Object[] values = { new Number(1.5), null, new Number(-3d) };
+		final Column column = Column.typed(values, this.dictionary);
+		assertTrue(column instanceof NumericColumn);
+		assertRoundTrip(column, values);
+		assertEquals(2, column.countNonNulls());
+		assertEquals(-3d, column.getNumericValue(2), 0d);
+	}
+
+	@Test
+	public void testDimensionalNumbers() {
+		final Object[] values = { new Dimensional(2, "kg"), new Number(1d), null };
+		final Column column = Column.typed(values, this.dictionary);
+		assertTrue(column instanceof NumericColumn);
+		assertRoundTrip(column, values);
+		assertEquals(Dimensional.class, column.get(0, null).getValue().getClass());
+		assertEquals(Number.class, column.get(1, null).getValue().getClass());
+	}
+
+	@Test
+	public void testDates() {
+		final Object[] values = { new Date(1, 2, 2001), new Date(12, 1999), new Date(1970), null };
+		final Column column = Column.typed(values, this.dictionary);
+		assertTrue(column instanceof DateColumn);
+		assertRoundTrip(column, values);
+	}
+
+	@Test
+	public void testStringsShareTheDictionary() {
+		final Column c1 = Column.typed(new Object[] { "a", "b", null }, this.dictionary);
+		final Column c2 = Column.typed(new Object[] { "b", "a" }, this.dictionary);
+		assertTrue(c1 instanceof StringColumn);
+		assertRoundTrip(c1, "a", "b", null);
+		assertRoundTrip(c2, "b", "a");
+		assertEquals(2, this.dictionary.size());
+	}
+
+	@Test
+	public void testOtherObjects() {
+		final Object[] values = { URI.create("http://a"), null };
+		final Column column = Column.typed(values, this.dictionary);
+		assertTrue(column instanceof ObjectColumn);
+		assertRoundTrip(column, values);
+	}
+
+	@Test
+	public void testExtractedValues() {
+		final Webpage[] pages = pages(2);
+		final ExtractedValue[] values = {
+				new ExtractedValue(pages[0], "Rome", "/HTML[1]/text()[1]"),
+				new ExtractedValue(pages[1], "", "/HTML[1]/text()[2]") };
+		final Column column = Column.of(values, this.dictionary);
+		assertTrue(column instanceof ExtractedColumn);
+		final Value[] restored = column.toArray(new PageIndex(values));
+		assertTrue(restored instanceof ExtractedValue[]);
+		for(int i=0; i<values.length; i++) {
+			final ExtractedValue value = (ExtractedValue)restored[i];
+			assertEquals(values[i], value);
+			assertSame(pages[i], value.getPage());
+			assertEquals(values[i].getOccurrenceMark(), value.getOccurrenceMark());
+		}
+		assertTrue(column.isNull(1));
+	}
+
+	@Test
+	public void testPlainValuesAreTyped() {
+		final Webpage[] pages = pages(2);
+		final Value[] values = { new Value(pages[0], "x"), new Value(pages[1], null) };
+		assertTrue(Column.of(values, this.dictionary) instanceof StringColumn);
+	}
+
+	@Test
+	public void testPageIndex() {
+		final Webpage[] pages = pages(3);
+		final Webpage[] reversed = { pages[2], pages[1] };
+		final PageIndex index = new PageIndex(reversed);
+		assertEquals(0, index.positionOf(pages[2]));
+		assertEquals(1, index.positionOf(pages[1]));
+		assertEquals(-1, index.positionOf(pages[0]));
+		assertEquals(-1, index.positionOf(pages(1)[0]));
+		assertEquals(-1, index.positionOf(null));
+	}
+
+	@Test
+	public void testPageIndexWithPagesFromSeveralSites() {
+		final Webpage[] pages = { pages(2)[1], pages(2)[1] };
+		final PageIndex index = new PageIndex(pages);
+		assertEquals(0, index.positionOf(pages[0]));
+		assertEquals(1, index.positionOf(pages[1]));
+		assertFalse(pages[0].equals(pages[1]));
+	}
+
+	/* as if the values had been materialized */
+	static private void assertSameEquality(Column c1, Column c2) {
+		assertEquals(c1.size(), c2.size());
+		for(int i=0; i<c1.size(); i++) {
+			final Value v1 = c1.get(i, null), v2 = c2.get(i, null);
+			assertEquals(Objects.hashCode(v1), c1.hashCode(i));
+			assertEquals(Objects.hashCode(v2), c2.hashCode(i));
+			assertEquals(Objects.equals(v1, v2), c1.equals(i, c2));
+			assertEquals(Objects.equals(v2, v1), c2.equals(i, c1));
+		}
+	}
+
+	@Test
+	public void testEqualsAndHashCode_asTheValues() {
+		final StringDictionary other = new StringDictionary();
+		other.encode("padding");
+		assertSameEquality(Column.typed(new Object[] { new Number(1.5), new Dimensional(2, "kg"), new Dimensional(2, "kg"), null, new Number(4d) }, this.dictionary),
+						   Column.typed(new Object[] { new Number(1.5), new Dimensional(2, "kg"), new Dimensional(2, "lb"), null, null }, other));
+		assertSameEquality(Column.typed(new Object[] { new Date(1, 2, 2001), new Date(1999), null }, this.dictionary),
+						   Column.typed(new Object[] { new Date(1, 2, 2001), new Date(12, 1999), null }, this.dictionary));
+		assertSameEquality(Column.typed(new Object[] { "a", "b", null, "c" }, this.dictionary),
+						   Column.typed(new Object[] { "a", "c", null, null }, other));
+		assertSameEquality(Column.typed(new Object[] { "a", "b" }, this.dictionary),
+						   Column.typed(new Object[] { "a", "c" }, this.dictionary));
+		final Webpage[] pages = pages(2);
+		assertSameEquality(Column.of(new ExtractedValue[] { new ExtractedValue(pages[0], "a", "/A"), new ExtractedValue(pages[1], "b", "/B") }, this.dictionary),
+						   Column.of(new ExtractedValue[] { new ExtractedValue(pages[0], "a", "/C"), new ExtractedValue(pages[1], null, "/B") }, other));
+		/* a value is not equal to an extracted value */
+		assertSameEquality(Column.typed(new Object[] { "a" }, this.dictionary),
+						   Column.of(new ExtractedValue[] { new ExtractedValue(pages[0], "a", "/A") }, this.dictionary));
+	}
+
+	@Test
+	public void testRecode() {
+		final Webpage[] pages = pages(2);
+		final ExtractedValue[] extracted = {
+				new ExtractedValue(pages[0], "a", "/A"),
+				new ExtractedValue(pages[1], null, (String)null) };
+		final Column[] columns = {
+				Column.typed(new Object[] { "a", null, "b" }, this.dictionary),
+				Column.typed(new Object[] { new Dimensional(2, "kg"), new Number(1d), null }, this.dictionary),
+				Column.of(extracted, this.dictionary) };
+		final StringDictionary compacted = new StringDictionary();
+		for(Column column : columns) {
+			final Column recoded = column.recode(compacted);
+			for(int i=0; i<column.size(); i++)
+				assertEquals(column.get(i, null), recoded.get(i, null));
+		}
+		assertEquals(((ExtractedValue)columns[2].get(0, null)).getOccurrenceMark(),
+					 ((ExtractedValue)columns[2].recode(compacted).get(0, null)).getOccurrenceMark());
+		assertEquals(4, compacted.size()); // a, b, kg, /A
+	}
+
+	@Test
+	public void testDictionary() {
+		assertEquals(StringDictionary.NULL, this.dictionary.encode(null));
+		assertNull(this.dictionary.decode(StringDictionary.NULL));
+		final int code = this.dictionary.encode("x");
+		assertEquals(code, this.dictionary.encode("x"));
+		assertEquals("x", this.dictionary.decode(code));
+		assertArrayEquals(new int[] { code }, new int[] { this.dictionary.encode(new String("x")) });
+	}
+
+	@Test
+	public void testDictionary_concurrentEncodingAndDecoding() throws InterruptedException {
+		final int strings = 5000;
+		final Thread[] threads = new Thread[4];
+		final boolean[] consistent = new boolean[threads.length];
+		for(int t=0; t<threads.length; t++) {
+			final int thread = t;
+			threads[t] = new Thread() {
+				@Override
+				public void run() {
+					boolean result = true;
+					for(int i=0; i<strings; i++) {
+						final String s = "s" + ( i*(thread+1) )%strings;
+						result &= s.equals(dictionary.decode(dictionary.encode(s)));
+					}
+					consistent[thread] = result;
+				}
+			};
+			threads[t].start();
+		}
+		for(Thread thread : threads)
+			thread.join();
+		for(boolean c : consistent)
+			assertTrue(c);
+		assertEquals(strings, this.dictionary.size());
+		for(int code=0; code<strings; code++)
+			assertEquals(code, this.dictionary.encode(this.dictionary.decode(code)));
+	}
+
+	@Test
+	public void testDictionary_serialization() throws Exception {
+		final int x = this.dictionary.encode("x");
+		final int y = this.dictionary.encode("y");
+		final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+			out.writeObject(this.dictionary);
+		}
+		final StringDictionary copy;
+		try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+			copy = (StringDictionary)in.readObject();
+		}
+		assertEquals(2, copy.size());
+		assertEquals("y", copy.decode(y));
+		assertEquals(x, copy.encode("x"));
+		assertEquals(2, copy.encode("z"));
+	}
+
+	static private Webpage[] pages(int n) {
+		final List<Webpage> pages = createWebsite(n).getWebpages();
+		return pages.toArray(new Webpage[0]);
+	}
+
+}
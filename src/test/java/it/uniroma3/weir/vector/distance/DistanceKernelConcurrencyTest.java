@@ -0,0 +1,118 @@
+package it.uniroma3.weir.vector.distance;
+
+import static it.uniroma3.weir.fixture.VectorFixture.createVector;
+import static it.uniroma3.weir.fixture.WebsiteFixture.createWebsite;
+import static it.uniroma3.weir.fixture.WebsiteLinkageFixture.createPairwiseIterator;
+import static it.uniroma3.weir.vector.type.Type.NUMBER;
+import static it.uniroma3.weir.vector.type.Type.STRING;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import it.uniroma3.weir.fixture.WeirTest;
+import it.uniroma3.weir.model.Website;
+import it.uniroma3.weir.vector.DistanceSupport;
+import it.uniroma3.weir.vector.NumericVector;
+import it.uniroma3.weir.vector.Vector;
+import it.uniroma3.weir.vector.type.Type;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * The same distances must be computed, bit by bit,
+ * by one thread and by several threads at once.
+ */
+public class DistanceKernelConcurrencyTest extends WeirTest {
+
+	static final private int PAIRS = 64;
+	static final private int SIZE = 50;
+	static final private int THREADS = 8;
+	static final private int ROUNDS = 20;
+
+	private List<Vector[]> pairs;
+
+	@Before
+	public void setUp() {
+		final Random random = new Random(7);
+		final Website site1 = createWebsite(SIZE);
+		final Website site2 = createWebsite(SIZE);
+		this.pairs = new ArrayList<>();
+		for(int i=0; i<PAIRS; i++) {
+			final Type type = ( i%2==0 ? NUMBER : STRING );
+			this.pairs.add(new Vector[] {
+				createVector(site1, type, values(random, type)),
+				createVector(site2, type, values(random, type))
+			});
+		}
+	}
+
+	static private String[] values(Random random, Type type) {
+		final String[] values = new String[SIZE];
+		for(int i=0; i<SIZE; i++) {
+			if (random.nextInt(10)==0) continue; // a null
+			values[i] = ( type==NUMBER ?
+					Integer.toString(random.nextInt(1000)) :
+					"value " + random.nextInt(20) + " of " + random.nextInt(5) );
+		}
+		return values;
+	}
+
+	static private double distance(Vector[] pair) {
+		return DistanceSupport.distance(createPairwiseIterator(pair[0], pair[1]));
+	}
+
+	@Test
+	public void testNumericVectorsUseTheNumericKernel() {
+		assertTrue(this.pairs.get(0)[0] instanceof NumericVector);
+		assertTrue(NUMBER.getDistanceKernel().isNumeric());
+	}
+
+	@Test
+	public void testOneVsManyThreads() throws Exception {
+		final long[] expected = new long[PAIRS];
+		for(int i=0; i<PAIRS; i++)
+			expected[i] = Double.doubleToRawLongBits(distance(this.pairs.get(i)));
+
+		final ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+		try {
+			final List<Future<long[]>> results = new ArrayList<>();
+			for(int t=0; t<THREADS; t++) {
+				final long seed = t;
+				results.add(pool.submit(new Callable<long[]>() {
+					@Override
+					public long[] call() {
+						final long[] result = new long[PAIRS];
+						final List<Integer> order = new ArrayList<>();
+						for(int i=0; i<PAIRS; i++) order.add(i);
+						for(int round=0; round<ROUNDS; round++) {
+							Collections.shuffle(order, new Random(seed*ROUNDS+round));
+							for(int i : order) {
+								final long bits = Double.doubleToRawLongBits(distance(pairs.get(i)));
+								if (round>0 && bits!=result[i])
+									throw new AssertionError("unstable distance for pair "+i);
+								result[i] = bits;
+							}
+						}
+						return result;
+					}
+				}));
+			}
+			for(Future<long[]> result : results) {
+				final long[] actual = result.get();
+				for(int i=0; i<PAIRS; i++)
+					assertEquals("pair "+i, expected[i], actual[i]);
+			}
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+}
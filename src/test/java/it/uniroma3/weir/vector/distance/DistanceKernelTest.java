@@ -1,24 +1,34 @@
-package it.uniroma3.weir.vector;
+package it.uniroma3.weir.vector.distance;
 
+import static it.uniroma3.weir.configuration.Constants.ONES2ONE;
 import static it.uniroma3.weir.fixture.Asserts.assertDoubleEquals;
 import static it.uniroma3.weir.fixture.VectorFixture.createExtractedVector;
 import static it.uniroma3.weir.fixture.VectorFixture.createNumericVector;
+import static it.uniroma3.weir.fixture.WebsiteFixture.createWebsite;
+import static it.uniroma3.weir.fixture.WebsiteLinkageFixture.createPairwiseIterator;
+import static it.uniroma3.weir.vector.type.Type.NUMBER;
 import static java.lang.Double.NaN;
+import static java.lang.Double.POSITIVE_INFINITY;
+import it.uniroma3.weir.configuration.WeirConfig;
+import it.uniroma3.weir.extraction.rule.ExtractionRule;
+import it.uniroma3.weir.extraction.rule.PositionalRule;
 import it.uniroma3.weir.fixture.WeirTest;
-import it.uniroma3.weir.linking.linkage.PageLinkageIterator;
+import it.uniroma3.weir.model.Webpage;
+import it.uniroma3.weir.model.Website;
+import it.uniroma3.weir.vector.NumericVector;
+import it.uniroma3.weir.vector.Vector;
 
 import org.junit.Before;
 import org.junit.Test;
 
 
-public class DistanceFunctionTest extends WeirTest {
+public class DistanceKernelTest extends WeirTest {
 
-	private DistanceFunction euclidean;
+	private DistanceKernel euclidean;
 	
 	@Before
 	public void setUp() throws Exception {
-		this.euclidean = DistanceFunction.EUCLIDEAN;
-		this.euclidean.initFor(null);
+		this.euclidean = DistanceKernel.EUCLIDEAN;
 	}
 
 	@Test
@@ -118,8 +128,24 @@ public class DistanceFunctionTest extends WeirTest {
 		assertDistance(0, height_adimens, height_in_foots);
 	}
 
+	@Test
+	public void testOnesThreshold_readAtEveryComputation() {
+		final int ones2one = WeirConfig.getInteger(ONES2ONE);
+		try {
+			WeirConfig.getInstance().setProperty(ONES2ONE, "1");
+			assertDistance(POSITIVE_INFINITY, vector(0, 1), vector(1, 0));
+			WeirConfig.getInstance().setProperty(ONES2ONE, "-1");
+			assertDistance(1d, vector(0, 1), vector(1, 0));
+		} finally {
+			WeirConfig.getInstance().setProperty(ONES2ONE, Integer.toString(ones2one));
+		}
+	}
+
 	private Vector createNormalizedVector(String...values) {
-		return createExtractedVector(values).normalize();
+		final Website site = createWebsite(values.length);
+		final ExtractionRule rule = new PositionalRule("/HTML/BODY/text()");
+		rule.setWebsite(site);
+		return createExtractedVector(rule, site.getWebpages().toArray(new Webpage[0]), values).normalize();
 	}
 	
 
@@ -128,11 +154,11 @@ public class DistanceFunctionTest extends WeirTest {
 	}
 
 	private double distance(NumericVector v1, NumericVector v2) {
-		return this.euclidean.distance(PageLinkageIterator.pairwiseIterator(v1, v2));
+		return this.euclidean.distance(NUMBER, createPairwiseIterator(v1, v2));
 	}
 
 	static final private NumericVector vector(Object...values) {
-		return createNumericVector(values);
+		return createNumericVector(createWebsite(values.length), values);
 	}
 	
 }
@@ -0,0 +1,112 @@
+package it.uniroma3.weir.vector.signature;
+
+import static it.uniroma3.weir.vector.signature.SignatureCache.signatureOf;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+import com.wcohen.ss.UnsmoothedJS;
+import com.wcohen.ss.api.StringDistance;
+import com.wcohen.ss.tokens.SimpleTokenizer;
+
+public class JensenShannonTest {
+
+	static final private double DELTA = 1e-12;
+
+	static final private StringDistance UNSMOOTHED_JS = new UnsmoothedJS() {{
+		this.tokenizer = new SimpleTokenizer(true, true);
+	}};
+
+	static final private String[] VALUES = {
+		"", " ", "-", "a", "A a", "Michael Chinery", "Chinery, Michael",
+		"Bob Press", "J. R. Press", "Majesco Enterta", "Majesco",
+		"Eidos Interactive", "Empire Interactive", "Paperback",
+		"Paperback Textbook", "8/21/1995", "21 August 1995", "7.0", "7",
+		"111-222-3333", "111) 222-3333", "Nikon D3100 DSLR", "nikon-d3100",
+		"12.5 x 9.7 x 7.6 cm", "Città di Roma", "ROMA roma Roma 2000",
+		"è l'ISBN 978-88-04-12345-6", "  \t 42 – 42a"
+	};
+
+	static private void assertSameScore(String s1, String s2) {
+		final double expected = UNSMOOTHED_JS.score(s1, s2);
+		final double actual = JensenShannon.similarity(signatureOf(s1), signatureOf(s2));
+		assertEquals(s1+" vs "+s2, expected, actual, DELTA);
+	}
+
+	@Test
+	public void testSameScoresOfUnsmoothedJS() {
+		for(String s1 : VALUES)
+			for(String s2 : VALUES)
+				assertSameScore(s1, s2);
+	}
+
+	@Test
+	public void testSameScoresOfUnsmoothedJSOnRandomValues() {
+		final Random random = new Random(7);
+		final String alphabet = "aabbcxyz0123 ,.-/ABè";
+		for(int i=0; i<5000; i++)
+			assertSameScore(randomValue(random, alphabet), randomValue(random, alphabet));
+	}
+
+	static private String randomValue(Random random, String alphabet) {
+		final int length = random.nextInt(20);
+		final StringBuilder result = new StringBuilder(length);
+		for(int i=0; i<length; i++)
+			result.append(alphabet.charAt(random.nextInt(alphabet.length())));
+		return result.toString();
+	}
+
+	@Test
+	public void testTokenMultiset() {
+		final Signature signature = signatureOf("Roma, roma 2000 ROMA-x");
+		assertEquals(5, signature.getTotalCount());
+		assertEquals(3, signature.getTokens().length);
+		final TokenDictionary dictionary = signature.getDictionary();
+		final int roma = dictionary.intern("roma");
+		for(int i=0; i<signature.getTokens().length; i++)
+			if (signature.getTokens()[i]==roma)
+				assertEquals(3, signature.getCounts()[i]);
+	}
+
+	@Test
+	public void testSignaturesAreCached() {
+		assertSame(signatureOf("Nikon D3100"), signatureOf(new String("Nikon D3100")));
+	}
+
+	@Test
+	public void testQGramSketch() {
+		final Signature abcd = signatureOf("ABCD");
+		assertArrayEquals(signatureOf("abcd").getQGrams(), abcd.getQGrams());
+		assertEquals(4, abcd.getQGrams().length); // " ab", "abc", "bcd", "cd "
+		assertEquals(1, signatureOf("a").getQGrams().length);
+		assertTrue(abcd.mayShareTokens(signatureOf("x, abcd")));
+		assertFalse(abcd.mayShareTokens(signatureOf("xyz")));
+		assertFalse(signatureOf("").mayShareTokens(abcd));
+		/* whatever the dictionaries */
+		final Signature other = new Signature("Abcd-x", new TokenDictionary());
+		assertTrue(other.mayShareTokens(abcd));
+		assertFalse(other.mayShareTokens(signatureOf("xy, cdef")));
+		assertEquals(0d, JensenShannon.similarity(other, signatureOf("xy, cdef")), 0d);
+	}
+
+	@Test
+	public void testSignaturesFromDifferentDictionaries() {
+		final Signature before = signatureOf("Nikon D3100 DSLR");
+		SignatureCache.getInstance().clear();
+		final Signature after = signatureOf("nikon-d3100");
+		assertNotSame(before.getDictionary(), after.getDictionary());
+		assertSame(after.getDictionary(), SignatureCache.getInstance().getDictionary());
+		assertEquals(UNSMOOTHED_JS.score("Nikon D3100 DSLR", "nikon-d3100"),
+					 JensenShannon.similarity(before, after), DELTA);
+		assertEquals(UNSMOOTHED_JS.score("nikon-d3100", "Nikon D3100 DSLR"),
+					 JensenShannon.similarity(after, before), DELTA);
+	}
+
+}
@@ -0,0 +1,83 @@
+package it.uniroma3.weir.vector.type;
+
+import static it.uniroma3.weir.vector.type.Type.*;
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class TypeRecognizerTest {
+
+	/* from the most specific to the most general one */
+	static final private List<Type> TYPES = asList(
+		(Type)ISBN, URL, PHONE, DATE, MASS, SPACE, MONEY, NUMBER, STRING
+	);
+
+	static final private String[] VALUES = {
+		null, "a", "1", "2", "7.0", "-1,234.5", "1e3", "N.A.", "3 Mil", "6-2", "12k",
+		"1 Kg", "2 kg", "3 lb", "1 m", "2 cm", "1 $", "$ 2", "2 €", "1 1 2001",
+		"21 August 1995", "Dec 1999", "1999", "111) 111-1111", "201-659-7074", "2016597074",
+		"111-1111111111", "8804123456", "http://www.site1.com", "www.site2.org",
+		"Michael Chinery", "8kg 3gr"
+	};
+
+	static private Type expectedType(List<Type> types, String... values) {
+		for(Type type : types)
+			if (type.allInstanceOf(values))
+				return type;
+		return null;
+	}
+
+	@Test
+	public void testSameTypeOfEveryValue() {
+		final TypeRecognizer recognizer = new TypeRecognizer(TYPES);
+		for(String value : VALUES)
+			assertEquals(value, expectedType(TYPES, value), recognizer.findType(value));
+	}
+
+	@Test
+	public void testSameTypeOfRandomVectors() {
+		final TypeRecognizer recognizer = new TypeRecognizer(TYPES);
+		final Random random = new Random(11);
+		for(int i=0; i<2000; i++) {
+			final String[] values = new String[1+random.nextInt(4)];
+			for(int j=0; j<values.length; j++)
+				values[j] = VALUES[random.nextInt(VALUES.length)];
+			assertEquals(asList(values).toString(),
+					expectedType(TYPES, values), recognizer.findType(values));
+		}
+	}
+
+	@Test
+	public void testBitmaskOfAllTheTypes() {
+		final TypeRecognizer recognizer = new TypeRecognizer(TYPES);
+		for(String value : VALUES) {
+			int expected = 0;
+			for(int i=0; i<TYPES.size(); i++)
+				if (TYPES.get(i).instanceOf(value)) expected |= 1<<i;
+			/* after a partial check, as well */
+			recognizer.recognize(value, 0x0F);
+			assertEquals(value, expected, recognizer.recognize(value, recognizer.all()));
+		}
+	}
+
+	@Test
+	public void testNoTypeWithoutTheRoot() {
+		final List<Type> types = new ArrayList<>(TYPES);
+		types.remove(STRING);
+		final TypeRecognizer recognizer = new TypeRecognizer(types);
+		assertNull(recognizer.findType("1", "a"));
+		assertEquals(NUMBER, recognizer.findType("1", "2"));
+	}
+
+	@Test
+	public void testEmptyVector() {
+		assertEquals(ISBN, new TypeRecognizer(TYPES).findType());
+	}
+
+}
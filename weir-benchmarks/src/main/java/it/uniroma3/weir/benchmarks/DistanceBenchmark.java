@@ -0,0 +1,90 @@
+package it.uniroma3.weir.benchmarks;
+
+import static it.uniroma3.weir.vector.value.ValueDistances.JSDISTANCE;
+import it.uniroma3.weir.model.Experiment;
+import it.uniroma3.weir.model.Website;
+import it.uniroma3.weir.vector.Vector;
+import it.uniroma3.weir.vector.value.ValueDistances;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * {@link ValueDistances#JSDISTANCE} between strings of growing
+ * length, and {@link Vector#distance(Vector)} between the vectors
+ * of two linked sites of growing size.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations=3, time=1)
+@Measurement(iterations=5, time=1)
+@Fork(value=1, jvmArgsAppend="-Djava.util.logging.manager=it.uniroma3.hlog.HypertextualLogManager")
+public class DistanceBenchmark {
+
+	@State(Scope.Benchmark)
+	public static class Strings {
+
+		/* number of words of the strings */
+		@Param({ "2", "8", "32" })
+		public int words;
+
+		private String string1, string2;
+
+		@Setup
+		public void setUp() {
+			Synthetic.configure();
+			final Random random = new Random(3);
+			this.string1 = Synthetic.words(random, this.words);
+			this.string2 = this.string1.substring(0, this.string1.length()/2) + " "
+						 + Synthetic.words(random, Math.max(1, this.words/2));
+		}
+
+	}
+
+	@State(Scope.Benchmark)
+	public static class Vectors {
+
+		/* number of (linked) pages of the vectors */
+		@Param({ "100", "1000", "10000" })
+		public int pages;
+
+		/* 0: a NUMBER attribute, 1: a STRING attribute */
+		@Param({ "0", "1" })
+		public int attribute;
+
+		private Vector vector1, vector2;
+
+		@Setup
+		public void setUp() {
+			final Experiment experiment = Synthetic.experiment(2, this.pages, 2, 4);
+			final Website s1 = experiment.getDomain().getSites().get(0);
+			final Website s2 = experiment.getDomain().getSites().get(1);
+			this.vector1 = s1.getAttributes().get(this.attribute).getVector();
+			this.vector2 = s2.getAttributes().get(this.attribute).getVector();
+		}
+
+	}
+
+	@Benchmark
+	public double jsDistance(Strings strings) {
+		return JSDISTANCE.distance(strings.string1, strings.string2);
+	}
+
+	@Benchmark
+	public double vectorDistance(Vectors vectors) {
+		return vectors.vector1.distance(vectors.vector2);
+	}
+
+}
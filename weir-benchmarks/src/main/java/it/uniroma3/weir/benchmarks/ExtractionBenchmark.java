@@ -0,0 +1,56 @@
+package it.uniroma3.weir.benchmarks;
+
+import it.uniroma3.weir.extraction.rule.ExtractionRule;
+import it.uniroma3.weir.extraction.rule.PositionalRule;
+import it.uniroma3.weir.fixture.WebpageFixture;
+import it.uniroma3.weir.model.Webpage;
+import it.uniroma3.weir.vector.value.ExtractedValue;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * {@link ExtractionRule#applyTo(Webpage)} over a page with a
+ * table of growing size: the rule extracts from its last row.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations=3, time=1)
+@Measurement(iterations=5, time=1)
+@Fork(value=1, jvmArgsAppend="-Djava.util.logging.manager=it.uniroma3.hlog.HypertextualLogManager")
+@State(Scope.Benchmark)
+public class ExtractionBenchmark {
+
+	@Param({ "10", "100", "1000" })
+	public int rows;
+
+	private Webpage page;
+
+	private ExtractionRule rule;
+
+	@Setup
+	public void setUp() {
+		Synthetic.configure();
+		this.page = WebpageFixture.webpages(Synthetic.tablePage(new Random(1), this.rows)).get(0);
+		this.rule = new PositionalRule("/HTML/BODY/TABLE/TBODY/TR["+this.rows+"]/TD[2]/text()");
+		this.rule.setWebsite(this.page.getWebsite());
+	}
+
+	@Benchmark
+	public ExtractedValue applyTo() {
+		return this.rule.applyTo(this.page);
+	}
+
+}
@@ -0,0 +1,63 @@
+package it.uniroma3.weir.benchmarks;
+
+import it.uniroma3.weir.MatchRepository;
+import it.uniroma3.weir.integration.AbstractIntegration;
+import it.uniroma3.weir.integration.PyramidBuilder;
+import it.uniroma3.weir.model.Experiment;
+import it.uniroma3.weir.model.MappingSet;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The pyramid of the matches between the attributes of a growing
+ * number of sites, by means of {@link PyramidBuilder}, and their
+ * integration into mappings, by means of {@link AbstractIntegration}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations=3, time=1)
+@Measurement(iterations=5, time=1)
+@Fork(value=1, jvmArgsAppend="-Djava.util.logging.manager=it.uniroma3.hlog.HypertextualLogManager")
+@State(Scope.Benchmark)
+public class IntegrationBenchmark {
+
+	static final private int PAGES = 100;
+
+	@Param({ "2", "4", "8" })
+	public int sites;
+
+	@Param({ "10", "40" })
+	public int attributes;
+
+	private Experiment experiment;
+
+	private MatchRepository matches;
+
+	@Setup
+	public void setUp() {
+		this.experiment = Synthetic.experiment(this.sites, PAGES, this.attributes, 6);
+		this.matches = new PyramidBuilder().uncachedComputation(this.experiment);
+	}
+
+	@Benchmark
+	public MatchRepository pyramid() {
+		return new PyramidBuilder().uncachedComputation(this.experiment);
+	}
+
+	@Benchmark
+	public MappingSet integrate() {
+		return new AbstractIntegration().integrate(this.matches);
+	}
+
+}
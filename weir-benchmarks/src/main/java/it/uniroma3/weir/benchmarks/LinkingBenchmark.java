@@ -0,0 +1,70 @@
+package it.uniroma3.weir.benchmarks;
+
+import it.uniroma3.weir.linking.entity.Entity;
+import it.uniroma3.weir.linking.entity.EntityFactory;
+import it.uniroma3.weir.linking.entity.ValueEntity;
+import it.uniroma3.weir.model.Domain;
+import it.uniroma3.weir.model.Webpage;
+import it.uniroma3.weir.model.Website;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The IDF-weighted similarity between two {@link ValueEntity}s,
+ * i.e., two pages of linked sites, publishing a growing number
+ * of attributes.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations=3, time=1)
+@Measurement(iterations=5, time=1)
+@Fork(value=1, jvmArgsAppend="-Djava.util.logging.manager=it.uniroma3.hlog.HypertextualLogManager")
+@State(Scope.Benchmark)
+public class LinkingBenchmark {
+
+	static final private int PAGES = 50;
+
+	@Param({ "5", "20", "80" })
+	public int attributes;
+
+	private Entity[] entities1, entities2;
+
+	private int next;
+
+	@Setup
+	public void setUp() {
+		final Domain domain = Synthetic.experiment(2, PAGES, this.attributes, 5).getDomain();
+		EntityFactory.VALUE_ENTITY.createEntities(domain);
+		this.entities1 = entities(domain.getSites().get(0));
+		this.entities2 = entities(domain.getSites().get(1));
+		this.next = 0;
+	}
+
+	static private Entity[] entities(Website site) {
+		final List<Webpage> pages = site.getWebpages();
+		final Entity[] result = new Entity[pages.size()];
+		for(int i=0; i<result.length; i++)
+			result[i] = pages.get(i).getEntity();
+		return result;
+	}
+
+	@Benchmark
+	public double idfSimilarity() {
+		final int i = this.next++ % PAGES;
+		return this.entities1[i].similarity(this.entities2[i]);
+	}
+
+}
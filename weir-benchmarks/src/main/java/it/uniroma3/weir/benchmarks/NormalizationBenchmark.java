@@ -0,0 +1,81 @@
+package it.uniroma3.weir.benchmarks;
+
+import it.uniroma3.weir.extraction.rule.ExtractionRule;
+import it.uniroma3.weir.extraction.rule.PositionalRule;
+import it.uniroma3.weir.fixture.VectorFixture;
+import it.uniroma3.weir.fixture.WebsiteFixture;
+import it.uniroma3.weir.model.Webpage;
+import it.uniroma3.weir.model.Website;
+import it.uniroma3.weir.vector.ExtractedVector;
+import it.uniroma3.weir.vector.Normalizer;
+import it.uniroma3.weir.vector.Vector;
+import it.uniroma3.weir.vector.VectorCaster;
+import it.uniroma3.weir.vector.type.Type;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * {@link Normalizer#normalize(ExtractedVector)}, and just the
+ * typing step of it, i.e., {@link VectorCaster#findMostSpecificType(String...)},
+ * over extracted vectors of growing size.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations=3, time=1)
+@Measurement(iterations=5, time=1)
+@Fork(value=1, jvmArgsAppend="-Djava.util.logging.manager=it.uniroma3.hlog.HypertextualLogManager")
+@State(Scope.Benchmark)
+public class NormalizationBenchmark {
+
+	@Param({ "100", "1000", "10000" })
+	public int size;
+
+	@Param({ "NUMBER", "STRING" })
+	public String type;
+
+	private ExtractedVector extracted;
+
+	private String[] stripped;
+
+	private VectorCaster caster;
+
+	@Setup
+	public void setUp() {
+		Synthetic.configure();
+		final Random random = new Random(2);
+		final Website site = WebsiteFixture.createWebsite(this.size);
+		final ExtractionRule rule = new PositionalRule("/HTML/BODY/text()");
+		rule.setWebsite(site);
+		final String[] values = Synthetic.extractedValues(random, Type.valueOf(this.type), this.size);
+		this.extracted = VectorFixture.createExtractedVector(rule,
+				site.getWebpages().toArray(new Webpage[0]), values);
+		this.stripped = new String[values.length];
+		for(int i=0; i<values.length; i++)
+			this.stripped[i] = values[i].substring("Value: ".length(), values[i].length()-" (more)".length());
+		this.caster = new VectorCaster();
+	}
+
+	@Benchmark
+	public Vector normalize() {
+		return new Normalizer().normalize(this.extracted);
+	}
+
+	@Benchmark
+	public Type findMostSpecificType() {
+		return this.caster.findMostSpecificType(this.stripped);
+	}
+
+}
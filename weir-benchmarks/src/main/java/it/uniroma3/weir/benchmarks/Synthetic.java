@@ -0,0 +1,163 @@
+package it.uniroma3.weir.benchmarks;
+
+import static it.uniroma3.weir.extraction.wrapper.DocumentFixtures._HTML_TABLE_;
+import static it.uniroma3.weir.vector.type.Type.NUMBER;
+import static it.uniroma3.weir.vector.type.Type.STRING;
+import it.uniroma3.weir.configuration.WeirConfig;
+import it.uniroma3.weir.fixture.VectorFixture;
+import it.uniroma3.weir.fixture.WebsiteFixture;
+import it.uniroma3.weir.fixture.WebsiteLinkageFixture;
+import it.uniroma3.weir.linking.linkage.DomainLinkage;
+import it.uniroma3.weir.linking.linkage.DomainLinkage.WebsiteLinkageBuilder;
+import it.uniroma3.weir.linking.linkage.WebsiteLinkage;
+import it.uniroma3.weir.model.Attribute;
+import it.uniroma3.weir.model.Domain;
+import it.uniroma3.weir.model.Experiment;
+import it.uniroma3.weir.model.Webpage;
+import it.uniroma3.weir.model.Website;
+import it.uniroma3.weir.vector.type.Type;
+
+import java.net.URL;
+import java.util.Random;
+
+import org.apache.commons.configuration.ConfigurationException;
+
+/**
+ * Synthetic, reproducible inputs for the benchmarks, built by
+ * means of the same fixtures used by the tests of WEIR.
+ */
+final class Synthetic {
+
+	static final private String WEIR_CONFIG_FILENAME = "weir-config.properties";
+
+	static final private String[] WORDS = {
+		"alpha", "bravo", "charlie", "delta", "echo", "foxtrot", "golf", "hotel",
+		"india", "juliet", "kilo", "lima", "mike", "november", "oscar", "papa",
+		"quebec", "romeo", "sierra", "tango", "uniform", "victor", "whiskey", "yankee"
+	};
+
+	/* the types of the synthetic attributes, in turn */
+	static final private Type[] TYPES = { NUMBER, STRING };
+
+	/* fraction of null values in a synthetic attribute */
+	static final private double NULLS = 0.1;
+
+	private Synthetic() { }
+
+	/**
+	 * Load the system-wide configuration of WEIR, once per JVM.
+	 */
+	static synchronized void configure() {
+		try {
+			WeirConfig.getInstance();
+		} catch (IllegalStateException notLoadedYet) {
+			final URL configURL = Synthetic.class.getClassLoader().getResource(WEIR_CONFIG_FILENAME);
+			try {
+				WeirConfig.load(configURL);
+			} catch (ConfigurationException cfgEx) {
+				throw new RuntimeException("Cannot read WEIR configuration: "+WEIR_CONFIG_FILENAME, cfgEx);
+			}
+		}
+	}
+
+	static String words(Random random, int n) {
+		final StringBuilder result = new StringBuilder();
+		for(int i=0; i<n; i++) {
+			if (i>0) result.append(' ');
+			result.append(WORDS[random.nextInt(WORDS.length)]);
+		}
+		return result.toString();
+	}
+
+	/**
+	 * @return n values of the given type, as extracted from a page,
+	 *         i.e., with a common prefix and suffix
+	 */
+	static String[] extractedValues(Random random, Type type, int n) {
+		final String[] values = new String[n];
+		for(int i=0; i<n; i++)
+			values[i] = "Value: " + value(random, type) + " (more)";
+		return values;
+	}
+
+	static private String value(Random random, Type type) {
+		if (type==NUMBER)
+			return Integer.toString(random.nextInt(100000));
+		return words(random, 1 + random.nextInt(4));
+	}
+
+	/**
+	 * @return the HTML source of a page with a table of the given rows
+	 */
+	static String tablePage(Random random, int rows) {
+		final StringBuilder table = new StringBuilder();
+		for(int i=0; i<rows; i++)
+			table.append("<TR><TD>").append(words(random, 2)).append("</TD>")
+			     .append("<TD>").append(random.nextInt(1000)).append("</TD></TR>");
+		return _HTML_TABLE_(table.toString());
+	}
+
+	/**
+	 * Make the (only) {@link Experiment} of this JVM over a synthetic
+	 * domain: every site publishes, with some noise and some nulls, the
+	 * same attributes of the same entities, in the same order; the
+	 * pages at the same position of any two sites are linked together.
+	 * @param sites - number of sites
+	 * @param pages - number of pages per site
+	 * @param attributes - number of attributes per site
+	 * @param seed - random seed
+	 * @return the experiment
+	 */
+	static Experiment experiment(int sites, final int pages, int attributes, long seed) {
+		configure();
+		final Experiment experiment = Experiment.makeExperiment("synthetic", "benchmark");
+		WeirConfig.getInstance().setCurrentExperiment(experiment);
+		final Domain domain = experiment.getDomain();
+		if (!domain.getSites().isEmpty())
+			throw new IllegalStateException("A synthetic domain has been already made: "+domain);
+
+		final Random random = new Random(seed);
+		final String[][] truth = new String[attributes][pages];
+		for(int a=0; a<attributes; a++)
+			for(int p=0; p<pages; p++)
+				truth[a][p] = value(random, TYPES[a % TYPES.length]);
+
+		for(int s=0; s<sites; s++) {
+			final Website site = WebsiteFixture.createWebsite(pages);
+			for(Webpage page : site.getWebpages())
+				site.addOverlapPage(page);
+			domain.addSite(site);
+			for(int a=0; a<attributes; a++) {
+				final Type type = TYPES[a % TYPES.length];
+				final String[] values = new String[pages];
+				for(int p=0; p<pages; p++)
+					values[p] = noisy(random, type, truth[a][p]);
+				site.addAttribute(new Attribute(VectorFixture.createVector(site, type, values)));
+			}
+		}
+
+		final int[][] links = new int[pages][];
+		for(int p=0; p<pages; p++)
+			links[p] = new int[] { p, p };
+		final DomainLinkage linkages = new DomainLinkage(domain, new WebsiteLinkageBuilder() {
+
+			static final private long serialVersionUID = -2127302476003404541L;
+
+			@Override
+			public WebsiteLinkage createPair(Website s1, Website s2) {
+				return WebsiteLinkageFixture.createWebsiteLinkage(s1, s2, links);
+			}
+
+		});
+		experiment.getAbstractRelation().setLinkages(linkages);
+		return experiment;
+	}
+
+	static private String noisy(Random random, Type type, String value) {
+		if (random.nextDouble()<NULLS) return null;
+		if (type==NUMBER)
+			return Long.toString(Math.round(Integer.parseInt(value) * (0.95 + random.nextDouble()/10)));
+		return ( random.nextBoolean() ? value : value + " " + words(random, 1) );
+	}
+
+}